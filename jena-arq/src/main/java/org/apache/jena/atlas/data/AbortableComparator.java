@@ -51,16 +51,67 @@ public final class AbortableComparator<E> implements Comparator<E> {
     /**
      * Sort the array <code>e</code> using this comparator with the additional
      * ability to abort the sort.
+     * <p>
+     * If the comparator is a {@link KeyedComparator}, the keys are calculated once
+     * for each item and the sort is done in parallel. The keys, and the detached
+     * items ({@link KeyedComparator#detach}) that replace the items in the array, are
+     * made on the calling thread because they may need the state of that thread, such
+     * as a transaction.
      */
     public Finish abortableSort(E[] e) {
         try {
-            Arrays.sort(e, this);
+            if ( baseComparator instanceof KeyedComparator<?,?> )
+                keyedSort(e);
+            else
+                Arrays.sort(e, this);
         } catch (AbandonSort s) {
             return Finish.ABORTED;
         }
         return Finish.COMPLETED;
     }
 
+    @SuppressWarnings("unchecked")
+    private void keyedSort(E[] e) {
+        KeyedComparator<E, Object> keyed = (KeyedComparator<E, Object>)baseComparator;
+        Keyed<E>[] array = new Keyed[e.length];
+        for ( int i = 0 ; i < e.length ; i++ ) {
+            if ( cancelled )
+                throw new AbandonSort();
+            array[i] = new Keyed<>(keyed.key(e[i]), keyed.detach(e[i]));
+        }
+        Arrays.parallelSort(array, (k1, k2)->{
+            if ( cancelled )
+                throw new AbandonSort();
+            return keyed.compare(k1.key, k1.item, k2.key, k2.item);
+        });
+        for ( int i = 0 ; i < e.length ; i++ )
+            e[i] = array[i].item;
+    }
+
+    /** The key of an item, if this comparator sorts by keys, else null. */
+    @SuppressWarnings("unchecked")
+    /*package*/ Object key(E item) {
+        if ( baseComparator instanceof KeyedComparator<?,?> )
+            return ((KeyedComparator<E, Object>)baseComparator).key(item);
+        return null;
+    }
+
+    /** Compare items with keys from {@link #key}. */
+    @SuppressWarnings("unchecked")
+    /*package*/ int compare(Object key1, E item1, Object key2, E item2) {
+        if ( cancelled )
+            throw new AbandonSort();
+        if ( baseComparator instanceof KeyedComparator<?,?> )
+            return ((KeyedComparator<E, Object>)baseComparator).compare(key1, item1, key2, item2);
+        return baseComparator.compare(item1, item2);
+    }
+
+    private static class Keyed<E> {
+        final Object key;
+        final E item;
+        Keyed(Object key, E item) { this.key = key; this.item = item; }
+    }
+
     /**
      * Arrange that the next on-frequency cancellation test in compare will
      * succeed, aborting the sort.
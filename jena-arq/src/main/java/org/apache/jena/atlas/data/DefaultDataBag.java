@@ -145,7 +145,8 @@ public class DefaultDataBag<E> extends AbstractDataBag<E> {
         closeWriter();
 
         // Create a new reader
-        if ( policy.isThresholdExceeded() ) {
+        // The threshold may have been reached without spilling (no items added since).
+        if ( spilled ) {
             File spillFile = getSpillFiles().get(0);
 
             InputStream in;
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.atlas.data;
+
+import java.util.Comparator;
+
+/**
+ * A comparator that compares items by a key calculated from each item.
+ * Sorting that knows about this interface ({@link AbortableComparator#abortableSort},
+ * {@link SortedDataBag}) calculates the key once for each item, not on each comparison.
+ * <p>
+ * {@link #key} and {@link #detach} are called on the thread that provides the items.
+ * {@link #compare(Object, Object, Object, Object)} may then be called from several
+ * threads at once, with detached items.
+ */
+public interface KeyedComparator<E, K> extends Comparator<E> {
+
+    /** The sort key of an item. */
+    public K key(E item);
+
+    /**
+     * An item, equal to the argument, that can be used on any thread. Items may depend
+     * on the state of the thread that provides them, such as a transaction.
+     * The default is the item itself.
+     */
+    public default E detach(E item) {
+        return item;
+    }
+
+    /** Compare two items, given their keys. */
+    public int compare(K key1, E item1, K key2, E item2);
+
+    @Override
+    public default int compare(E item1, E item2) {
+        return compare(key(item1), item1, key(item2), item2);
+    }
+}
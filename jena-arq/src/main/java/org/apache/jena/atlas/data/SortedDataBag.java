@@ -54,6 +54,12 @@ import org.apache.jena.atlas.lib.Sink;
  * is time to spill, that data is sorted and written to disk. An iterator will
  * read in each file and perform a merge-sort as the results are returned.
  * </p>
+ * <p>
+ * If the comparator is a {@link KeyedComparator}, sort keys are calculated once
+ * for each item, both for sorting and for merging, and each spill is sorted in
+ * parallel. Keys are calculated, and items detached from the state of the calling
+ * thread (such as a transaction), on the calling thread, which also writes the spill.
+ * </p>
  */
 public class SortedDataBag<E> extends AbstractDataBag<E> {
     /**
@@ -141,31 +147,34 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
             } catch (IOException e) {
                 throw new AtlasException(e);
             }
-
-            // Sort the tuples as an array. The CanAbortComparator will sort
-            // the array using Arrays.sort. The cast to E[] is safe. If the sort is
-            // aborted, don't bother messing around with the serialisation.
-            // We'll never get around to using it anyway.
-
             E[] array = (E[])memory.toArray();
-            if ( comparator.abortableSort(array) == Finish.COMPLETED ) {
-                Sink<E> serializer = serializationFactory.createSerializer(out);
-                try {
-                    for ( Object tuple : array ) {
-                        serializer.send((E)tuple);
-                    }
-                }
-                finally {
-                    serializer.close();
-                }
-            }
-
+            writeSpill(array, out);
             spilled = true;
             policy.reset();
             memory.clear();
         }
     }
 
+    private void writeSpill(E[] array, OutputStream out) {
+        // Sort the tuples as an array. The CanAbortComparator will sort
+        // the array using Arrays.sort. If the sort is
+        // aborted, don't bother messing around with the serialisation.
+        // We'll never get around to using it anyway.
+        if ( comparator.abortableSort(array) == Finish.COMPLETED ) {
+            Sink<E> serializer = serializationFactory.createSerializer(out);
+            try {
+                for ( E tuple : array ) {
+                    serializer.send(tuple);
+                }
+            }
+            finally {
+                serializer.close();
+            }
+        } else {
+            try { out.close(); } catch (IOException ex) { throw new AtlasException(ex); }
+        }
+    }
+
     @Override
     public void flush() {
         spill();
@@ -296,11 +305,16 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
         private final List<Iterator<T>> inputs;
         private final Comparator<? super T> comp;
         private final PriorityQueue<Item<T>> minHeap;
+        // Sort keys are calculated once as each item is read.
+        private final AbortableComparator<T> keyedComp;
 
         public SpillSortIterator(List<Iterator<T>> inputs, Comparator<? super T> comp) {
             this.inputs = inputs;
             this.comp = comp;
             this.minHeap = new PriorityQueue<>(inputs.size());
+            @SuppressWarnings("unchecked")
+            AbortableComparator<T> ac = ( comp instanceof AbortableComparator<?> ) ? (AbortableComparator<T>)comp : null;
+            this.keyedComp = ( ac != null && ac.baseComparator instanceof KeyedComparator<?,?> ) ? ac : null;
 
             // Prime the heap
             for ( int i = 0 ; i < inputs.size() ; i++ ) {
@@ -312,7 +326,8 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
             Iterator<T> it = inputs.get(index);
             if ( it.hasNext() ) {
                 T tuple = it.next();
-                minHeap.add(new Item<>(index, tuple, comp));
+                Object key = ( keyedComp == null ) ? null : keyedComp.key(tuple);
+                minHeap.add(new Item<>(index, tuple, key));
             }
         }
 
@@ -349,12 +364,12 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
         private final class Item<U> implements Comparable<Item<U>> {
             private final int index;
             private final U tuple;
-            private final Comparator<? super U> c;
+            private final Object key;
 
-            public Item(int index, U tuple, Comparator<? super U> c) {
+            public Item(int index, U tuple, Object key) {
                 this.index = index;
                 this.tuple = tuple;
-                this.c = c;
+                this.key = key;
             }
 
             public int getIndex() {
@@ -368,6 +383,9 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
             @Override
             @SuppressWarnings("unchecked")
             public int compareTo(Item<U> o) {
+                if ( keyedComp != null )
+                    return keyedComp.compare(key, (T)tuple, o.key, (T)o.getTuple());
+                Comparator<? super U> c = (Comparator<? super U>)comp;
                 return (null != c) ? c.compare(tuple, o.getTuple()) : ((Comparable<U>)tuple).compareTo(o.getTuple());
             }
 
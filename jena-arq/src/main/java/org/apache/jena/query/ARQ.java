@@ -303,17 +303,69 @@ public class ARQ
      * choosing the value.
      * <p/>
      * Operations currently affected by this symbol: <br>
-     * ORDER BY, SPARQL Update, CONSTRUCT (optionally)
+     * ORDER BY, DISTINCT, GROUP BY, hash joins, SPARQL Update, CONSTRUCT (optionally)
      * <p/>
      * TODO: Give a reasonable suggested value here.  10,000?
      * <p/>
      * @see <a href="https://issues.apache.org/jira/browse/JENA-119">JENA-119</a>
      */
     // Some possible additions to the list:
-    // Sort: DISTINCT, merge joins<br>
-    // Hash table: GROUP BY, MINUS, SERVICE, VALUES, and hash joins <br>
+    // Sort: merge joins<br>
+    // Hash table: MINUS, SERVICE, VALUES <br>
     public static final Symbol spillToDiskThreshold = SystemARQ.allocSymbol("spillToDiskThreshold") ;
 
+    /**
+     * Context key controlling whether independent parts of a query are evaluated in
+     * parallel: the branches of a UNION, and the right hand side of a join while the
+     * left hand side is read into the hash join probe table.
+     * Results are returned in the same order as sequential evaluation.
+     * <p>
+     * Transactions are per-thread, so inside a transaction only SERVICE branches
+     * are evaluated on other threads.
+     * <p>By default, this is not applied.
+     */
+    public static final Symbol parallelExecution = SystemARQ.allocSymbol("parallelExecution") ;
+
+    /**
+     * Context key controlling whether query plans, the algebra expression after
+     * optimization, are cached for each dataset and reused when the same query is
+     * executed again.
+     * <p>By default, this is not applied.
+     * @see org.apache.jena.sparql.engine.PlanCache
+     */
+    public static final Symbol planCache = SystemARQ.allocSymbol("planCache") ;
+
+    /**
+     * Context key for the number of input bindings sent in one SERVICE request.
+     * When greater than one, SERVICE with a fixed service IRI is executed as a
+     * bind-join: the input bindings are sent in blocks as a {@code VALUES} table joined
+     * to the SERVICE pattern, instead of one request per binding.
+     * <p>
+     * This is not the same as substituting each binding when the pattern has
+     * variables that are not in scope throughout (for example, in {@code OPTIONAL} or
+     * {@code FILTER} inside a subquery).
+     * <p>By default, this is not applied.
+     * @see #serviceConcurrency
+     */
+    public static final Symbol serviceBatchSize = SystemARQ.allocSymbol("serviceBatchSize") ;
+
+    /**
+     * Context key for the number of SERVICE blocks requested at the same time
+     * when {@link #serviceBatchSize} is set. Default 4.
+     */
+    public static final Symbol serviceConcurrency = SystemARQ.allocSymbol("serviceConcurrency") ;
+
+    /**
+     * Context key to keep the nodes reachable by a transitive closure ({@code path*})
+     * from a node for the rest of the query execution, so that the closure is not
+     * evaluated again for later bindings.
+     * <p>
+     * The cache holds up to {@link org.apache.jena.sparql.path.eval.PathCache#MaxSize}
+     * reachability sets, each of which may be large.
+     * <p>By default, this is not applied.
+     */
+    public static final Symbol pathCache = SystemARQ.allocSymbol("pathCache") ;
+
     // Optimizer controls.
 
     /**
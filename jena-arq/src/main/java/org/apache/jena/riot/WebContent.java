@@ -133,6 +133,10 @@ public class WebContent {
     public static final String      contentTypeResultsThrift     = "application/sparql-results+thrift" ;
     public static final ContentType ctResultsThrift              = ContentType.create(contentTypeResultsThrift) ;
 
+    // Unofficial
+    public static final String      contentTypeResultsColumnar   = "application/sparql-results+columnar" ;
+    public static final ContentType ctResultsColumnar            = ContentType.create(contentTypeResultsColumnar) ;
+
     public static final String contentTypeSPARQLQuery = "application/sparql-query";
     public static final ContentType ctSPARQLQuery = ContentType.create(contentTypeSPARQLQuery);
 
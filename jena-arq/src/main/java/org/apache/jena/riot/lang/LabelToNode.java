@@ -49,6 +49,15 @@ public class LabelToNode extends MapWithScope<String, Node, Node>
     public static LabelToNode createScopeByDocumentHash(UUID seed)
     { return new LabelToNode(new AllocScopePolicy(), nodeAllocatorHash(seed)) ; }
 
+    /**
+     * Allocation for one part of a document when the parts are parsed separately.
+     * Labels are allocated from the seed, so the same label is the same blank node
+     * in every part. Fresh blank nodes (no label) are unique to this LabelToNode.
+     * @param seed Seed shared by the parts of the document
+     */
+    public static LabelToNode createScopeByDocumentPart(UUID seed)
+    { return new LabelToNode(new AllocScopePolicy(), nodeAllocatorHashPart(seed)) ; }
+
     /** The policy up to jena 2.10.0 - problems at very large scale */
     public static LabelToNode createScopeGlobal()
     { return new LabelToNode(new SingleScopePolicy(), nodeAllocatorGlobal()) ; }
@@ -97,6 +106,24 @@ public class LabelToNode extends MapWithScope<String, Node, Node>
         return new Alloc(new BlankNodeAllocatorFixedSeedHash(seed)) ;
     }
 
+    private static Allocator<String, Node, Node> nodeAllocatorHashPart(UUID seed) {
+        BlankNodeAllocator labels = new BlankNodeAllocatorFixedSeedHash(seed) ;
+        BlankNodeAllocator fresh = new BlankNodeAllocatorHash() ;
+        return new Allocator<String, Node, Node>() {
+            @Override
+            public Node alloc(Node scope, String label) { return labels.alloc(label) ; }
+
+            @Override
+            public Node create()                        { return fresh.create() ; }
+
+            @Override
+            public void reset() {
+                labels.reset() ;
+                fresh.reset() ;
+            }
+        } ;
+    }
+
     private static Allocator<String, Node, Node> nodeAllocatorDeterministic() {
         return new Alloc(new BlankNodeAllocatorLabel()) ;
     }
@@ -0,0 +1,613 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.lang;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.ErrorHandler;
+import org.apache.jena.riot.system.ParserProfile;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.tokens.Token;
+import org.apache.jena.riot.tokens.Tokenizer;
+import org.apache.jena.riot.tokens.TokenizerText;
+import org.apache.jena.riot.tokens.TokenizerWrapper;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * N-Triples and N-Quads parser that works directly on the UTF-8 bytes of the input,
+ * without creating tokens. Terms are passed to the {@link ParserProfile} as for
+ * {@link LangNTriples} and {@link LangNQuads}. IRIs are decoded once for each
+ * entry in a small cache.
+ * <p>
+ * This parser handles the usual form of N-Triples: one statement on a line, ASCII
+ * IRIs and blank node labels, and double-quoted strings. When it finds anything
+ * else, including any syntax error, it switches to {@link LangNTriples} or
+ * {@link LangNQuads} for the rest of the input, so the syntax accepted, warnings
+ * and errors are the same.
+ */
+public final class LangNTuplesBytes implements LangRIOT
+{
+    private static final int BufferSize = 128*1024;
+    // Power of 2.
+    private static final int IRICacheSize = 1024;
+
+    private static final int IRI    = 1;
+    private static final int BNODE  = 2;
+    private static final int STRING = 3;
+    private static final int LANG   = 4;
+    private static final int DT     = 5;
+
+    private final InputStream input;
+    private final boolean quads;
+    private final ParserProfile profile;
+    private final StreamRDF dest;
+
+    private byte[] buffer = new byte[BufferSize];
+    private int start = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    // Line number of the line at "start".
+    private long line = 1;
+
+    // The terms of the statement being parsed.
+    private final int[] termType = new int[4];
+    private final String[] termStr = new String[4];
+    private final String[] termStr2 = new String[4];
+    private final int[] termCol = new int[4];
+    // Last column calculated, for positions moving along a line.
+    private long colLine = -1;
+    private int colLineStart = -1;
+    private int colPos = -1;
+    private int colValue = -1;
+    private boolean hasGraph = false;
+
+    private final byte[][] iriKeys = new byte[IRICacheSize][];
+    private final String[] iriValues = new String[IRICacheSize];
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final StringBuilder stringBuilder = new StringBuilder();
+
+    public LangNTuplesBytes(InputStream input, Lang lang, ParserProfile profile, StreamRDF dest) {
+        this.input = input;
+        this.quads = RDFLanguages.sameLang(RDFLanguages.NQUADS, lang);
+        this.profile = profile;
+        this.dest = dest;
+    }
+
+    @Override
+    public Lang getLang() {
+        return quads ? RDFLanguages.NQUADS : RDFLanguages.NTRIPLES;
+    }
+
+    @Override
+    public void parse() {
+        dest.start();
+        try {
+            runParser();
+        } finally {
+            dest.finish();
+            IO.close(input);
+        }
+    }
+
+    private void runParser() {
+        skipBOM();
+        int searchFrom = start;
+        for ( ;; ) {
+            int nl = indexOfNL(searchFrom);
+            if ( nl < 0 && ! eof ) {
+                int done = limit - start;
+                fill();
+                searchFrom = start + done;
+                continue;
+            }
+            if ( start == limit )
+                return;
+            int lineEnd = ( nl < 0 ) ? limit : nl;
+            if ( ! parseLine(start, lineEnd) )
+                // Switched parser, which has done the rest of the input.
+                return;
+            if ( nl < 0 )
+                return;
+            start = nl+1;
+            searchFrom = start;
+            line++;
+        }
+    }
+
+    private void skipBOM() {
+        while ( limit < 3 && ! eof )
+            fill();
+        if ( limit >= 3 && buffer[0] == (byte)0xEF && buffer[1] == (byte)0xBB && buffer[2] == (byte)0xBF )
+            start = 3;
+    }
+
+    private int indexOfNL(int from) {
+        for ( int i = from ; i < limit ; i++ ) {
+            if ( buffer[i] == '\n' )
+                return i;
+        }
+        return -1;
+    }
+
+    // Move the unprocessed bytes to the start of the buffer, and read more.
+    private void fill() {
+        if ( start > 0 ) {
+            System.arraycopy(buffer, start, buffer, 0, limit-start);
+            limit -= start;
+            start = 0;
+        }
+        if ( limit == buffer.length )
+            buffer = Arrays.copyOf(buffer, 2*buffer.length);
+        try {
+            int n = input.read(buffer, limit, buffer.length-limit);
+            if ( n < 0 )
+                eof = true;
+            else
+                limit += n;
+        } catch (IOException ex) { throw new RuntimeIOException(ex); }
+    }
+
+    /** Parse a line. Return false if the parser switched. */
+    private boolean parseLine(int lineStart, int lineEnd) {
+        if ( lineEnd > lineStart && buffer[lineEnd-1] == '\r' )
+            lineEnd--;
+        int pos = lineStart;
+        for ( ;; ) {
+            pos = skipWS(pos, lineEnd);
+            if ( pos == lineEnd || buffer[pos] == '#' )
+                return true;
+            int x = scanStatement(pos, lineStart, lineEnd);
+            if ( x < 0 ) {
+                switchParser(pos, lineStart);
+                return false;
+            }
+            emit();
+            pos = x;
+        }
+    }
+
+    private int skipWS(int pos, int end) {
+        while ( pos < end && ( buffer[pos] == ' ' || buffer[pos] == '\t' ) )
+            pos++;
+        return pos;
+    }
+
+    /** Scan a statement, recording the terms. Return the position after the DOT or -1. */
+    private int scanStatement(int pos, int lineStart, int lineEnd) {
+        pos = scanTerm(pos, lineStart, lineEnd, 0);
+        if ( pos < 0 || termType[0] > BNODE )
+            return -1;
+        pos = scanTerm(skipWS(pos, lineEnd), lineStart, lineEnd, 1);
+        if ( pos < 0 || termType[1] != IRI )
+            return -1;
+        pos = scanTerm(skipWS(pos, lineEnd), lineStart, lineEnd, 2);
+        if ( pos < 0 )
+            return -1;
+        pos = skipWS(pos, lineEnd);
+        hasGraph = false;
+        if ( quads && pos < lineEnd && ( buffer[pos] == '<' || buffer[pos] == '_' ) ) {
+            pos = scanTerm(pos, lineStart, lineEnd, 3);
+            if ( pos < 0 || termType[3] > BNODE )
+                return -1;
+            hasGraph = true;
+            pos = skipWS(pos, lineEnd);
+        }
+        if ( pos < lineEnd && buffer[pos] == '.' )
+            return pos+1;
+        return -1;
+    }
+
+    /** Scan an RDF term. Return the position after the term or -1. */
+    private int scanTerm(int pos, int lineStart, int lineEnd, int idx) {
+        if ( pos >= lineEnd )
+            return -1;
+        termCol[idx] = column(lineStart, pos);
+        switch (buffer[pos]) {
+            case '<': {
+                if ( pos+1 < lineEnd && buffer[pos+1] == '<' )
+                    // RDF-star
+                    return -1;
+                int x = scanIRI(pos+1, lineEnd);
+                if ( x < 0 )
+                    return -1;
+                termType[idx] = IRI;
+                termStr[idx] = iri(pos+1, x-1);
+                return x;
+            }
+            case '_': {
+                if ( pos+2 >= lineEnd || buffer[pos+1] != ':' || ! isLabelStart(buffer[pos+2]) )
+                    return -1;
+                int x = pos+3;
+                while ( x < lineEnd && ( isLabelChar(buffer[x]) || buffer[x] == '.' ) )
+                    x++;
+                // DOT can't be last.
+                while ( buffer[x-1] == '.' )
+                    x--;
+                termType[idx] = BNODE;
+                termStr[idx] = new String(buffer, pos+2, x-pos-2, StandardCharsets.ISO_8859_1);
+                return x;
+            }
+            case '"':
+                return scanLiteral(pos, lineEnd, idx);
+            default:
+                return -1;
+        }
+    }
+
+    /** Scan the rest of an IRI. Return the position after the closing '>' or -1. */
+    private int scanIRI(int pos, int lineEnd) {
+        for ( ; pos < lineEnd ; pos++ ) {
+            byte b = buffer[pos];
+            if ( b == '>' )
+                return pos+1;
+            if ( ! isIRIChar(b) )
+                return -1;
+        }
+        return -1;
+    }
+
+    private int scanLiteral(int pos, int lineEnd, int idx) {
+        if ( pos+2 < lineEnd && buffer[pos+1] == '"' && buffer[pos+2] == '"' )
+            // Long string.
+            return -1;
+        boolean simple = true;
+        int x = pos+1;
+        for ( ;; ) {
+            if ( x >= lineEnd )
+                return -1;
+            byte b = buffer[x];
+            if ( b == '"' )
+                break;
+            if ( b == '\\' ) {
+                simple = false;
+                x += 2;
+                continue;
+            }
+            if ( b == '\r' )
+                return -1;
+            if ( b < 0 )
+                simple = false;
+            x++;
+        }
+        String lex = simple
+            ? new String(buffer, pos+1, x-pos-1, StandardCharsets.ISO_8859_1)
+            : decodeString(pos+1, x);
+        if ( lex == null )
+            return -1;
+        termStr[idx] = lex;
+        x++;
+        if ( x < lineEnd && buffer[x] == '@' ) {
+            int y = x+1;
+            while ( y < lineEnd && isA2Z(buffer[y]) )
+                y++;
+            if ( y == x+1 )
+                return -1;
+            while ( y < lineEnd && buffer[y] == '-' ) {
+                int z = y+1;
+                while ( z < lineEnd && ( isA2Z(buffer[z]) || isDigit(buffer[z]) ) )
+                    z++;
+                if ( z == y+1 )
+                    return -1;
+                y = z;
+            }
+            termType[idx] = LANG;
+            termStr2[idx] = new String(buffer, x+1, y-x-1, StandardCharsets.ISO_8859_1).intern();
+            return y;
+        }
+        if ( x < lineEnd && buffer[x] == '^' ) {
+            if ( x+3 >= lineEnd || buffer[x+1] != '^' || buffer[x+2] != '<' || buffer[x+3] == '<' )
+                return -1;
+            int y = scanIRI(x+3, lineEnd);
+            if ( y < 0 )
+                return -1;
+            termType[idx] = DT;
+            termStr2[idx] = iri(x+3, y-1);
+            return y;
+        }
+        // Whitespace then @ or ^^ is legal.
+        int y = skipWS(x, lineEnd);
+        if ( y < lineEnd && ( buffer[y] == '@' || buffer[y] == '^' ) )
+            return -1;
+        termType[idx] = STRING;
+        return x;
+    }
+
+    /** Decode a string with escapes or non-ASCII characters. Return null if not handled. */
+    private String decodeString(int pos, int end) {
+        StringBuilder sb = stringBuilder;
+        sb.setLength(0);
+        int runStart = pos;
+        int x = pos;
+        while ( x < end ) {
+            if ( buffer[x] != '\\' ) {
+                x++;
+                continue;
+            }
+            if ( ! appendUTF8(sb, runStart, x) )
+                return null;
+            byte c = buffer[x+1];
+            x += 2;
+            switch (c) {
+                case 'n':  sb.append('\n'); break;
+                case 'r':  sb.append('\r'); break;
+                case 't':  sb.append('\t'); break;
+                case 'f':  sb.append('\f'); break;
+                case 'b':  sb.append('\b'); break;
+                case '"':  sb.append('"');  break;
+                case '\'': sb.append('\''); break;
+                case '\\': sb.append('\\'); break;
+                case 'u':
+                case 'U': {
+                    int n = ( c == 'u' ) ? 4 : 8;
+                    if ( x+n > end )
+                        return null;
+                    int cp = 0;
+                    for ( int i = 0 ; i < n ; i++ ) {
+                        int d = Character.digit(buffer[x+i], 16);
+                        if ( d < 0 )
+                            return null;
+                        cp = (cp << 4) + d;
+                    }
+                    if ( cp < 0 || cp > Character.MAX_CODE_POINT )
+                        return null;
+                    if ( cp <= 0xFFFF )
+                        sb.append((char)cp);
+                    else
+                        sb.appendCodePoint(cp);
+                    x += n;
+                    break;
+                }
+                default:
+                    return null;
+            }
+            runStart = x;
+        }
+        if ( ! appendUTF8(sb, runStart, end) )
+            return null;
+        return sb.toString();
+    }
+
+    // Raw replacement characters and bad UTF-8 are left to the tokenizer.
+    private boolean appendUTF8(StringBuilder sb, int pos, int end) {
+        boolean ascii = true;
+        for ( int i = pos ; i < end ; i++ ) {
+            if ( buffer[i] < 0 ) {
+                ascii = false;
+                break;
+            }
+        }
+        if ( ascii ) {
+            for ( int i = pos ; i < end ; i++ )
+                sb.append((char)buffer[i]);
+            return true;
+        }
+        try {
+            CharBuffer cb = decoder.decode(ByteBuffer.wrap(buffer, pos, end-pos));
+            for ( int i = cb.position() ; i < cb.limit() ; i++ ) {
+                if ( cb.get(i) == '\uFFFD' )
+                    return false;
+            }
+            sb.append(cb);
+            return true;
+        } catch (CharacterCodingException ex) {
+            return false;
+        }
+    }
+
+    private String iri(int pos, int end) {
+        int hash = 1;
+        for ( int i = pos ; i < end ; i++ )
+            hash = 31*hash + buffer[i];
+        int idx = (hash ^ (hash >>> 16)) & (IRICacheSize-1);
+        byte[] key = iriKeys[idx];
+        if ( key != null && Arrays.equals(key, 0, key.length, buffer, pos, end) )
+            return iriValues[idx];
+        String str = new String(buffer, pos, end-pos, StandardCharsets.ISO_8859_1);
+        iriKeys[idx] = Arrays.copyOfRange(buffer, pos, end);
+        iriValues[idx] = str;
+        return str;
+    }
+
+    private void emit() {
+        if ( ! quads ) {
+            Node s = node(null, 0);
+            Node p = node(null, 1);
+            Node o = node(null, 2);
+            Triple triple = profile.createTriple(s, p, o, line, termCol[0]);
+            dest.triple(triple);
+            return;
+        }
+        // Graph node first, for the blank node label scope.
+        Node g = hasGraph ? node(null, 3) : Quad.defaultGraphNodeGenerated;
+        Node scope = hasGraph ? g : null;
+        Node s = node(scope, 0);
+        Node p = node(scope, 1);
+        Node o = node(scope, 2);
+        Quad quad = profile.createQuad(g, s, p, o, line, termCol[0]);
+        dest.quad(quad);
+    }
+
+    private Node node(Node scope, int idx) {
+        long col = termCol[idx];
+        switch (termType[idx]) {
+            case IRI:    return profile.createURI(termStr[idx], line, col);
+            case BNODE:  return profile.createBlankNode(scope, termStr[idx], line, col);
+            case STRING: return profile.createStringLiteral(termStr[idx], line, col);
+            case LANG:   return profile.createLangLiteral(termStr[idx], termStr2[idx], line, col);
+            case DT: {
+                String uriStr = profile.resolveIRI(termStr2[idx], line, col);
+                RDFDatatype dt = NodeFactory.getType(uriStr);
+                return profile.createTypedLiteral(termStr[idx], dt, line, col);
+            }
+            default:
+                throw new IllegalStateException("Term type: "+termType[idx]);
+        }
+    }
+
+    private static boolean isIRIChar(byte b) {
+        if ( b <= 0x20 || b >= 0x7F )
+            return false;
+        switch (b) {
+            case '<': case '"': case '{': case '}': case '|': case '^': case '`': case '\\':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static boolean isA2Z(byte b) {
+        return ( b >= 'a' && b <= 'z' ) || ( b >= 'A' && b <= 'Z' );
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isLabelStart(byte b) {
+        return isA2Z(b) || isDigit(b) || b == '_';
+    }
+
+    private static boolean isLabelChar(byte b) {
+        return isLabelStart(b) || b == '-';
+    }
+
+    /**
+     * The column of a position in the current line, counted in characters (UTF-16
+     * code units) as the tokenizer does, not in bytes. Columns start at 1.
+     */
+    private int column(int lineStart, int pos) {
+        int i = lineStart;
+        int col = 1;
+        if ( colLine == line && colLineStart == lineStart && colPos <= pos ) {
+            i = colPos;
+            col = colValue;
+        }
+        for ( ; i < pos ; i++ ) {
+            int b = buffer[i] & 0xFF;
+            // Skip continuation bytes; 4 byte sequences are a surrogate pair.
+            if ( ( b & 0xC0 ) != 0x80 )
+                col += ( b >= 0xF0 ) ? 2 : 1;
+        }
+        colLine = line;
+        colLineStart = lineStart;
+        colPos = pos;
+        colValue = col;
+        return col;
+    }
+
+    // ---- Switch to the tokenizer-based parser.
+
+    private void switchParser(int pos, int lineStart) {
+        long lineOffset = line-1;
+        long colOffset = column(lineStart, pos)-1;
+        InputStream rest = new SequenceInputStream(new ByteArrayInputStream(buffer, pos, limit-pos), input);
+        Tokenizer tokenizer = TokenizerText.create()
+                .source(rest)
+                .errorHandler(shiftErrorHandler(profile.getErrorHandler(), lineOffset, colOffset))
+                .build();
+        Tokenizer tokens = new TokenizerWrapper(tokenizer) {
+            @Override public Token next() { return shift(super.next(), lineOffset, colOffset); }
+            @Override public Token peek() { return shift(super.peek(), lineOffset, colOffset); }
+            @Override public long getLine() { return super.getLine() + lineOffset; }
+        };
+        try {
+            if ( quads ) {
+                LangNQuads parser = new LangNQuads(tokens, profile, dest);
+                while ( parser.hasNext() ) {
+                    Quad quad = parser.next();
+                    if ( quad != null )
+                        dest.quad(quad);
+                }
+            } else {
+                LangNTriples parser = new LangNTriples(tokens, profile, dest);
+                while ( parser.hasNext() ) {
+                    Triple triple = parser.next();
+                    if ( triple != null )
+                        dest.triple(triple);
+                }
+            }
+        } finally {
+            tokens.close();
+        }
+    }
+
+    // Line and column in the whole input.
+    private static Token shift(Token token, long lineOffset, long colOffset) {
+        if ( token == null )
+            return null;
+        long col = ( token.getLine() == 1 ) ? token.getColumn()+colOffset : token.getColumn();
+        Token x = new Token(token.getLine()+lineOffset, col);
+        x.setType(token.getType());
+        x.setImage(token.getImage());
+        x.setImage2(token.getImage2());
+        x.setCntrlCode(token.getCntrlCode());
+        x.setStringType(token.getStringType());
+        x.setSubToken1(shift(token.getSubToken1(), lineOffset, colOffset));
+        x.setSubToken2(shift(token.getSubToken2(), lineOffset, colOffset));
+        return x;
+    }
+
+    private static ErrorHandler shiftErrorHandler(ErrorHandler handler, long lineOffset, long colOffset) {
+        return new ErrorHandler() {
+            @Override
+            public void warning(String message, long line, long col) {
+                handler.warning(message, shiftLine(line), shiftCol(line, col));
+            }
+
+            @Override
+            public void error(String message, long line, long col) {
+                handler.error(message, shiftLine(line), shiftCol(line, col));
+            }
+
+            @Override
+            public void fatal(String message, long line, long col) {
+                handler.fatal(message, shiftLine(line), shiftCol(line, col));
+            }
+
+            private long shiftLine(long line) {
+                return line < 0 ? line : line + lineOffset;
+            }
+
+            private long shiftCol(long line, long col) {
+                return ( line == 1 && col >= 0 ) ? col + colOffset : col;
+            }
+        };
+    }
+}
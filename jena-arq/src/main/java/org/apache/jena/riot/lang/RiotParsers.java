@@ -52,13 +52,12 @@ public class RiotParsers {
             Tokenizer tokenizer = new TokenizerJSON(PeekReader.makeUTF8(input));
             return createParserRdfJson(tokenizer, dest, profile);
         }
+        // N-Triples and N-Quads from bytes do not need a tokenizer.
+        if ( RDFLanguages.sameLang(NTRIPLES, lang) || RDFLanguages.sameLang(NQUADS, lang) )
+            return new LangNTuplesBytes(input, lang, profile, dest);
         Tokenizer tokenizer = TokenizerText.create().source(input).errorHandler(profile.getErrorHandler()).build();
         if ( RDFLanguages.sameLang(TURTLE, lang) || RDFLanguages.sameLang(N3,  lang) )
             return createParserTurtle(tokenizer, dest, profile);
-        if ( RDFLanguages.sameLang(NTRIPLES, lang) )
-            return createParserNTriples(tokenizer, dest, profile);
-        if ( RDFLanguages.sameLang(NQUADS, lang) )
-            return createParserNQuads(tokenizer, dest, profile);
         if ( RDFLanguages.sameLang(TRIG, lang) )
             return createParserTriG(tokenizer, dest, profile);
         return null;
@@ -44,6 +44,10 @@ public class NodeToLabel extends MapWithScope<Node, String, Node>
     public static NodeToLabel createBNodeByLabelEncoded() 
     { return new NodeToLabel(new SingleScopePolicy(), new AllocatorInternalSafe()) ; }
 
+    /** Allocation as per internal label, with an encoded safe label, without recording the labels used. */
+    public static NodeToLabel createBNodeByLabelEncodedStateless() 
+    { return new NodeToLabel(new NoScopePolicy(), new AllocatorInternalSafe()) ; }
+
     /** Allocation as per internal label */
     public static NodeToLabel createBNodeByLabelAsGiven() 
     { return new NodeToLabel(new SingleScopePolicy(), new AllocatorInternalRaw()) ; }
@@ -71,6 +75,15 @@ public class NodeToLabel extends MapWithScope<Node, String, Node>
         public void clear() { map.clear(); }
     }
     
+    /** No scope: the allocation is a function of the node */
+    private static class NoScopePolicy implements ScopePolicy<Node, String, Node>
+    { 
+        @Override
+        public Map<Node, String> getScope(Node scope) { return null ; }
+        @Override
+        public void clear() { }
+    }
+    
     /** One scope for labels per graph */
     private static class GraphScopePolicy implements ScopePolicy<Node, String, Node>
     { 
@@ -65,6 +65,13 @@ public class ResultSetLang {
     @Deprecated
     public static final Lang SPARQLResultSetThrift = RS_Thrift;
 
+    /** Binary results: batches of rows, as a dictionary of terms and a column per variable. */
+    public static final Lang RS_Columnar
+        = LangBuilder.create("SPARQL-Results-Columnar", WebContent.contentTypeResultsColumnar)
+                     .addAltNames("SRB")
+                     .addFileExtensions("srb")
+                     .build() ;
+
     public static final Lang RS_Text
         = LangBuilder.create("SPARQL-Results-Text", WebContent.contentTypeTextPlain)
                      .addFileExtensions("txt")
@@ -89,6 +96,7 @@ public class ResultSetLang {
         RDFLanguages.register(RS_CSV) ;
         RDFLanguages.register(RS_TSV) ;
         RDFLanguages.register(RS_Thrift) ;
+        RDFLanguages.register(RS_Columnar) ;
         RDFLanguages.register(RS_None) ;
         ResultSetReaderRegistry.init();
         ResultSetWriterRegistry.init();
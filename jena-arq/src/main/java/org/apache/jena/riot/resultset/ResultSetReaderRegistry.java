@@ -64,6 +64,7 @@ public class ResultSetReaderRegistry {
         register(RS_XML,    ResultSetReaderXML.factory) ;
         register(RS_JSON,   ResultSetReaderJSON.factory) ;
         register(RS_Thrift, ResultSetReaderThrift.factory) ;
+        register(RS_Columnar, ResultSetReaderColumnar.factory) ;
         register(RS_CSV,    ResultSetReaderCSV.factory) ;
         register(RS_TSV,    ResultSetReaderTSV.factory) ;
     }
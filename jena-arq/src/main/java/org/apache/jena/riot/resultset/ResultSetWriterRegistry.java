@@ -59,6 +59,7 @@ public class ResultSetWriterRegistry {
         register(RS_XML,    ResultSetWriterXML.factory) ;
         register(RS_JSON,   ResultSetWriterJSON.factory) ;
         register(RS_Thrift, ResultSetWriterThrift.factory) ;
+        register(RS_Columnar, ResultSetWriterColumnar.factory) ;
         register(RS_CSV,    ResultSetWriterCSV.factory) ;
         register(RS_TSV,    ResultSetWriterTSV.factory) ;
         // Build-in std factory (below).
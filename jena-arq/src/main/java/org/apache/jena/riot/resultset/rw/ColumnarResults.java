@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.resultset.rw;
+
+/**
+ * Constants for the binary, columnar result set format.
+ * <p>
+ * The format is:
+ * <pre>
+ *   header  := "SRB" version kind
+ *   kind    := ROWS vars batch* END | BOOLEAN byte
+ *   vars    := int string*
+ *   batch   := int(length of the rest of the batch) flags int(rows) int(new terms) term* width column*
+ *   END     := int(0)
+ * </pre>
+ * The terms of a batch are added to the dictionary, which is kept across batches
+ * until a batch has the {@link #FLAG_RESET} flag set. A term is a kind byte then
+ * strings or the dictionary index of terms already in the dictionary (the datatype
+ * of a literal, the parts of a triple term). There is one column per variable, in
+ * variable order; each has a value per row which is 0 for unbound, else one more
+ * than the dictionary index of the term. Values are big-endian, in 1, 2 or 4 bytes
+ * as given by the width byte. Strings are an int length then UTF-8 bytes.
+ */
+class ColumnarResults {
+    static final byte[] MAGIC          = { 'S', 'R', 'B' };
+    static final byte   VERSION        = 1;
+
+    static final byte   KIND_ROWS      = 1;
+    static final byte   KIND_BOOLEAN   = 2;
+
+    static final byte   FLAG_RESET     = 1;
+
+    static final byte   TERM_IRI       = 1;
+    static final byte   TERM_BNODE     = 2;
+    static final byte   TERM_STRING    = 3;
+    static final byte   TERM_LANG      = 4;
+    static final byte   TERM_DATATYPE  = 5;
+    static final byte   TERM_TRIPLE    = 6;
+
+    /** Rows per batch. */
+    static final int    BatchSize      = 4096;
+    /** The dictionary is cleared at the start of the next batch when it reaches this size. */
+    static final int    MaxDictionary  = 100_000;
+
+    /** Width in bytes of a column value, where values are 0 to max. */
+    static int width(int max) {
+        if ( max < 0x100 )
+            return 1;
+        if ( max < 0x10000 )
+            return 2;
+        return 4;
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.resultset.rw;
+
+import static org.apache.jena.riot.resultset.rw.ColumnarResults.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.iterator.IteratorSlotted;
+import org.apache.jena.atlas.lib.NotImplemented;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.resultset.ResultSetReader;
+import org.apache.jena.riot.resultset.ResultSetReaderFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBuilder;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.resultset.SPARQLResult;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Read a result set in the binary, columnar format. Rows are read a batch at a time;
+ * each term of the dictionary is decoded once, and rows are made from the columns.
+ * See {@link ColumnarResults}.
+ */
+public class ResultSetReaderColumnar implements ResultSetReader {
+
+    public static ResultSetReaderFactory factory = lang->{
+        if (!Objects.equals(lang, ResultSetLang.RS_Columnar ) )
+            throw new ResultSetException("ResultSetReader for columnar results asked for a "+lang);
+        return new ResultSetReaderColumnar();
+    };
+
+    private ResultSetReaderColumnar() {}
+
+    @Override
+    public ResultSet read(InputStream in, Context context) {
+        SPARQLResult result = readAny(in, context);
+        if ( ! result.isResultSet() )
+            throw new ResultSetException("Not a result set");
+        return result.getResultSet();
+    }
+
+    @Override
+    public ResultSet read(Reader in, Context context) {
+        throw new NotImplemented("Reading binary data from a java.io.Reader is not possible");
+    }
+
+    @Override
+    public SPARQLResult readAny(InputStream in, Context context) {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(in, 128*1024));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if ( ! Arrays.equals(magic, MAGIC) )
+                throw new ResultSetException("Not columnar results");
+            byte version = input.readByte();
+            if ( version != VERSION )
+                throw new ResultSetException("Columnar results: unknown version: "+version);
+            byte kind = input.readByte();
+            switch (kind) {
+                case KIND_BOOLEAN :
+                    return new SPARQLResult(input.readByte() != 0);
+                case KIND_ROWS : {
+                    Decoder decoder = new Decoder(input);
+                    return new SPARQLResult(ResultSetStream.create(decoder.vars, decoder));
+                }
+                default:
+                    throw new ResultSetException("Columnar results: unknown kind: "+kind);
+            }
+        } catch (EOFException ex) {
+            throw new ResultSetException("Columnar results: unexpected end of input");
+        } catch (IOException ex) { IO.exception(ex); return null; }
+    }
+
+    private static class Decoder extends IteratorSlotted<Binding> {
+        private final DataInputStream in;
+        private final List<Var> vars;
+        private final Var[] varArray;
+        private final List<Node> dictionary = new ArrayList<>();
+        private final BindingBuilder builder = Binding.builder();
+        private byte[] bytes = new byte[0];
+        private ByteBuffer batch = null;
+        private int rows = 0;
+        private int row = 0;
+        private int width;
+        private int columnsStart;
+        private boolean finished = false;
+
+        Decoder(DataInputStream in) throws IOException {
+            this.in = in;
+            int n = in.readInt();
+            this.vars = new ArrayList<>(n);
+            for ( int i = 0 ; i < n ; i++ ) {
+                int len = in.readInt();
+                byte[] b = new byte[len];
+                in.readFully(b);
+                vars.add(Var.alloc(new String(b, StandardCharsets.UTF_8)));
+            }
+            this.varArray = vars.toArray(new Var[0]);
+        }
+
+        @Override
+        protected Binding moveToNext() {
+            if ( row == rows ) {
+                if ( ! readBatch() )
+                    return null;
+            }
+            builder.reset();
+            for ( int i = 0 ; i < varArray.length ; i++ ) {
+                int x = value(i);
+                if ( x != 0 )
+                    builder.add(varArray[i], dictionary.get(x-1));
+            }
+            row++;
+            return builder.build();
+        }
+
+        @Override
+        protected boolean hasMore() {
+            return true;
+        }
+
+        private int value(int column) {
+            int idx = columnsStart + (column*rows + row)*width;
+            switch (width) {
+                case 1 : return batch.get(idx) & 0xFF;
+                case 2 : return batch.getShort(idx) & 0xFFFF;
+                default: return batch.getInt(idx);
+            }
+        }
+
+        private boolean readBatch() {
+            if ( finished )
+                return false;
+            try {
+                // Loop for batches with no rows.
+                do {
+                    int len = in.readInt();
+                    if ( len == 0 ) {
+                        finished = true;
+                        return false;
+                    }
+                    if ( bytes.length < len )
+                        bytes = new byte[len];
+                    in.readFully(bytes, 0, len);
+                    batch = ByteBuffer.wrap(bytes, 0, len);
+                    byte flags = batch.get();
+                    if ( (flags & FLAG_RESET) != 0 )
+                        dictionary.clear();
+                    rows = batch.getInt();
+                    int newTerms = batch.getInt();
+                    for ( int i = 0 ; i < newTerms ; i++ )
+                        dictionary.add(readTerm());
+                    width = batch.get();
+                    columnsStart = batch.position();
+                    row = 0;
+                } while ( rows == 0 );
+                return true;
+            } catch (EOFException ex) {
+                throw new ResultSetException("Columnar results: unexpected end of input");
+            } catch (IOException ex) { IO.exception(ex); return false; }
+        }
+
+        private Node readTerm() {
+            byte kind = batch.get();
+            switch (kind) {
+                case TERM_IRI :
+                    return NodeFactory.createURI(readString());
+                case TERM_BNODE :
+                    return NodeFactory.createBlankNode(readString());
+                case TERM_STRING :
+                    return NodeFactory.createLiteral(readString());
+                case TERM_LANG : {
+                    String lex = readString();
+                    return NodeFactory.createLiteral(lex, readString());
+                }
+                case TERM_DATATYPE : {
+                    String lex = readString();
+                    Node dt = dictionary.get(batch.getInt());
+                    RDFDatatype datatype = TypeMapper.getInstance().getSafeTypeByName(dt.getURI());
+                    return NodeFactory.createLiteral(lex, datatype);
+                }
+                case TERM_TRIPLE : {
+                    Node s = dictionary.get(batch.getInt());
+                    Node p = dictionary.get(batch.getInt());
+                    Node o = dictionary.get(batch.getInt());
+                    return NodeFactory.createTripleNode(Triple.create(s, p, o));
+                }
+                default:
+                    throw new ResultSetException("Columnar results: unknown term kind: "+kind);
+            }
+        }
+
+        private String readString() {
+            int len = batch.getInt();
+            String s = new String(bytes, batch.position(), len, StandardCharsets.UTF_8);
+            batch.position(batch.position()+len);
+            return s;
+        }
+    }
+}
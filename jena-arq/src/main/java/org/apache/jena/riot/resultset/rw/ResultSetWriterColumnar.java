@@ -0,0 +1,217 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.resultset.rw;
+
+import static org.apache.jena.riot.resultset.rw.ColumnarResults.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.NotImplemented;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.resultset.ResultSetWriter;
+import org.apache.jena.riot.resultset.ResultSetWriterFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Write a result set in the binary, columnar format: batches of rows, each a
+ * dictionary of the new terms and a column of term numbers per variable.
+ * A term is encoded once per dictionary, not once per row.
+ * See {@link ColumnarResults}.
+ */
+public class ResultSetWriterColumnar implements ResultSetWriter {
+
+    public static ResultSetWriterFactory factory = lang -> {
+        if (!Objects.equals(lang, ResultSetLang.RS_Columnar ) )
+            throw new ResultSetException("ResultSetWriter for columnar results asked for a "+lang);
+        return new ResultSetWriterColumnar();
+    };
+
+    @Override
+    public void write(OutputStream out, ResultSet resultSet, Context context) {
+        List<Var> vars = Var.varList(resultSet.getResultVars());
+        try {
+            Encoder encoder = new Encoder(out, vars);
+            for ( ; resultSet.hasNext() ; )
+                encoder.add(resultSet.nextBinding());
+            encoder.finish();
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    @Override
+    public void write(Writer out, ResultSet resultSet, Context context) {
+        throw new NotImplemented("Writing binary data to a java.io.Writer is not possible");
+    }
+
+    @Override
+    public void write(OutputStream out, boolean result, Context context) {
+        try {
+            DataOutputStream output = new DataOutputStream(out);
+            output.write(MAGIC);
+            output.writeByte(VERSION);
+            output.writeByte(KIND_BOOLEAN);
+            output.writeByte(result ? 1 : 0);
+            output.flush();
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    private static class Encoder {
+        private final DataOutputStream out;
+        private final Var[] vars;
+        private final Map<Node, Integer> dictionary = new HashMap<>();
+        // The terms added to the dictionary in this batch.
+        private final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+        private final DataOutputStream terms = new DataOutputStream(termBytes);
+        private int newTerms = 0;
+        private boolean reset = false;
+        // Column per variable, value 0 for unbound, else dictionary index + 1.
+        private final int[][] columns;
+        private int rows = 0;
+        private ByteBuffer columnBytes = ByteBuffer.allocate(0);
+
+        Encoder(OutputStream output, List<Var> vars) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(output, 128*1024));
+            this.vars = vars.toArray(new Var[0]);
+            this.columns = new int[this.vars.length][BatchSize];
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(KIND_ROWS);
+            out.writeInt(this.vars.length);
+            for ( Var v : this.vars )
+                writeString(out, v.getVarName());
+        }
+
+        void add(Binding binding) throws IOException {
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                Node n = binding.get(vars[i]);
+                columns[i][rows] = ( n == null ) ? 0 : id(n)+1;
+            }
+            rows++;
+            if ( rows == BatchSize )
+                flushBatch();
+        }
+
+        void finish() throws IOException {
+            if ( rows > 0 )
+                flushBatch();
+            out.writeInt(0);
+            out.flush();
+        }
+
+        private void flushBatch() throws IOException {
+            int width = width(dictionary.size());
+            int columnsLength = vars.length*rows*width;
+            if ( columnBytes.capacity() < columnsLength )
+                columnBytes = ByteBuffer.allocate(columnsLength);
+            columnBytes.clear();
+            for ( int[] column : columns ) {
+                for ( int r = 0 ; r < rows ; r++ ) {
+                    switch (width) {
+                        case 1 : columnBytes.put((byte)column[r]); break;
+                        case 2 : columnBytes.putShort((short)column[r]); break;
+                        default: columnBytes.putInt(column[r]); break;
+                    }
+                }
+            }
+            // flags, rows, new terms, terms, width, columns
+            out.writeInt(1+4+4+termBytes.size()+1+columnsLength);
+            out.writeByte(reset ? FLAG_RESET : 0);
+            out.writeInt(rows);
+            out.writeInt(newTerms);
+            termBytes.writeTo(out);
+            out.writeByte(width);
+            out.write(columnBytes.array(), 0, columnsLength);
+
+            rows = 0;
+            termBytes.reset();
+            newTerms = 0;
+            reset = false;
+            if ( dictionary.size() >= MaxDictionary ) {
+                dictionary.clear();
+                reset = true;
+            }
+        }
+
+        // Dictionary index of a term, adding it to the batch if new.
+        private int id(Node node) throws IOException {
+            Integer x = dictionary.get(node);
+            if ( x != null )
+                return x;
+            if ( node.isURI() ) {
+                terms.writeByte(TERM_IRI);
+                writeString(terms, node.getURI());
+            } else if ( node.isBlank() ) {
+                terms.writeByte(TERM_BNODE);
+                writeString(terms, node.getBlankNodeLabel());
+            } else if ( node.isLiteral() ) {
+                String lang = node.getLiteralLanguage();
+                String dt = node.getLiteralDatatypeURI();
+                if ( lang != null && ! lang.isEmpty() ) {
+                    terms.writeByte(TERM_LANG);
+                    writeString(terms, node.getLiteralLexicalForm());
+                    writeString(terms, lang);
+                } else if ( dt == null || XSDDatatype.XSDstring.getURI().equals(dt) ) {
+                    terms.writeByte(TERM_STRING);
+                    writeString(terms, node.getLiteralLexicalForm());
+                } else {
+                    // The datatype goes in the dictionary first.
+                    int dtId = id(NodeFactory.createURI(dt));
+                    terms.writeByte(TERM_DATATYPE);
+                    writeString(terms, node.getLiteralLexicalForm());
+                    terms.writeInt(dtId);
+                }
+            } else if ( node.isNodeTriple() ) {
+                Triple t = node.getTriple();
+                int s = id(t.getSubject());
+                int p = id(t.getPredicate());
+                int o = id(t.getObject());
+                terms.writeByte(TERM_TRIPLE);
+                terms.writeInt(s);
+                terms.writeInt(p);
+                terms.writeInt(o);
+            } else
+                throw new ResultSetException("Can't encode: "+node);
+            int id = dictionary.size();
+            dictionary.put(node, id);
+            newTerms++;
+            return id;
+        }
+
+        private static void writeString(DataOutputStream output, String string) throws IOException {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+}
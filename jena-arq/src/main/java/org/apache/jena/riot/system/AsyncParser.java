@@ -51,6 +51,8 @@ import org.slf4j.LoggerFactory;
  * <p>
  * There are overheads, so this is only beneficial in some situations. Delivery to
  * the StreamRDF has an initial latency while the first batch of work is accumulated.
+ * <p>
+ * To parse N-Triples or N-Quads on several threads, see {@link ParallelParser}.
  */
 public class AsyncParser {
 
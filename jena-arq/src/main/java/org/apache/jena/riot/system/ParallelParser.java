@@ -0,0 +1,668 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.system;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.IRILib;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.*;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Parallel parsing of N-Triples, N-Quads, Turtle and TriG.
+ * <p>
+ * The input is read in chunks, each ending at a newline. The chunks are parsed on
+ * several threads and the output is sent to the StreamRDF on the caller's thread,
+ * either in the order of the input, or in the order the chunks finish.
+ * <p>
+ * For Turtle and TriG, the input is scanned for the ends of top-level statements
+ * and chunks end at a newline after one. The {@code PREFIX} and {@code BASE}
+ * directives from earlier chunks are parsed again at the start of each chunk, so
+ * the chunk has the same prefixes and base. If no statement ends within
+ * {@link #MaxChunkFactor} times the chunk size, the rest of the input is parsed
+ * on the caller's thread.
+ * <p>
+ * Blank node labels are scoped to the whole input, as for a single parser run.
+ * Line numbers in error messages are the line numbers of the whole input.
+ * A compressed file is decompressed on the caller's thread.
+ */
+public class ParallelParser {
+
+    /** Default chunk size in bytes. */
+    public static final int DefaultChunkSize = 4*1024*1024;
+
+    /**
+     * Turtle and TriG: the largest chunk, as a multiple of the chunk size, before the
+     * rest of the input is parsed sequentially.
+     */
+    public static final int MaxChunkFactor = 4;
+
+    private static final int DefaultThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    private ParallelParser() {}
+
+    /**
+     * Parse a file of N-Triples, N-Quads, Turtle or TriG, which may be compressed.
+     * The syntax is determined from the file name.
+     * Output is in the order of the input.
+     */
+    public static void parse(String filename, StreamRDF output) {
+        Lang lang = RDFLanguages.filenameToLang(filename);
+        if ( ! new File(filename).exists() )
+            throw new RiotNotFoundException("Not found: "+filename);
+        try ( InputStream input = IO.openFile(filename) ) {
+            parse(input, lang, IRILib.filenameToIRI(filename), output, true, DefaultThreads, DefaultChunkSize);
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    /**
+     * Parse an InputStream of N-Triples, N-Quads, Turtle or TriG.
+     * If {@code ordered} is false, the output is sent in the order the chunks are
+     * parsed.
+     */
+    public static void parse(InputStream input, Lang lang, StreamRDF output, boolean ordered) {
+        parse(input, lang, null, output, ordered, DefaultThreads, DefaultChunkSize);
+    }
+
+    /**
+     * Parse an InputStream of N-Triples, N-Quads, Turtle or TriG using the given
+     * number of threads and approximate chunk size in bytes.
+     */
+    public static void parse(InputStream input, Lang lang, StreamRDF output, boolean ordered, int threads, int chunkSize) {
+        parse(input, lang, null, output, ordered, threads, chunkSize);
+    }
+
+    /**
+     * Parse an InputStream of N-Triples, N-Quads, Turtle or TriG using the given
+     * base IRI, which may be null, number of threads and approximate chunk size in bytes.
+     */
+    public static void parse(InputStream input, Lang lang, String baseURI, StreamRDF output, boolean ordered, int threads, int chunkSize) {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(output);
+        if ( ! isNTuples(lang) && ! isTurtle(lang) )
+            throw new RiotException("Not N-Triples, N-Quads, Turtle or TriG: "+lang);
+        if ( threads < 1 )
+            throw new IllegalArgumentException("Threads: "+threads);
+        if ( chunkSize < 1 )
+            throw new IllegalArgumentException("Chunk size: "+chunkSize);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r->{
+            Thread thread = new Thread(r, "ParallelParser-"+threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            new Run(input, lang, baseURI, output, ordered, threads, chunkSize, executor).exec();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isNTuples(Lang lang) {
+        return RDFLanguages.sameLang(Lang.NTRIPLES, lang) || RDFLanguages.sameLang(Lang.NQUADS, lang);
+    }
+
+    private static boolean isTurtle(Lang lang) {
+        return RDFLanguages.sameLang(Lang.TURTLE, lang) || RDFLanguages.sameLang(Lang.TRIG, lang);
+    }
+
+    // Prefix and base output of a chunk.
+    private static class Prefix {
+        final String prefix;
+        final String iri;
+        Prefix(String prefix, String iri) { this.prefix = prefix; this.iri = iri; }
+    }
+
+    private static class Base {
+        final String base;
+        Base(String base) { this.base = base; }
+    }
+
+    private static class Run {
+        private final InputStream input;
+        private final Lang lang;
+        private final String baseURI;
+        private final StreamRDF output;
+        private final boolean ordered;
+        private final int maxPending;
+        private final int chunkSize;
+        private final ExecutorService executor;
+        private final CompletionService<List<Object>> completion;
+        private final Deque<Future<List<Object>>> pending = new ArrayDeque<>();
+        // Same blank node for the same label in every chunk.
+        private final UUID seed = UUID.randomUUID();
+        private final ErrorHandler errorHandler = ErrorHandlerFactory.getDefaultErrorHandler();
+        // Turtle and TriG: the directives of the chunks so far.
+        private final ByteArrayOutputStream prologue = new ByteArrayOutputStream();
+        private int prologueDirectives = 0;
+        private long prologueLines = 0;
+
+        Run(InputStream input, Lang lang, String baseURI, StreamRDF output, boolean ordered, int threads, int chunkSize, ExecutorService executor) {
+            this.input = input;
+            this.lang = lang;
+            this.baseURI = baseURI;
+            this.output = output;
+            this.ordered = ordered;
+            this.maxPending = 2*threads;
+            this.chunkSize = chunkSize;
+            this.executor = executor;
+            this.completion = new ExecutorCompletionService<>(executor);
+        }
+
+        void exec() {
+            output.start();
+            if ( isTurtle(lang) )
+                execTurtle();
+            else
+                execNTuples();
+            while ( ! pending.isEmpty() )
+                receive();
+            output.finish();
+        }
+
+        private void execNTuples() {
+            byte[] carry = new byte[0];
+            long line = 1;
+            for ( ;; ) {
+                byte[] buffer = Arrays.copyOf(carry, carry.length+chunkSize);
+                int len = carry.length + readFully(buffer, carry.length);
+                if ( len < buffer.length ) {
+                    // End of input.
+                    if ( len > 0 )
+                        submit(buffer, len, line);
+                    break;
+                }
+                int end = len;
+                while ( end > 0 && buffer[end-1] != '\n' )
+                    end--;
+                if ( end == 0 ) {
+                    // No newline: a long line. Read more.
+                    carry = buffer;
+                    continue;
+                }
+                carry = Arrays.copyOfRange(buffer, end, len);
+                submit(buffer, end, line);
+                line += countNewlines(buffer, end);
+            }
+        }
+
+        private void execTurtle() {
+            TurtleScanner scanner = new TurtleScanner(RDFLanguages.sameLang(Lang.TRIG, lang));
+            byte[] buffer = new byte[chunkSize];
+            int len = 0;
+            long line = 1;
+            for ( ;; ) {
+                if ( len == buffer.length ) {
+                    if ( buffer.length >= MaxChunkFactor*chunkSize ) {
+                        // No statement end found: parse the rest on this thread.
+                        parseRest(buffer, len, line);
+                        return;
+                    }
+                    buffer = Arrays.copyOf(buffer, 2*buffer.length);
+                }
+                int n = readFully(buffer, len);
+                len += n;
+                boolean eof = ( len < buffer.length );
+                scanner.scan(buffer, len, eof);
+                if ( eof ) {
+                    if ( len > 0 )
+                        submitTurtle(buffer, len, line, scanner);
+                    return;
+                }
+                int end = scanner.split;
+                if ( end <= 0 )
+                    // Read more.
+                    continue;
+                submitTurtle(buffer, end, line, scanner);
+                line += countNewlines(buffer, end);
+                byte[] next = new byte[Math.max(chunkSize, 2*(len-end))];
+                System.arraycopy(buffer, end, next, 0, len-end);
+                scanner.shift(end);
+                buffer = next;
+                len = len-end;
+            }
+        }
+
+        private void submitTurtle(byte[] buffer, int len, long line, TurtleScanner scanner) {
+            byte[] prefix = prologue.toByteArray();
+            int skip = prologueDirectives;
+            long lineOffset = line-1-prologueLines;
+            long skipLines = prologueLines;
+            if ( pending.size() >= maxPending )
+                receive();
+            Callable<List<Object>> task = ()->parseChunk(prefix, buffer, len, skip, lineOffset, skipLines);
+            pending.add(ordered ? executor.submit(task) : completion.submit(task));
+            // Directives in this chunk are for the chunks after it.
+            scanner.takeDirectives(buffer, len, this::addDirective);
+        }
+
+        private void addDirective(byte[] buffer, int start, int end) {
+            prologue.write(buffer, start, end-start);
+            prologue.write('\n');
+            prologueDirectives++;
+            prologueLines += countNewlines(buffer, start, end)+1;
+        }
+
+        // Parse the rest of the input after the chunks so far have been sent.
+        private void parseRest(byte[] buffer, int len, long line) {
+            while ( ! pending.isEmpty() )
+                receive();
+            byte[] prefix = prologue.toByteArray();
+            InputStream rest = new SequenceInputStream(new ByteArrayInputStream(prefix),
+                                                       new SequenceInputStream(new ByteArrayInputStream(buffer, 0, len), input));
+            StreamRDF dest = new Skip(output, prologueDirectives) {
+                @Override public void start()  {}
+                @Override public void finish() {}
+            };
+            parser(rest, line-1-prologueLines, prologueLines).parse(dest);
+        }
+        private int readFully(byte[] buffer, int start) {
+            try {
+                int n = start;
+                while ( n < buffer.length ) {
+                    int x = input.read(buffer, n, buffer.length-n);
+                    if ( x < 0 )
+                        break;
+                    n += x;
+                }
+                return n - start;
+            } catch (IOException ex) { throw new RuntimeIOException(ex); }
+        }
+
+        private static long countNewlines(byte[] buffer, int len) {
+            return countNewlines(buffer, 0, len);
+        }
+
+        private static long countNewlines(byte[] buffer, int start, int end) {
+            long count = 0;
+            for ( int i = start ; i < end ; i++ ) {
+                if ( buffer[i] == '\n' )
+                    count++;
+            }
+            return count;
+        }
+
+        private void submit(byte[] buffer, int len, long line) {
+            if ( pending.size() >= maxPending )
+                receive();
+            Callable<List<Object>> task = ()->parseChunk(buffer, len, line);
+            pending.add(ordered ? executor.submit(task) : completion.submit(task));
+        }
+
+        private List<Object> parseChunk(byte[] buffer, int len, long line) {
+            return parseChunk(new byte[0], buffer, len, 0, line-1, 0);
+        }
+
+        // The prefix holds directives from earlier chunks; they are not output again.
+        private List<Object> parseChunk(byte[] prefix, byte[] buffer, int len, int skip, long lineOffset, long skipLines) {
+            List<Object> items = new ArrayList<>();
+            StreamRDF collector = new StreamRDFBase() {
+                @Override public void triple(Triple triple)         { items.add(triple); }
+                @Override public void quad(Quad quad)               { items.add(quad); }
+                @Override public void base(String base)             { items.add(new Base(base)); }
+                @Override public void prefix(String prefix, String iri) { items.add(new Prefix(prefix, iri)); }
+            };
+            InputStream in = ( prefix.length == 0 )
+                ? new ByteArrayInputStream(buffer, 0, len)
+                : new SequenceInputStream(new ByteArrayInputStream(prefix), new ByteArrayInputStream(buffer, 0, len));
+            parser(in, lineOffset, skipLines).parse(new Skip(collector, skip));
+            return items;
+        }
+
+        private RDFParserBuilder parser(InputStream in, long lineOffset, long skipLines) {
+            RDFParserBuilder builder = RDFParser.source(in)
+                .lang(lang)
+                .labelToNode(LabelToNode.createScopeByDocumentPart(seed))
+                .errorHandler(errorHandler(errorHandler, lineOffset, skipLines));
+            if ( baseURI != null )
+                builder.base(baseURI);
+            return builder;
+        }
+
+        // Send the next chunk to the output.
+        private void receive() {
+            try {
+                Future<List<Object>> future;
+                if ( ordered ) {
+                    future = pending.poll();
+                } else {
+                    future = completion.take();
+                    pending.remove(future);
+                }
+                for ( Object x : future.get() ) {
+                    if ( x instanceof Triple )
+                        output.triple((Triple)x);
+                    else if ( x instanceof Quad )
+                        output.quad((Quad)x);
+                    else if ( x instanceof Prefix )
+                        output.prefix(((Prefix)x).prefix, ((Prefix)x).iri);
+                    else
+                        output.base(((Base)x).base);
+                }
+            } catch (InterruptedException ex) {
+                throw new RiotException("Interrupted", ex);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if ( cause instanceof RuntimeException )
+                    throw (RuntimeException)cause;
+                if ( cause instanceof Error )
+                    throw (Error)cause;
+                throw new RiotException(cause);
+            }
+        }
+    }
+
+    private interface DirectiveHandler {
+        void directive(byte[] buffer, int start, int end);
+    }
+
+    /**
+     * Find the places where Turtle or TriG can be split: a newline after the end of
+     * a top-level statement (a DOT, a directive, or a TriG graph block) and before
+     * the start of the next. Strings, IRIs and comments are skipped. Also records the
+     * directives.
+     * <p>
+     * The buffer is scanned as it is filled; positions are relative to its start.
+     */
+    private static class TurtleScanner {
+        private static final int TOP     = 0;
+        private static final int IRI     = 1;
+        private static final int STRING  = 2;
+        private static final int LONG    = 3;
+        private static final int COMMENT = 4;
+
+        private final boolean trig;
+        private int pos = 0;
+        private int state = TOP;
+        private byte quote = 0;
+        // [] and () nesting.
+        private int depth = 0;
+        // {} nesting.
+        private int braces = 0;
+        private boolean atStatementStart = true;
+        private int candidate = -1;
+        // The last split point found, or -1.
+        int split = -1;
+        private int directiveStart = -1;
+        private boolean directiveSparql = false;
+        private boolean directiveIRI = false;
+        private final List<int[]> directives = new ArrayList<>();
+
+        TurtleScanner(boolean trig) {
+            this.trig = trig;
+        }
+
+        void scan(byte[] buf, int len, boolean eof) {
+            if ( pos == 0 && len >= 3 && buf[0] == (byte)0xEF && buf[1] == (byte)0xBB && buf[2] == (byte)0xBF )
+                // BOM
+                pos = 3;
+            while ( pos < len ) {
+                if ( ! eof && len-pos < 8 )
+                    // Lookahead needs more input.
+                    return;
+                byte b = buf[pos];
+                switch (state) {
+                    case TOP:
+                        top(buf, len, b);
+                        break;
+                    case IRI:
+                        if ( b == '>' ) {
+                            state = TOP;
+                            if ( directiveStart >= 0 ) {
+                                if ( directiveSparql )
+                                    endDirective(pos+1);
+                                else
+                                    directiveIRI = true;
+                            }
+                        } else if ( b == '\\' )
+                            pos++;
+                        pos++;
+                        break;
+                    case STRING:
+                        if ( b == quote )
+                            state = TOP;
+                        else if ( b == '\\' )
+                            pos++;
+                        pos++;
+                        break;
+                    case LONG:
+                        if ( b == quote && at(buf, len, pos+1) == quote && at(buf, len, pos+2) == quote ) {
+                            state = TOP;
+                            pos += 3;
+                            break;
+                        }
+                        if ( b == '\\' )
+                            pos++;
+                        pos++;
+                        break;
+                    case COMMENT:
+                        if ( b == '\n' )
+                            state = TOP;
+                        else
+                            pos++;
+                        break;
+                }
+            }
+        }
+
+        private void top(byte[] buf, int len, byte b) {
+            switch (b) {
+                case '\n':
+                    if ( atStatementStart && depth == 0 && braces == 0 && directiveStart < 0 )
+                        candidate = pos+1;
+                    pos++;
+                    return;
+                case ' ': case '\t': case '\r':
+                    pos++;
+                    return;
+                case '#':
+                    state = COMMENT;
+                    pos++;
+                    return;
+            }
+            // Not a split point if a DOT follows (TriG allows one after a graph block).
+            if ( candidate > 0 && b != '.' )
+                split = candidate;
+            candidate = -1;
+            if ( atStatementStart && depth == 0 && braces == 0 && directiveStart < 0 )
+                startDirective(buf, len);
+            atStatementStart = false;
+            switch (b) {
+                case '<':
+                    if ( at(buf, len, pos+1) == '<' ) {
+                        // RDF-star
+                        pos += 2;
+                        return;
+                    }
+                    state = IRI;
+                    break;
+                case '"': case '\'':
+                    quote = b;
+                    if ( at(buf, len, pos+1) == b && at(buf, len, pos+2) == b ) {
+                        state = LONG;
+                        pos += 3;
+                        return;
+                    }
+                    state = STRING;
+                    break;
+                case '\\':
+                    pos++;
+                    break;
+                case '[': case '(':
+                    depth++;
+                    break;
+                case ']': case ')':
+                    depth--;
+                    break;
+                case '{':
+                    braces++;
+                    break;
+                case '}':
+                    braces--;
+                    // End of a TriG graph block, not an annotation "|}".
+                    if ( trig && braces == 0 && depth == 0 && at(buf, len, pos-1) != '|' )
+                        atStatementStart = true;
+                    break;
+                case '.':
+                    if ( depth != 0 || braces != 0 )
+                        break;
+                    if ( directiveStart >= 0 ) {
+                        if ( directiveIRI )
+                            endDirective(pos+1);
+                        break;
+                    }
+                    atStatementStart = true;
+                    break;
+            }
+            pos++;
+        }
+
+        private void startDirective(byte[] buf, int len) {
+            if ( matches(buf, len, "@prefix", false) || matches(buf, len, "@base", false) ) {
+                directiveStart = pos;
+                directiveSparql = false;
+            } else if ( matches(buf, len, "PREFIX", true) || matches(buf, len, "BASE", true) ) {
+                directiveStart = pos;
+                directiveSparql = true;
+            } else
+                return;
+            directiveIRI = false;
+        }
+
+        private void endDirective(int end) {
+            directives.add(new int[] {directiveStart, end});
+            directiveStart = -1;
+            atStatementStart = true;
+        }
+
+        // A keyword followed by whitespace.
+        private boolean matches(byte[] buf, int len, String word, boolean ignoreCase) {
+            int n = word.length();
+            for ( int i = 0 ; i < n ; i++ ) {
+                int b = at(buf, len, pos+i);
+                char ch = word.charAt(i);
+                if ( b != ch && ! ( ignoreCase && Character.toUpperCase(b) == ch ) )
+                    return false;
+            }
+            int b = at(buf, len, pos+n);
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+
+        private static int at(byte[] buf, int len, int i) {
+            return ( i >= 0 && i < len ) ? buf[i] : -1;
+        }
+
+        /** Pass on the directives that end before {@code end}. */
+        void takeDirectives(byte[] buf, int end, DirectiveHandler handler) {
+            while ( ! directives.isEmpty() && directives.get(0)[1] <= end ) {
+                int[] x = directives.remove(0);
+                handler.directive(buf, x[0], x[1]);
+            }
+        }
+
+        /** The buffer now starts at {@code end}, a split point. */
+        void shift(int end) {
+            pos -= end;
+            split = -1;
+            if ( candidate > 0 )
+                candidate -= end;
+            if ( directiveStart >= 0 )
+                directiveStart -= end;
+            for ( int[] x : directives ) {
+                x[0] -= end;
+                x[1] -= end;
+            }
+        }
+    }
+
+    /** Drop the first prefix and base events: they are from earlier chunks. */
+    private static class Skip extends StreamRDFWrapper {
+        private int skip;
+
+        Skip(StreamRDF other, int skip) {
+            super(other);
+            this.skip = skip;
+        }
+
+        @Override
+        public void base(String base) {
+            if ( skip > 0 )
+                skip--;
+            else
+                super.base(base);
+        }
+
+        @Override
+        public void prefix(String prefix, String iri) {
+            if ( skip > 0 )
+                skip--;
+            else
+                super.prefix(prefix, iri);
+        }
+    }
+
+    /**
+     * Error handler for a chunk: line numbers in the whole input.
+     * Warnings and errors on the first {@code skipLines} lines, the directives of
+     * earlier chunks, have already been reported.
+     */
+    private static ErrorHandler errorHandler(ErrorHandler handler, long lineOffset, long skipLines) {
+        return new ErrorHandler() {
+            @Override
+            public void warning(String message, long line, long col) {
+                if ( line < 0 || line > skipLines )
+                    handler.warning(message, adjust(line), col);
+            }
+
+            @Override
+            public void error(String message, long line, long col) {
+                if ( line < 0 || line > skipLines )
+                    handler.error(message, adjust(line), col);
+            }
+
+            @Override
+            public void fatal(String message, long line, long col) {
+                handler.fatal(message, adjust(line), col);
+            }
+
+            private long adjust(long line) {
+                return line < 0 ? line : line + lineOffset;
+            }
+        };
+    }
+}
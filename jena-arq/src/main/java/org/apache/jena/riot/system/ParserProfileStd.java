@@ -47,6 +47,11 @@ public class ParserProfileStd implements ParserProfile {
     private final boolean checking;
     private static int DftCacheSize = 500;
     private final Cache<String, IRI> iriCache;
+    private static int DftResolvedCacheSize = 1000;
+    // Only when IRI checking is off: then resolving an IRI has no side effects when
+    // it succeeds, and only such IRIs are cached. With checking, every IRI is checked
+    // every time so warnings are reported for each use.
+    private final Cache<String, IRIx> resolvedCache;
 
     private boolean allowNodeExtentions;
 
@@ -59,6 +64,7 @@ public class ParserProfileStd implements ParserProfile {
         this.context = context;
         this.checking = checking;
         this.iriCache = checking ? CacheFactory.createCache(DftCacheSize) : null;
+        this.resolvedCache = checking ? null : CacheFactory.createSimpleCache(DftResolvedCacheSize);
         this.strictMode = strictMode;
         this.allowNodeExtentions = true; // (context.isTrue(RIOT.ALLOW_NODE_EXT)) ;
     }
@@ -87,6 +93,8 @@ public class ParserProfileStd implements ParserProfile {
     public void setBaseIRI(String baseIRIstr) {
         IRIx newBase = resolver.resolve(baseIRIstr);
         this.resolver = resolver.resetBase(newBase);
+        if ( resolvedCache != null )
+            resolvedCache.clear();
     }
 
     private IRIx internalMakeIRI(String uriStr, long line, long col) {
@@ -95,12 +103,19 @@ public class ParserProfileStd implements ParserProfile {
             errorHandler.warning("Bad IRI: <" + uriStr + "> Spaces are not legal in URIs/IRIs.", line, col);
             return IRIx.createAny(uriStr);
         }
+        if ( resolvedCache != null ) {
+            IRIx iri = resolvedCache.getIfPresent(uriStr);
+            if ( iri != null )
+                return iri;
+        }
 
         // Relative IRIs.
         // jena-iri : these are errors on the
         try {
             IRIx iri = resolver.resolve(uriStr);
-            if ( checking )
+            if ( resolvedCache != null )
+                resolvedCache.put(uriStr, iri);
+            else
                 doChecking(iri, iri.str(), line, col);
             return iri;
         } catch (RelativeIRIException ex ) {
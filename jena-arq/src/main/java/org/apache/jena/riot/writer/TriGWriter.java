@@ -33,16 +33,27 @@ import org.apache.jena.sparql.util.Context ;
 /** TriG pretty writer */
 public class TriGWriter extends TriGWriterBase
 {
+    private final boolean boundedMemory ;
+
+    public TriGWriter() {
+        this(false) ;
+    }
+
+    /** Pretty writer; if {@code boundedMemory}, see {@link TurtleShell}. */
+    protected TriGWriter(boolean boundedMemory) {
+        this.boundedMemory = boundedMemory ;
+    }
+
     @Override
     protected void output(IndentedWriter iOut, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
-        TriGWriter$ w = new TriGWriter$(iOut, prefixMap, baseURI, context) ;
+        TriGWriter$ w = new TriGWriter$(iOut, prefixMap, baseURI, context, boundedMemory) ;
         w.write(dsg) ;
     }
 
     private static class TriGWriter$ extends TurtleShell
     {
-        TriGWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context) {
-            super(out, prefixMap, baseURI, context) ;
+        TriGWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context, boolean boundedMemory) {
+            super(out, prefixMap, baseURI, context, boundedMemory) ;
         }
 
         private void write(DatasetGraph dsg) {
@@ -26,6 +26,8 @@ import java.util.*;
 
 import org.apache.jena.atlas.io.IndentedWriter;
 import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
 import org.apache.jena.atlas.lib.InternalErrorException;
 import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.atlas.lib.SetUtils;
@@ -50,16 +52,32 @@ import org.apache.jena.vocabulary.RDFS;
 
 /**
  * Base class to support the pretty forms of Turtle-related languages (Turtle, TriG)
+ * <p>
+ * Normally, the whole graph is analysed before writing to find the lists and the
+ * blank nodes that can be nested. In bounded memory mode, there is no whole-graph
+ * analysis; each node is looked at as it is met, using {@code find} on the graph (or
+ * dataset), which for persistent storage is an index lookup. Triples are written in
+ * the order of {@code graph.find()}, in runs of the same subject. Index scans and
+ * in-memory graphs group triples by subject; other graphs, such as unions, may not. A
+ * subject with triples in several runs is written once for each run, each time with
+ * the triples of that run, and a blank node subject is then written with a label, not
+ * {@code []}. Blank nodes that can not be written with {@code []} or in a list are
+ * written with a label derived from the blank node, so there is no table of labels.
  */
 public abstract class TurtleShell {
     protected final IndentedWriter out ;
     protected final NodeFormatter  nodeFmt ;
     protected final PrefixMap      prefixMap ;
     protected final String         baseURI ;
+    protected final boolean        boundedMemory ;
     protected final Context        context ;
     protected final DirectiveStyle    prefixStyle;
 
     protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, NodeFormatter nodeFmt, Context context) {
+        this(out, pmap, baseURI, nodeFmt, context, false) ;
+    }
+
+    private TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, NodeFormatter nodeFmt, Context context, boolean boundedMemory) {
         this.out = out ;
         if ( pmap == null )
             pmap = PrefixMapFactory.emptyPrefixMap() ;
@@ -68,17 +86,30 @@ public abstract class TurtleShell {
         this.nodeFmt = nodeFmt ;
         this.context = context;
         this.prefixStyle = WriterLib.directiveStyle(context) ;
+        this.boundedMemory = boundedMemory ;
     }
 
     protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, Context context) {
-        this(out, pmap, baseURI, createNodeFormatter(pmap,baseURI,context), context) ;
+        this(out, pmap, baseURI, context, false) ;
+    }
+
+    /** Pretty writing; if {@code boundedMemory}, without whole-graph analysis. */
+    protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, Context context, boolean boundedMemory) {
+        this(out, pmap, baseURI,
+             createNodeFormatter(pmap, baseURI, context,
+                                 boundedMemory ? NodeToLabel.createBNodeByLabelEncodedStateless() : NodeToLabel.createScopeByDocument()),
+             context, boundedMemory) ;
     }
 
     static public NodeFormatter createNodeFormatter(PrefixMap pmap, String baseURI, Context context) {
+        return createNodeFormatter(pmap, baseURI, context, NodeToLabel.createScopeByDocument()) ;
+    }
+
+    private static NodeFormatter createNodeFormatter(PrefixMap pmap, String baseURI, Context context, NodeToLabel labels) {
         if ( context != null && context.isTrue(RIOT.multilineLiterals) )
-            return new NodeFormatterTTL_MultiLine(baseURI, pmap, NodeToLabel.createScopeByDocument()) ;
+            return new NodeFormatterTTL_MultiLine(baseURI, pmap, labels) ;
         else
-            return new NodeFormatterTTL(baseURI, pmap, NodeToLabel.createScopeByDocument()) ;
+            return new NodeFormatterTTL(baseURI, pmap, labels) ;
     }
 
     protected void writeBase(String base) {
@@ -105,6 +136,12 @@ public abstract class TurtleShell {
         x.writeGraph() ;
     }
 
+    // Bounded memory mode.
+    // Number of decisions about blank nodes to remember.
+    private static final int NestableCacheSize = 10_000 ;
+    // Longest chain of nested blank nodes.
+    private static final int MaxNestingDepth = 1000 ;
+
     // Write one graph - using an inner object class to isolate
     // the state variables for writing a single graph.
     private final class ShellGraph {
@@ -134,6 +171,14 @@ public abstract class TurtleShell {
         // All nodes that are part of list structures.
         private final Collection<Node>      listElts ;
 
+        // Bounded memory: blank nodes used in triple terms, and the decisions
+        // about which blank nodes are nested, which are made as nodes are met.
+        private final Set<Node>             blankNodesInTripleTerms ;
+        private final Cache<Node, Boolean>  nestable ;
+        // The last list found, which is asked for several times while writing.
+        private Node                        lastListHead = null ;
+        private List<Node>                  lastListElts = null ;
+
         // Allow lists and nest bnode objects.
         // This is true for the main pretty printing then
         // false when we are clearing up unwritten triples.
@@ -153,17 +198,23 @@ public abstract class TurtleShell {
             this.freeLists = new HashMap<>() ;
             this.nLinkedLists = new HashMap<>() ;
             this.listElts = new HashSet<>() ;
+            this.blankNodesInTripleTerms = new HashSet<>() ;
+            this.nestable = boundedMemory ? CacheFactory.createSimpleCache(NestableCacheSize) : null ;
             this.allowDeepPretty = true ;
 
-            // ?? Single pass?
-            // <<>> - and nested - bnodes can't be PP.
-
-            // Must be in this order.
-            findLists() ;
-            findBNodesSyntax1() ;
-            // Stop head of lists printed as triples going all the way to the
-            // good part.
-            nestedObjects.removeAll(listElts) ;
+            if ( boundedMemory ) {
+                findBlankNodesInTripleTerms() ;
+            } else {
+                // ?? Single pass?
+                // <<>> - and nested - bnodes can't be PP.
+
+                // Must be in this order.
+                findLists() ;
+                findBNodesSyntax1() ;
+                // Stop head of lists printed as triples going all the way to the
+                // good part.
+                nestedObjects.removeAll(listElts) ;
+            }
             this.printTypeKeyword = ! prefixMap.getMapping().values().contains(rdfNS);
             //printDetails() ;
         }
@@ -322,8 +373,134 @@ public abstract class TurtleShell {
             return G.listSubjects(graph) ;
         }
 
+        /** Whether the graph has no more than {@code n} triples with this subject. */
+        private boolean atMostTriples(Node subj, int n) {
+            ExtendedIterator<Triple> iter = find(subj, ANY, ANY) ;
+            try {
+                for ( int i = 0 ; i < n ; i++ ) {
+                    if ( ! iter.hasNext() )
+                        return true ;
+                    iter.next() ;
+                }
+                return ! iter.hasNext() ;
+            } finally { iter.close() ; }
+        }
+
         // ---- Data access
 
+        // ---- Analysis
+        // Whole graph analysis, or, when in bounded memory mode, decide node by node.
+
+        /** A blank node written as "[...]" as the object of its one triple */
+        private boolean isNestedObject(Node node) {
+            if ( boundedMemory )
+                return isNestable(node) ;
+            return nestedObjects.contains(node) ;
+        }
+
+        /** The elements of the well-formed list with this head, which is written as "(...)", or null */
+        private List<Node> listElements(Node node) {
+            if ( ! boundedMemory )
+                return lists.get(node) ;
+            if ( ! node.equals(lastListHead) ) {
+                lastListElts = isNestable(node) ? followHeadToTail(node) : null ;
+                lastListHead = node ;
+            }
+            return lastListElts ;
+        }
+
+        /** A blank node subject that is not referenced, written as "[...] ." */
+        private boolean isFreeBnode(Node node) {
+            if ( boundedMemory )
+                return node.isBlank() && inLinks(node) == 0 && containedInOneGraph(node) && ! blankNodesInTripleTerms.contains(node) ;
+            return freeBnodes.contains(node) ;
+        }
+
+        /** A list cell, written as part of its list */
+        private boolean isListElement(Node node) {
+            if ( boundedMemory )
+                // List cells are nested objects.
+                return false ;
+            return listElts.contains(node) ;
+        }
+
+        // --- Bounded memory
+
+        /** Find the blank nodes used in triple terms. These are not abbreviated. */
+        private void findBlankNodesInTripleTerms() {
+            ExtendedIterator<Triple> iter = find(ANY, ANY, ANY) ;
+            try {
+                for ( ; iter.hasNext() ; ) {
+                    Triple t = iter.next() ;
+                    if ( t.getSubject().isNodeTriple() )
+                        extractBlankNodesInTripleTerms(blankNodesInTripleTerms, t.getSubject());
+                    if ( t.getObject().isNodeTriple() )
+                        extractBlankNodesInTripleTerms(blankNodesInTripleTerms, t.getObject());
+                }
+            } finally { iter.close() ; }
+        }
+
+        private boolean isNestable(Node node) {
+            if ( ! node.isBlank() )
+                return false ;
+            Boolean b = nestable.getIfPresent(node) ;
+            if ( b == null ) {
+                b = calcNestable(node) ;
+                nestable.put(node, b) ;
+            }
+            return b ;
+        }
+
+        /** The object of exactly one triple, in this graph, and not in a triple term */
+        private boolean isSingleObject(Node node) {
+            return node.isBlank() && inLinks(node) == 1 && containedInOneGraph(node) && ! blankNodesInTripleTerms.contains(node) ;
+        }
+
+        /**
+         * A single object blank node can be nested if following the referring
+         * triples upwards reaches a subject that is not nested itself, which is
+         * then written at the top level. Cycles of blank nodes, and chains longer
+         * than {@link #MaxNestingDepth}, are written with labels.
+         */
+        private boolean calcNestable(Node node) {
+            if ( ! isSingleObject(node) )
+                return false ;
+            Node x = node ;
+            for ( int i = 0 ; i < MaxNestingDepth ; i++ ) {
+                Triple t = triple1(null, null, x) ;
+                if ( t == null )
+                    return false ;
+                Node subj = t.getSubject() ;
+                if ( subj.equals(node) )
+                    // Cycle.
+                    return false ;
+                if ( ! isSingleObject(subj) )
+                    return true ;
+                x = subj ;
+            }
+            return false ;
+        }
+
+        // Follow a list from its head; return the elements or null if not well-formed.
+        private List<Node> followHeadToTail(Node head) {
+            List<Node> elts = new ArrayList<>() ;
+            List<Triple> acc = new ArrayList<>() ;
+            Node x = head ;
+            while ( ! RDF_Nil.equals(x) ) {
+                acc.clear() ;
+                if ( ! validListElement(x, acc) )
+                    return null ;
+                if ( ! x.equals(head) && ! isSingleObject(x) )
+                    return null ;
+                // acc is (rdf:rest triple, rdf:first triple)
+                elts.add(acc.get(1).getObject()) ;
+                x = acc.get(0).getObject() ;
+                if ( x.equals(head) )
+                    return null ;
+            }
+            return elts ;
+        }
+
         /** Find Bnodes that can written as []
          * Subject position (top level) - only used for subject position anywhere in the dataset
          * Object position (any level) - only used as object once anywhere in the dataset
@@ -506,6 +683,12 @@ public abstract class TurtleShell {
         // ----
 
         private void writeGraph() {
+            if ( boundedMemory ) {
+                // Lists and nested objects are written with their referring triple
+                // or have labels; there are no remainders.
+                writeBySubjectRuns() ;
+                return ;
+            }
             Iterator<Node> subjects = listSubjects() ;
             boolean somethingWritten = writeBySubject(subjects) ;
             // Write remainders
@@ -618,14 +801,14 @@ public abstract class TurtleShell {
             boolean first = true ;
             for ( ; subjects.hasNext() ; ) {
                 Node subj = subjects.next() ;
-                if ( nestedObjects.contains(subj) )
+                if ( isNestedObject(subj) )
                     continue ;
-                if ( listElts.contains(subj) )
+                if ( isListElement(subj) )
                     continue ;
                 if ( !first )
                     out.println() ;
                 first = false ;
-                if ( freeBnodes.contains(subj) ) {
+                if ( isFreeBnode(subj) ) {
                     // Top level: write in "[....]" on "[] :p" form.
                     writeNestedObjectTopLevel(subj) ;
                     continue ;
@@ -637,6 +820,39 @@ public abstract class TurtleShell {
             return !first ;
         }
 
+        // Bounded memory: write the triples in the order of graph.find, in runs of the same subject.
+        // Each triple is written once, so each nested object is written once, even if the
+        // triples of a subject are in more than one run.
+        private boolean writeBySubjectRuns() {
+            boolean first = true ;
+            List<Triple> run = new ArrayList<>() ;
+            ExtendedIterator<Triple> iter = find(ANY, ANY, ANY) ;
+            try {
+                Triple next = iter.hasNext() ? iter.next() : null ;
+                while ( next != null ) {
+                    Node subj = next.getSubject() ;
+                    run.clear() ;
+                    while ( next != null && next.getSubject().equals(subj) ) {
+                        run.add(next) ;
+                        next = iter.hasNext() ? iter.next() : null ;
+                    }
+                    if ( isNestedObject(subj) )
+                        continue ;
+                    if ( !first )
+                        out.println() ;
+                    first = false ;
+                    // The run is all the triples of the subject.
+                    boolean wholeSubject = atMostTriples(subj, run.size()) ;
+                    if ( wholeSubject && isFreeBnode(subj) ) {
+                        writeNestedObjectTopLevel(subj) ;
+                        continue ;
+                    }
+                    writeCluster(subj, run) ;
+                }
+            } finally { iter.close() ; }
+            return !first ;
+        }
+
         // A Cluster is a collection of triples with the same subject.
         private void writeCluster(Node subject, Collection<Triple> cluster) {
             if ( cluster.isEmpty() )
@@ -888,7 +1104,7 @@ public abstract class TurtleShell {
 
                     // Special case List in List.
                     // Start on this line if last item was on this line.
-                    if ( lists.containsKey(n) )
+                    if ( listElements(n) != null )
                         thisItemFreshLine = lastItemFreshLine ;
 
                     // Starting point.
@@ -925,9 +1141,9 @@ public abstract class TurtleShell {
             // Maybe ought to be the same test as writePredicateObjectList
             // Order matters? - one connected objects may include list elements.
             if ( allowDeepPretty ) {
-                if ( lists.containsKey(n) )
+                if ( listElements(n) != null )
                     return true ;
-                if ( nestedObjects.contains(n) )
+                if ( isNestedObject(n) )
                     return true ;
             }
             if ( RDF_Nil.equals(n) )
@@ -939,9 +1155,10 @@ public abstract class TurtleShell {
         private void writeNodePretty(Node obj) {
             // Assumes "isPrettyNode" is true.
             // Order matters? - one connected objects may include list elements.
-            if ( lists.containsKey(obj) )
-                writeList(lists.get(obj)) ;
-            else if ( nestedObjects.contains(obj) )
+            List<Node> elts = listElements(obj) ;
+            if ( elts != null )
+                writeList(elts) ;
+            else if ( isNestedObject(obj) )
                 writeNestedObject(obj) ;
             else if ( RDF_Nil.equals(obj) )
                 out.print("()") ;
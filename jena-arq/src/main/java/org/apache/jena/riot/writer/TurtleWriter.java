@@ -24,16 +24,26 @@ import org.apache.jena.riot.system.PrefixMap ;
 import org.apache.jena.sparql.util.Context ;
 
 public class TurtleWriter extends TurtleWriterBase {
+    private final boolean boundedMemory;
+
+    public TurtleWriter() {
+        this(false);
+    }
+
+    /** Pretty writer; if {@code boundedMemory}, see {@link TurtleShell}. */
+    protected TurtleWriter(boolean boundedMemory) {
+        this.boundedMemory = boundedMemory;
+    }
 
     @Override
     protected void output(IndentedWriter iOut, Graph graph, PrefixMap prefixMap, String baseURI, Context context) {
-        TurtleWriter$ w = new TurtleWriter$(iOut, prefixMap, baseURI, context);
+        TurtleWriter$ w = new TurtleWriter$(iOut, prefixMap, baseURI, context, boundedMemory);
         w.write(graph);
     }
 
     private static class TurtleWriter$ extends TurtleShell {
-        public TurtleWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context) {
-            super(out, prefixMap, baseURI, context);
+        public TurtleWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context, boolean boundedMemory) {
+            super(out, prefixMap, baseURI, context, boundedMemory);
         }
 
         private void write(Graph graph) {
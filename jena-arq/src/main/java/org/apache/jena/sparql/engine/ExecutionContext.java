@@ -20,15 +20,18 @@ package org.apache.jena.sparql.engine;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 
 import org.apache.jena.graph.Graph;
 import org.apache.jena.query.ARQ;
 import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.engine.join.HashJoinStats;
 import org.apache.jena.sparql.engine.main.OpExecutor;
 import org.apache.jena.sparql.engine.main.OpExecutorFactory;
 import org.apache.jena.sparql.engine.main.QC;
 import org.apache.jena.sparql.function.FunctionEnv;
+import org.apache.jena.sparql.path.eval.PathCache;
 import org.apache.jena.sparql.util.Context;
 
 public class ExecutionContext implements FunctionEnv
@@ -44,6 +47,9 @@ public class ExecutionContext implements FunctionEnv
     private Collection<QueryIterator> allIterators     = null;
     private Graph activeGraph           = null;
     private OpExecutorFactory executor  = null;
+    // Shared by clones.
+    private HashJoinStats hashJoinStats = null;
+    private PathCache pathCache = null;
 
     /** Clone */
     public ExecutionContext(ExecutionContext other)
@@ -54,6 +60,8 @@ public class ExecutionContext implements FunctionEnv
         this.allIterators = other.allIterators;
         this.activeGraph = other.activeGraph;
         this.executor = other.executor;
+        this.hashJoinStats = other.hashJoinStats;
+        this.pathCache = other.pathCache;
     }
 
     /** Clone and change active graph - shares tracking */
@@ -76,11 +84,15 @@ public class ExecutionContext implements FunctionEnv
     public ExecutionContext(Context params, Graph activeGraph, DatasetGraph dataset, OpExecutorFactory factory) {
         this.context = params;
         this.dataset = dataset;
-        this.openIterators = new ArrayList<>();
+        // Iterators may be created on other threads (ARQ.parallelExecution).
+        this.openIterators = Collections.synchronizedList(new ArrayList<>());
         if ( TrackAllIterators )
-            this.allIterators  = new ArrayList<>();
+            this.allIterators  = Collections.synchronizedList(new ArrayList<>());
         this.activeGraph = activeGraph;
         this.executor = factory;
+        this.hashJoinStats = new HashJoinStats();
+        if ( params != null && params.isTrue(ARQ.pathCache) )
+            this.pathCache = new PathCache();
     }
 
     @Override
@@ -106,6 +118,19 @@ public class ExecutionContext implements FunctionEnv
         return allIterators.iterator();
     }
 
+    /** Statistics for the hash joins of this execution. */
+    public HashJoinStats getHashJoinStats() {
+        return hashJoinStats;
+    }
+
+    /**
+     * Transitive closures of property paths computed by this execution,
+     * or null if not enabled by {@link ARQ#pathCache}.
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
     public OpExecutorFactory getExecutor() {
         return executor;
     }
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+
+/**
+ * Cache of query plans: the algebra expression of a query after optimization, ready
+ * to execute. A query engine that finds the plan for a query in the cache skips
+ * {@code Algebra.compile} and the optimizer.
+ * <p>
+ * There is one cache per dataset, kept in the dataset's context. The key is the
+ * query engine, the query in its normalized (serialized) form, and the optimizer
+ * settings in the context of the execution. Queries with an initial binding are not
+ * cached.
+ * <p>
+ * Plans do not depend on the data. Choices made from the data, such as the order of
+ * triple patterns from statistics, happen when the plan is executed.
+ * {@link #invalidate} drops all the plans of a dataset.
+ * <p>
+ * The cache is used when the context setting {@link ARQ#planCache} is true.
+ * <p>
+ * A prepared query ({@link org.apache.jena.sparql.exec.QueryExecPrepared}) has its
+ * own cache, passed to the query engine in the context of each execution
+ * ({@link #symPlanCacheExec}). The plan is optimized without the initial binding and
+ * the binding is substituted into the cached plan for each execution. That cache is
+ * made for the query ({@link #PlanCache(int, Query)}), and the query part of the key
+ * is made once, when the query is prepared.
+ */
+public class PlanCache {
+    /** Maximum number of plans for one dataset. */
+    public static final int DefaultSize = 1000;
+
+    private static final Symbol symPlanCache = Symbol.create(ARQConstants.systemVarNS+"planCache");
+    /** Context symbol for the plan cache of a single execution, whatever the setting of {@link ARQ#planCache}. */
+    public static final Symbol symPlanCacheExec = Symbol.create(ARQConstants.systemVarNS+"planCacheExec");
+    private static final String optPrefix = ARQ.arqParamNS+"opt";
+
+    private final Cache<String, Op> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Cache for one query: the query and its string form for the key.
+    private final Query query;
+    private final String queryString;
+
+    public PlanCache(int size) {
+        this(size, null);
+    }
+
+    /**
+     * A cache for the plans of one query. The string form of the query, used in
+     * the key, is made now, not for each execution.
+     */
+    public PlanCache(int size, Query query) {
+        this.cache = CacheFactory.createCache(size);
+        this.query = query;
+        this.queryString = ( query == null ) ? null : query.toString();
+    }
+
+    /** The plan cache of the dataset, creating it if necessary. Returns null if the dataset has no context. */
+    public static PlanCache get(DatasetGraph dsg) {
+        Context cxt = ( dsg == null ) ? null : dsg.getContext();
+        if ( cxt == null )
+            return null;
+        PlanCache planCache = cxt.get(symPlanCache);
+        if ( planCache != null )
+            return planCache;
+        synchronized(cxt) {
+            planCache = cxt.get(symPlanCache);
+            if ( planCache == null ) {
+                planCache = new PlanCache(DefaultSize);
+                cxt.set(symPlanCache, planCache);
+            }
+            return planCache;
+        }
+    }
+
+    /** Drop the cached plans of the dataset. */
+    public static void invalidate(DatasetGraph dsg) {
+        Context cxt = ( dsg == null ) ? null : dsg.getContext();
+        if ( cxt == null )
+            return;
+        PlanCache planCache = cxt.get(symPlanCache);
+        if ( planCache != null )
+            planCache.clear();
+    }
+
+    /** The key, in this cache, for a query executed by the engine with the context. */
+    public String key(Class<?> engine, Query query, Context context) {
+        String qs = ( query == this.query ) ? queryString : query.toString();
+        return key(engine, qs, context);
+    }
+
+    private static String key(Class<?> engine, String queryString, Context context) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(engine.getName()).append('\n');
+        // Settings that change the optimizer.
+        List<String> settings = new ArrayList<>();
+        for ( Symbol sym : context.keys() ) {
+            String name = sym.getSymbol();
+            if ( sym.equals(ARQ.optimization) || sym.equals(ARQConstants.sysOptimizerFactory) || name.startsWith(optPrefix) )
+                settings.add(name+"="+context.get(sym));
+        }
+        Collections.sort(settings);
+        settings.forEach(s->sb.append(s).append('\n'));
+        sb.append(queryString);
+        return sb.toString();
+    }
+
+    /** Get a plan, or null. */
+    public Op get(String key) {
+        Op op = cache.getIfPresent(key);
+        if ( op == null )
+            misses.increment();
+        else
+            hits.increment();
+        return op;
+    }
+
+    public void put(String key, Op op) {
+        cache.put(key, op);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public long getHits()   { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+}
@@ -21,6 +21,7 @@ package org.apache.jena.sparql.engine;
 import org.apache.jena.atlas.lib.Closeable;
 import org.apache.jena.atlas.logging.Log;
 import org.apache.jena.irix.IRIs;
+import org.apache.jena.query.ARQ;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecException;
 import org.apache.jena.sparql.ARQConstants;
@@ -50,13 +51,33 @@ public abstract class QueryEngineBase implements OpEval, Closeable
     private Query query = null;
     private Op queryOp = null;
     private Plan plan = null;
+    // Plan cache, when in use.
+    private PlanCache planCache = null;
+    private String planKey = null;
+    private boolean planFromCache = false;
 
     protected QueryEngineBase(Query query, DatasetGraph dsg, Binding input, Context cxt) {
         this(dsg, input, cxt);
         this.query = query;
         query.setResultVars();
-        // Unoptimized so far.
-        setOp(createOp(query));
+        if ( context != null ) {
+            // A prepared query has its own plan cache; initial bindings are applied to the cached plan.
+            planCache = context.get(PlanCache.symPlanCacheExec);
+            if ( planCache == null && context.isTrue(ARQ.planCache) && startBinding.isEmpty() )
+                planCache = PlanCache.get(dsg);
+        }
+        Op op = null;
+        if ( planCache != null ) {
+            planKey = planCache.key(getClass(), query, context);
+            op = planCache.get(planKey);
+        }
+        if ( op != null ) {
+            // Already optimized.
+            planFromCache = true;
+            setOp(op);
+        } else
+            // Unoptimized so far.
+            setOp(createOp(query));
         dataset = prepareDataset(dsg, query);
     }
 
@@ -116,13 +137,25 @@ public abstract class QueryEngineBase implements OpEval, Closeable
     protected Plan createPlan() {
         // Decide the algebra to actually execute.
         Op op = queryOp;
-        if ( !startBinding.isEmpty() ) {
-            op = Substitute.substitute(op, startBinding);
-            context.put(ARQConstants.sysCurrentAlgebra, op);
-            // Don't reset the startBinding because it also is
-            // needed in the output.
+        if ( planCache != null ) {
+            // Optimize without the initial binding, so the plan can be reused.
+            if ( ! planFromCache ) {
+                op = modifyOp(op);
+                planCache.put(planKey, op);
+            }
+            if ( !startBinding.isEmpty() ) {
+                op = Substitute.substitute(op, startBinding);
+                context.put(ARQConstants.sysCurrentAlgebra, op);
+            }
+        } else {
+            if ( !startBinding.isEmpty() ) {
+                op = Substitute.substitute(op, startBinding);
+                context.put(ARQConstants.sysCurrentAlgebra, op);
+                // Don't reset the startBinding because it also is
+                // needed in the output.
+            }
+            op = modifyOp(op);
         }
-        op = modifyOp(op);
 
         QueryIterator queryIterator = null;
         if ( dataset != null )
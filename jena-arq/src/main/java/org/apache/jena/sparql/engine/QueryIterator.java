@@ -19,6 +19,7 @@
 package org.apache.jena.sparql.engine;
 
 import java.util.Iterator ;
+import java.util.List ;
 
 import org.apache.jena.atlas.lib.Closeable ;
 import org.apache.jena.sparql.engine.binding.Binding ;
@@ -31,6 +32,23 @@ public interface QueryIterator extends Closeable, Iterator<Binding>, PrintSerial
     /** Get next binding */
     public Binding nextBinding() ;
 
+    /**
+     * Move up to {@code max} bindings to the end of {@code batch}, and return the
+     * number moved. Returns 0 only when there are no more bindings.
+     * <p>
+     * This is the batch form of {@link #nextBinding}.
+     * Iterators may implement it more efficiently than one binding at a time;
+     * the default is to call {@link #hasNext} and {@link #nextBinding}.
+     */
+    public default int nextBatch(List<Binding> batch, int max) {
+        int n = 0 ;
+        while ( n < max && hasNext() ) {
+            batch.add(nextBinding()) ;
+            n++ ;
+        }
+        return n ;
+    }
+
     /**
      * Cancels the query as soon as is possible for the given iterator
      */
@@ -25,6 +25,7 @@ import java.util.Comparator ;
 import java.util.Iterator ;
 import java.util.List ;
 
+import org.apache.jena.atlas.data.KeyedComparator ;
 import org.apache.jena.atlas.logging.Log ;
 import org.apache.jena.graph.Node ;
 import org.apache.jena.query.Query ;
@@ -40,7 +41,12 @@ import org.apache.jena.sparql.function.FunctionEnv ;
 import org.apache.jena.sparql.function.FunctionEnvBase ;
 import org.apache.jena.sparql.util.NodeUtils ;
 
-public class BindingComparator implements java.util.Comparator<Binding>
+/**
+ * Compare bindings by a list of sort conditions, then by the terms of the bindings.
+ * As a {@link KeyedComparator}, the sort key of a binding is the values of the sort
+ * conditions, so sorting evaluates each condition once for each binding.
+ */
+public class BindingComparator implements KeyedComparator<Binding, NodeValue[]>
 {
     private static Comparator<Var> varComparator = new Comparator<Var>()
         {
@@ -68,6 +74,56 @@ public class BindingComparator implements java.util.Comparator<Binding>
     
     public List<SortCondition> getConditions() { return Collections.unmodifiableList(conditions) ; } 
 
+    /** The values of the sort conditions for the binding; null for unbound or error. */
+    @Override
+    public NodeValue[] key(Binding binding)
+    {
+        NodeValue[] key = new NodeValue[conditions.size()] ;
+        int i = 0 ;
+        for ( SortCondition sc : conditions )
+            key[i++] = eval(sc, binding) ;
+        return key ;
+    }
+
+    /** A copy of the binding with all its values, for example, decoded from storage. */
+    @Override
+    public Binding detach(Binding binding)
+    {
+        return BindingFactory.copy(binding) ;
+    }
+
+    @Override
+    public int compare(NodeValue[] key1, Binding bind1, NodeValue[] key2, Binding bind2)
+    {
+        int i = 0 ;
+        for ( SortCondition sc : conditions )
+        {
+            int x = compareNodes( key1[i], key2[i], sc.direction );
+            i++ ;
+            if ( x != Expr.CMP_EQUAL )
+                return x;
+        }
+        return compareBindingsSyntactic(bind1, bind2) ;
+    }
+
+    private NodeValue eval(SortCondition sc, Binding binding)
+    {
+        if ( sc.expression == null )
+            throw new QueryExecException( "Broken sort condition" );
+        try
+        {
+            return sc.expression.eval( binding, env );
+        }
+        catch ( VariableNotBoundException ex )
+        {
+        }
+        catch ( ExprEvalException ex )
+        {
+            Log.warn( this, ex.getMessage() );
+        }
+        return null ;
+    }
+
     // Compare bindings by iterating.
     // Node comparsion is:
     //  Compare by 
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import java.util.concurrent.* ;
+import java.util.concurrent.atomic.AtomicBoolean ;
+import java.util.concurrent.atomic.AtomicInteger ;
+import java.util.function.Consumer ;
+import java.util.function.Supplier ;
+
+import org.apache.jena.atlas.io.IndentedWriter ;
+import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.query.QueryCancelledException ;
+import org.apache.jena.query.QueryExecException ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.serializer.SerializationContext ;
+
+/**
+ * A query iterator that is created and evaluated on another thread, with the results
+ * passed back through a bounded queue. Used to evaluate independent parts of a query
+ * in parallel (see {@link ARQ#parallelExecution}).
+ * <p>
+ * Evaluation starts when this iterator is created. If no thread from the pool has
+ * started the work when the results are first needed, it is done on the calling thread
+ * instead. This is also what happens when the pool is busy and its queue of waiting
+ * work is full. Iterators created on a pool thread do not use the pool again.
+ * <p>
+ * The results are copied on the pool thread so that they do not depend on the state
+ * of that thread, such as a transaction.
+ */
+public class QueryIterAsync extends QueryIter
+{
+    private static final int QueueSize     = 100 ;
+    private static final int PoolSize      = Math.max(2, Runtime.getRuntime().availableProcessors()) ;
+    private static final int PoolQueueSize = 4*PoolSize ;
+
+    private static final ThreadLocal<Boolean> onPoolThread = ThreadLocal.withInitial(()->false) ;
+    private static final AtomicInteger threadCounter = new AtomicInteger(0) ;
+    // Work rejected when the queue is full is left unclaimed, to be done by the calling thread.
+    private static final ExecutorService executor =
+        new ThreadPoolExecutor(PoolSize, PoolSize, 0L, TimeUnit.MILLISECONDS,
+                               new ArrayBlockingQueue<>(PoolQueueSize),
+                               r->{
+                                   Thread thread = new Thread(()->{
+                                       onPoolThread.set(true) ;
+                                       r.run() ;
+                                   }, "ARQ-parallel-"+threadCounter.incrementAndGet()) ;
+                                   thread.setDaemon(true) ;
+                                   return thread ;
+                               },
+                               new ThreadPoolExecutor.DiscardPolicy()) ;
+
+    // Queue marker for the end of the results.
+    private static final Object END = new Object() ;
+
+    /** Whether the current thread is one of the pool threads. */
+    public static boolean onPoolThread() {
+        return onPoolThread.get() ;
+    }
+
+    /** Evaluate on another thread. The supplier is called on the thread doing the work. */
+    public static QueryIterator create(Supplier<QueryIterator> supplier, ExecutionContext execCxt) {
+        return create(supplier, Runnable::run, execCxt) ;
+    }
+
+    /**
+     * Evaluate on another thread. The supplier is called on the thread doing the work.
+     * On a pool thread, the work is passed to {@code poolThreadRunner}, which can set up
+     * the thread, for example by starting a transaction. If it does not run the work, the
+     * work is done on the calling thread.
+     */
+    public static QueryIterator create(Supplier<QueryIterator> supplier, Consumer<Runnable> poolThreadRunner, ExecutionContext execCxt) {
+        return new QueryIterAsync(supplier, poolThreadRunner, execCxt) ;
+    }
+
+    private final Supplier<QueryIterator> supplier ;
+    private final AtomicBoolean claimed = new AtomicBoolean(false) ;
+    // Capacity bounded; the space is allocated as the queue is used.
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>(QueueSize) ;
+    private volatile QueryIterator subIterator = null ;
+    private volatile boolean cancelled = false ;
+    private volatile boolean stopped = false ;
+    // Work done on the calling thread.
+    private QueryIterator local = null ;
+    private Binding slot = null ;
+    private boolean finished = false ;
+
+    private QueryIterAsync(Supplier<QueryIterator> supplier, Consumer<Runnable> poolThreadRunner, ExecutionContext execCxt) {
+        super(execCxt) ;
+        this.supplier = supplier ;
+        executor.execute(()->{
+            if ( claimed.get() )
+                return ;
+            try {
+                poolThreadRunner.accept(()->{
+                    if ( claimed.compareAndSet(false, true) )
+                        produce() ;
+                }) ;
+            } catch (RuntimeException ex) {
+                // Setting up the pool thread failed; if not claimed, the calling thread does the work.
+            }
+        }) ;
+    }
+
+    private void produce() {
+        QueryIterator qIter = null ;
+        try {
+            qIter = supplier.get() ;
+            subIterator = qIter ;
+            if ( cancelled )
+                qIter.cancel() ;
+            while ( !stopped && qIter.hasNext() )
+                put(BindingFactory.copy(qIter.next())) ;
+            put(END) ;
+        } catch (Throwable th) {
+            put(th) ;
+        } finally {
+            if ( qIter != null )
+                qIter.close() ;
+        }
+    }
+
+    private void put(Object x) {
+        try {
+            while ( !stopped ) {
+                if ( queue.offer(x, 100, TimeUnit.MILLISECONDS) )
+                    return ;
+            }
+        } catch (InterruptedException ex) {
+            stopped = true ;
+        }
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        if ( slot != null )
+            return true ;
+        if ( finished )
+            return false ;
+        if ( local == null && claimed.compareAndSet(false, true) ) {
+            // Not started on the pool: do it here.
+            local = supplier.get() ;
+            subIterator = local ;
+            if ( cancelled )
+                local.cancel() ;
+        }
+        if ( local != null ) {
+            if ( !local.hasNext() ) {
+                finished = true ;
+                return false ;
+            }
+            slot = local.next() ;
+            return true ;
+        }
+        Object x ;
+        try {
+            x = queue.take() ;
+        } catch (InterruptedException ex) {
+            throw new QueryCancelledException() ;
+        }
+        if ( x == END ) {
+            finished = true ;
+            return false ;
+        }
+        if ( x instanceof Throwable ) {
+            finished = true ;
+            Throwable th = (Throwable)x ;
+            if ( th instanceof RuntimeException )
+                throw (RuntimeException)th ;
+            if ( th instanceof Error )
+                throw (Error)th ;
+            throw new QueryExecException(th) ;
+        }
+        slot = (Binding)x ;
+        return true ;
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        Binding b = slot ;
+        slot = null ;
+        return b ;
+    }
+
+    @Override
+    protected void closeIterator() {
+        // The pool thread closes its own iterator.
+        stopped = true ;
+        // Not started: do not start.
+        claimed.set(true) ;
+        queue.clear() ;
+        if ( local != null )
+            local.close() ;
+    }
+
+    @Override
+    protected void requestCancel() {
+        cancelled = true ;
+        QueryIterator qIter = subIterator ;
+        if ( qIter != null )
+            qIter.cancel() ;
+    }
+
+    @Override
+    public void output(IndentedWriter out, SerializationContext sCxt)
+    { out.println(Lib.className(this)) ; }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.List ;
+
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
@@ -64,6 +66,16 @@ public class QueryIterConvert extends QueryIter1
         return converter.convert(getInput().nextBinding()) ;
     }
 
+    @Override
+    protected int moveToNextBatch(List<Binding> batch, int max)
+    {
+        int start = batch.size() ;
+        int n = getInput().nextBatch(batch, max) ;
+        for ( int i = start ; i < start+n ; i++ )
+            batch.set(i, converter.convert(batch.get(i))) ;
+        return n ;
+    }
+
     @Override
     protected void details(IndentedWriter out, SerializationContext cxt)
     { 
@@ -21,10 +21,12 @@ package org.apache.jena.sparql.engine.iterator ;
 import java.util.* ;
 
 import org.apache.jena.atlas.data.* ;
+import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.lib.InternalErrorException ;
 import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.SortCondition ;
 import org.apache.jena.sparql.ARQException ;
+import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
@@ -34,10 +36,20 @@ import org.apache.jena.sparql.system.SerializationFactoryFinder;
 
 /**
  * A QueryIterator that suppresses items already seen. This will stream results
- * until a threshold is passed. At that point, it will fill a disk-backed
- * {@link DistinctDataNet}, then yield   
- * not  return any results until the input iterator has been exhausted.
- * 
+ * until a threshold is passed.
+ * <p>
+ * After the threshold, if there is no order to preserve, results continue to stream.
+ * The items seen after the threshold are recorded as 64 bit hashes in memory and
+ * the items themselves are written to disk. An item with a new hash is new and is
+ * returned immediately. An item whose hash has been seen before may be a duplicate;
+ * it is put in a disk-backed {@link DistinctDataBag} and these possible duplicates
+ * are resolved against the items returned, and any that are new are returned, when
+ * the input has been exhausted.
+ * <p>
+ * If there is an order to preserve (DISTINCT of ORDER BY), after the threshold, all
+ * the input is put in a {@link DistinctDataBag}, sorted, and no results are returned
+ * until the input iterator has been exhausted.
+ *
  * @see DistinctDataBag
  */
 public class QueryIterDistinct extends QueryIter1
@@ -49,6 +61,12 @@ public class QueryIterDistinct extends QueryIter1
     private Binding slot = null ;
     private final  List<SortCondition> preserveOrder;
 
+    // Streaming, after the threshold.
+    private HashFilter hashes = null ;
+    private HashFilter candidateHashes = null ;
+    private DefaultDataBag<Binding> returned = null ;
+    private List<DataBag<Binding>> passes = new ArrayList<>() ;
+
     public QueryIterDistinct(QueryIterator qIter, List<SortCondition> preserveOrder, ExecutionContext execCxt) {
         super(qIter, execCxt) ;
         this.preserveOrder = (preserveOrder!=null) ? preserveOrder : Collections.emptyList();
@@ -68,7 +86,7 @@ public class QueryIterDistinct extends QueryIter1
             return iterator.hasNext() ;
        
         // At this point, we are currently in the initial pre-threshold mode.
-        if ( seen.size() < memThreshold ) {
+        if ( db == null && seen.size() < memThreshold ) {
             Binding b = getInputNextUnseen() ;
             if ( b == null )
                 return false ;
@@ -76,12 +94,41 @@ public class QueryIterDistinct extends QueryIter1
             slot = b ;
             return true ;
         }
-        
-        // Hit the threshold.
-        loadDataBag() ;
-        // Switch to iterating from the data bag.  
-        iterator = db.iterator() ;
-        // Leave slot null.
+
+        if ( db == null ) {
+            // Hit the threshold.
+            ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(super.getExecContext().getContext()) ;
+            Comparator<Binding> comparator = new BindingComparator(preserveOrder, super.getExecContext()) ;
+            this.db = BagFactory.newDistinctBag(policy, SerializationFactoryFinder.bindingSerializationFactory(), comparator) ;
+            if ( ! preserveOrder.isEmpty() ) {
+                loadDataBag() ;
+                // Switch to iterating from the data bag.
+                iterator = db.iterator() ;
+                // Leave slot null.
+                return iterator.hasNext() ;
+            }
+            hashes = new HashFilter() ;
+            candidateHashes = new HashFilter() ;
+            returned = BagFactory.newDefaultBag(ThresholdPolicyFactory.policyFromContext(super.getExecContext().getContext()),
+                                                SerializationFactoryFinder.bindingSerializationFactory()) ;
+        }
+
+        // Streaming.
+        for(;;) {
+            Binding b = getInputNextUnseen() ;
+            if ( b == null )
+                break ;
+            long h = hash(b) ;
+            if ( hashes.add(h) ) {
+                returned.add(b) ;
+                slot = b ;
+                return true ;
+            }
+            // Possible duplicate.
+            candidateHashes.add(h) ;
+            db.add(b) ;
+        }
+        iterator = resolveCandidates() ;
         return iterator.hasNext() ;
     }
     
@@ -94,9 +141,6 @@ public class QueryIterDistinct extends QueryIter1
      * we need to ensure the spill buckets respect sort order.
      */  
     private void loadDataBag() {
-        ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(super.getExecContext().getContext()) ;
-        Comparator<Binding> comparator = new BindingComparator(preserveOrder, super.getExecContext()) ;
-        this.db = BagFactory.newDistinctBag(policy, SerializationFactoryFinder.bindingSerializationFactory(), comparator) ;
         for(;;) {
             Binding b = getInputNextUnseen() ;
             if ( b == null )
@@ -104,6 +148,39 @@ public class QueryIterDistinct extends QueryIter1
             db.add(b) ;
         }
     }
+
+    /**
+     * The possible duplicates that have not been returned.
+     * The items returned that have a hash in common with a possible duplicate are
+     * read back from disk, up to the threshold at a time, and the possible duplicates
+     * checked against them. Usually this is one pass.
+     */
+    private Iterator<Binding> resolveCandidates() {
+        if ( db.isEmpty() )
+            return Iter.nullIterator() ;
+        long chunkSize = Math.max(1, memThreshold) ;
+        Iterator<Binding> candidates = db.iterator() ;
+        Iterator<Binding> iter = returned.iterator() ;
+        for(;;) {
+            Set<Binding> matches = new HashSet<>() ;
+            while ( iter.hasNext() && matches.size() < chunkSize ) {
+                Binding b = iter.next() ;
+                if ( candidateHashes.contains(hash(b)) )
+                    matches.add(b) ;
+            }
+            if ( ! iter.hasNext() )
+                return Iter.filter(candidates, b->!matches.contains(b)) ;
+            DefaultDataBag<Binding> remaining =
+                BagFactory.newDefaultBag(ThresholdPolicyFactory.policyFromContext(super.getExecContext().getContext()),
+                                         SerializationFactoryFinder.bindingSerializationFactory()) ;
+            passes.add(remaining) ;
+            candidates.forEachRemaining(b->{
+                if ( ! matches.contains(b) )
+                    remaining.add(b) ;
+            }) ;
+            candidates = remaining.iterator() ;
+        }
+    }
     
     /** Return the next binding from the input filtered by seen.
      * This does not update seen.
@@ -127,6 +204,84 @@ public class QueryIterDistinct extends QueryIter1
         return b ;
     }
 
+    /**
+     * A 64 bit hash of a binding, consistent with {@link Binding#equals}.
+     * Independent of the order of the variables.
+     */
+    /*package*/ static long hash(Binding binding) {
+        long h = 0 ;
+        Iterator<Var> vars = binding.vars() ;
+        while ( vars.hasNext() ) {
+            Var v = vars.next() ;
+            long x = ((long)v.hashCode() << 32) ^ (binding.get(v).hashCode() & 0xFFFFFFFFL) ;
+            h += mix(x) ;
+        }
+        return mix(h) ;
+    }
+
+    // Finalizer of MurmurHash3.
+    private static long mix(long x) {
+        x ^= x >>> 33 ;
+        x *= 0xff51afd7ed558ccdL ;
+        x ^= x >>> 33 ;
+        x *= 0xc4ceb9fe1a85ec53L ;
+        x ^= x >>> 33 ;
+        return x ;
+    }
+
+    /** Set of 64 bit hashes: open addressing, kept at most half full. */
+    private static class HashFilter {
+        private long[] table = new long[1024] ;
+        private boolean hasZero = false ;
+        private int size = 0 ;
+
+        /** Add a hash; return true if it was not already present. */
+        boolean add(long h) {
+            if ( h == 0 ) {
+                boolean b = ! hasZero ;
+                hasZero = true ;
+                return b ;
+            }
+            if ( 2*(size+1) > table.length )
+                resize() ;
+            if ( ! insert(table, h) )
+                return false ;
+            size++ ;
+            return true ;
+        }
+
+        boolean contains(long h) {
+            if ( h == 0 )
+                return hasZero ;
+            int mask = table.length-1 ;
+            for ( int i = (int)h & mask ; table[i] != 0 ; i = (i+1) & mask ) {
+                if ( table[i] == h )
+                    return true ;
+            }
+            return false ;
+        }
+
+        private static boolean insert(long[] table, long h) {
+            int mask = table.length-1 ;
+            int i = (int)h & mask ;
+            for ( ; table[i] != 0 ; i = (i+1) & mask ) {
+                if ( table[i] == h )
+                    return false ;
+            }
+            table[i] = h ;
+            return true ;
+        }
+
+        private void resize() {
+            long[] table2 = new long[2*table.length] ;
+            for ( long h : table ) {
+                if ( h != 0 )
+                    insert(table2, h) ;
+            }
+            table = table2 ;
+        }
+    }
+
     @Override
     protected Binding moveToNextBinding() {
         if ( slot != null ) {
@@ -148,6 +303,13 @@ public class QueryIterDistinct extends QueryIter1
             db.close() ;
         }
         db = null ;
+        if ( returned != null )
+            returned.close() ;
+        returned = null ;
+        passes.forEach(DataBag::close) ;
+        passes.clear() ;
+        hashes = null ;
+        candidateHashes = null ;
     }
 
     // We don't need to do anything. We're a QueryIter1
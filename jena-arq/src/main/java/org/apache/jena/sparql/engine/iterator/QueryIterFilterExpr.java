@@ -18,6 +18,8 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.List ;
+
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.atlas.logging.Log ;
@@ -61,6 +63,33 @@ public class QueryIterFilterExpr extends QueryIterProcessBinding
         }
     }
 
+    // One try-catch for the batch. A row that throws is handled as accept() does,
+    // and the batch continues with the next row.
+    @Override
+    protected void acceptBatch(List<Binding> input, List<Binding> output)
+    {
+        int n = input.size() ;
+        int i = 0 ;
+        while ( i < n ) {
+            try {
+                for ( ; i < n ; i++ ) {
+                    Binding b = input.get(i) ;
+                    if ( expr.isSatisfied(b, super.getExecContext()) )
+                        output.add(b) ;
+                }
+            } catch (ExprException ex)
+            { // Some evaluation exception
+                Log.warn(this, "Expression Exception in "+expr, ex) ;
+                i++ ;
+            }
+            catch (RuntimeException ex)
+            {
+                Log.warn(this, "General exception in "+expr, ex) ;
+                i++ ;
+            }
+        }
+    }
+
     @Override
     protected void details(IndentedWriter out, SerializationContext cxt)
     { 
@@ -20,15 +20,23 @@ package org.apache.jena.sparql.engine.iterator;
 
 import java.util.ArrayList ;
 import java.util.Collection ;
+import java.util.Comparator ;
 import java.util.Iterator ;
 import java.util.List ;
+import java.util.NoSuchElementException ;
 
+import org.apache.jena.atlas.data.BagFactory ;
+import org.apache.jena.atlas.data.SortedDataBag ;
+import org.apache.jena.atlas.data.ThresholdPolicy ;
+import org.apache.jena.atlas.data.ThresholdPolicyFactory ;
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.iterator.IteratorDelayedInitialization ;
+import org.apache.jena.atlas.iterator.PeekIterator ;
 import org.apache.jena.atlas.lib.Pair ;
 import org.apache.jena.ext.com.google.common.collect.Multimap;
 import org.apache.jena.ext.com.google.common.collect.MultimapBuilder;
 import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.core.VarExprList ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
@@ -39,10 +47,20 @@ import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.expr.ExprAggregator ;
 import org.apache.jena.sparql.expr.NodeValue ;
 import org.apache.jena.sparql.expr.aggregate.Accumulator ;
+import org.apache.jena.sparql.system.SerializationFactoryFinder ;
+import org.apache.jena.sparql.util.NodeUtils ;
 
+/**
+ * Grouping and aggregation. Groups are kept in memory unless the number of groups
+ * exceeds the {@link ARQ#spillToDiskThreshold} setting. Once that happens, input rows
+ * for further new groups are sorted by group key in a disk-backed {@link SortedDataBag}
+ * and aggregated one group at a time when the bag is read back.
+ */
 public class QueryIterGroup extends QueryIterPlainWrapper
 {
 	private final QueryIterator embeddedIterator;
+	// Set if the grouping spills.
+	private SortedDataBag<Binding> db = null;
 
 	public QueryIterGroup(QueryIterator qIter,
                           VarExprList groupVars,
@@ -50,26 +68,30 @@ public class QueryIterGroup extends QueryIterPlainWrapper
                           ExecutionContext execCxt) {
 	    // Delayed initalization
 	    // Does the group calculation when first used (typically hasNext)
-        super(calc(qIter, groupVars, aggregators, execCxt),
-              execCxt);
+        super(null, execCxt);
         this.embeddedIterator = qIter;
+        this.setIterator(calc(qIter, groupVars, aggregators, execCxt));
     }
 
     @Override
     public void requestCancel() {
+        if ( this.db != null )
+            this.db.cancel();
         this.embeddedIterator.cancel();
         super.requestCancel();
     }
 
     @Override
     protected void closeIterator() {
+        if ( this.db != null )
+            this.db.close();
         this.embeddedIterator.close();
         super.closeIterator();
     }
 
 	private static Pair<Var, Accumulator> placeholder = Pair.create((Var)null, (Accumulator)null) ;
 
-    private static Iterator<Binding> calc(final QueryIterator iter,
+    private Iterator<Binding> calc(final QueryIterator iter,
                                           final VarExprList groupVarExpr,
                                           final List<ExprAggregator> aggregators,
                                           final ExecutionContext execCxt) {
@@ -106,38 +128,58 @@ public class QueryIterGroup extends QueryIterPlainWrapper
 
                 // Case: there is input.
                 // Phase 1 : Create keys and aggregators per key, and pump bindings through the aggregators.
+                // If there are too many groups, rows for new groups go to the spill bag.
+                long threshold = execCxt.getContext().getLong(ARQ.spillToDiskThreshold, -1);
+                Comparator<Binding> keyComparator = null;
                 Multimap<Binding, Pair<Var, Accumulator>> accumulators = MultimapBuilder.hashKeys().arrayListValues().build();
-                while (iter.hasNext()) {
-                    Binding b = iter.nextBinding();
-                    Binding key = genKey(groupVarExpr, b, execCxt);
-
-                    if ( !hasAggregators ) {
-                        // Put in a dummy to remember the input.
-                        accumulators.put(key, placeholder);
-                        continue;
-                    }
+                List<Binding> batch = new ArrayList<>(BatchSize);
+                while (iter.nextBatch(batch, BatchSize) > 0) {
+                    for ( Binding b : batch ) {
+                        Binding key = genKey(groupVarExpr, b, execCxt);
 
-                    // Create if does not exist.
-                    if ( !accumulators.containsKey(key) ) {
-                        for ( ExprAggregator agg : aggregators ) {
-                            Accumulator x = agg.getAggregator().createAccumulator();
-                            Var v = agg.getVar();
-                            accumulators.put(key, Pair.create(v, x));
+                        if ( db == null && threshold >= 0 && accumulators.keySet().size() >= threshold && !accumulators.containsKey(key) ) {
+                            ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(execCxt.getContext());
+                            keyComparator = new KeyComparator(groupVarExpr, execCxt);
+                            db = BagFactory.newSortedBag(policy, SerializationFactoryFinder.bindingSerializationFactory(), keyComparator);
+                        }
+                        if ( db != null && !accumulators.containsKey(key) ) {
+                            db.add(b);
+                            continue;
+                        }
+
+                        if ( !hasAggregators ) {
+                            // Put in a dummy to remember the input.
+                            accumulators.put(key, placeholder);
+                            continue;
                         }
-                    }
 
-                    // Do the per-accumulator calculation.
-                    for ( Pair<Var, Accumulator> pair : accumulators.get(key) )
-                        pair.getRight().accumulate(b, execCxt);
+                        // Create if does not exist.
+                        if ( !accumulators.containsKey(key) ) {
+                            for ( ExprAggregator agg : aggregators ) {
+                                Accumulator x = agg.getAggregator().createAccumulator();
+                                Var v = agg.getVar();
+                                accumulators.put(key, Pair.create(v, x));
+                            }
+                        }
+
+                        // Do the per-accumulator calculation.
+                        for ( Pair<Var, Accumulator> pair : accumulators.get(key) )
+                            pair.getRight().accumulate(b, execCxt);
+                    }
+                    batch.clear();
                 }
 
                 // Phase 2 : There was input and so there are some groups.
                 // For each bucket, get binding, add aggregator values to the binding.
                 // We used AccNull so there are always accumulators.
 
-                if ( !hasAggregators )
+                if ( !hasAggregators ) {
                     // We used placeholder so there are always the key.
-                    return accumulators.keySet().iterator();
+                    Iterator<Binding> keys = accumulators.keySet().iterator();
+                    if ( db == null )
+                        return keys;
+                    return Iter.concat(keys, new SpilledGroups(db.iterator(), keyComparator, groupVarExpr, aggregators, execCxt));
+                }
 
                 List<Binding> results = new ArrayList<>();
                 for ( Binding k : accumulators.keySet() ) {
@@ -153,11 +195,94 @@ public class QueryIterGroup extends QueryIterPlainWrapper
                     }
                     results.add(builder2.build());
                 }
-                return results.iterator();
+                if ( db == null )
+                    return results.iterator();
+                return Iter.concat(results.iterator(), new SpilledGroups(db.iterator(), keyComparator, groupVarExpr, aggregators, execCxt));
             }
         };
     }
 
+    /**
+     * Order rows by group key, comparing the values of the group variables as RDF
+     * terms. Rows compare equal exactly when they have the same group key.
+     */
+    private static class KeyComparator implements Comparator<Binding> {
+        private final VarExprList groupVarExpr;
+        private final ExecutionContext execCxt;
+
+        KeyComparator(VarExprList groupVarExpr, ExecutionContext execCxt) {
+            this.groupVarExpr = groupVarExpr;
+            this.execCxt = execCxt;
+        }
+
+        @Override
+        public int compare(Binding b1, Binding b2) {
+            for ( Var var : groupVarExpr.getVars() ) {
+                Node n1 = groupVarExpr.get(var, b1, execCxt);
+                Node n2 = groupVarExpr.get(var, b2, execCxt);
+                int x = NodeUtils.compareRDFTerms(n1, n2);
+                // Different terms that compare the same by syntax (e.g. language tags differing by case).
+                if ( x == 0 && n1 != null && !n1.equals(n2) )
+                    x = n1.toString().compareTo(n2.toString());
+                if ( x != 0 )
+                    return x;
+            }
+            return 0;
+        }
+    }
+
+    /** Groups from the spill bag: rows arrive sorted by key, so one group is accumulated at a time. */
+    private static class SpilledGroups implements Iterator<Binding> {
+        private final PeekIterator<Binding> rows;
+        private final Comparator<Binding> keyComparator;
+        private final VarExprList groupVarExpr;
+        private final List<ExprAggregator> aggregators;
+        private final ExecutionContext execCxt;
+
+        SpilledGroups(Iterator<Binding> rows, Comparator<Binding> keyComparator, VarExprList groupVarExpr,
+                      List<ExprAggregator> aggregators, ExecutionContext execCxt) {
+            this.rows = PeekIterator.create(rows);
+            this.keyComparator = keyComparator;
+            this.groupVarExpr = groupVarExpr;
+            this.aggregators = aggregators;
+            this.execCxt = execCxt;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Binding next() {
+            if ( !rows.hasNext() )
+                throw new NoSuchElementException("QueryIterGroup");
+            Binding first = rows.next();
+            boolean hasAggregators = ( aggregators != null && ! aggregators.isEmpty() );
+            List<Pair<Var, Accumulator>> accs = new ArrayList<>();
+            if ( hasAggregators ) {
+                for ( ExprAggregator agg : aggregators )
+                    accs.add(Pair.create(agg.getVar(), agg.getAggregator().createAccumulator()));
+            }
+            Binding b = first;
+            for ( ;; ) {
+                for ( Pair<Var, Accumulator> pair : accs )
+                    pair.getRight().accumulate(b, execCxt);
+                if ( !rows.hasNext() || keyComparator.compare(first, rows.peek()) != 0 )
+                    break;
+                b = rows.next();
+            }
+            BindingBuilder builder = Binding.builder(genKey(groupVarExpr, first, execCxt));
+            for ( Pair<Var, Accumulator> pair : accs ) {
+                NodeValue value = pair.getRight().getValue();
+                if ( value == null )
+                    continue;
+                builder.add(pair.getLeft(), value.asNode());
+            }
+            return builder.build();
+        }
+    }
+
     static private Binding genKey(VarExprList vars, Binding binding, ExecutionContext execCxt) {
         return copyProject(vars, binding, execCxt);
     }
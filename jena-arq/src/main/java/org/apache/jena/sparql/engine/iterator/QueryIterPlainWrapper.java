@@ -19,6 +19,7 @@
 package org.apache.jena.sparql.engine.iterator;
 
 import java.util.Iterator ;
+import java.util.List ;
 
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.iterator.Iter ;
@@ -61,6 +62,18 @@ public class QueryIterPlainWrapper extends QueryIter
     @Override
     protected Binding moveToNextBinding() { return iterator.next(); }
 
+    @Override
+    protected int moveToNextBatch(List<Binding> batch, int max) {
+        if ( iterator instanceof QueryIterator )
+            return ((QueryIterator)iterator).nextBatch(batch, max);
+        int n = 0;
+        while ( n < max && iterator.hasNext() ) {
+            batch.add(iterator.next());
+            n++;
+        }
+        return n;
+    }
+
     @Override
     protected void closeIterator() {
         if ( iterator != null ) {
@@ -18,6 +18,8 @@
 
 package org.apache.jena.sparql.engine.iterator ;
 
+import java.util.ArrayList ;
+import java.util.List ;
 import java.util.NoSuchElementException ;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -43,6 +45,8 @@ public abstract class QueryIterProcessBinding extends QueryIter1 {
 
     private Binding nextBinding ;
     private final AtomicBoolean signalCancel ;
+    // Input rows for batch processing. Reused.
+    private List<Binding> inputBatch = null ;
 
     public QueryIterProcessBinding(QueryIterator qIter, ExecutionContext context) {
         super(qIter, context) ;
@@ -110,6 +114,45 @@ public abstract class QueryIterProcessBinding extends QueryIter1 {
         throw new NoSuchElementException() ;
     }
 
+    /**
+     * Batch form of {@link #accept}: process the input bindings, adding those
+     * accepted to {@code output}.
+     */
+    protected void acceptBatch(List<Binding> input, List<Binding> output) {
+        for ( Binding b : input ) {
+            Binding r = accept(b) ;
+            if ( r != null )
+                output.add(r) ;
+        }
+    }
+
+    @Override
+    protected int moveToNextBatch(List<Binding> batch, int max) {
+        int start = batch.size() ;
+        if ( nextBinding != null ) {
+            batch.add(nextBinding) ;
+            nextBinding = null ;
+        }
+        if ( getInput() == null )
+            throw new ARQInternalErrorException(Lib.className(this) + ": Null iterator") ;
+        if ( inputBatch == null )
+            inputBatch = new ArrayList<>() ;
+        // Until something is accepted or there is no more input.
+        // The binding from a call of hasNext() counts towards max.
+        do {
+            int n = max - (batch.size() - start) ;
+            if ( n <= 0 )
+                break ;
+            checkCancelled() ;
+            inputBatch.clear() ;
+            if ( getInput().nextBatch(inputBatch, n) == 0 )
+                break ;
+            acceptBatch(inputBatch, batch) ;
+        } while ( batch.size() == start ) ;
+        inputBatch.clear() ;
+        return batch.size() - start ;
+    }
+
     @Override
     protected void closeSubIterator() {}
 
@@ -18,6 +18,7 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.List ;
 import java.util.NoSuchElementException ;
 
 import org.apache.jena.atlas.lib.Lib ;
@@ -172,6 +173,51 @@ public abstract class QueryIteratorBase
         }
     }
     
+    /** Batch size for operations that read all their input. */
+    public static final int BatchSize = 256 ;
+
+    /** final - subclasses implement moveToNextBatch() */
+    @Override
+    public final int nextBatch(List<Binding> batch, int max)
+    {
+        if ( finished || max <= 0 )
+            return 0 ;
+        if ( requestingCancel && abortIterator )
+        {
+            close() ;
+            throw new QueryCancelledException() ;
+        }
+        try {
+            int n = moveToNextBatch(batch, max) ;
+            if ( n == 0 )
+                close() ;
+            return n ;
+        } catch (QueryFatalException ex)
+        {
+            Log.error(this, "QueryFatalException", ex) ;
+            throw ex ;
+        }
+    }
+
+    /**
+     * Move up to {@code max} bindings to the end of {@code batch}, returning the number moved.
+     * Return 0 only when there are no more bindings.
+     * The default is one binding at a time, using {@link #hasNextBinding} and {@link #moveToNextBinding}.
+     */
+    protected int moveToNextBatch(List<Binding> batch, int max)
+    {
+        int n = 0 ;
+        while ( n < max && hasNextBinding() )
+        {
+            Binding obj = moveToNextBinding() ;
+            if ( obj == null )
+                throw new NoSuchElementException(Lib.className(this)) ;
+            batch.add(obj) ;
+            n++ ;
+        }
+        return n ;
+    }
+
     @Override
     public final void remove()
     {
@@ -18,6 +18,8 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.List;
+
 import org.apache.jena.atlas.io.IndentedWriter;
 import org.apache.jena.atlas.lib.Lib;
 import org.apache.jena.sparql.engine.QueryIterator;
@@ -43,6 +45,11 @@ public class QueryIteratorWrapper extends QueryIteratorBase {
         return iterator.nextBinding();
     }
 
+    @Override
+    protected int moveToNextBatch(List<Binding> batch, int max) {
+        return iterator.nextBatch(batch, max);
+    }
+
     @Override
     protected void closeIterator() {
         if ( iterator != null ) {
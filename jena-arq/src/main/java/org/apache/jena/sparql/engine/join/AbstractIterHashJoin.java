@@ -18,10 +18,15 @@
 
 package org.apache.jena.sparql.engine.join;
 
+import java.util.ArrayList ;
 import java.util.Iterator ;
 import java.util.List ;
 
+import org.apache.jena.atlas.data.BagFactory ;
+import org.apache.jena.atlas.data.DataBag ;
+import org.apache.jena.atlas.data.ThresholdPolicyFactory ;
 import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.algebra.Algebra ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
@@ -29,11 +34,19 @@ import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.iterator.QueryIter2 ;
 import org.apache.jena.sparql.engine.iterator.QueryIterPeek ;
+import org.apache.jena.sparql.engine.iterator.QueryIteratorBase ;
+import org.apache.jena.sparql.system.SerializationFactoryFinder ;
 
 /** Hash join algorithm
  *  
  * This code materializes one input into the probe table
  * then hash joins the other input from the stream side.
+ * <p>
+ * If the probe side has more rows than the {@link ARQ#spillToDiskThreshold} setting,
+ * the join becomes a grace hash join: both inputs are partitioned by join key hash
+ * into disk-backed bags, and each partition is joined with its own probe table.
+ * Stream rows with no join key variables bound are joined last, in blocks: each block
+ * is held in memory and joined in one scan of all the probe rows.
  */
 
 public abstract class AbstractIterHashJoin extends QueryIter2 {
@@ -44,9 +57,11 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
     // See also stats in the probe table.
     
     protected final JoinKey               joinKey ;
-    protected final HashProbeTable        hashTable ;
+    protected HashProbeTable              hashTable ;
 
     private QueryIterator               iterStream ;
+    // The stream rows being joined with the current probe table.
+    private Iterator<Binding>           rowsStream ;
     private Binding                     rowStream       = null ;
     private Iterator<Binding>           iterCurrent ;
     private boolean                     yielded ;       // Flag to note when current probe causes a result. 
@@ -58,6 +73,24 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
     
     private Binding slot = null ;
 
+    // Grace hash join.
+    private static final int            Partitions      = 32 ;
+    private List<DataBag<Binding>>      probePartitions = null ;
+    private DataBag<Binding>            probeNoKey      = null ;
+    private List<DataBag<Binding>>      streamPartitions = null ;
+    private DataBag<Binding>            streamNoKey     = null ;
+    // -1 : stream not yet partitioned; 0..Partitions-1 : keyed partitions; Partitions : no key stream rows.
+    private int                         round           = -1 ;
+    private long                        countScanMiss   = 0 ;
+    // Stream rows with no join key, joined a block at a time.
+    private int                         blockSize       = 1 ;
+    private Iterator<Binding>           noKeyStream     = null ;
+    private List<Binding>               block           = null ;
+    private boolean[]                   blockYielded    = null ;
+    private Iterator<Binding>           probeScan       = null ;
+    private Binding                     probeRow        = null ;
+    private int                         blockIdx        = 0 ;
+
     protected AbstractIterHashJoin(JoinKey joinKey, QueryIterator probeIter, QueryIterator streamIter, ExecutionContext execCxt) {
         super(probeIter, streamIter, execCxt) ;
         
@@ -77,6 +110,7 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
         
         this.joinKey = joinKey ;
         this.iterStream = streamIter ;
+        this.rowsStream = streamIter ;
         this.hashTable = new HashProbeTable(joinKey) ;
         this.iterCurrent = null ;
         buildHashTable(probeIter) ;
@@ -85,15 +119,169 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
         
     private void buildHashTable(QueryIterator iter1) {
         state = Phase.HASH ;
-        for (; iter1.hasNext();) {
-            Binding row1 = iter1.next() ;
-            s_countProbe ++ ;
-            hashTable.put(row1) ;
+        long threshold = -1 ;
+        if ( canSpill() && getExecContext() != null )
+            threshold = getExecContext().getContext().getLong(ARQ.spillToDiskThreshold, -1) ;
+        List<Binding> batch = new ArrayList<>(QueryIteratorBase.BatchSize) ;
+        while ( iter1.nextBatch(batch, QueryIteratorBase.BatchSize) > 0 ) {
+            for ( Binding row1 : batch ) {
+                s_countProbe ++ ;
+                if ( probePartitions != null ) {
+                    partition(row1, probePartitions, probeNoKey) ;
+                    continue ;
+                }
+                hashTable.put(row1) ;
+                if ( threshold >= 0 && s_countProbe > threshold )
+                    startPartitioning(threshold) ;
+            }
+            batch.clear() ;
         }
         iter1.close() ;
         state = Phase.STREAM ;
     }
 
+    /**
+     * Whether this join can partition its inputs to disk.
+     * Joins that need the whole probe table at the end ({@link #joinFinished}) can not.
+     */
+    protected boolean canSpill() {
+        return true ;
+    }
+
+    private void startPartitioning(long threshold) {
+        long bagThreshold = Math.max(1, threshold / Partitions) ;
+        // No more rows than the probe table held in memory.
+        blockSize = (int)Math.max(1, Math.min(threshold, Integer.MAX_VALUE-8)) ;
+        probePartitions = newBags(bagThreshold) ;
+        probeNoKey = newBag(bagThreshold) ;
+        streamPartitions = newBags(bagThreshold) ;
+        streamNoKey = newBag(bagThreshold) ;
+        Iterator<Binding> iter = hashTable.values() ;
+        iter.forEachRemaining(row->partition(row, probePartitions, probeNoKey)) ;
+        hashTable = new HashProbeTable(joinKey) ;
+    }
+
+    private static List<DataBag<Binding>> newBags(long threshold) {
+        List<DataBag<Binding>> bags = new ArrayList<>(Partitions) ;
+        for ( int i = 0 ; i < Partitions ; i++ )
+            bags.add(newBag(threshold)) ;
+        return bags ;
+    }
+
+    private static DataBag<Binding> newBag(long threshold) {
+        return BagFactory.newDefaultBag(ThresholdPolicyFactory.count(threshold), SerializationFactoryFinder.bindingSerializationFactory()) ;
+    }
+
+    // Same hash as the probe table buckets so matching rows are in the same partition.
+    private void partition(Binding row, List<DataBag<Binding>> bags, DataBag<Binding> noKey) {
+        Object longHash = JoinLib.hash(joinKey, row) ;
+        if ( longHash == JoinLib.noKeyHash ) {
+            noKey.add(row) ;
+            return ;
+        }
+        int idx = (int)Math.floorMod((Long)longHash, (long)Partitions) ;
+        bags.get(idx).add(row) ;
+    }
+
+    /** Move to the next partition. Return false if there are no more. */
+    private boolean nextRound() {
+        if ( probePartitions == null )
+            return false ;
+        if ( round < 0 ) {
+            // Partition the stream side.
+            iterStream.forEachRemaining(row->partition(row, streamPartitions, streamNoKey)) ;
+            iterStream.close() ;
+        }
+        else if ( round < Partitions ) {
+            // Finished with this partition. Free the disk space.
+            streamPartitions.get(round).close() ;
+            // Probe rows are needed again for stream rows with no join key.
+            if ( streamNoKey.size() == 0 )
+                probePartitions.get(round).close() ;
+        }
+        countScanMiss += hashTable.s_countScanMiss ;
+        hashTable = new HashProbeTable(joinKey) ;
+        round++ ;
+        if ( round < Partitions ) {
+            Iterator<Binding> iter = Iter.concat(probePartitions.get(round).iterator(), probeNoKey.iterator()) ;
+            iter.forEachRemaining(hashTable::put) ;
+            rowsStream = streamPartitions.get(round).iterator() ;
+            return true ;
+        }
+        if ( round == Partitions ) {
+            rowsStream = Iter.nullIterator() ;
+            noKeyStream = streamNoKey.iterator() ;
+            return true ;
+        }
+        return false ;
+    }
+
+    private Iterator<Binding> getCandidates(Binding row) {
+        return hashTable.getCandidates(row) ;
+    }
+
+    /**
+     * The next result for the stream rows with no join key, or null when they are done.
+     * A block of these rows is read into memory, then all the probe rows are read once
+     * and each is tried against every row of the block.
+     */
+    private Binding nextNoKeyResult() {
+        for ( ;; ) {
+            if ( block == null ) {
+                block = new ArrayList<>() ;
+                while ( block.size() < blockSize && noKeyStream.hasNext() )
+                    block.add(noKeyStream.next()) ;
+                if ( block.isEmpty() ) {
+                    block = null ;
+                    return null ;
+                }
+                s_countScan += block.size() ;
+                blockYielded = new boolean[block.size()] ;
+                Iterator<Binding> iter = probeNoKey.iterator() ;
+                for ( int i = 0 ; i < Partitions ; i++ )
+                    iter = Iter.concat(iter, probePartitions.get(i).iterator()) ;
+                probeScan = iter ;
+                probeRow = null ;
+                blockIdx = 0 ;
+            }
+            if ( probeScan != null ) {
+                if ( probeRow == null || blockIdx == block.size() ) {
+                    if ( ! probeScan.hasNext() ) {
+                        Iter.close(probeScan) ;
+                        probeScan = null ;
+                        blockIdx = 0 ;
+                        continue ;
+                    }
+                    probeRow = probeScan.next() ;
+                    blockIdx = 0 ;
+                }
+                int i = blockIdx++ ;
+                Binding row = block.get(i) ;
+                Binding r = Algebra.merge(probeRow, row) ;
+                if ( r == null )
+                    continue ;
+                Binding r2 = yieldOneResult(probeRow, row, r) ;
+                if ( r2 == null )
+                    continue ;
+                blockYielded[i] = true ;
+                s_countResults ++ ;
+                return r2 ;
+            }
+            // Scan finished: rows of the block with no match.
+            while ( blockIdx < block.size() ) {
+                int i = blockIdx++ ;
+                if ( blockYielded[i] )
+                    continue ;
+                Binding b = noYieldedRows(block.get(i)) ;
+                if ( b != null ) {
+                    s_countScan ++ ;
+                    return b ;
+                }
+            }
+            block = null ;
+        }
+    }
+
     @Override
     protected boolean hasNextBinding() {
         if ( isFinished() ) 
@@ -134,16 +322,25 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
             // Ensure we are processing a row. 
             while ( iterCurrent == null ) {
                 // Move on to the next row from the right.
-                if ( ! iterStream.hasNext() ) {
+                if ( probePartitions != null && round < 0 )
+                    nextRound() ;
+                if ( round == Partitions ) {
+                    Binding b = nextNoKeyResult() ;
+                    if ( b != null )
+                        return b ;
+                }
+                if ( ! rowsStream.hasNext() ) {
+                    if ( nextRound() )
+                        continue ;
                     state = Phase.TRAILER ;
                     iterTail = joinFinished() ;
                     if ( iterTail != null )
                         return doOneTail() ;
                     return null ;
                 }
-                rowStream = iterStream.next() ;
+                rowStream = rowsStream.next() ;
                 s_countScan ++ ;
-                iterCurrent = hashTable.getCandidates(rowStream) ;
+                iterCurrent = getCandidates(rowStream) ;
                 yielded = false ;
             }
             
@@ -219,6 +416,17 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
         
     @Override
     protected void closeSubIterator() {
+        boolean spilled = ( probePartitions != null ) ;
+        if ( getExecContext() != null )
+            getExecContext().getHashJoinStats().record(spilled, s_countProbe, s_countScan, s_countResults, countScanMiss + hashTable.s_countScanMiss) ;
+        if ( spilled ) {
+            if ( probeScan != null )
+                Iter.close(probeScan) ;
+            probePartitions.forEach(DataBag::close) ;
+            probeNoKey.close() ;
+            streamPartitions.forEach(DataBag::close) ;
+            streamNoKey.close() ;
+        }
         if ( JoinLib.JOIN_EXPLAIN ) {
             String x = String.format(
                          "HashJoin: LHS=%d RHS=%d Results=%d RightMisses=%d MaxBucket=%d NoKeyBucket=%d",
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.join;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics for the hash joins of one query execution,
+ * available from {@link org.apache.jena.sparql.engine.ExecutionContext#getHashJoinStats()}.
+ * Counts are added as each hash join finishes.
+ */
+public class HashJoinStats {
+    private final LongAdder joins        = new LongAdder();
+    private final LongAdder spilledJoins = new LongAdder();
+    private final LongAdder probeRows    = new LongAdder();
+    private final LongAdder streamRows   = new LongAdder();
+    private final LongAdder results      = new LongAdder();
+    private final LongAdder scanMisses   = new LongAdder();
+
+    public HashJoinStats() {}
+
+    /*package*/ void record(boolean spilled, long probe, long stream, long resultCount, long misses) {
+        joins.increment();
+        if ( spilled )
+            spilledJoins.increment();
+        probeRows.add(probe);
+        streamRows.add(stream);
+        results.add(resultCount);
+        scanMisses.add(misses);
+    }
+
+    /** Number of hash joins. */
+    public long getJoins()          { return joins.sum(); }
+
+    /** Number of hash joins that partitioned their inputs to disk. */
+    public long getSpilledJoins()   { return spilledJoins.sum(); }
+
+    /** Rows put into probe tables. */
+    public long getProbeRows()      { return probeRows.sum(); }
+
+    /** Rows looked up in probe tables. */
+    public long getStreamRows()     { return streamRows.sum(); }
+
+    /** Rows produced. */
+    public long getResults()        { return results.sum(); }
+
+    /** Stream rows whose join key was not in the probe table. */
+    public long getScanMisses()     { return scanMisses.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("HashJoin: joins=%d spilled=%d probe=%d stream=%d results=%d misses=%d",
+                             getJoins(), getSpilledJoins(), getProbeRows(), getStreamRows(), getResults(), getScanMisses());
+    }
+}
@@ -86,6 +86,12 @@ public class QueryIterHashLeftJoin_Left extends AbstractIterHashJoin {
     }
 
     private Set<Binding> leftHits = new HashSet<>() ; 
+
+    // joinFinished uses the whole probe table.
+    @Override
+    protected boolean canSpill() {
+        return false ;
+    }
     
     @Override
     protected Binding yieldOneResult(Binding rowCurrentProbe, Binding rowStream, Binding rowResult) {
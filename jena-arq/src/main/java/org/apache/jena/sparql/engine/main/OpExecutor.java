@@ -22,6 +22,7 @@ import java.util.ArrayList ;
 import java.util.Iterator ;
 import java.util.List ;
 import java.util.Set ;
+import java.util.function.Consumer ;
 
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.graph.Node ;
@@ -33,6 +34,7 @@ import org.apache.jena.sparql.algebra.Op ;
 import org.apache.jena.sparql.algebra.OpVars ;
 import org.apache.jena.sparql.algebra.op.* ;
 import org.apache.jena.sparql.core.BasicPattern ;
+import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.core.Quad ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
@@ -215,7 +217,12 @@ public class OpExecutor
             return qIter ;
         }
         QueryIterator left = exec(opJoin.getLeft(), input) ;
-        QueryIterator right = exec(opJoin.getRight(), root()) ;
+        QueryIterator right ;
+        if ( evalInParallel(opJoin.getRight()) )
+            // Evaluate while the left is read into the probe table.
+            right = QueryIterAsync.create(()->execute(opJoin.getRight(), execCxt), poolThreadRunner(), execCxt) ;
+        else
+            right = exec(opJoin.getRight(), root()) ;
         // Join key.
         QueryIterator qIter = Join.join(left, right, execCxt) ;
         return qIter ;
@@ -270,10 +277,44 @@ public class OpExecutor
 
     protected QueryIterator execute(OpUnion opUnion, QueryIterator input) {
         List<Op> x = flattenUnion(opUnion) ;
-        QueryIterator cIter = new QueryIterUnion(input, x, execCxt) ;
+        QueryIterator cIter = new QueryIterUnion(input, x, this::evalInParallel, this::poolThreadRunner, execCxt) ;
         return cIter ;
     }
 
+    /**
+     * Whether to evaluate an independent part of the query on another thread.
+     * See {@link ARQ#parallelExecution}.
+     */
+    protected boolean evalInParallel(Op op) {
+        if ( ! execCxt.getContext().isTrue(ARQ.parallelExecution) )
+            return false ;
+        // Already on a pool thread.
+        if ( QueryIterAsync.onPoolThread() )
+            return false ;
+        // Transactions are per-thread; another thread can not use this one.
+        DatasetGraph dsg = execCxt.getDataset() ;
+        if ( dsg != null && dsg.isInTransaction() )
+            return op instanceof OpService || readInParallel() ;
+        return true ;
+    }
+
+    /**
+     * Whether other threads can read the dataset as seen by the transaction of this
+     * thread, using the setup from {@link #poolThreadRunner}. The default is false.
+     */
+    protected boolean readInParallel() {
+        return false ;
+    }
+
+    /**
+     * The setup for work on a pool thread. This is called on this thread; the result
+     * is called on the pool thread with the work to do. If it does not run the work, the
+     * work is done on this thread. The default runs the work as it is.
+     */
+    protected Consumer<Runnable> poolThreadRunner() {
+        return Runnable::run ;
+    }
+
     // Based on code from Olaf Hartig.
     protected List<Op> flattenUnion(OpUnion opUnion) {
         List<Op> x = new ArrayList<>() ;
@@ -305,6 +346,9 @@ public class OpExecutor
     }
 
     protected QueryIterator execute(OpService opService, QueryIterator input) {
+        int batchSize = execCxt.getContext().getInt(ARQ.serviceBatchSize, 0) ;
+        if ( batchSize > 1 && opService.getService().isURI() )
+            return new QueryIterServiceBulk(input, opService, batchSize, execCxt) ;
         return new QueryIterService(input, opService, execCxt) ;
     }
 
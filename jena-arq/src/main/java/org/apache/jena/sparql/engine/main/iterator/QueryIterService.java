@@ -56,32 +56,10 @@ public class QueryIterService extends QueryIterRepeatApply
     @Override
     protected QueryIterator nextStage(Binding outerBinding) {
         boolean silent = opService.getSilent();
-        ExecutionContext execCxt = getExecContext();
-        Context cxt = execCxt.getContext();
-        ServiceExecutorRegistry registry = ServiceExecutorRegistry.get(cxt);
-        ServiceExecution svcExec = null;
         OpService substitutedOp = (OpService)QC.substitute(opService, outerBinding);
 
         try {
-            // ---- Find handler
-            if ( registry != null ) {
-                for ( ServiceExecutorFactory factory : registry.getFactories() ) {
-                    // Internal consistency check
-                    if ( factory == null ) {
-                        Log.warn(this, "SERVICE <" + opService.getService().toString() + ">: Null item in custom ServiceExecutionRegistry");
-                        continue;
-                    }
-
-                    svcExec = factory.createExecutor(substitutedOp, opService, outerBinding, execCxt);
-                    if ( svcExec != null )
-                        break;
-                }
-            }
-
-            // ---- Execute
-            if ( svcExec == null )
-                throw new QueryExecException("No SERVICE handler");
-            QueryIterator qIter = svcExec.exec();
+            QueryIterator qIter = exec(substitutedOp, opService, outerBinding, getExecContext());
             qIter = QueryIter.makeTracked(qIter, getExecContext());
             // Need to put the outerBinding as parent to every binding of the service call.
             // There should be no variables in common because of the OpSubstitute.substitute
@@ -96,4 +74,34 @@ public class QueryIterService extends QueryIterRepeatApply
             throw ex;
         }
     }
+
+    /**
+     * Execute a SERVICE request using the first handler in the {@link ServiceExecutorRegistry}
+     * of the context that accepts it.
+     */
+    public static QueryIterator exec(OpService opExecute, OpService original, Binding binding, ExecutionContext execCxt) {
+        Context cxt = execCxt.getContext();
+        ServiceExecutorRegistry registry = ServiceExecutorRegistry.get(cxt);
+        ServiceExecution svcExec = null;
+
+        // ---- Find handler
+        if ( registry != null ) {
+            for ( ServiceExecutorFactory factory : registry.getFactories() ) {
+                // Internal consistency check
+                if ( factory == null ) {
+                    Log.warn(QueryIterService.class, "SERVICE <" + original.getService().toString() + ">: Null item in custom ServiceExecutionRegistry");
+                    continue;
+                }
+
+                svcExec = factory.createExecutor(opExecute, original, binding, execCxt);
+                if ( svcExec != null )
+                    break;
+            }
+        }
+
+        // ---- Execute
+        if ( svcExec == null )
+            throw new QueryExecException("No SERVICE handler");
+        return svcExec.exec();
+    }
 }
@@ -0,0 +1,333 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.sparql.engine.main.iterator;
+
+import java.util.* ;
+
+import org.apache.jena.atlas.logging.Log ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeFactory ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.query.QueryExecException ;
+import org.apache.jena.riot.out.NodeFmtLib ;
+import org.apache.jena.sparql.algebra.Op ;
+import org.apache.jena.sparql.algebra.OpVars ;
+import org.apache.jena.sparql.algebra.Table ;
+import org.apache.jena.sparql.algebra.TableFactory ;
+import org.apache.jena.sparql.algebra.op.OpJoin ;
+import org.apache.jena.sparql.algebra.op.OpService ;
+import org.apache.jena.sparql.algebra.op.OpTable ;
+import org.apache.jena.sparql.core.Substitute ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBuilder ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.iterator.QueryIter1 ;
+import org.apache.jena.sparql.engine.iterator.QueryIterAsync ;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper ;
+import org.apache.jena.sparql.exec.http.Service ;
+import org.apache.jena.sparql.expr.NodeValue ;
+
+/**
+ * SERVICE as a bind-join. The input bindings are taken in blocks and each block is
+ * sent as one request: a {@code VALUES} table of the input bindings, restricted to
+ * the variables of the SERVICE pattern, joined with the pattern. Each row of the table
+ * carries the index of its input binding so the results can be matched back to the
+ * input.
+ * <p>
+ * Several blocks are requested at the same time (see {@link ARQ#serviceConcurrency}).
+ * Results are returned in the order of the input blocks and, within a block, grouped
+ * by input binding in input order.
+ * <p>
+ * The join is the same as substituting each input binding into the pattern only for
+ * variables that are bound in every solution of the pattern. A block where the input
+ * binds any other variable used in the pattern, for example one used only in a FILTER,
+ * an OPTIONAL, a MINUS or an inner SELECT that does not project it, is done one input
+ * binding at a time by {@link QueryIterService}. If the pattern uses no variable of
+ * the input, it is sent once and the results are used for all the input.
+ *
+ * @see ARQ#serviceBatchSize
+ * @see QueryIterService
+ */
+public class QueryIterServiceBulk extends QueryIter1
+{
+    private static final int DefaultConcurrency = 4 ;
+
+    private final OpService opService ;
+    private final int batchSize ;
+    private final int concurrency ;
+    private final Var idxVar ;
+    // Variables bound in every solution of the pattern.
+    private final Set<Var> fixedVars ;
+    // Whether substituting a variable, which is not fixed, changes the pattern.
+    private final Map<Var, Boolean> usedVars = new HashMap<>() ;
+    private final Deque<Block> blocks = new ArrayDeque<>() ;
+    private QueryIterator current = null ;
+    // Not correlated: the request has been made, and its results or failure.
+    private boolean uncorrelatedRequested = false ;
+    private List<Binding> uncorrelatedResults = null ;
+    private RuntimeException uncorrelatedFailure = null ;
+
+    // A block of input bindings and the request for it.
+    private static class Block {
+        final List<Binding> rows ;
+        // Null if the SERVICE pattern does not use any variable of the input.
+        final Set<Var> vars ;
+        // Null if there is no request for this block: one request for each input binding,
+        // or the results of the uncorrelated request are used.
+        final OpService op ;
+        // Null if the request is made when the results are needed.
+        final QueryIterator results ;
+        // Substitute each input binding.
+        final boolean perBinding ;
+        Block(List<Binding> rows, Set<Var> vars, OpService op, QueryIterator results, boolean perBinding) {
+            this.rows = rows ;
+            this.vars = vars ;
+            this.op = op ;
+            this.results = results ;
+            this.perBinding = perBinding ;
+        }
+    }
+
+    public QueryIterServiceBulk(QueryIterator input, OpService opService, int batchSize, ExecutionContext context) {
+        super(input, context) ;
+        if ( context.getContext().isFalse(Service.httpServiceAllowed) )
+            throw new QueryExecException("SERVICE not allowed") ;
+        // Old name.
+        if ( context.getContext().isFalse(Service.serviceAllowed) )
+            throw new QueryExecException("SERVICE not allowed") ;
+        if ( batchSize < 1 )
+            throw new QueryExecException("Bad SERVICE batch size: "+batchSize) ;
+        this.opService = opService ;
+        this.batchSize = batchSize ;
+        this.concurrency = Math.max(1, context.getContext().getInt(ARQ.serviceConcurrency, DefaultConcurrency)) ;
+        this.fixedVars = OpVars.fixedVars(opService.getSubOp()) ;
+        this.idxVar = indexVar(new HashSet<>(OpVars.mentionedVars(opService.getSubOp()))) ;
+    }
+
+    // A variable not used in the SERVICE pattern.
+    private static Var indexVar(Set<Var> vars) {
+        Var v = Var.alloc("__idx") ;
+        for ( int i = 1 ; vars.contains(v) ; i++ )
+            v = Var.alloc("__idx"+i) ;
+        return v ;
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        for ( ;; ) {
+            if ( current != null ) {
+                if ( current.hasNext() )
+                    return true ;
+                current.close() ;
+                current = null ;
+            }
+            startBlocks() ;
+            if ( blocks.isEmpty() )
+                return false ;
+            current = finishBlock(blocks.poll()) ;
+        }
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        return current.next() ;
+    }
+
+    // Keep up to "concurrency" blocks in progress.
+    // The input bindings are only used on this thread because they may depend on it,
+    // for example, for the transaction of the dataset. Only the remote request is
+    // done on another thread.
+    private void startBlocks() {
+        while ( blocks.size() < concurrency && getInput().hasNext() ) {
+            List<Binding> rows = new ArrayList<>(batchSize) ;
+            getInput().nextBatch(rows, batchSize) ;
+            if ( ! rows.stream().allMatch(this::joinable) ) {
+                blocks.add(new Block(rows, null, null, null, true)) ;
+                continue ;
+            }
+            Set<Var> vars = blockVars(rows) ;
+            OpService opBlock ;
+            if ( vars == null ) {
+                opBlock = uncorrelatedRequested ? null : opService ;
+                uncorrelatedRequested = true ;
+            } else
+                opBlock = blockOp(rows, vars) ;
+            QueryIterator results = null ;
+            if ( opBlock != null && concurrency > 1 && ! QueryIterAsync.onPoolThread() )
+                results = QueryIterAsync.create(()->exec(opBlock), getExecContext()) ;
+            blocks.add(new Block(rows, vars, opBlock, results, false)) ;
+        }
+    }
+
+    // Whether the join gives the same results as substituting the input binding.
+    private boolean joinable(Binding row) {
+        for ( Iterator<Var> iter = row.vars() ; iter.hasNext() ; ) {
+            Var v = iter.next() ;
+            if ( ! fixedVars.contains(v) && usedVars.computeIfAbsent(v, this::used) )
+                return false ;
+        }
+        return true ;
+    }
+
+    private boolean used(Var v) {
+        Op op = opService.getSubOp() ;
+        Binding b = BindingFactory.binding(v, NodeFactory.createURI("urn:x-arq:ServiceBulk")) ;
+        return ! Substitute.substitute(op, b).equals(op) ;
+    }
+
+    // Variables of the input that are fixed by the SERVICE pattern, or null if there are none.
+    private Set<Var> blockVars(List<Binding> rows) {
+        Set<Var> vars = new LinkedHashSet<>() ;
+        for ( Binding row : rows ) {
+            row.vars().forEachRemaining(v->{
+                if ( fixedVars.contains(v) )
+                    vars.add(v) ;
+            }) ;
+        }
+        return vars.isEmpty() ? null : vars ;
+    }
+
+    // The SERVICE pattern joined with a table of the input bindings and their index.
+    private OpService blockOp(List<Binding> rows, Set<Var> vars) {
+        List<Var> tableVars = new ArrayList<>(vars) ;
+        tableVars.add(idxVar) ;
+        Table table = TableFactory.create(tableVars) ;
+        for ( int i = 0 ; i < rows.size() ; i++ ) {
+            Binding row = rows.get(i) ;
+            BindingBuilder builder = BindingBuilder.create() ;
+            for ( Var v : vars ) {
+                Node n = row.get(v) ;
+                if ( n != null )
+                    builder.add(v, n) ;
+            }
+            builder.add(idxVar, NodeValue.makeInteger(i).asNode()) ;
+            table.addBinding(builder.build()) ;
+        }
+        Op op = OpJoin.create(OpTable.create(table), opService.getSubOp()) ;
+        return new OpService(opService.getService(), op, opService.getSilent()) ;
+    }
+
+    // Match the results of the request to the input bindings.
+    private QueryIterator finishBlock(Block block) {
+        ExecutionContext execCxt = getExecContext() ;
+        List<Binding> rows = block.rows ;
+        if ( block.perBinding )
+            return new QueryIterService(QueryIterPlainWrapper.create(rows.iterator(), execCxt), opService, execCxt) ;
+        List<Binding> output = new ArrayList<>() ;
+        try {
+            if ( block.vars == null ) {
+                // Not correlated. One request, the same results for each input binding.
+                if ( block.op != null ) {
+                    try {
+                        uncorrelatedResults = results(block) ;
+                    } catch (RuntimeException ex) {
+                        uncorrelatedFailure = ex ;
+                        throw ex ;
+                    }
+                }
+                if ( uncorrelatedFailure != null )
+                    // SILENT, and the request failed.
+                    throw uncorrelatedFailure ;
+                for ( Binding row : rows ) {
+                    for ( Binding r : uncorrelatedResults )
+                        output.add(merge(row, r)) ;
+                }
+            } else {
+                List<Binding> results = results(block) ;
+                List<List<Binding>> byRow = new ArrayList<>(rows.size()) ;
+                for ( int i = 0 ; i < rows.size() ; i++ )
+                    byRow.add(new ArrayList<>()) ;
+                for ( Binding r : results ) {
+                    int i = index(r, rows.size()) ;
+                    byRow.get(i).add(merge(rows.get(i), r)) ;
+                }
+                byRow.forEach(output::addAll) ;
+            }
+        } catch (RuntimeException ex) {
+            if ( opService.getSilent() ) {
+                Log.warn(this, "SERVICE " + NodeFmtLib.str(opService.getService()) + " : " + ex.getMessage()) ;
+                // Return the input
+                return QueryIterPlainWrapper.create(rows.iterator(), execCxt) ;
+            }
+            throw ex ;
+        }
+        return QueryIterPlainWrapper.create(output.iterator(), execCxt) ;
+    }
+
+    private List<Binding> results(Block block) {
+        QueryIterator qIter = ( block.results != null ) ? block.results : exec(block.op) ;
+        List<Binding> results = new ArrayList<>() ;
+        try {
+            qIter.forEachRemaining(results::add) ;
+        } finally { qIter.close() ; }
+        return results ;
+    }
+
+    private QueryIterator exec(OpService opExecute) {
+        return QueryIterService.exec(opExecute, opService, BindingFactory.empty(), getExecContext()) ;
+    }
+
+    private int index(Binding r, int size) {
+        Node n = r.get(idxVar) ;
+        if ( n != null && n.isLiteral() ) {
+            try {
+                int i = Integer.parseInt(n.getLiteralLexicalForm()) ;
+                if ( i >= 0 && i < size )
+                    return i ;
+            } catch (NumberFormatException ex) {}
+        }
+        throw new QueryExecException("SERVICE " + NodeFmtLib.str(opService.getService()) + " : Bad index in results: " + r) ;
+    }
+
+    // Add the variables of the SERVICE result, except the index, to the input binding.
+    private Binding merge(Binding row, Binding r) {
+        BindingBuilder builder = BindingBuilder.create(row) ;
+        r.vars().forEachRemaining(v->{
+            if ( ! v.equals(idxVar) && ! row.contains(v) )
+                builder.add(v, r.get(v)) ;
+        }) ;
+        return builder.build() ;
+    }
+
+    @Override
+    protected void requestSubCancel() {
+        if ( current != null )
+            current.cancel() ;
+        blocks.forEach(block->{
+            if ( block.results != null )
+                block.results.cancel() ;
+        }) ;
+    }
+
+    @Override
+    protected void closeSubIterator() {
+        if ( current != null )
+            current.close() ;
+        current = null ;
+        blocks.forEach(block->{
+            if ( block.results != null )
+                block.results.close() ;
+        }) ;
+        blocks.clear() ;
+    }
+}
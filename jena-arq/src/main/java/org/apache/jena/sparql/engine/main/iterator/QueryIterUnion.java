@@ -19,6 +19,9 @@
 package org.apache.jena.sparql.engine.main.iterator;
 
 import java.util.List ;
+import java.util.function.Consumer ;
+import java.util.function.Predicate ;
+import java.util.function.Supplier ;
 
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
@@ -26,6 +29,8 @@ import org.apache.jena.sparql.algebra.Op ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
+import org.apache.jena.sparql.engine.iterator.QueryIterAsync ;
 import org.apache.jena.sparql.engine.iterator.QueryIterConcat ;
 import org.apache.jena.sparql.engine.iterator.QueryIterRepeatApply ;
 import org.apache.jena.sparql.engine.iterator.QueryIterSingleton ;
@@ -39,13 +44,31 @@ import org.apache.jena.sparql.serializer.SerializationContext ;
 public class QueryIterUnion extends QueryIterRepeatApply 
 {
     protected List<Op> subOps  ;
+    private final Predicate<Op> inParallel ;
+    private final Supplier<Consumer<Runnable>> poolThreadRunner ;
     
     public QueryIterUnion(QueryIterator input,
                           List<Op> subOps,
                           ExecutionContext context)
+    {
+        this(input, subOps, op->false, ()->Runnable::run, context) ;
+    }
+
+    /**
+     * Union, with the branches for which {@code inParallel} is true evaluated on other threads.
+     * {@code poolThreadRunner} is called on this thread and provides the setup for
+     * the other thread (see {@link QueryIterAsync#create(Supplier, Consumer, ExecutionContext)}).
+     */
+    public QueryIterUnion(QueryIterator input,
+                          List<Op> subOps,
+                          Predicate<Op> inParallel,
+                          Supplier<Consumer<Runnable>> poolThreadRunner,
+                          ExecutionContext context)
     {
         super(input, context) ;
         this.subOps = subOps ;
+        this.inParallel = inParallel ;
+        this.poolThreadRunner = poolThreadRunner ;
     }
 
     @Override
@@ -54,9 +77,18 @@ public class QueryIterUnion extends QueryIterRepeatApply
         QueryIterConcat unionQIter = new QueryIterConcat(getExecContext()) ;
         for (Op subOp : subOps)
         {
-            subOp = QC.substitute(subOp, binding) ;
-            QueryIterator parent = QueryIterSingleton.create(binding, getExecContext()) ;
-            QueryIterator qIter = QC.execute(subOp, parent, getExecContext()) ;
+            Op op = QC.substitute(subOp, binding) ;
+            QueryIterator qIter ;
+            if ( inParallel.test(op) ) {
+                // Results are still returned in branch order.
+                // The binding may depend on this thread (e.g. a transaction): copy it here.
+                Binding b = BindingFactory.copy(binding) ;
+                qIter = QueryIterAsync.create(()->QC.execute(op, QueryIterSingleton.create(b, getExecContext()), getExecContext()),
+                                              poolThreadRunner.get(), getExecContext()) ;
+            } else {
+                QueryIterator parent = QueryIterSingleton.create(binding, getExecContext()) ;
+                qIter = QC.execute(op, parent, getExecContext()) ;
+            }
             unionQIter.add(qIter) ;
         }
         
@@ -212,6 +212,29 @@ public class QueryExecDatasetBuilder implements QueryExecMod, QueryExecBuilder {
         }
     }
 
+    /**
+     * Prepare the query for repeated execution with different values for some of
+     * its variables. The query is compiled and optimized once, on the first execution,
+     * and the plan is reused by later executions.
+     * Substitutions and initial bindings set on this builder are not used; the values
+     * are given to {@link QueryExecPrepared#exec(Binding)}.
+     */
+    public QueryExecPrepared prepare() {
+        Objects.requireNonNull(query, "No query for QueryExec");
+        query.setResultVars();
+        Context cxt = getContext();
+
+        QueryEngineFactory qeFactory = QueryEngineRegistry.get().find(query, dataset, cxt);
+        if ( qeFactory == null ) {
+            Log.warn(QueryExecDatasetBuilder.class, "Failed to find a QueryEngineFactory");
+            return null;
+        }
+        defaultTimeoutsFromContext(this, cxt);
+        return new QueryExecPrepared(query, dataset, cxt, qeFactory,
+                                     initialTimeout, initialTimeoutUnit,
+                                     overallTimeout, overallTimeoutUnit);
+    }
+
     @Override
     public QueryExec build() {
         Objects.requireNonNull(query, "No query for QueryExec");
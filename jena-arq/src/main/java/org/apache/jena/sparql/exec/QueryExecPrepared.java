@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.exec;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.PlanCache;
+import org.apache.jena.sparql.engine.QueryEngineFactory;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * A query prepared for execution many times, with different values for some of its
+ * variables.
+ * <p>
+ * The query is parsed once, and compiled and optimized on the first execution; later
+ * executions reuse the optimized algebra and substitute the values into it. The values
+ * are also in each result row, as for an initial binding.
+ * <p>
+ * A {@code QueryExecPrepared} can be used by several threads; each call of
+ * {@link #exec} returns a new {@link QueryExec}.
+ * <pre>
+ *    QueryExecPrepared prepared = QueryExec.newBuilder().dataset(dsg).query(queryString).prepare();
+ *    try ( QueryExec qExec = prepared.exec(Var.alloc("s"), node) ) {
+ *        RowSet rowSet = qExec.select();
+ *        ...
+ *    }
+ * </pre>
+ */
+public class QueryExecPrepared {
+    private final Query query;
+    private final DatasetGraph dataset;
+    private final Context context;
+    private final QueryEngineFactory qeFactory;
+    private final long timeout1;
+    private final TimeUnit timeUnit1;
+    private final long timeout2;
+    private final TimeUnit timeUnit2;
+    private final PlanCache planCache;
+
+    /*package*/ QueryExecPrepared(Query query, DatasetGraph dataset, Context context, QueryEngineFactory qeFactory,
+                                  long timeout1, TimeUnit timeUnit1, long timeout2, TimeUnit timeUnit2) {
+        this.query = query;
+        this.dataset = dataset;
+        this.context = context;
+        this.qeFactory = qeFactory;
+        this.timeout1 = timeout1;
+        this.timeUnit1 = timeUnit1;
+        this.timeout2 = timeout2;
+        this.timeUnit2 = timeUnit2;
+        this.planCache = new PlanCache(10, query);
+    }
+
+    /** Execute with no values given. */
+    public QueryExec exec() {
+        return exec(BindingFactory.root());
+    }
+
+    /** Execute with a value for one variable. */
+    public QueryExec exec(Var var, Node value) {
+        return exec(BindingFactory.binding(var, value));
+    }
+
+    /** Execute with values for the variables of the binding. */
+    public QueryExec exec(Binding binding) {
+        // Each execution has its own context.
+        Context cxt = context.copy();
+        cxt.set(PlanCache.symPlanCacheExec, planCache);
+        if ( dataset != null )
+            cxt.set(ARQConstants.sysCurrentDataset, DatasetFactory.wrap(dataset));
+        cxt.set(ARQConstants.sysCurrentQuery, query);
+        return new QueryExecDataset(query, null, dataset, cxt, qeFactory,
+                                    timeout1, timeUnit1, timeout2, timeUnit2,
+                                    binding);
+    }
+
+    public Query getQuery() {
+        return query;
+    }
+
+    public DatasetGraph getDataset() {
+        return dataset;
+    }
+
+    /** The cache holding the plan of this query. */
+    public PlanCache getPlanCache() {
+        return planCache;
+    }
+}
@@ -135,10 +135,10 @@ public class PathLib
         // One variable, one constant
         if ( Var.isVar(s) ) {
             // Var subject, concrete object - do backwards.
-            iter = PathEval.evalReverse(graph, o, path, execCxt.getContext());
+            iter = PathEval.evalReverse(graph, o, path, execCxt.getContext(), execCxt.getPathCache());
             endNode = s;
         } else {
-            iter = PathEval.eval(graph, s, path, execCxt.getContext());
+            iter = PathEval.eval(graph, s, path, execCxt.getContext(), execCxt.getPathCache());
             endNode = o;
         }
         return evalGroundedOneEnd(binding, iter, endNode, execCxt);
@@ -163,7 +163,13 @@ public class PathLib
     private static QueryIterator evalGroundedPath(Binding binding, 
                                                   Graph graph, Node subject, Path path, Node object,
                                                   ExecutionContext execCxt) {
-        Iterator<Node> iter = PathEval.eval(graph, subject, path, execCxt.getContext()) ;
+        if ( isClosure(path) && ( object.isURI() || object.isBlank() ) ) {
+            // Both ends known: search from both ends.
+            boolean b = PathEval.existsClosure(graph, subject, ((P_Path1)path).getSubPath(), path instanceof P_ZeroOrMore1, object,
+                                               execCxt.getContext(), execCxt.getPathCache()) ;
+            return new QueryIterYieldN(b ? 1 : 0, binding, execCxt) ;
+        }
+        Iterator<Node> iter = PathEval.eval(graph, subject, path, execCxt.getContext(), execCxt.getPathCache()) ;
         // Now count the number of matches.
         
         int count = 0 ;
@@ -186,7 +192,7 @@ public class PathLib
         {
             Node n = iter.next() ;
             Binding b2 = BindingFactory.binding(binding, sVar, n) ;
-            Iterator<Node> pathIter = PathEval.eval(graph, n, path, execCxt.getContext()) ;
+            Iterator<Node> pathIter = PathEval.eval(graph, n, path, execCxt.getContext(), execCxt.getPathCache()) ;
             QueryIterator qIter = evalGroundedOneEnd(b2, pathIter, oVar, execCxt) ;
             qIterCat.add(qIter) ;
         }
@@ -245,6 +251,11 @@ public class PathLib
         return GraphUtils.allNodes(graph) ;
     }
     
+    // Transitive closures with SPARQL (set) semantics: at most one match for each pair of ends.
+    private static boolean isClosure(Path path) {
+        return path instanceof P_OneOrMore1 || path instanceof P_ZeroOrMore1 ;
+    }
+
     private static boolean isPropertyFunction(Node node, Context context) {
         if ( ! node.isURI() )
             return false ;
@@ -254,7 +265,12 @@ public class PathLib
     private static int existsPath(Graph graph, Node subject, Path path, final Node object, ExecutionContext execCxt) {
         if ( ! subject.isConcrete() || !object.isConcrete() )
             throw new ARQInternalErrorException("Non concrete node for existsPath evaluation") ;
-        Iterator<Node> iter = PathEval.eval(graph, subject, path, execCxt.getContext()) ;
+        if ( isClosure(path) && ( object.isURI() || object.isBlank() ) ) {
+            boolean b = PathEval.existsClosure(graph, subject, ((P_Path1)path).getSubPath(), path instanceof P_ZeroOrMore1, object,
+                                               execCxt.getContext(), execCxt.getPathCache()) ;
+            return b ? 1 : 0 ;
+        }
+        Iterator<Node> iter = PathEval.eval(graph, subject, path, execCxt.getContext(), execCxt.getPathCache()) ;
         Predicate<Node> filter = node -> Objects.equals(node,  object); 
         // See if we got to the node we're interested in finishing at.
         iter = Iter.filter(iter, filter) ;
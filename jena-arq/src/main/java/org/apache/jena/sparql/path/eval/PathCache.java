@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.path.eval ;
+
+import java.util.Objects ;
+import java.util.Set ;
+import java.util.concurrent.atomic.LongAdder ;
+
+import org.apache.jena.atlas.lib.Cache ;
+import org.apache.jena.atlas.lib.CacheFactory ;
+import org.apache.jena.graph.Graph ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.sparql.path.Path ;
+
+/**
+ * Reachability sets of transitive closures ({@code path*}) computed during one query
+ * execution, so that evaluating the same closure from the same node again, for a
+ * later binding or as part of a longer walk, reuses the earlier result.
+ * <p>
+ * The data must not change while the cache is in use; the cache belongs to an
+ * {@link org.apache.jena.sparql.engine.ExecutionContext}. It is only used when
+ * {@link org.apache.jena.query.ARQ#pathCache} is set.
+ */
+public class PathCache
+{
+    /** Maximum number of reachability sets held. */
+    public static final int MaxSize = 10000 ;
+
+    private final Cache<Key, Set<Node>> cache = CacheFactory.createCache(MaxSize) ;
+    private final LongAdder hits   = new LongAdder() ;
+    private final LongAdder misses = new LongAdder() ;
+
+    public PathCache() {}
+
+    /** The nodes reachable by zero or more steps of {@code path} from {@code node}, or null. */
+    public Set<Node> get(Graph graph, Path path, boolean forward, Node node) {
+        Set<Node> x = cache.getIfPresent(new Key(graph, path, forward, node)) ;
+        if ( x == null )
+            misses.increment() ;
+        else
+            hits.increment() ;
+        return x ;
+    }
+
+    /** Record the nodes reachable by zero or more steps of {@code path} from {@code node}. */
+    public void put(Graph graph, Path path, boolean forward, Node node, Set<Node> reachable) {
+        cache.put(new Key(graph, path, forward, node), reachable) ;
+    }
+
+    public long getHits()   { return hits.sum() ; }
+
+    public long getMisses() { return misses.sum() ; }
+
+    // Graphs are compared by identity.
+    private static class Key {
+        private final Graph graph ;
+        private final Path path ;
+        private final boolean forward ;
+        private final Node node ;
+
+        Key(Graph graph, Path path, boolean forward, Node node) {
+            this.graph = graph ;
+            this.path = path ;
+            this.forward = forward ;
+            this.node = node ;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(graph), path, forward, node) ;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj )
+                return true ;
+            if ( !(obj instanceof Key) )
+                return false ;
+            Key other = (Key)obj ;
+            return graph == other.graph && forward == other.forward &&
+                   Objects.equals(path, other.path) && Objects.equals(node, other.node) ;
+        }
+    }
+}
@@ -29,18 +29,35 @@ import org.apache.jena.sparql.path.P_NegPropSet ;
 import org.apache.jena.sparql.path.Path ;
 import org.apache.jena.sparql.util.Context ;
 
-/** PathEngine, SPARQL semantics */
+/**
+ * PathEngine, SPARQL semantics.
+ * <p>
+ * If there is a {@link PathCache}, the nodes reachable by {@code path*} from a node
+ * are recorded and reused by later evaluations of the same closure.
+ */
 public class PathEngineSPARQL extends PathEngine
 {
     private boolean forwardMode ;
+    private final Graph graph ;
+    private final PathCache cache ;
 
     public PathEngineSPARQL(Graph graph, Context context) {
         this(graph, true, context) ;
     }
 
+    public PathEngineSPARQL(Graph graph, Context context, PathCache cache) {
+        this(graph, true, context, cache) ;
+    }
+
     /* package */PathEngineSPARQL(Graph graph, boolean forward, Context context) {
+        this(graph, forward, context, null) ;
+    }
+
+    /* package */PathEngineSPARQL(Graph graph, boolean forward, Context context, PathCache cache) {
         super(graph, context) ;
         this.forwardMode = forward ;
+        this.graph = graph ;
+        this.cache = cache ;
     }
 
     protected Set<Node> visitedAcc() {
@@ -98,8 +115,12 @@ public class PathEngineSPARQL extends PathEngine
     
     @Override
     protected void doZeroOrMore(Path pathStep, Node node, Collection<Node> output) {
-        Set<Node> visited = visitedAcc() ;
-        ALP_1(0, -1, node, pathStep, visited, output) ;
+        if ( cache == null ) {
+            Set<Node> visited = visitedAcc() ;
+            ALP_1(node, pathStep, visited, output) ;
+            return ;
+        }
+        output.addAll(closure(pathStep, node)) ;
     }
 
     @Override
@@ -110,7 +131,14 @@ public class PathEngineSPARQL extends PathEngine
         Iter<Node> iter1 = eval(pathStep, node) ;
         for (; iter1.hasNext();) {
             Node n1 = iter1.next() ;
-            ALP_1(0, -1, n1, pathStep, visited, output) ;
+            if ( cache == null ) {
+                ALP_1(n1, pathStep, visited, output) ;
+                continue ;
+            }
+            for ( Node n : closure(pathStep, n1) ) {
+                if ( visited.add(n) )
+                    output.add(n) ;
+            }
         }
     }
 
@@ -120,18 +148,118 @@ public class PathEngineSPARQL extends PathEngine
         output.add(node) ;
     }
 
-    private void ALP_1(int stepCount, int maxStepCount, Node node, Path path, Set<Node> visited, Collection<Node> output) {
-        if ( maxStepCount >= 0 && stepCount > maxStepCount )
-            return ;
-        if ( !visited.add(node) )
-            return ;
-        output.add(node);
-        Iter<Node> iter1 = eval(path, node) ;
-        // For each step, add to results and recurse.
-        for (; iter1.hasNext();) {
+    /** The nodes reachable by zero or more steps from the node, from the cache or by walking the graph. */
+    private Set<Node> closure(Path path, Node node) {
+        Set<Node> x = cache.get(graph, path, forwardMode, node) ;
+        if ( x != null )
+            return x ;
+        x = new LinkedHashSet<>() ;
+        ALP_1(node, path, new HashSet<>(), x) ;
+        x = Collections.unmodifiableSet(x) ;
+        cache.put(graph, path, forwardMode, node, x) ;
+        return x ;
+    }
+
+    // Depth first, in the order of the recursive ALP algorithm of the SPARQL spec,
+    // but with an explicit stack so that deep hierarchies do not exhaust the thread stack.
+    private void ALP_1(Node node, Path path, Set<Node> visited, Collection<Node> output) {
+        Deque<Iterator<Node>> stack = new ArrayDeque<>() ;
+        if ( visit(node, path, visited, output) )
+            stack.push(eval(path, node)) ;
+        while ( !stack.isEmpty() ) {
+            Iterator<Node> iter1 = stack.peek() ;
+            if ( !iter1.hasNext() ) {
+                stack.pop() ;
+                continue ;
+            }
             Node n1 = iter1.next() ;
-            ALP_1(stepCount + 1, maxStepCount, n1, path, visited, output) ;
+            if ( visit(n1, path, visited, output) )
+                stack.push(eval(path, n1)) ;
+        }
+    }
+
+    // Add the node to the results; return true if the walk needs to continue from it.
+    private boolean visit(Node node, Path path, Set<Node> visited, Collection<Node> output) {
+        if ( !visited.add(node) )
+            return false ;
+        output.add(node) ;
+        if ( cache == null )
+            return true ;
+        // Everything reachable from the node is already known.
+        Set<Node> known = cache.get(graph, path, forwardMode, node) ;
+        if ( known == null )
+            return true ;
+        for ( Node n : known ) {
+            if ( visited.add(n) )
+                output.add(n) ;
+        }
+        return false ;
+    }
+
+    /**
+     * Test whether there is a path of one or more ({@code zeroLength} false) or zero or
+     * more ({@code zeroLength} true) steps from {@code start} to {@code end}. Breadth
+     * first search from both ends, expanding the smaller frontier, until the two meet.
+     * The end is compared by term, not by value.
+     */
+    /*package*/ boolean existsClosure(Path pathStep, Node start, Node end, boolean zeroLength) {
+        if ( zeroLength && start.equals(end) )
+            return true ;
+        if ( zeroLength && cache != null ) {
+            Set<Node> known = cache.get(graph, pathStep, forwardMode, start) ;
+            if ( known != null )
+                return known.contains(end) ;
+        }
+        Set<Node> fwdSeen = new HashSet<>() ;
+        Set<Node> bwdSeen = new HashSet<>() ;
+        List<Node> fwd = new ArrayList<>() ;
+        List<Node> bwd = new ArrayList<>() ;
+        if ( zeroLength ) {
+            fwdSeen.add(start) ;
+            fwd.add(start) ;
+        } else {
+            Iter<Node> iter1 = eval(pathStep, start) ;
+            for (; iter1.hasNext();) {
+                Node n1 = iter1.next() ;
+                if ( n1.equals(end) )
+                    return true ;
+                if ( fwdSeen.add(n1) )
+                    fwd.add(n1) ;
+            }
+        }
+        bwdSeen.add(end) ;
+        bwd.add(end) ;
+        while ( !fwd.isEmpty() && !bwd.isEmpty() ) {
+            if ( fwd.size() <= bwd.size() ) {
+                fwd = expand(pathStep, fwd, fwdSeen, bwdSeen) ;
+                if ( fwd == null )
+                    return true ;
+            } else {
+                flipDirection() ;
+                try {
+                    bwd = expand(pathStep, bwd, bwdSeen, fwdSeen) ;
+                } finally { flipDirection() ; }
+                if ( bwd == null )
+                    return true ;
+            }
+        }
+        return false ;
+    }
+
+    // One step from each node of the frontier. Returns the new frontier, or null if the other side was reached.
+    private List<Node> expand(Path pathStep, List<Node> frontier, Set<Node> seen, Set<Node> otherSeen) {
+        List<Node> next = new ArrayList<>() ;
+        for ( Node n : frontier ) {
+            Iter<Node> iter1 = eval(pathStep, n) ;
+            for (; iter1.hasNext();) {
+                Node n1 = iter1.next() ;
+                if ( otherSeen.contains(n1) )
+                    return null ;
+                if ( seen.add(n1) )
+                    next.add(n1) ;
+            }
         }
+        return next ;
     }
 
     // Not SPARQL - counting versions.
@@ -42,6 +42,26 @@ public class PathEval
         return eval$(graph, node, path, new PathEngineSPARQL(graph, false, context)) ;
     }
 
+    /** Evaluate a path : SPARQL semantics, reusing the transitive closures recorded in the cache. */
+    static public Iterator<Node> eval(Graph graph, Node node, Path path, Context context, PathCache cache) {
+        return eval$(graph, node, path, new PathEngineSPARQL(graph, true, context, cache)) ;
+    }
+
+    /** Evaluate a path, reusing the transitive closures recorded in the cache. */
+    static public Iterator<Node> evalReverse(Graph graph, Node node, Path path, Context context, PathCache cache) {
+        return eval$(graph, node, path, new PathEngineSPARQL(graph, false, context, cache)) ;
+    }
+
+    /**
+     * Test whether {@code end} is reachable from {@code start} by {@code path+} or,
+     * if {@code zeroLength}, by {@code path*}. The search works from both ends.
+     * The cache may be null.
+     */
+    static public boolean existsClosure(Graph graph, Node start, Path path, boolean zeroLength, Node end, Context context, PathCache cache) {
+        PathEngineSPARQL engine = new PathEngineSPARQL(graph, true, context, cache) ;
+        return engine.existsClosure(path, start, end, zeroLength) ;
+    }
+
     /** Evaluate a path : counting semantics */
     static public Iterator<Node> evalN(Graph graph, Node node, Path path) {
         return eval$(graph, node, path, new PathEngineN(graph, true)) ;
@@ -54,6 +54,7 @@ public class ResultsFormat extends Symbol
     static public ResultsFormat FMT_RS_XML       = new ResultsFormat(contentTypeResultsXML) ;
     static public ResultsFormat FMT_RS_JSON      = new ResultsFormat(contentTypeResultsJSON) ;
     static public ResultsFormat FMT_RS_THRIFT    = new ResultsFormat(contentTypeResultsThrift) ;
+    static public ResultsFormat FMT_RS_COLUMNAR  = new ResultsFormat(contentTypeResultsColumnar) ;
     static public ResultsFormat FMT_RS_CSV       = new ResultsFormat(contentTypeTextCSV) ;
     static public ResultsFormat FMT_RS_TSV       = new ResultsFormat(contentTypeTextTSV) ;
     static public ResultsFormat FMT_RS_SSE       = new ResultsFormat(contentTypeSSE) ;
@@ -83,6 +84,7 @@ public class ResultsFormat extends Symbol
         names.put("json",        FMT_RS_JSON) ;
         names.put("srj",         FMT_RS_JSON) ;
         names.put("srt",         FMT_RS_THRIFT) ;
+        names.put("srb",         FMT_RS_COLUMNAR) ;
         
         names.put("sse",         FMT_RS_SSE) ;
         names.put("csv",         FMT_RS_CSV) ;
@@ -161,6 +163,8 @@ public class ResultsFormat extends Symbol
         // -- Thrift
         if ( url.endsWith(".srt") )
             return FMT_RS_THRIFT;
+        if ( url.endsWith(".srb") )
+            return FMT_RS_COLUMNAR;
 
         // -- SSE : http://jena.apache.org/documentation/notes/sse.html
         if ( url.endsWith(".sse") )
@@ -205,6 +209,7 @@ public class ResultsFormat extends Symbol
         mapResultsFormatToLang.put(ResultsFormat.FMT_RS_XML,    ResultSetLang.RS_XML) ;
         mapResultsFormatToLang.put(ResultsFormat.FMT_RS_JSON,   ResultSetLang.RS_JSON) ;
         mapResultsFormatToLang.put(ResultsFormat.FMT_RS_THRIFT, ResultSetLang.RS_Thrift) ;
+        mapResultsFormatToLang.put(ResultsFormat.FMT_RS_COLUMNAR, ResultSetLang.RS_Columnar) ;
         mapResultsFormatToLang.put(ResultsFormat.FMT_TEXT,      ResultSetLang.RS_Text);
     }
 
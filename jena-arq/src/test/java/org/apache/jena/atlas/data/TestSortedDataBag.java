@@ -22,9 +22,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.io.File ;
+import java.io.InputStream ;
+import java.io.OutputStream ;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.lib.Sink ;
+import org.apache.jena.atlas.lib.SinkWrapper ;
 import org.apache.jena.datatypes.xsd.XSDDatatype ;
 import org.apache.jena.graph.NodeFactory ;
 import org.apache.jena.query.Query ;
@@ -34,6 +39,7 @@ import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.*;
 import org.apache.jena.sparql.expr.ExprVar ;
+import org.apache.jena.sparql.expr.NodeValue ;
 import org.apache.jena.sparql.system.SerializationFactoryFinder;
 import org.junit.Test ;
 
@@ -82,6 +88,108 @@ public class TestSortedDataBag
         assertEquals(unsorted, sorted);
     }
 
+    @Test public void testSortingLarge()
+    {
+        testSorting(20000, 10000);
+    }
+
+    // Sort keys are calculated once for each binding when sorting a run, and once when merging.
+    @Test public void testSortKeys()
+    {
+        List<Binding> unsorted = randomBindings(1000);
+        List<SortCondition> conditions = new ArrayList<>();
+        conditions.add(new SortCondition(new ExprVar("8"), Query.ORDER_DESCENDING));
+        AtomicInteger counter = new AtomicInteger(0);
+        BindingComparator comparator = new BindingComparator(conditions) {
+            @Override
+            public NodeValue[] key(Binding binding) {
+                counter.incrementAndGet();
+                return super.key(binding);
+            }
+        };
+        SortedDataBag<Binding> db = new SortedDataBag<>(
+                new ThresholdPolicyCount<Binding>(100),
+                SerializationFactoryFinder.bindingSerializationFactory(),
+                comparator);
+        List<Binding> sorted;
+        try
+        {
+            db.addAll(unsorted);
+            sorted = Iter.toList(db.iterator());
+        }
+        finally
+        {
+            db.close();
+        }
+        assertEquals(2*unsorted.size(), counter.get());
+        Collections.sort(unsorted, comparator);
+        assertEquals(unsorted, sorted);
+    }
+
+    // Spills are sorted and written on the thread adding the bindings.
+    @Test public void testSortThread()
+    {
+        // Large enough spills for a parallel sort.
+        List<Binding> unsorted = randomBindings(30000);
+        Set<Binding> original = Collections.newSetFromMap(new IdentityHashMap<>());
+        original.addAll(unsorted);
+        List<SortCondition> conditions = new ArrayList<>();
+        conditions.add(new SortCondition(new ExprVar("8"), Query.ORDER_DESCENDING));
+        Thread thread = Thread.currentThread();
+        AtomicInteger otherThread = new AtomicInteger(0);
+        BindingComparator comparator = new BindingComparator(conditions) {
+            @Override
+            public NodeValue[] key(Binding binding) {
+                if ( Thread.currentThread() != thread )
+                    otherThread.incrementAndGet();
+                return super.key(binding);
+            }
+
+            @Override
+            public int compare(NodeValue[] key1, Binding b1, NodeValue[] key2, Binding b2) {
+                // Only detached bindings are used on other threads.
+                if ( Thread.currentThread() != thread && ( original.contains(b1) || original.contains(b2) ) )
+                    otherThread.incrementAndGet();
+                return super.compare(key1, b1, key2, b2);
+            }
+        };
+        SerializationFactory<Binding> base = SerializationFactoryFinder.bindingSerializationFactory();
+        SerializationFactory<Binding> serializationFactory = new SerializationFactory<Binding>() {
+            @Override
+            public Sink<Binding> createSerializer(OutputStream out) {
+                Sink<Binding> sink = base.createSerializer(out);
+                return new SinkWrapper<Binding>(sink) {
+                    @Override
+                    public void send(Binding binding) {
+                        if ( Thread.currentThread() != thread )
+                            otherThread.incrementAndGet();
+                        super.send(binding);
+                    }
+                };
+            }
+
+            @Override
+            public Iterator<Binding> createDeserializer(InputStream in) {
+                return base.createDeserializer(in);
+            }
+        };
+        SortedDataBag<Binding> db = new SortedDataBag<>(
+                new ThresholdPolicyCount<Binding>(10000), serializationFactory, comparator);
+        List<Binding> sorted;
+        try
+        {
+            db.addAll(unsorted);
+            sorted = Iter.toList(db.iterator());
+        }
+        finally
+        {
+            db.close();
+        }
+        assertEquals(0, otherThread.get());
+        Collections.sort(unsorted, comparator);
+        assertEquals(unsorted, sorted);
+    }
+
     @Test public void testSortingWithPreMerge()
     {
         // Save the original value...
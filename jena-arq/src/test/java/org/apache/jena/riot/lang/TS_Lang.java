@@ -35,6 +35,7 @@ import org.junit.runners.Suite ;
     , TestTurtleTerms.class
     , TestLangNTriples.class
     , TestLangNQuads.class
+    , TestLangNTuplesBytes.class
     , TestLangTurtle.class
     , TestLangTrig.class
     , TestLangRdfJson.class
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.lang;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.ErrorHandler;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.Quad;
+import org.junit.Test;
+
+/** {@link LangNTuplesBytes} gives the same results as the tokenizer-based parsers. */
+public class TestLangNTuplesBytes
+{
+    @Test public void bytes_nt_01() { same(Lang.NTRIPLES, "<http://example/s> <http://example/p> <http://example/o> ."); }
+    @Test public void bytes_nt_02() { same(Lang.NTRIPLES, "<http://example/s> <http://example/p> \"abc\" .\n"); }
+    @Test public void bytes_nt_03() { same(Lang.NTRIPLES, "_:b0 <http://example/p> \"abc\"@en-GB.\r\n_:b0 <http://example/p> _:b1.\n"); }
+    @Test public void bytes_nt_04() { same(Lang.NTRIPLES, "_:b0.1 <http://example/p> \"1\"^^<http://www.w3.org/2001/XMLSchema#integer>.\n"); }
+    @Test public void bytes_nt_05() { same(Lang.NTRIPLES, "# Comment\n\n<x:s> <x:p> \"\\t\\n\\\"\\\\\\u00E9\\U0001F600\" . # Comment\n"); }
+    @Test public void bytes_nt_06() { same(Lang.NTRIPLES, "<x:s> <x:p> \"café 日本 😀\" .\n"); }
+    @Test public void bytes_nt_07() { same(Lang.NTRIPLES, "<x:s> <x:p> <x:o1> . <x:s> <x:p> <x:o2> .\n<x:s> <x:p> <x:o3> ."); }
+    @Test public void bytes_nt_08() {
+        List<Object> expected = new ArrayList<>();
+        parser(Lang.NTRIPLES).fromString("<x:s> <x:p> <x:o> .").parse(collect(expected));
+        List<Object> actual = new ArrayList<>();
+        parser(Lang.NTRIPLES).source(bytes("\uFEFF<x:s> <x:p> <x:o> .")).parse(collect(actual));
+        assertEquals(expected, actual);
+    }
+    @Test public void bytes_nt_09() { same(Lang.NTRIPLES, "\t<x:s>\t<x:p>\t<x:o>\t.\t\n"); }
+
+    // Switch to the tokenizer parser.
+    @Test public void bytes_nt_10() { same(Lang.NTRIPLES, "<x:s> <x:p> <x:o1> .\n<x:s>\n<x:p>\n<x:o2> .\n<x:s> <x:p> <x:o3> ."); }
+    @Test public void bytes_nt_11() { same(Lang.NTRIPLES, "<x:s> <x:p> <x:o1> .\n<< <x:s> <x:p> <x:o> >> <x:p> <x:o> ."); }
+    @Test public void bytes_nt_12() { same(Lang.NTRIPLES, "<x:s> <x:p> \"abc\" @en .\n<x:s> <x:p> \"abc\" ^^ <x:dt> ."); }
+    @Test public void bytes_nt_13() { same(Lang.NTRIPLES, "<x:sé> <x:p> <x:o> ."); }
+
+    @Test public void bytes_nq_01() { same(Lang.NQUADS, "<x:s> <x:p> <x:o> .\n<x:s> <x:p> <x:o> <x:g> .\n_:b <x:p> _:b _:g ."); }
+    @Test public void bytes_nq_02() { same(Lang.NQUADS, "_:b <x:p> \"abc\"@en _:g1 .\n_:b <x:p> \"abc\"^^<x:dt> _:g2 .\n<x:s> <x:p> <x:o> <x:g>\n."); }
+
+    // Errors and warnings have the same line and column.
+    @Test public void bytes_error_01() { sameErrors(Lang.NTRIPLES, "<x:s> <x:p> <x:o> .\n<x:s> <x:p> <x:o> <x:g> .\n"); }
+    @Test public void bytes_error_02() { sameErrors(Lang.NTRIPLES, "<x:s> <x:p> <x:o> .\n\n  <x:s> <x:p> <x:o> . <x:s> <x:p> \"abc\n"); }
+    @Test public void bytes_error_03() { sameErrors(Lang.NTRIPLES, "<x:s> <x:p> <x:o> .\n<x:s> <x:p> <x:o{}> .\n<x:s> <x:p> \"a\" <x:z> ."); }
+    @Test public void bytes_error_04() { sameErrors(Lang.NQUADS, "<x:s> <x:p> <x:o> .\n<x:s> <x:p> <x:o> \"g\" .\n"); }
+    @Test public void bytes_error_05() { sameErrors(Lang.NTRIPLES, "<x:s> <x:p> \"abc\"@1 ."); }
+    @Test public void bytes_error_06() { sameErrors(Lang.NTRIPLES, "<x:s> <x:p> <x:o> .\n<x:s> <x:p> \"\"\"long\"\"\" ."); }
+    // Columns are in characters, not bytes.
+    @Test public void bytes_error_07() { sameErrors(Lang.NTRIPLES, "<x:s> <x:p> \"café 日本 😀\" <x:g> ."); }
+    @Test public void bytes_error_08() { sameErrors(Lang.NQUADS, "<x:s> <x:p> \"café 日本 😀\" <http://example/g#a#b> .", true); }
+
+    // With checking, a bad IRI is reported each time it is used.
+    @Test public void bytes_warning_01() {
+        String string = "<x:s> <x:p> <http://example/a#b#c> .\n<x:s> <x:p> <http://example/a#b#c> .\n";
+        List<Object> actual = sameErrors(Lang.NTRIPLES, string, true);
+        long line1 = actual.stream().filter(x->x.toString().startsWith("W 1 ")).count();
+        long line2 = actual.stream().filter(x->x.toString().startsWith("W 2 ")).count();
+        assertTrue(line1 > 0);
+        assertEquals(line1, line2);
+    }
+
+    // Long lines and more than one buffer of input.
+    @Test public void bytes_large_01() {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < 20000 ; i++ )
+            sb.append("<http://example/s").append(i).append("> <http://example/p> \"").append("x".repeat(i%50)).append("\" .\n");
+        sb.append("<x:s> <x:p> \"").append("y".repeat(300000)).append("\" .\n");
+        same(Lang.NTRIPLES, sb.toString());
+    }
+
+    private static void same(Lang lang, String string) {
+        List<Object> expected = new ArrayList<>();
+        parser(lang).source(new StringReader(string)).parse(collect(expected));
+        List<Object> actual = new ArrayList<>();
+        parser(lang).source(bytes(string)).parse(collect(actual));
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, actual);
+    }
+
+    private static void sameErrors(Lang lang, String string) {
+        sameErrors(lang, string, false);
+    }
+
+    private static List<Object> sameErrors(Lang lang, String string, boolean checking) {
+        List<Object> expected = new ArrayList<>();
+        parse(parser(lang).checking(checking).source(new StringReader(string)).errorHandler(record(expected)), expected);
+        List<Object> actual = new ArrayList<>();
+        parse(parser(lang).checking(checking).source(bytes(string)).errorHandler(record(actual)), actual);
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    private static void parse(RDFParserBuilder builder, List<Object> results) {
+        try {
+            builder.parse(collect(results));
+        } catch (RiotException ex) {}
+    }
+
+    // Labels as given so blank nodes from different runs compare.
+    private static RDFParserBuilder parser(Lang lang) {
+        return RDFParser.create().lang(lang).labelToNode(LabelToNode.createUseLabelAsGiven());
+    }
+
+    private static ByteArrayInputStream bytes(String string) {
+        return new ByteArrayInputStream(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static StreamRDF collect(List<Object> results) {
+        return new StreamRDFBase() {
+            @Override public void triple(Triple triple) { results.add(triple.toString()); }
+            @Override public void quad(Quad quad)       { results.add(quad.toString()); }
+        };
+    }
+
+    private static ErrorHandler record(List<Object> results) {
+        return new ErrorHandler() {
+            @Override
+            public void warning(String message, long line, long col) {
+                results.add("W "+line+" "+col+" "+message);
+            }
+
+            @Override
+            public void error(String message, long line, long col) {
+                results.add("E "+line+" "+col+" "+message);
+            }
+
+            @Override
+            public void fatal(String message, long line, long col) {
+                results.add("F "+line+" "+col+" "+message);
+                throw new RiotException(message);
+            }
+        };
+    }
+}
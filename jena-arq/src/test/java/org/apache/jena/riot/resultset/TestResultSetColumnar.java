@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.resultset;
+
+import static org.apache.jena.riot.resultset.ResultSetLang.RS_Columnar;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.riot.ResultSetMgr;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.sparql.resultset.ResultSetException;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.sse.builders.BuilderResultSet;
+import org.junit.Test;
+
+public class TestResultSetColumnar {
+
+    private static Var x = Var.alloc("x");
+    private static Var y = Var.alloc("y");
+
+    private static ResultSetRewindable build(String... rs) {
+        return ResultSetFactory.makeRewindable(BuilderResultSet.build(SSE.parse(StrUtils.strjoinNL(rs))));
+    }
+
+    private static ResultSetRewindable build(List<Binding> rows) {
+        return ResultSetFactory.makeRewindable(ResultSetStream.create(List.of(x, y), rows.iterator()));
+    }
+
+    private static byte[] write(ResultSet rs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ResultSetMgr.write(out, rs, RS_Columnar);
+        return out.toByteArray();
+    }
+
+    private static void roundTrip(ResultSetRewindable rs) {
+        byte[] bytes = write(rs);
+        rs.reset();
+        ResultSetRewindable rs2 = ResultSetFactory.makeRewindable(ResultSetMgr.read(new ByteArrayInputStream(bytes), RS_Columnar));
+        assertEquals(rs.size(), rs2.size());
+        assertEquals(rs.getResultVars(), rs2.getResultVars());
+        assertTrue(ResultSetCompare.equalsExact(rs, rs2));
+    }
+
+    @Test public void columnar_01() {
+        roundTrip(build("(resultset (?x ?y)",
+                        "  (row (?x <http://example/s>) (?y 'abc'))",
+                        "  (row (?x 'abc'@en) (?y 123))",
+                        "  (row (?x '1.5'^^<http://www.w3.org/2001/XMLSchema#decimal>) (?y 'abc'@en))",
+                        "  (row (?x _:b0) (?y 'x'^^<http://example/dt>))",
+                        "  (row (?y _:b0))",
+                        "  (row (?x <<_:b0 <http://example/p> 'abc'>>))",
+                        "  (row)",
+                        ")"));
+    }
+
+    @Test public void columnar_02() {
+        // No rows.
+        roundTrip(build("(resultset (?x ?y))"));
+    }
+
+    @Test public void columnar_03() {
+        // No variables.
+        roundTrip(build("(resultset () (row) (row))"));
+    }
+
+    @Test public void columnar_04() {
+        // Several batches; the dictionary needs 2 then 4 byte columns and is reset.
+        List<Binding> rows = new ArrayList<>();
+        Node p = NodeFactory.createURI("http://example/p");
+        for ( int i = 0 ; i < 160_000 ; i++ ) {
+            Node n = NodeFactory.createLiteral(Integer.toString(i), XSDDatatype.XSDinteger);
+            rows.add( i % 3 == 0 ? BindingFactory.binding(x, p) : BindingFactory.binding(BindingFactory.binding(x, p), y, n));
+        }
+        roundTrip(build(rows));
+    }
+
+    @Test public void columnar_05() {
+        // Terms repeated across batches.
+        List<Binding> rows = new ArrayList<>();
+        for ( int i = 0 ; i < 10_000 ; i++ ) {
+            Node n = NodeFactory.createURI("http://example/s"+(i%10));
+            rows.add(BindingFactory.binding(y, n));
+        }
+        ResultSetRewindable rs = build(rows);
+        roundTrip(rs);
+        rs.reset();
+        // One copy of each term, 1 byte per value.
+        assertTrue(write(rs).length < 2*10_000+1000);
+    }
+
+    @Test public void columnar_boolean() {
+        for ( boolean b : new boolean[] {true, false} ) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ResultSetMgr.write(out, b, RS_Columnar);
+            boolean b2 = ResultSetMgr.readBoolean(new ByteArrayInputStream(out.toByteArray()), RS_Columnar);
+            assertEquals(b, b2);
+        }
+    }
+
+    @Test(expected=ResultSetException.class)
+    public void columnar_bad_1() {
+        ResultSetMgr.read(new ByteArrayInputStream(new byte[] {'S', 'R', 'X', 1, 1}), RS_Columnar);
+    }
+
+    @Test(expected=ResultSetException.class)
+    public void columnar_bad_2() {
+        byte[] bytes = write(build("(resultset (?x) (row (?x 1)))"));
+        // Cut off the end.
+        byte[] bytes2 = new byte[bytes.length-6];
+        System.arraycopy(bytes, 0, bytes2, 0, bytes2.length);
+        ResultSet rs = ResultSetMgr.read(new ByteArrayInputStream(bytes2), RS_Columnar);
+        assertFalse(rs.hasNext());
+    }
+}
@@ -51,6 +51,7 @@ public class TestResultSetIO {
                        , RS_CSV
                        , RS_TSV
                        , RS_Thrift
+                       , RS_Columnar
         } ;
 
         List<Object[]> x = new ArrayList<>() ;
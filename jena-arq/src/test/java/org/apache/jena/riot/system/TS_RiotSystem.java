@@ -48,6 +48,7 @@ import org.junit.runners.Suite.SuiteClasses;
     , TestIRIxRIOT.class
     , TestRiotLib.class
     , TestAsyncParser.class
+    , TestParallelParser.class
 })
 
 public class TS_RiotSystem
@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.riot.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.RiotNotFoundException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.junit.Test;
+
+public class TestParallelParser {
+
+    private static String ntriples(int n) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < n ; i++ ) {
+            sb.append("<http://example/s").append(i).append("> <http://example/p> \"").append(i).append("\" .\n");
+            // Blank nodes used across chunks.
+            sb.append("_:b").append(i%10).append(" <http://example/q> <http://example/s").append(i).append("> .\n");
+        }
+        return sb.toString();
+    }
+
+    private static InputStream input(String string) {
+        return new ByteArrayInputStream(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void testTriples(String data, boolean ordered, int chunkSize) {
+        Graph graph1 = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(data).lang(Lang.NTRIPLES).parse(graph1);
+
+        List<Triple> triples = new ArrayList<>();
+        StreamRDF collect = new StreamRDFBase() {
+            @Override public void triple(Triple triple) { triples.add(triple); }
+        };
+        ParallelParser.parse(input(data), Lang.NTRIPLES, collect, ordered, 3, chunkSize);
+
+        Graph graph2 = GraphFactory.createDefaultGraph();
+        triples.forEach(graph2::add);
+        assertEquals(graph1.size(), triples.size());
+        assertTrue(IsoMatcher.isomorphic(graph1, graph2));
+        if ( ordered ) {
+            for ( int i = 0 ; i < triples.size() ; i += 2 )
+                assertEquals("http://example/s"+(i/2), triples.get(i).getSubject().getURI());
+        }
+    }
+
+    @Test public void parallel_parse_1() { testTriples("", true, 100); }
+    @Test public void parallel_parse_2() { testTriples(ntriples(1000), true, 100); }
+    @Test public void parallel_parse_3() { testTriples(ntriples(1000), false, 100); }
+    // Chunk smaller than a line.
+    @Test public void parallel_parse_4() { testTriples(ntriples(100), true, 10); }
+    // No final newline.
+    @Test public void parallel_parse_5() { testTriples("<http://example/s0> <http://example/p> \"0\" .", true, 10); }
+
+    @Test public void parallel_parse_quads() {
+        String data = "<http://example/s> <http://example/p> _:b <http://example/g1> .\n"
+                    + "<http://example/s> <http://example/p> <http://example/o> .\n"
+                    + "<http://example/s> <http://example/p> _:b <http://example/g2> .\n";
+        DatasetGraph dsg1 = DatasetGraphFactory.create();
+        RDFParser.fromString(data).lang(Lang.NQUADS).parse(dsg1);
+        DatasetGraph dsg2 = DatasetGraphFactory.create();
+        ParallelParser.parse(input(data), Lang.NQUADS, StreamRDFLib.dataset(dsg2), true, 2, 20);
+        assertTrue(IsoMatcher.isomorphic(dsg1, dsg2));
+    }
+
+    @Test public void parallel_parse_file() {
+        Graph graph1 = GraphFactory.createDefaultGraph();
+        Graph graph2 = GraphFactory.createDefaultGraph();
+        String filename = "testing/RIOT/Lang/NTriplesStd/nt-syntax-subm-01.nt";
+        RDFParser.source(filename).parse(graph1);
+        ParallelParser.parse(filename, StreamRDFLib.graph(graph2));
+        assertTrue(IsoMatcher.isomorphic(graph1, graph2));
+    }
+
+    @Test public void parallel_parse_file_gz() throws IOException {
+        String data = ntriples(100);
+        Path path = Files.createTempFile("parallel", ".nt.gz");
+        try {
+            try ( OutputStream out = new GZIPOutputStream(Files.newOutputStream(path)) ) {
+                out.write(data.getBytes(StandardCharsets.UTF_8));
+            }
+            Graph graph1 = GraphFactory.createDefaultGraph();
+            Graph graph2 = GraphFactory.createDefaultGraph();
+            RDFParser.fromString(data).lang(Lang.NTRIPLES).parse(graph1);
+            ParallelParser.parse(path.toString(), StreamRDFLib.graph(graph2));
+            assertTrue(IsoMatcher.isomorphic(graph1, graph2));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = RiotNotFoundException.class)
+    public void parallel_parse_not_found() {
+        ParallelParser.parse("testing/RIOT/Parser/no-suchfile.nt", StreamRDFLib.sinkNull());
+    }
+
+    @Test(expected = RiotException.class)
+    public void parallel_parse_not_supported() {
+        ParallelParser.parse(input(""), Lang.RDFXML, StreamRDFLib.sinkNull(), true);
+    }
+
+    private static String turtle(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("@prefix : <http://example/> .\n");
+        sb.append("PREFIX ns: <http://example/ns#>\n\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( i == n/2 )
+                // Redefine a prefix.
+                sb.append("@prefix ns: <http://example/other#> .\n");
+            sb.append(":s").append(i).append(" ns:p ").append(i).append(" ;\n");
+            if ( i%10 == 0 )
+                sb.append("    :q [ :r _:b").append(i%3).append(" ] , [] ;\n");
+            sb.append("    :str \"\"\"Long .\n\n@prefix x: <http://example/x#> .\n\"\"\" ;   # Comment .\n");
+            sb.append("    :list ( 1.5 'a.\\'' ) .\n");
+        }
+        return sb.toString();
+    }
+
+    private static void testTurtle(String data, Lang lang, int chunkSize) {
+        DatasetGraph dsg1 = DatasetGraphFactory.create();
+        RDFParser.source(input(data)).lang(lang).parse(dsg1);
+        DatasetGraph dsg2 = DatasetGraphFactory.create();
+        ParallelParser.parse(input(data), lang, StreamRDFLib.dataset(dsg2), true, 3, chunkSize);
+        // Graph matching scales to the number of blank nodes here; the dataset matcher does not.
+        assertTrue(dsg1.getDefaultGraph().isIsomorphicWith(dsg2.getDefaultGraph()));
+        assertEquals(Iter.toList(dsg1.listGraphNodes()), Iter.toList(dsg2.listGraphNodes()));
+        dsg1.listGraphNodes().forEachRemaining(gn->
+            assertTrue(dsg1.getGraph(gn).isIsomorphicWith(dsg2.getGraph(gn))));
+        assertEquals(dsg1.prefixes().size(), dsg2.prefixes().size());
+    }
+
+    @Test public void parallel_parse_turtle_1() { testTurtle(turtle(50), Lang.TURTLE, 200); }
+    @Test public void parallel_parse_turtle_2() { testTurtle(turtle(50), Lang.TURTLE, 10); }
+    // No split point: parsed sequentially after the first chunk.
+    @Test public void parallel_parse_turtle_3() {
+        StringBuilder sb = new StringBuilder(turtle(10));
+        sb.append("<http://example/s> <http://example/p> [\n");
+        for ( int i = 0 ; i < 100 ; i++ )
+            sb.append("    :p").append(i).append(" ns:q").append(i).append(" ;\n");
+        sb.append("] .\n");
+        sb.append(turtle(10));
+        testTurtle(sb.toString(), Lang.TURTLE, 100);
+    }
+
+    @Test public void parallel_parse_turtle_4() {
+        // Split points only after the prefixes.
+        String data = "\uFEFFBASE <http://example/base/>\n@prefix : <x#> .\n<a> :p <b> .\n<c> :p [] .\n<d> :p :e.\n";
+        testTurtle(data, Lang.TURTLE, 10);
+    }
+
+    @Test public void parallel_parse_trig() {
+        StringBuilder sb = new StringBuilder("PREFIX : <http://example/>\n");
+        sb.append(":g { :s :p [] , _:b }\n");
+        for ( int i = 0 ; i < 50 ; i++ ) {
+            sb.append(":g").append(i%5).append(" {\n  :s").append(i).append(" :p :o").append(i).append(" .\n\n  :s :p :o\n}\n");
+            sb.append(":s :p ").append(i).append(" .\n");
+            sb.append("GRAPH :g { :s :p :o }\n.\n");
+        }
+        testTurtle(sb.toString(), Lang.TRIG, 50);
+    }
+
+    // Anonymous blank nodes in different chunks are different.
+    @Test public void parallel_parse_turtle_bnodes() {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < 100 ; i++ )
+            sb.append("<http://example/s> <http://example/p> [] .\n");
+        Graph graph = GraphFactory.createDefaultGraph();
+        ParallelParser.parse(input(sb.toString()), Lang.TURTLE, StreamRDFLib.graph(graph), true, 3, 100);
+        assertEquals(100, graph.size());
+    }
+
+    @Test public void parallel_parse_turtle_prefixes() {
+        List<String> prefixes = new ArrayList<>();
+        StreamRDF collect = new StreamRDFBase() {
+            @Override public void prefix(String prefix, String iri) { prefixes.add(prefix+"="+iri); }
+        };
+        ParallelParser.parse(input(turtle(100)), Lang.TURTLE, collect, true, 3, 100);
+        assertEquals(3, prefixes.size());
+    }
+
+    // Errors are reported with the line number in the whole input.
+    @Test public void parallel_parse_error_turtle() {
+        String data = turtle(50) + ":s :p .\n" + turtle(10);
+        long line = turtle(50).chars().filter(ch->ch == '\n').count() + 1;
+        assertEquals(line, errorLine(data, Lang.TURTLE, 100));
+    }
+
+    // Errors are reported with the line number in the whole input.
+    @Test public void parallel_parse_error() {
+        String data = ntriples(100) + "<http://example/s> <http://example/p> .\n" + ntriples(10);
+        assertEquals(201, errorLine(data, Lang.NTRIPLES, 100));
+    }
+
+    private static long errorLine(String data, Lang lang, int chunkSize) {
+        long[] errorLine = { -1 };
+        ErrorHandler handler = ErrorHandlerFactory.getDefaultErrorHandler();
+        ErrorHandlerFactory.setDefaultErrorHandler(new ErrorHandler() {
+            @Override public void warning(String message, long line, long col) {}
+            @Override public void error(String message, long line, long col) { fatal(message, line, col); }
+            @Override public void fatal(String message, long line, long col) {
+                errorLine[0] = line;
+                throw new RiotException(message);
+            }
+        });
+        try {
+            ParallelParser.parse(input(data), lang, StreamRDFLib.sinkNull(), true, 3, chunkSize);
+            fail("No exception");
+        } catch (RiotException ex) {
+        } finally {
+            ErrorHandlerFactory.setDefaultErrorHandler(handler);
+        }
+        return errorLine[0];
+    }
+}
@@ -46,6 +46,7 @@ public class TestRiotWriterDataset extends AbstractWriterTest
             , { RDFFormat.TRIG_PRETTY }
             , { RDFFormat.TRIG_BLOCKS }
             , { RDFFormat.TRIG_FLAT }
+            , { RDFFormat.TRIG_LONG }
             , { RDFFormat.JSONLD }
             , { RDFFormat.JSONLD_PRETTY }
             , { RDFFormat.JSONLD_FLAT }
@@ -49,6 +49,7 @@ public class TestRiotWriterGraph extends AbstractWriterTest
             , { RDFFormat.TURTLE_PRETTY }
             , { RDFFormat.TURTLE_BLOCKS }
             , { RDFFormat.TURTLE_FLAT }
+            , { RDFFormat.TURTLE_LONG }
             , { RDFFormat.RDFXML }
             , { RDFFormat.RDFXML_PRETTY }
             , { RDFFormat.RDFXML_PLAIN }
@@ -62,6 +63,7 @@ public class TestRiotWriterGraph extends AbstractWriterTest
             , { RDFFormat.TRIG_PRETTY }
             , { RDFFormat.TRIG_BLOCKS }
             , { RDFFormat.TRIG_FLAT }
+            , { RDFFormat.TRIG_LONG }
             , { RDFFormat.NQUADS_UTF8}
             , { RDFFormat.NQUADS_ASCII}
             , { RDFFormat.NQUADS}
@@ -26,9 +26,19 @@ import java.io.StringReader ;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.atlas.io.IO;
 import org.apache.jena.atlas.lib.Bytes;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.compose.MultiUnion;
 import org.apache.jena.rdf.model.Model ;
 import org.apache.jena.rdf.model.ModelFactory ;
 import org.apache.jena.riot.*;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.IsoMatcher;
 import org.apache.jena.sparql.util.Context;
 import org.junit.Assert ;
 import org.junit.Test ;
@@ -99,6 +109,100 @@ public class TestTurtleWriter {
     @Test
     public void bnode_cycles_08() { blankNodeLang(cycle2, RDFFormat.TURTLE_PRETTY) ; }
 
+    @Test
+    public void bnode_cycles_09() { blankNodeLang(cycle1, RDFFormat.TURTLE_LONG) ; }
+
+    @Test
+    public void bnode_cycles_10() { blankNodeLang(cycle2, RDFFormat.TURTLE_LONG) ; }
+
+    // Lists and nested blank nodes, including the structures that are not abbreviated.
+    static String structures = String.join("\n"
+        , "PREFIX : <http://example/>"
+        , "PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>"
+        , ":s :p ( 1 2 [ :q 3 ] ( 4 5 ) ) ; :r [ :q [ :q 6 ] ] ."
+        , ":s :list () ."
+        , ":s1 :p _:shared . :s2 :p _:shared . _:shared :q 7 ."
+        , ":s1 :p _:list . :s2 :p _:list . _:list rdf:first 8 ; rdf:rest ( 9 ) ."
+        , "_:free rdf:first 10 ; rdf:rest ( 11 ) ."
+        , ":s3 :p _:bad . _:bad rdf:first 12 ; rdf:rest _:bad2 ; :q 13 . _:bad2 rdf:first 14 ; rdf:rest rdf:nil ."
+        , ":s4 :p _:c1 . _:c1 :q _:c2 . _:c2 :q _:c1 ."
+        , "[ :q 15 ; :r [ :q 16 ] ] ."
+        , ":s5 :p << :a :b _:tt >> . :s5 :q _:tt ."
+        );
+
+    @Test
+    public void turtle_long_01() {
+        Model m = ModelFactory.createDefaultModel();
+        RDFParser.fromString(structures).lang(Lang.TTL).parse(m);
+        String x = modelToString(m, RDFFormat.TURTLE_LONG, null);
+        Model m2 = ModelFactory.createDefaultModel();
+        RDFParser.fromString(x).lang(Lang.TTL).parse(m2);
+        // Model.isIsomorphicWith does not cover blank nodes in triple terms.
+        Assert.assertTrue(IsoMatcher.isomorphic(m.getGraph(), m2.getGraph()));
+    }
+
+    // When everything can be abbreviated, the output is the same as the pretty writer.
+    @Test
+    public void turtle_long_02() {
+        String data = String.join("\n"
+            , "PREFIX : <http://example/>"
+            , ":s :p ( 1 2 [ :q 3 ] ( 4 [] ) ) ; :r [ :q [ :q 6 ] ] ."
+            , ":s2 :p :o , [ :q () ] ."
+            , "[ :q 7 ] ."
+            );
+        Model m = ModelFactory.createDefaultModel();
+        RDFParser.fromString(data).lang(Lang.TTL).parse(m);
+        String x1 = modelToString(m, RDFFormat.TURTLE_PRETTY, null);
+        String x2 = modelToString(m, RDFFormat.TURTLE_LONG, null);
+        Assert.assertEquals(x1, x2);
+        Assert.assertFalse(x2.contains("_:"));
+    }
+
+    // A graph that does not group triples by subject.
+    @Test
+    public void turtle_long_03() {
+        String data1 = String.join("\n"
+            , "PREFIX : <http://example/>"
+            , ":s :p [ :q 1 ] ; :list ( 1 [ :q 2 ] ) ."
+            , ":x :p 2 ."
+            , "_:b :p 3 ."
+            );
+        String data2 = String.join("\n"
+            , "PREFIX : <http://example/>"
+            , ":s :r [ :q 4 ] ."
+            );
+        Graph g1 = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(data1).lang(Lang.TTL).parse(g1);
+        Graph g2 = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(data2).lang(Lang.TTL).parse(g2);
+        // A free blank node subject in both graphs.
+        Node p = NodeFactory.createURI("http://example/p");
+        Node b = g1.find(null, p, NodeFactory.createLiteralByValue(3, XSDDatatype.XSDinteger)).next().getSubject();
+        g2.add(Triple.create(b, p, NodeFactory.createLiteralByValue(5, XSDDatatype.XSDinteger)));
+        MultiUnion union = new MultiUnion(new Graph[] {g1, g2});
+        String x = modelToString(ModelFactory.createModelForGraph(union), RDFFormat.TURTLE_LONG, null);
+        Graph g3 = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(x).lang(Lang.TTL).parse(g3);
+        Assert.assertTrue(IsoMatcher.isomorphic(union, g3));
+    }
+
+    @Test
+    public void trig_long_01() {
+        String data = String.join("\n"
+            , structures
+            , ":g { :s :p ( 1 [ :q 2 ] ) . :s :r _:b . }"
+            , ":g2 { :s :r _:b . }"
+            , "_:b :q 3 ."
+            );
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        RDFParser.fromString(data).lang(Lang.TRIG).parse(dsg);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RDFDataMgr.write(output, dsg, RDFFormat.TRIG_LONG);
+        DatasetGraph dsg2 = DatasetGraphFactory.createTxnMem();
+        RDFParser.source(new ByteArrayInputStream(output.toByteArray())).lang(Lang.TRIG).parse(dsg2);
+        Assert.assertTrue(IsoMatcher.isomorphic(dsg, dsg2));
+    }
+
     @Test
     public void bnode_cycles() {
         Model m = RDFDataMgr.loadModel("testing/DAWG-Final/construct/data-ident.ttl");
@@ -163,7 +267,7 @@ public class TestTurtleWriter {
 
     private String modelToString(Model model, RDFFormat format, Context context) {
         try(ByteArrayOutputStream o = new ByteArrayOutputStream()) {
-            RDFWriter.create().source(baseTestData).format(format).base(base).context(context).output(o);
+            RDFWriter.create().source(model).format(format).base(base).context(context).output(o);
             String result = Bytes.bytes2string(o.toByteArray());
             return result;
         } catch (IOException ex) { IO.exception(ex); return null;}
@@ -65,6 +65,8 @@ public class TestWriterRegistration
     @Test public void registration_34() { testregistration(RDFFormat.RDFXML_PLAIN) ; }
     @Test public void registration_35() { testregistration(RDFFormat.RDFJSON) ; }
     @Test public void registration_36() { testregistration(RDFFormat.RDFNULL) ; }
+    @Test public void registration_37() { testregistration(RDFFormat.TURTLE_LONG) ; }
+    @Test public void registration_38() { testregistration(RDFFormat.TRIG_LONG) ; }
 
     private void testregistration(Lang lang)
     {
@@ -34,6 +34,8 @@ import org.junit.runners.Suite ;
       , TestQueryEngineMultiThreaded.class
       , TestJsonIterator.class
       , TestJsonEval.class
+      , TestPlanCache.class
+      , TestServiceBulk.class
 })
 
 public class TS_Engine {}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSetOps;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.junit.Test;
+
+public class TestPlanCache {
+    private static String PREFIX = "PREFIX : <http://example/> ";
+    private static String qs1 = PREFIX+"SELECT * { ?s :p ?o FILTER(?o > 1) }";
+    private static String qs2 = PREFIX+"SELECT * { ?s :p ?o FILTER(?o > 2) }";
+
+    private static DatasetGraph data() {
+        return SSE.parseDatasetGraph("(dataset (graph (:s :p 1) (:s :p 2) (:s :p 3)))");
+    }
+
+    private static long count(DatasetGraph dsg, String qs) {
+        try ( QueryExec qExec = QueryExec.dataset(dsg).query(qs).build() ) {
+            return RowSetOps.count(qExec.select());
+        }
+    }
+
+    private static long countNoOpt(DatasetGraph dsg, String qs) {
+        try ( QueryExec qExec = QueryExec.newBuilder().dataset(dsg).query(qs).set(ARQ.optimization, false).build() ) {
+            return RowSetOps.count(qExec.select());
+        }
+    }
+
+    @Test public void planCache_01() {
+        DatasetGraph dsg = data();
+        dsg.getContext().set(ARQ.planCache, true);
+        PlanCache planCache = PlanCache.get(dsg);
+        assertEquals(2, count(dsg, qs1));
+        assertEquals(0, planCache.getHits());
+        assertEquals(1, planCache.size());
+        assertEquals(2, count(dsg, qs1));
+        assertEquals(1, planCache.getHits());
+        assertEquals(1, count(dsg, qs2));
+        assertEquals(1, planCache.getHits());
+        assertEquals(2, planCache.size());
+    }
+
+    // Optimizer settings are part of the key.
+    @Test public void planCache_02() {
+        DatasetGraph dsg = data();
+        dsg.getContext().set(ARQ.planCache, true);
+        PlanCache planCache = PlanCache.get(dsg);
+        assertEquals(2, count(dsg, qs1));
+        assertEquals(2, countNoOpt(dsg, qs1));
+        assertEquals(0, planCache.getHits());
+        assertEquals(2, planCache.size());
+    }
+
+    @Test public void planCache_03() {
+        DatasetGraph dsg = data();
+        PlanCache planCache = PlanCache.get(dsg);
+        assertEquals(2, count(dsg, qs1));
+        assertEquals(2, count(dsg, qs1));
+        assertEquals(0, planCache.size());
+        assertEquals(0, planCache.getHits()+planCache.getMisses());
+    }
+
+    @Test public void planCache_04() {
+        DatasetGraph dsg = data();
+        dsg.getContext().set(ARQ.planCache, true);
+        PlanCache planCache = PlanCache.get(dsg);
+        count(dsg, qs1);
+        PlanCache.invalidate(dsg);
+        assertEquals(0, planCache.size());
+        assertEquals(2, count(dsg, qs1));
+        assertEquals(0, planCache.getHits());
+    }
+
+    @Test public void planCache_05() {
+        // The key for the query of a query cache is made when the cache is made.
+        Query query = QueryFactory.create(qs1);
+        Context cxt = ARQ.getContext().copy();
+        PlanCache planCache = new PlanCache(10, query);
+        String key1 = planCache.key(QueryEngineBase.class, query, cxt);
+        assertEquals(key1, planCache.key(QueryEngineBase.class, QueryFactory.create(qs1), cxt));
+        assertNotEquals(key1, planCache.key(QueryEngineBase.class, QueryFactory.create(qs2), cxt));
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jena.sparql.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.logging.LogCtl;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.OpAsQuery;
+import org.apache.jena.sparql.algebra.op.OpService;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBase;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.engine.main.iterator.QueryIterService;
+import org.apache.jena.sparql.engine.main.iterator.QueryIterServiceBulk;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.QueryExecBuilder;
+import org.apache.jena.sparql.service.ServiceExecutorFactory;
+import org.apache.jena.sparql.service.ServiceExecutorRegistry;
+import org.apache.jena.sparql.sse.SSE;
+import org.junit.Test;
+
+/** SERVICE as a bind-join, against an in-process stand-in for the remote endpoint. */
+public class TestServiceBulk {
+    private static String PREFIX = "PREFIX : <http://example/> ";
+    private static Node p = NodeFactory.createURI("http://example/p");
+    private static Node name = NodeFactory.createURI("http://example/name");
+    private static final int N = 25;
+
+    private static Node x(int i) { return NodeFactory.createURI("http://example/x"+i); }
+
+    private static DatasetGraph local() {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        for ( int i = 0 ; i < N ; i++ )
+            dsg.getDefaultGraph().add(x(i), p, x(i%10));
+        return dsg;
+    }
+
+    private static DatasetGraph remote() {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        for ( int i = 0 ; i < 10 ; i += 2 )
+            dsg.getDefaultGraph().add(x(i), name, NodeFactory.createLiteral("name"+i));
+        dsg.getDefaultGraph().add(x(0), name, NodeFactory.createLiteral("zero"));
+        return dsg;
+    }
+
+    // Send the request as a query string, as HTTP would.
+    private static ServiceExecutorFactory standIn(DatasetGraph remote, AtomicInteger requests) {
+        return (op, opOriginal, binding, execCxt) -> ()->{
+            requests.incrementAndGet();
+            Query query = QueryFactory.create(OpAsQuery.asQuery(op.getSubOp()).toString());
+            return Algebra.exec(Algebra.compile(query), remote);
+        };
+    }
+
+    private static List<Binding> exec(String qs, ServiceExecutorFactory factory, int batchSize) {
+        ServiceExecutorRegistry registry = new ServiceExecutorRegistry().add(factory);
+        QueryExecBuilder builder = QueryExec.dataset(local()).query(PREFIX+qs)
+                .set(ARQConstants.registryServiceExecutors, registry);
+        if ( batchSize > 0 )
+            builder.set(ARQ.serviceBatchSize, batchSize);
+        try ( QueryExec qExec = builder.build() ) {
+            return Iter.toList(qExec.select());
+        }
+    }
+
+    private static void test(String qs, int batchSize, int expectedRequests) {
+        AtomicInteger requests1 = new AtomicInteger();
+        List<Binding> expected = exec(qs, standIn(remote(), requests1), 0);
+        AtomicInteger requests2 = new AtomicInteger();
+        List<Binding> actual = exec(qs, standIn(remote(), requests2), batchSize);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        assertEquals(expectedRequests, requests2.get());
+    }
+
+    @Test public void service_bulk_01() {
+        test("SELECT * { ?s :p ?x SERVICE <http://remote/> { ?x :name ?n } }", 10, 3);
+    }
+
+    @Test public void service_bulk_02() {
+        test("SELECT * { ?s :p ?x SERVICE <http://remote/> { ?x :name ?n } }", 100, 1);
+    }
+
+    // Not correlated: one request.
+    @Test public void service_bulk_03() {
+        test("SELECT * { ?s :p ?x SERVICE <http://remote/> { ?y :name ?n } }", 10, 1);
+    }
+
+    // Some input bindings do not bind the join variable.
+    @Test public void service_bulk_04() {
+        test("SELECT * { ?s :p ?z OPTIONAL { ?s :p :x1 BIND(?s AS ?x) } SERVICE <http://remote/> { ?x :name ?n } }", 7, 3);
+    }
+
+    // Input variables that are not bound in every solution of the pattern: one request
+    // for each input binding. The query engine only sends such input bindings for
+    // some join orders, so run the iterator directly.
+    @Test public void service_bulk_05() {
+        testIter("(filter (= ?y ?x) (bgp (?y <http://example/name> ?n)))", N);
+    }
+
+    @Test public void service_bulk_06() {
+        testIter("(minus (bgp (?y <http://example/name> ?n)) (bgp (?x <http://example/name> ?n)))", N);
+    }
+
+    @Test public void service_bulk_07() {
+        testIter("(leftjoin (bgp (?y <http://example/name> ?n)) (bgp (?x <http://example/name> ?m)))", N);
+    }
+
+    @Test public void service_bulk_08() {
+        testIter("(project (?n) (bgp (?x <http://example/name> ?n)))", N);
+    }
+
+    @Test public void service_bulk_09() {
+        testIter("(extend ((?z ?x)) (bgp (?y <http://example/name> ?n)))", N);
+    }
+
+    // Fixed variables.
+    @Test public void service_bulk_10() {
+        testIter("(filter (!= ?n 'zero') (bgp (?x <http://example/name> ?n)))", 3);
+    }
+
+    // Not correlated.
+    @Test public void service_bulk_11() {
+        testIter("(bgp (?y <http://example/name> ?n))", 1);
+    }
+
+    private static void testIter(String pattern, int expectedRequests) {
+        Var x = Var.alloc("x");
+        List<Binding> input = new ArrayList<>();
+        for ( int i = 0 ; i < N ; i++ )
+            input.add(BindingFactory.binding(x, x(i%10)));
+        OpService opService = (OpService)SSE.parseOp("(service <http://remote/> "+pattern+")");
+
+        ExecutionContext execCxt1 = execCxt(new AtomicInteger());
+        QueryIterator qIter1 = new QueryIterService(QueryIterPlainWrapper.create(input.iterator(), execCxt1), opService, execCxt1);
+        List<Binding> expected = Iter.toList(qIter1);
+
+        AtomicInteger requests = new AtomicInteger();
+        ExecutionContext execCxt2 = execCxt(requests);
+        QueryIterator qIter2 = new QueryIterServiceBulk(QueryIterPlainWrapper.create(input.iterator(), execCxt2), opService, 10, execCxt2);
+        List<Binding> actual = Iter.toList(qIter2);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        assertEquals(expectedRequests, requests.get());
+    }
+
+    private static ExecutionContext execCxt(AtomicInteger requests) {
+        ExecutionContext execCxt = new ExecutionContext(local(), QC.getFactory(ARQ.getContext()));
+        execCxt.getContext().set(ARQConstants.registryServiceExecutors,
+                                 new ServiceExecutorRegistry().add(standIn(remote(), requests)));
+        return execCxt;
+    }
+
+    @Test public void service_bulk_silent() {
+        ServiceExecutorFactory fails = (op, opOriginal, binding, execCxt) -> ()->{ throw new RuntimeException("Failed"); };
+        // SERVICE SILENT logs a warning.
+        String level = LogCtl.getLevel(QueryIterServiceBulk.class);
+        LogCtl.setLevel(QueryIterServiceBulk.class, "ERROR");
+        try {
+            List<Binding> results = exec("SELECT * { ?s :p ?x SERVICE SILENT <http://remote/> { ?x :name ?n } }", fails, 10);
+            assertEquals(N, results.size());
+        } finally {
+            LogCtl.setLevel(QueryIterServiceBulk.class, level);
+        }
+    }
+
+    @Test public void service_bulk_order() {
+        ServiceExecutorFactory standIn = standIn(remote(), new AtomicInteger());
+        List<Binding> results = exec("SELECT * { VALUES ?x { :x4 :x2 :x0 } SERVICE <http://remote/> { ?x :name ?n } }", standIn, 2);
+        List<Node> x = new ArrayList<>();
+        results.forEach(b->x.add(b.get("x")));
+        assertEquals(SSE.parseNode(":x4"), x.get(0));
+        assertEquals(SSE.parseNode(":x2"), x.get(1));
+        assertEquals(SSE.parseNode(":x0"), x.get(2));
+        assertEquals(SSE.parseNode(":x0"), x.get(3));
+    }
+
+    // Input bindings, which may need the transaction of the calling thread, are only used on that thread.
+    @Test public void service_bulk_thread() {
+        Thread thread = Thread.currentThread();
+        AtomicInteger otherThread = new AtomicInteger();
+        Var x = Var.alloc("x");
+        List<Binding> input = new ArrayList<>();
+        for ( int i = 0 ; i < N ; i++ ) {
+            Binding b = BindingFactory.binding(x, x(i%10));
+            input.add(new BindingBase(null) {
+                private void check() {
+                    if ( Thread.currentThread() != thread )
+                        otherThread.incrementAndGet();
+                }
+                @Override protected Iterator<Var> vars1() { check(); return b.vars(); }
+                @Override protected int size1() { check(); return b.size(); }
+                @Override protected boolean isEmpty1() { check(); return b.isEmpty(); }
+                @Override protected boolean contains1(Var var) { check(); return b.contains(var); }
+                @Override protected Node get1(Var var) { check(); return b.get(var); }
+            });
+        }
+        DatasetGraph dsg = local();
+        ExecutionContext execCxt = new ExecutionContext(dsg, QC.getFactory(ARQ.getContext()));
+        execCxt.getContext().set(ARQConstants.registryServiceExecutors,
+                                 new ServiceExecutorRegistry().add(standIn(remote(), new AtomicInteger())));
+        execCxt.getContext().set(ARQ.serviceConcurrency, 4);
+        OpService opService = (OpService)SSE.parseOp("(service <http://remote/> (bgp (?x <http://example/name> ?n)))");
+        QueryIterator qIter = new QueryIterServiceBulk(QueryIterPlainWrapper.create(input.iterator(), execCxt), opService, 5, execCxt);
+        List<Binding> results = Iter.toList(qIter);
+        assertEquals(0, otherThread.get());
+        assertEquals(16, results.size());
+    }
+}
@@ -30,6 +30,9 @@ import org.junit.runners.Suite ;
     , TestDataBagDistinctOrder.class
     , TestCancelDistinct.class
     , TestSortedDataBagCancellation.class
+    , TestQueryIterGroupSpill.class
+    , TestQueryIterAsync.class
+    , TestQueryIterBatch.class
 })
 public class TS_QueryIterators {
 
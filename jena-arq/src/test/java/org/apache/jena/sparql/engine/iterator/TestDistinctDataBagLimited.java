@@ -18,23 +18,74 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import static org.junit.Assert.assertEquals ;
+import static org.junit.Assert.assertTrue ;
+
+import java.util.ArrayList ;
+import java.util.HashSet ;
+import java.util.Iterator ;
 import java.util.List ;
+import java.util.Set ;
 
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.graph.NodeFactory ;
 import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.util.Context ;
+import org.junit.Test ;
 
 public class TestDistinctDataBagLimited extends AbstractTestDistinctReduced {
 
     @Override
     protected QueryIterator createQueryIter(List<Binding> data) {
-        QueryIterator qIter = QueryIterPlainWrapper.create(data.iterator()) ;
+        return createQueryIter(QueryIterPlainWrapper.create(data.iterator())) ;
+    }
+
+    private static QueryIterator createQueryIter(QueryIterator qIter) {
         Context cxt = new Context() ;
         cxt.set(ARQ.spillToDiskThreshold, 2L);
         return new QueryIterDistinct(qIter, null, new ExecutionContext(cxt, null, null, null)) ;
     }
 
-}
+    private static Binding binding(int a, int b) {
+        return BindingFactory.binding(var_a, NodeFactory.createLiteral(Integer.toString(a)),
+                                      var_b, NodeFactory.createLiteral(Integer.toString(b))) ;
+    }
 
+    // After the threshold, new items are returned before the input is exhausted.
+    @Test public void distinctStreaming1() {
+        List<Binding> data = new ArrayList<>() ;
+        for ( int i = 0 ; i < 1000 ; i++ )
+            data.add(binding(i, i%7)) ;
+        int[] count = { 0 } ;
+        Iterator<Binding> input = Iter.map(data.iterator(), b->{ count[0]++ ; return b ; }) ;
+        QueryIterator qIter = createQueryIter(QueryIterPlainWrapper.create(input)) ;
+        for ( int i = 0 ; i < 10 ; i++ )
+            assertEquals(data.get(i), qIter.next()) ;
+        assertEquals(10, count[0]) ;
+        qIter.close() ;
+    }
+
+    // Many duplicates after the threshold.
+    @Test public void distinctStreaming2() {
+        List<Binding> data = new ArrayList<>() ;
+        for ( int j = 0 ; j < 5 ; j++ ) {
+            for ( int i = 0 ; i < 200 ; i++ )
+                data.add(binding(i%50, i%3)) ;
+        }
+        List<Binding> results = Iter.toList(createQueryIter(QueryIterPlainWrapper.create(data.iterator()))) ;
+        Set<Binding> expected = new HashSet<>(data) ;
+        assertEquals(expected.size(), results.size()) ;
+        assertEquals(expected, new HashSet<>(results)) ;
+    }
+
+    @Test public void distinctHash() {
+        Binding b1 = BindingFactory.binding(var_a, NodeFactory.createLiteral("1"), var_b, NodeFactory.createLiteral("2")) ;
+        Binding b2 = BindingFactory.binding(var_b, NodeFactory.createLiteral("2"), var_a, NodeFactory.createLiteral("1")) ;
+        assertEquals(QueryIterDistinct.hash(b1), QueryIterDistinct.hash(b2)) ;
+        assertTrue(QueryIterDistinct.hash(b1) != QueryIterDistinct.hash(binding(2, 1))) ;
+    }
+}
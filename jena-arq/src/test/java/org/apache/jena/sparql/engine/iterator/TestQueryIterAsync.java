@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.query.*;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.system.Txn;
+import org.junit.Test;
+
+public class TestQueryIterAsync {
+
+    private static final String NS = "http://example/";
+
+    private static Model data() {
+        Model model = ModelFactory.createDefaultModel();
+        Property p = model.createProperty(NS+"p");
+        Property q = model.createProperty(NS+"q");
+        for ( int i = 0 ; i < 2000 ; i++ ) {
+            Resource r = model.createResource(NS+"s"+i);
+            r.addLiteral(p, i);
+            if ( i % 3 == 0 )
+                r.addLiteral(q, i);
+        }
+        return model;
+    }
+
+    private static List<QuerySolution> exec(String qs, Dataset ds, boolean parallel) {
+        Query query = QueryFactory.create(StrUtils.strjoinNL("PREFIX : <"+NS+">", qs));
+        try ( QueryExecution qExec = QueryExecutionFactory.create(query, ds) ) {
+            qExec.getContext().set(ARQ.parallelExecution, parallel);
+            return ResultSetFormatter.toList(qExec.execSelect());
+        }
+    }
+
+    private static void test(String qs, Dataset ds, int expected) {
+        List<QuerySolution> x1 = exec(qs, ds, false);
+        List<QuerySolution> x2 = exec(qs, ds, true);
+        assertEquals(expected, x1.size());
+        assertEquals(x1.size(), x2.size());
+        // Same order.
+        for ( int i = 0 ; i < x1.size() ; i++ ) {
+            QuerySolution s1 = x1.get(i);
+            QuerySolution s2 = x2.get(i);
+            s1.varNames().forEachRemaining(v->assertEquals(s1.get(v), s2.get(v)));
+            s2.varNames().forEachRemaining(v->assertTrue(s1.contains(v)));
+        }
+    }
+
+    @Test public void parallel_union_1() {
+        Dataset ds = DatasetFactory.wrap(data());
+        test("SELECT * { { ?s :p ?v } UNION { ?s :q ?v } UNION { ?s :p ?v FILTER(?v < 10) } }", ds, 2000+667+10);
+    }
+
+    @Test public void parallel_join_1() {
+        Dataset ds = DatasetFactory.wrap(data());
+        test("SELECT * { { ?s :p ?v } { SELECT ?s { ?s :q ?w } } }", ds, 667);
+    }
+
+    // In a transaction: evaluated on the calling thread.
+    @Test public void parallel_union_txn() {
+        Dataset ds = DatasetFactory.createTxnMem();
+        Txn.executeWrite(ds, ()->ds.getDefaultModel().add(data()));
+        Txn.executeRead(ds, ()->test("SELECT * { { ?s :p ?v } UNION { ?s :q ?v } }", ds, 2000+667));
+    }
+
+    private static ExecutionContext execCxt() {
+        DatasetGraph dsg = DatasetGraphFactory.wrap(data().getGraph());
+        Context cxt = ARQ.getContext().copy();
+        return new ExecutionContext(cxt, dsg.getDefaultGraph(), dsg, QC.getFactory(cxt));
+    }
+
+    @Test public void async_1() {
+        ExecutionContext execCxt = execCxt();
+        Op op = Algebra.optimize(SSE.parseOp("(bgp (?s <http://example/p> ?v))"));
+        QueryIterator qIter = QueryIterAsync.create(()->QC.execute(op, BindingFactory.binding(), execCxt), execCxt);
+        assertEquals(2000, Iter.count(qIter));
+        qIter.close();
+    }
+
+    // Close before the end stops the work.
+    @Test public void async_2() {
+        ExecutionContext execCxt = execCxt();
+        Op op = SSE.parseOp("(bgp (?s <http://example/p> ?v))");
+        QueryIterator qIter = QueryIterAsync.create(()->QC.execute(op, BindingFactory.binding(), execCxt), execCxt);
+        assertTrue(qIter.hasNext());
+        qIter.next();
+        qIter.close();
+        assertFalse(qIter.hasNext());
+    }
+
+    // Exceptions are passed to the caller.
+    @Test public void async_3() {
+        ExecutionContext execCxt = execCxt();
+        QueryIterator qIter = QueryIterAsync.create(()->{ throw new QueryExecException("Test"); }, execCxt);
+        try {
+            qIter.hasNext();
+            fail("Expected an exception");
+        } catch (QueryExecException ex) {}
+        qIter.close();
+    }
+
+    // The pool thread setup does not run the work: it is done on the calling thread.
+    @Test public void async_5() {
+        ExecutionContext execCxt = execCxt();
+        Op op = SSE.parseOp("(bgp (?s <http://example/p> ?v))");
+        QueryIterator qIter = QueryIterAsync.create(()->QC.execute(op, BindingFactory.binding(), execCxt), work->{}, execCxt);
+        assertEquals(2000, Iter.count(qIter));
+        qIter.close();
+    }
+
+    // More work than the pool and its queue take: the rest is done on the calling thread.
+    @Test public void async_6() {
+        ExecutionContext execCxt = execCxt();
+        Op op = SSE.parseOp("(bgp (?s <http://example/p> ?v))");
+        List<QueryIterator> iters = new ArrayList<>();
+        for ( int i = 0 ; i < 200 ; i++ )
+            iters.add(QueryIterAsync.create(()->QC.execute(op, BindingFactory.binding(), execCxt), execCxt));
+        for ( QueryIterator qIter : iters ) {
+            assertEquals(2000, Iter.count(qIter));
+            qIter.close();
+        }
+    }
+
+    // Cancel while the work is waiting.
+    @Test public void async_4() throws Exception {
+        ExecutionContext execCxt = execCxt();
+        CountDownLatch latch = new CountDownLatch(1);
+        QueryIterator qIter = QueryIterAsync.create(()->{
+            Iterator<Binding> iter = new Iterator<Binding>() {
+                @Override public boolean hasNext() { return true; }
+                @Override public Binding next() {
+                    try { latch.await(); } catch (InterruptedException ex) {}
+                    return BindingFactory.binding();
+                }
+            };
+            QueryIterator sub = QueryIterPlainWrapper.create(iter, execCxt);
+            return sub;
+        }, execCxt);
+        qIter.cancel();
+        latch.countDown();
+        try {
+            Iter.count(qIter);
+            fail("Expected cancellation");
+        } catch (QueryCancelledException ex) {}
+        qIter.close();
+    }
+}
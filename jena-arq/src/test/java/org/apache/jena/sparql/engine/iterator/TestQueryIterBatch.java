@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.logging.LogCtl;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.sparql.algebra.Table;
+import org.apache.jena.sparql.algebra.table.TableN;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.core.VarExprList;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprException;
+import org.apache.jena.sparql.expr.ExprFunction1;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.junit.Test;
+
+public class TestQueryIterBatch {
+    private static Var x = Var.alloc("x");
+    private static Var y = Var.alloc("y");
+    private static int N = 1000;
+
+    private static QueryIterator data(ExecutionContext execCxt) {
+        Table table = new TableN();
+        for ( int i = 0 ; i < N ; i++ )
+            table.addBinding(BindingFactory.binding(x, NodeFactoryExtra.intToNode(i)));
+        return table.iterator(execCxt);
+    }
+
+    private static ExecutionContext execCxt() {
+        return new ExecutionContext(DatasetGraphFactory.create());
+    }
+
+    // filter, then extend, then project.
+    private static QueryIterator pipeline(ExecutionContext execCxt) {
+        Expr filter = SSE.parseExpr("(= (mod ?x 3) 0)");
+        Expr extend = SSE.parseExpr("(+ ?x 1)");
+        QueryIterator qIter = data(execCxt);
+        qIter = new QueryIterFilterExpr(qIter, filter, execCxt);
+        qIter = new QueryIterAssign(qIter, new VarExprList(y, extend), execCxt, true);
+        qIter = new QueryIterProject(qIter, List.of(y), execCxt);
+        return qIter;
+    }
+
+    private static List<Binding> batches(QueryIterator qIter, int size) {
+        List<Binding> x = new ArrayList<>();
+        for ( ;; ) {
+            int before = x.size();
+            int n = qIter.nextBatch(x, size);
+            assertEquals(n, x.size()-before);
+            assertTrue(n <= size);
+            if ( n == 0 )
+                break;
+        }
+        return x;
+    }
+
+    @Test public void batch_1() {
+        ExecutionContext execCxt = execCxt();
+        List<Binding> expected = Iter.toList(pipeline(execCxt));
+        assertEquals((N+2)/3, expected.size());
+        assertEquals(expected, batches(pipeline(execCxt), 7));
+        assertEquals(expected, batches(pipeline(execCxt), 256));
+    }
+
+    // Mixed row and batch access.
+    @Test public void batch_2() {
+        ExecutionContext execCxt = execCxt();
+        List<Binding> expected = Iter.toList(pipeline(execCxt));
+        QueryIterator qIter = pipeline(execCxt);
+        List<Binding> x = new ArrayList<>();
+        assertTrue(qIter.hasNext());
+        x.add(qIter.next());
+        qIter.nextBatch(x, 10);
+        x.add(qIter.next());
+        x.addAll(batches(qIter, 100));
+        assertEquals(expected, x);
+        assertFalse(qIter.hasNext());
+    }
+
+    // Batch after hasNext(), when every row is accepted.
+    @Test public void batch_4() {
+        ExecutionContext execCxt = execCxt();
+        Expr extend = SSE.parseExpr("(+ ?x 1)");
+        QueryIterator qIter = new QueryIterAssign(data(execCxt), new VarExprList(y, extend), execCxt, true);
+        List<Binding> x = new ArrayList<>();
+        assertTrue(qIter.hasNext());
+        assertEquals(10, qIter.nextBatch(x, 10));
+        assertEquals(10, x.size());
+        assertTrue(qIter.hasNext());
+        x.addAll(batches(qIter, 100));
+        assertEquals(N, x.size());
+    }
+
+    // Rows that throw are rejected; every other row is evaluated once.
+    @Test public void batch_5() {
+        AtomicInteger count = new AtomicInteger(0);
+        Expr filter = new ExprFunction1(new ExprVar(x), "test") {
+            @Override
+            public NodeValue eval(NodeValue nv) {
+                count.incrementAndGet();
+                int i = nv.getInteger().intValue();
+                if ( i % 5 == 0 )
+                    throw new ExprException("Test");
+                return NodeValue.booleanReturn(i % 2 == 0);
+            }
+            @Override
+            public Expr copy(Expr expr) { return this; }
+        };
+        String level = LogCtl.getLevel(QueryIterFilterExpr.class);
+        LogCtl.setLevel(QueryIterFilterExpr.class, "OFF");
+        try {
+            ExecutionContext execCxt = execCxt();
+            List<Binding> x = batches(new QueryIterFilterExpr(data(execCxt), filter, execCxt), 64);
+            assertEquals(N, count.get());
+            // Even, and not a multiple of 5.
+            assertEquals(N/2 - N/10, x.size());
+        } finally {
+            LogCtl.setLevel(QueryIterFilterExpr.class, level);
+        }
+    }
+
+    @Test(expected=QueryCancelledException.class)
+    public void batch_3() {
+        QueryIterator qIter = pipeline(execCxt());
+        qIter.nextBatch(new ArrayList<>(), 10);
+        qIter.cancel();
+        qIter.nextBatch(new ArrayList<>(), 10);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.query.*;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.junit.Test;
+
+public class TestQueryIterGroupSpill {
+
+    private static final String NS = "http://example/";
+
+    // 1000 rows in 50 groups, the rows of each group spread through the data.
+    private static Model data() {
+        Model model = ModelFactory.createDefaultModel();
+        Property p = model.createProperty(NS+"p");
+        Property q = model.createProperty(NS+"q");
+        for ( int i = 0 ; i < 1000 ; i++ ) {
+            Resource r = model.createResource(NS+"s"+i);
+            r.addProperty(p, model.createResource(NS+"g"+(i%50)));
+            r.addLiteral(q, i);
+        }
+        return model;
+    }
+
+    private static ResultSetRewindable exec(String qs, Model model, long threshold) {
+        Query query = QueryFactory.create(StrUtils.strjoinNL("PREFIX : <"+NS+">", qs));
+        try ( QueryExecution qExec = QueryExecutionFactory.create(query, model) ) {
+            if ( threshold >= 0 )
+                qExec.getContext().set(ARQ.spillToDiskThreshold, threshold);
+            return ResultSetFactory.copyResults(qExec.execSelect());
+        }
+    }
+
+    private static void test(String qs, int expectedRows) {
+        Model model = data();
+        ResultSetRewindable rs1 = exec(qs, model, -1);
+        ResultSetRewindable rs2 = exec(qs, model, 5);
+        assertEquals(expectedRows, rs1.size());
+        rs1.reset();
+        assertTrue(ResultSetCompare.equalsByTerm(rs1, rs2));
+    }
+
+    @Test public void groupSpill_1() {
+        test("SELECT ?g (count(*) AS ?c) (sum(?v) AS ?sum) { ?s :p ?g ; :q ?v } GROUP BY ?g", 50);
+    }
+
+    @Test public void groupSpill_2() {
+        test("SELECT ?g { ?s :p ?g } GROUP BY ?g", 50);
+    }
+
+    @Test public void groupSpill_3() {
+        test("SELECT ?k (max(?v) AS ?m) { ?s :p ?g ; :q ?v } GROUP BY (str(?g) AS ?k)", 50);
+    }
+
+    @Test public void groupSpill_4() {
+        test("SELECT ?g (count(DISTINCT ?v) AS ?c) { ?s :p ?g ; :q ?v FILTER(?v < 500) } GROUP BY ?g HAVING (count(*) > 1)", 50);
+    }
+}
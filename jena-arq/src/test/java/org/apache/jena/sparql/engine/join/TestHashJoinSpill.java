@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.join;
+
+import java.util.List ;
+
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.lib.ListUtils ;
+import org.apache.jena.query.ARQ ;
+import org.apache.jena.sparql.algebra.Table ;
+import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.ExecutionContext ;
+import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.expr.ExprList ;
+import org.apache.jena.sparql.sse.SSE ;
+import org.apache.jena.sparql.util.Context ;
+import org.junit.Test ;
+
+/** Hash join, with the inputs partitioned to disk */
+public class TestHashJoinSpill extends AbstractTestInnerJoin {
+    private static ExecutionContext execCxt() {
+        return execCxt(0L) ;
+    }
+
+    private static ExecutionContext execCxt(long threshold) {
+        Context cxt = ARQ.getContext().copy() ;
+        cxt.set(ARQ.spillToDiskThreshold, threshold) ;
+        return new ExecutionContext(cxt, null, null, null) ;
+    }
+
+    @Override
+    public QueryIterator join(JoinKey joinKey, Table left, Table right, ExprList conditions) {
+        return Join.hashJoin(joinKey, left.iterator(null), right.iterator(null), execCxt()) ;
+    }
+
+    @Test public void hashJoinSpillStats() {
+        ExecutionContext execCxt = execCxt() ;
+        QueryIterator qIter = Join.hashJoin(null, tableD4().iterator(null), tableD5().iterator(null), execCxt) ;
+        assertEquals(4, Iter.count(qIter)) ;
+        qIter.close() ;
+        HashJoinStats stats = execCxt.getHashJoinStats() ;
+        assertEquals(1, stats.getJoins()) ;
+        assertEquals(1, stats.getSpilledJoins()) ;
+        assertEquals(4, stats.getResults()) ;
+        assertEquals(4, stats.getProbeRows()) ;
+        assertEquals(3, stats.getStreamRows()) ;
+    }
+
+    // Stream rows with no join key, joined in blocks of more than one row.
+    @Test public void hashJoinSpillNoKey() {
+        Table probe = SSE.parseTable("(table (row [?x 1] [?a 1]) (row [?x 2] [?a 2]) (row [?x 3]) (row [?a 4]) (row [?x 1] [?a 5]))") ;
+        Table stream = SSE.parseTable("(table (row [?b 1]) (row [?b 2]) (row [?x 1] [?b 3]) (row [?a 4] [?b 4]) (row [?b 5]) (row [?x 2] [?b 6]) (row [?a 9] [?b 7]))") ;
+        JoinKey joinKey = JoinKey.create(Var.alloc("x")) ;
+        List<Binding> expected = Iter.toList(Join.hashJoin(joinKey, probe.iterator(null), stream.iterator(null), execCxt(-1L))) ;
+        ExecutionContext execCxt = execCxt(2L) ;
+        List<Binding> actual = Iter.toList(Join.hashJoin(joinKey, probe.iterator(null), stream.iterator(null), execCxt)) ;
+        assertEquals(1, execCxt.getHashJoinStats().getSpilledJoins()) ;
+        assertEquals(23, expected.size()) ;
+        assertTrue(ListUtils.equalsUnordered(expected, actual)) ;
+    }
+}
@@ -19,11 +19,18 @@
 package org.apache.jena.sparql.exec;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Query;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.sse.SSE;
 import org.apache.jena.sparql.util.Context;
 import org.apache.jena.sparql.util.Symbol;
@@ -66,4 +73,49 @@ public class TestQueryExecDataset {
         assertEquals("FALSE", cxt2.get(testSymbol));
     }
 
+    private static DatasetGraph data() {
+        return SSE.parseDatasetGraph("(dataset (graph (:s1 :p 1) (:s2 :p 2) (:s2 :q 3)))");
+    }
+
+    private static List<Binding> select(QueryExec qExec) {
+        try ( qExec ) {
+            return Iter.toList(qExec.select());
+        }
+    }
+
+    @Test public void queryExec_prepared_01() {
+        QueryExecPrepared prepared = QueryExec.newBuilder()
+                .dataset(data())
+                .query("PREFIX : <http://example/> SELECT ?s ?o { ?s :p ?o FILTER(?o > 0) }")
+                .prepare();
+        Var s = Var.alloc("s");
+        Var o = Var.alloc("o");
+        List<Binding> x1 = select(prepared.exec(s, SSE.parseNode(":s1")));
+        assertEquals(1, x1.size());
+        assertEquals(SSE.parseNode("1"), x1.get(0).get(o));
+        assertEquals(SSE.parseNode(":s1"), x1.get(0).get(s));
+        List<Binding> x2 = select(prepared.exec(s, SSE.parseNode(":s2")));
+        assertEquals(1, x2.size());
+        assertEquals(SSE.parseNode("2"), x2.get(0).get(o));
+        assertEquals(0, select(prepared.exec(s, SSE.parseNode(":s3"))).size());
+        assertEquals(2, select(prepared.exec()).size());
+        // Compiled and optimized once.
+        assertEquals(1, prepared.getPlanCache().size());
+        assertEquals(3, prepared.getPlanCache().getHits());
+    }
+
+    @Test public void queryExec_prepared_02() {
+        QueryExecPrepared prepared = QueryExec.newBuilder()
+                .dataset(data())
+                .query("PREFIX : <http://example/> ASK { ?s :q ?o }")
+                .prepare();
+        Node s1 = SSE.parseNode(":s1");
+        Node s2 = SSE.parseNode(":s2");
+        try ( QueryExec qExec = prepared.exec(Var.alloc("s"), s1) ) {
+            assertFalse(qExec.ask());
+        }
+        try ( QueryExec qExec = prepared.exec(Var.alloc("s"), s2) ) {
+            assertTrue(qExec.ask());
+        }
+    }
 }
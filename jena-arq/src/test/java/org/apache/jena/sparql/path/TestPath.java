@@ -21,6 +21,7 @@ package org.apache.jena.sparql.path;
 import static org.apache.jena.atlas.lib.ListUtils.equalsUnordered ;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -49,6 +50,7 @@ import org.apache.jena.sparql.sse.Item ;
 import org.apache.jena.sparql.sse.SSE ;
 import org.apache.jena.sparql.sse.builders.BuilderPath ;
 import org.apache.jena.sparql.sse.writers.WriterPath ;
+import org.apache.jena.sparql.util.Context ;
 import org.junit.Assert ;
 import org.junit.Test ;
 
@@ -263,9 +265,14 @@ public class TestPath
     }
     
     private static List<Binding> eval(Graph graph, Node start, String pathStr, Node finish)
+    {
+        return eval(new ExecutionContext(ARQ.getContext(), graph, null, null), start, pathStr, finish) ;
+    }
+
+    private static List<Binding> eval(ExecutionContext execCxt, Node start, String pathStr, Node finish)
     {
         Path path = SSE.parsePath(pathStr, pmap) ;
-        QueryIterator qIter = PathLib.execTriplePath(BindingFactory.root(), start, path, finish, new ExecutionContext(ARQ.getContext(), graph, null, null)) ;
+        QueryIterator qIter = PathLib.execTriplePath(BindingFactory.root(), start, path, finish, execCxt) ;
         return Iter.toList(qIter) ;
     }
     
@@ -330,6 +337,58 @@ public class TestPath
         assertEquals(1, x.size()) ;
     }
 
+    // Both ends bound.
+    @Test public void path_60()
+    {
+        assertEquals(1, eval(graph1, "<n1>", "(path+ :p)", "<n4>").size()) ;
+        assertEquals(0, eval(graph1, "<n4>", "(path+ :p)", "<n1>").size()) ;
+        assertEquals(1, eval(graph1, "<n2>", "(path* :p)", "<n2>").size()) ;
+        assertEquals(0, eval(graph1, "<n2>", "(path+ :p)", "<n2>").size()) ;
+        assertEquals(1, eval(graph6, "<n1>", "(path+ :p)", "<n1>").size()) ;
+        assertEquals(1, eval(graph7, "<n1>", "(path+ :p)", "<n3>").size()) ;
+        assertEquals(0, eval(graph7, "<n3>", "(path* :p)", "<n1>").size()) ;
+        assertEquals(1, eval(graph7, "<n3>", "(path+ (reverse :p))", "<n1>").size()) ;
+    }
+
+    // Closures are reused within one execution.
+    @Test public void path_61()
+    {
+        Context cxt = ARQ.getContext().copy() ;
+        cxt.set(ARQ.pathCache, true) ;
+        ExecutionContext execCxt = new ExecutionContext(cxt, graph3, null, null) ;
+        List<Binding> x1 = eval(graph3, "?x", "(path* :p)", "?y") ;
+        List<Binding> x2 = eval(execCxt, Var.alloc("x"), "(path* :p)", Var.alloc("y")) ;
+        List<Binding> x3 = eval(execCxt, Var.alloc("x"), "(path* :p)", Var.alloc("y")) ;
+        assertTrue(equalsUnordered(x1, x2)) ;
+        assertEquals(x2, x3) ;
+        assertTrue(execCxt.getPathCache().getHits() > 0) ;
+        List<Binding> y1 = eval(graph3, "?x", "(path+ :p)", "<n4>") ;
+        List<Binding> y2 = eval(execCxt, Var.alloc("x"), "(path+ :p)", n4) ;
+        assertTrue(equalsUnordered(y1, y2)) ;
+        assertEquals(3, y2.size()) ;
+    }
+
+    // Long chains.
+    @Test public void path_62()
+    {
+        Graph graph = GraphFactory.createDefaultGraph() ;
+        int N = 50000 ;
+        for ( int i = 0 ; i < N ; i++ )
+            graph.add(Triple.create(NodeFactory.createURI("n"+i), p, NodeFactory.createURI("n"+(i+1)))) ;
+        assertEquals(N+1, Iter.count(PathEval.eval(graph, NodeFactory.createURI("n0"), PathParser.parse(":p*", pmap), ARQ.getContext()))) ;
+        assertEquals(1, eval(graph, "<n0>", "(path+ :p)", "<n"+N+">").size()) ;
+        assertEquals(0, eval(graph, "<n"+N+">", "(path+ :p)", "<n0>").size()) ;
+    }
+
+    // Not cached by default.
+    @Test public void path_63()
+    {
+        ExecutionContext execCxt = new ExecutionContext(ARQ.getContext(), graph3, null, null) ;
+        assertNull(execCxt.getPathCache()) ;
+        List<Binding> x1 = eval(graph3, "?x", "(path* :p)", "?y") ;
+        List<Binding> x2 = eval(execCxt, Var.alloc("x"), "(path* :p)", Var.alloc("y")) ;
+        assertTrue(equalsUnordered(x1, x2)) ;
+    }
 
     
     // TODO Shortest path is not implemented yet.  These also need to be verified that they are correct.
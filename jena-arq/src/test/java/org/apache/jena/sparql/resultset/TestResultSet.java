@@ -570,6 +570,11 @@ public class TestResultSet
         preserve_bnodes(ResultSetLang.RS_Thrift, ARQ.getContext(), true);
     }
 
+    @Test public void preserve_bnodes_4() {
+        preserve_bnodes(ResultSetLang.RS_Columnar, cxt, true);
+        preserve_bnodes(ResultSetLang.RS_Columnar, ARQ.getContext(), true);
+    }
+
     private static void preserve_bnodes(Lang sparqlresultlang, Context cxt, boolean same) {
 
         ResultSetRewindable rs1 = ResultSetFactory.makeRewindable(BuilderResultSet.build(SSE.parseItem(StrUtils.strjoinNL(rs1$)))) ;
@@ -41,6 +41,12 @@ public interface BlockMgr extends Sync, Closeable /*UnitMgr<Block>*/
     /** Fetch a block, use for read only */
     public Block getRead(long id);
 
+    /**
+     * Hint that the block will be read soon. The block manager may start
+     * bringing it into memory; it need not do anything.
+     */
+    public default void prefetch(long id) {}
+
     /** Fetch a block, use for write and read - only inside "update" */
     public Block getWrite(long id);
 
@@ -133,6 +133,15 @@ public class BlockMgrCache extends BlockMgrSync {
         return blk;
     }
 
+    @Override
+    synchronized public void prefetch(long id) {
+        if ( readCache.containsKey(id) )
+            return;
+        if ( writeCache != null && writeCache.containsKey(id) )
+            return;
+        super.prefetch(id);
+    }
+
     @Override
     synchronized public Block getWrite(long _id) {
         Long id = _id;
@@ -61,6 +61,12 @@ final public class BlockMgrFileAccess extends BlockMgrBase {
         return getBlock(id, true);
     }
 
+    @Override
+    public void prefetch(long id) {
+        checkNotClosed();
+        file.prefetch(id);
+    }
+
     @Override
     public Block getWrite(long id) {
         return getBlock(id, false);
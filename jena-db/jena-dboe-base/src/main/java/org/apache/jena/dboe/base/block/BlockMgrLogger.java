@@ -83,6 +83,12 @@ public class BlockMgrLogger implements BlockMgr // extends BlockMgrWrapper
         return blockMgr.getRead(id);
     }
 
+    @Override
+    public void prefetch(long id) {
+        info("prefetch(" + id + ")");
+        blockMgr.prefetch(id);
+    }
+
     @Override
     public Block getWrite(long id) {
         info("getWrite(" + id + ")");
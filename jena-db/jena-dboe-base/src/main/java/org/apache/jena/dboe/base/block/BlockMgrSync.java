@@ -44,6 +44,11 @@ public class BlockMgrSync implements BlockMgr {
         return blockMgr.getRead(id);
     }
 
+    @Override
+    synchronized public void prefetch(long id) {
+        blockMgr.prefetch(id);
+    }
+
     @Override
     synchronized public Block getWrite(long id) {
         return blockMgr.getWrite(id);
@@ -140,6 +140,12 @@ public class BlockMgrTracker /* extends BlockMgrWrapper */ implements BlockMgr {
         return blockMgr.getRead(id);
     }
 
+    @Override
+    public void prefetch(long id) {
+        // Not a block reference - no tracking.
+        blockMgr.prefetch(id);
+    }
+
     @Override
     public Block getWrite(long id) {
         synchronized (this) {
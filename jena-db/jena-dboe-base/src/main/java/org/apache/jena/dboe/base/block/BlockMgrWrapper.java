@@ -46,6 +46,11 @@ public class BlockMgrWrapper implements BlockMgr {
         return blockMgr.getRead(id);
     }
 
+    @Override
+    public void prefetch(long id) {
+        blockMgr.prefetch(id);
+    }
+
     @Override
     public Block getWrite(long id) {
         return blockMgr.getWrite(id);
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.base.buffer;
+
+import static java.lang.String.format;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Prefix compression of the records of a {@link RecordBuffer}.
+ * <p>
+ * The records are in sorted order, so neighbouring records often share
+ * leading bytes. Each record is written as one byte for the length of the
+ * prefix it shares with the previous record, followed by the remaining bytes of
+ * the record. The first record shares nothing.
+ * <p>
+ * Removing records never makes the encoding longer; adding a record makes it at
+ * most {@link #maxRecordLength} longer.
+ */
+public final class PrefixCompression {
+    private PrefixCompression() {}
+
+    /** Largest record length that can be compressed (the shared length is one byte). */
+    public static final int MaxRecordLength = 255;
+
+    /** The worst case space needed for one record. */
+    public static int maxRecordLength(int recordLength) {
+        return 1 + recordLength;
+    }
+
+    /** Length, in bytes, of the encoding of the records in the buffer. */
+    public static int encodedLength(RecordBuffer rb) {
+        ByteBuffer bb = rb.bb;
+        int len = rb.slotLen;
+        int n = rb.numSlot;
+        int total = 0;
+        for ( int i = 0 ; i < n ; i++ ) {
+            int shared = ( i == 0 ) ? 0 : shared(bb, (i-1)*len, i*len, len);
+            total += 1 + len - shared;
+        }
+        return total;
+    }
+
+    /** Length, in bytes, of the encoding of record {@code idx}, which follows record {@code idx-1}. */
+    public static int encodedLength(RecordBuffer rb, int idx) {
+        int len = rb.slotLen;
+        int shared = ( idx == 0 ) ? 0 : shared(rb.bb, (idx-1)*len, idx*len, len);
+        return 1 + len - shared;
+    }
+
+    /**
+     * Write the records into {@code dst}, starting at {@code offset} and not
+     * going beyond the limit of {@code dst}.
+     * Return the number of bytes used.
+     */
+    public static int encode(RecordBuffer rb, ByteBuffer dst, int offset) {
+        ByteBuffer bb = rb.bb;
+        int len = rb.slotLen;
+        int n = rb.numSlot;
+        int x = offset;
+        for ( int i = 0 ; i < n ; i++ ) {
+            int base = i*len;
+            int shared = ( i == 0 ) ? 0 : shared(bb, base-len, base, len);
+            if ( x + 1 + len - shared > dst.limit() )
+                throw new BufferException(format("PrefixCompression.encode: overflow: record %d of %d", i, n));
+            dst.put(x++, (byte)shared);
+            for ( int j = shared ; j < len ; j++ )
+                dst.put(x++, bb.get(base+j));
+        }
+        return x - offset;
+    }
+
+    /**
+     * Read {@code count} records from {@code src}, starting at {@code offset},
+     * into {@code rb}, replacing any existing records.
+     */
+    public static void decode(ByteBuffer src, int offset, int count, RecordBuffer rb) {
+        ByteBuffer bb = rb.bb;
+        int len = rb.slotLen;
+        if ( count > rb.maxSlot )
+            throw new BufferException(format("PrefixCompression.decode: too many records: %d (max %d)", count, rb.maxSlot));
+        int x = offset;
+        for ( int i = 0 ; i < count ; i++ ) {
+            int base = i*len;
+            int shared = src.get(x++) & 0xFF;
+            if ( shared > len || ( i == 0 && shared != 0 ) )
+                throw new BufferException(format("PrefixCompression.decode: bad prefix length %d at record %d", shared, i));
+            for ( int j = 0 ; j < shared ; j++ )
+                bb.put(base+j, bb.get(base-len+j));
+            for ( int j = shared ; j < len ; j++ )
+                bb.put(base+j, src.get(x++));
+        }
+        rb.numSlot = count;
+        rb.clear(count, rb.maxSlot - count);
+    }
+
+    private static int shared(ByteBuffer bb, int idx1, int idx2, int len) {
+        int i = 0;
+        while ( i < len && bb.get(idx1+i) == bb.get(idx2+i) )
+            i++;
+        return i;
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.jena.dboe.base.file;
 
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 
 import org.apache.jena.atlas.lib.Closeable;
 import org.apache.jena.atlas.lib.Sync;
@@ -70,6 +71,18 @@ public interface BinaryDataFile extends Closeable, Sync {
 
     public int read(long posn, byte b[], int start, int length);
 
+    /**
+     * A read-only view of the bytes of the file from {@code posn}, ending at or before
+     * {@code limit}. The bytes must not change while the view is in use, which the caller
+     * ensures, for example by only viewing the committed part of an append-only file.
+     * <p>
+     * The view's position is that of {@code posn}. Return null if no view is available,
+     * in which case use {@link #read}.
+     */
+    public default ByteBuffer readView(long posn, long limit) {
+        return null;
+    }
+
     /** Write bytes - bytes are always written to the end of the file.
      * Return the location where the write started.
      */
@@ -20,6 +20,10 @@ package org.apache.jena.dboe.base.file;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
 
 import org.apache.jena.atlas.RuntimeIOException;
 import org.apache.jena.atlas.io.IO;
@@ -27,7 +31,8 @@ import org.apache.jena.atlas.io.IO;
 /** Implementation of {@link BinaryDataFile} using {@link RandomAccessFile}.
  *
  * <li>No buffering of reads or writes provided.
- * <li>Not thread-safe.
+ * <li>Not thread-safe, except for {@link #readView}.
+ * <li>Optionally, {@link #readView} provides memory mapped views of the file.
  *
  *  @see BinaryDataFileWriteBuffered
  */
@@ -40,8 +45,19 @@ public class BinaryDataFileRandomAccess implements BinaryDataFile {
     protected long writePosition;
     private final String filename;
 
+    // Read-only mapped segments, for readView. A segment is mapped up to the end of
+    // the file when it is mapped, and is mapped again when a view needs more.
+    private static final long SegmentSize = 64*1024*1024;
+    private final boolean mapReads;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
     public BinaryDataFileRandomAccess(String filename) {
+       this(filename, false);
+    }
+
+    public BinaryDataFileRandomAccess(String filename, boolean mapReads) {
        this.filename = filename;
+       this.mapReads = mapReads;
     }
 
     @Override
@@ -75,6 +91,60 @@ public class BinaryDataFileRandomAccess implements BinaryDataFile {
         catch (IOException ex) { IO.exception(ex); return -1; }
     }
 
+    /**
+     * A view of a memory mapped segment of the file. The view ends at the end of the
+     * segment, at {@code limit}, or at the end of the file, whichever is first.
+     */
+    @Override
+    public ByteBuffer readView(long posn, long limit) {
+        if ( ! mapReads || posn < 0 || posn >= limit )
+            return null;
+        int idx = (int)(posn / SegmentSize);
+        long segStart = idx * SegmentSize;
+        int segLimit = (int)(Math.min(limit, segStart+SegmentSize) - segStart);
+        MappedByteBuffer segment = segment(idx, segStart, segLimit);
+        if ( segment == null )
+            return null;
+        int offset = (int)(posn - segStart);
+        int end = Math.min(segment.capacity(), segLimit);
+        if ( offset >= end )
+            return null;
+        ByteBuffer bb = segment.duplicate();
+        bb.limit(end);
+        bb.position(offset);
+        return bb;
+    }
+
+    private synchronized MappedByteBuffer segment(int idx, long segStart, int length) {
+        checkOpen();
+        if ( idx >= segments.length )
+            segments = Arrays.copyOf(segments, idx+1);
+        MappedByteBuffer segment = segments[idx];
+        if ( segment != null && segment.capacity() >= length )
+            return segment;
+        try {
+            // Never map beyond the end of the file.
+            long mapLength = Math.min(length, file.length() - segStart);
+            if ( mapLength <= 0 )
+                return null;
+            if ( segment != null && segment.capacity() >= mapLength )
+                return segment;
+            segment = file.getChannel().map(MapMode.READ_ONLY, segStart, mapLength);
+            segments[idx] = segment;
+            return segment;
+        }
+        catch (IOException ex) { IO.exception(ex); return null; }
+    }
+
+    // Forget mapped segments that go beyond the end of the file.
+    private synchronized void truncateSegments(long length) {
+        for ( int i = 0 ; i < segments.length ; i++ ) {
+            MappedByteBuffer segment = segments[i];
+            if ( segment != null && i*SegmentSize + segment.capacity() > length )
+                segments[i] = null;
+        }
+    }
+
     @Override
     public long write(byte[] b, int start, int length) {
         checkOpen();
@@ -98,6 +168,7 @@ public class BinaryDataFileRandomAccess implements BinaryDataFile {
     public void truncate(long length) {
         checkOpen();
         switchToWriteMode();
+        truncateSegments(length);
         try { file.setLength(length); }
         catch (IOException ex) { IO.exception(ex); }
     }
@@ -117,6 +188,9 @@ public class BinaryDataFileRandomAccess implements BinaryDataFile {
     public void close() {
         if ( ! isOpen() )
             return;
+        synchronized(this) {
+            segments = new MappedByteBuffer[0];
+        }
         try { file.close(); }
         catch (IOException ex) { IO.exception(ex); }
         file = null;
@@ -18,6 +18,8 @@
 
 package org.apache.jena.dboe.base.file;
 
+import java.nio.ByteBuffer;
+
 public class BinaryDataFileWrapper implements BinaryDataFile {
     private final BinaryDataFile other;
 
@@ -41,6 +43,11 @@ public class BinaryDataFileWrapper implements BinaryDataFile {
         return other.read(posn, b, start, length);
     }
 
+    @Override
+    public ByteBuffer readView(long posn, long limit) {
+        return other.readView(posn, limit);
+    }
+
     @Override
     public long write(byte[] b) {
         return other.write(b);
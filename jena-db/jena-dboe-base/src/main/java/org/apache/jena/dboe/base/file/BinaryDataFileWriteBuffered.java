@@ -18,6 +18,8 @@
 
 package org.apache.jena.dboe.base.file;
 
+import java.nio.ByteBuffer;
+
 import org.apache.jena.atlas.RuntimeIOException;
 
 /** Implementation of {@link BinaryDataFile} adding write buffering to another
@@ -120,6 +122,12 @@ public class BinaryDataFileWriteBuffered implements BinaryDataFile {
         }
     }
 
+    // Bytes still in the write buffer are not in a view of the underlying file.
+    @Override
+    public ByteBuffer readView(long posn, long limit) {
+        return other.readView(posn, limit);
+    }
+
     @Override
     public long write(byte[] buf, int off, int len) {
         synchronized(sync) {
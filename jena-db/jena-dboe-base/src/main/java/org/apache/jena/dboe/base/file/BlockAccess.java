@@ -40,6 +40,12 @@ public interface BlockAccess extends Sync, Closeable
 
     public Block read(long id);
 
+    /**
+     * Hint that the block will be read soon. Implementations may start loading
+     * it in the background; the default does nothing.
+     */
+    public default void prefetch(long id) {}
+
     public void write(Block block);
 
     public void overwrite(Block block);
@@ -22,6 +22,8 @@ import static java.lang.String.format;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 
 import org.apache.jena.atlas.lib.FileOps;
 import org.apache.jena.dboe.base.block.Block;
@@ -61,6 +63,21 @@ public class BlockAccessDirect extends BlockAccessBase
         return block;
     }
 
+    @Override
+    public void prefetch(long id) {
+        if ( isClosed() || ! valid(id) )
+            return;
+        // Read in the background, into a throw-away buffer, so the block
+        // is in the OS file cache when read for real.
+        FileChannel channel = file;
+        long position = filePosition(id);
+        BlockPrefetch.submit(()->{
+            try { channel.read(ByteBuffer.allocate(blockSize), position); }
+            catch (ClosedChannelException ex) { /* Closed since: nothing to read ahead for. */ }
+            catch (IOException ex) { log.warn(format("prefetch: %s: block %d", filename, id), ex); }
+        });
+    }
+
     private void readByteBuffer(long id, ByteBuffer dst) {
         try {
             int len = file.read(dst, filePosition(id));
@@ -93,6 +93,27 @@ public class BlockAccessMapped extends BlockAccessBase
         return block;
     }
 
+    @Override
+    public void prefetch(long id) {
+        if ( isClosed() || ! valid(id) )
+            return;
+        ByteBuffer bb = getByteBuffer(id);
+        BlockPrefetch.submit(()->touch(bb));
+    }
+
+    // Size of an OS memory page (or less).
+    private static final int PageSize = 4096;
+    // Keep the reads in touch() from being optimized away.
+    private static volatile int touchSink = 0;
+
+    /** Read one byte in each OS page of the buffer, so the pages are faulted in. */
+    private static void touch(ByteBuffer bb) {
+        int x = 0;
+        for ( int i = 0 ; i < bb.limit() ; i += PageSize )
+            x += bb.get(i);
+        touchSink = x;
+    }
+
     @Override
     public void write(Block block) {
         write(block, CopyContents.NoCopy);
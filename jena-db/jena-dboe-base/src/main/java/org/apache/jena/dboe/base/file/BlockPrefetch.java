@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.base.file;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background loading of blocks for {@link BlockAccess#prefetch}.
+ * <p>
+ * One shared daemon thread, with a small queue. Prefetch is only a hint - if
+ * the queue is full, requests are dropped, and a runtime exception (e.g. the file
+ * has since been closed) is logged at debug level and otherwise ignored. Errors
+ * are not caught.
+ */
+class BlockPrefetch {
+    private static Logger log = LoggerFactory.getLogger(BlockPrefetch.class);
+
+    private static final int QueueSize = 256;
+
+    private static final ExecutorService executor = createExecutor();
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor exec = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                                                         new ArrayBlockingQueue<>(QueueSize),
+                                                         (r)->{
+                                                             Thread t = new Thread(r, "BlockPrefetch");
+                                                             t.setDaemon(true);
+                                                             return t;
+                                                         },
+                                                         new ThreadPoolExecutor.DiscardPolicy());
+        exec.allowCoreThreadTimeOut(true);
+        return exec;
+    }
+
+    /** Run the action on the prefetch thread, if there is space in the queue. */
+    static void submit(Runnable action) {
+        executor.execute(()->{
+            try { action.run(); }
+            catch (RuntimeException ex) {
+                if ( log.isDebugEnabled() )
+                    log.debug("Prefetch: "+ex.getMessage());
+            }
+        });
+    }
+}
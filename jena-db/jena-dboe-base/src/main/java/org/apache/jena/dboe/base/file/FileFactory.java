@@ -18,6 +18,9 @@
 
 package org.apache.jena.dboe.base.file;
 
+import org.apache.jena.dboe.base.block.FileMode;
+import org.apache.jena.dboe.sys.SystemIndex;
+
 public class FileFactory {
 
     public static BinaryDataFile createBinaryDataFile(FileSet fileset, String ext) {
@@ -25,7 +28,8 @@ public class FileFactory {
         if ( fileset.isMem() ) {
             return new BinaryDataFileMem();
         } else {
-            BinaryDataFile bdf = new BinaryDataFileRandomAccess(x);
+            boolean mapReads = ( SystemIndex.fileMode() == FileMode.mapped );
+            BinaryDataFile bdf = new BinaryDataFileRandomAccess(x, mapReads);
             bdf = new BinaryDataFileWriteBuffered(bdf);
             return bdf;
         }
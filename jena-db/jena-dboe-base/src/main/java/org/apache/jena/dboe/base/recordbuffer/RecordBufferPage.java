@@ -18,8 +18,13 @@
 
 package org.apache.jena.dboe.base.recordbuffer;
 
+import java.nio.ByteBuffer;
+
 import org.apache.jena.dboe.base.block.Block;
+import org.apache.jena.dboe.base.buffer.PrefixCompression;
+import org.apache.jena.dboe.base.buffer.RecordBuffer;
 import org.apache.jena.dboe.base.page.Page;
+import org.apache.jena.dboe.base.record.RecordException;
 import org.apache.jena.dboe.base.record.RecordFactory;
 import org.apache.jena.dboe.sys.SysDB;
 
@@ -40,8 +45,18 @@ public final class RecordBufferPage extends RecordBufferPageBase
     // Adds this field over RecordBufferPageBase
     final public static int LINK            = 4;
     final private static int FIELD_LENGTH   = SysDB.SizeOfInt; // Length of the space needed here (not count)
+    // Start of the records.
+    final private static int HEADER_LENGTH  = LINK + FIELD_LENGTH;
 
     private int link = Page.NO_ID;
+    // Prefix compressed: the records are kept in a separate, decoded, RecordBuffer
+    // and encoded into the block by encode().
+    private final boolean compressed;
+    // Compressed: the number of records the page can hold.
+    private final int capacity;
+    // Compressed: the decoded records are shared with other pages of the same block
+    // and are exactly the size needed. See unshare().
+    private boolean shared = false;
 
     public final int getLink() { return link; }
 
@@ -52,6 +67,9 @@ public final class RecordBufferPage extends RecordBufferPageBase
 
     @Override
     protected void _reset(Block block) {
+        if ( compressed )
+            // The decoded records do not depend on the block.
+            return;
         // TODO -- should this be format?
         // Print this
         super.rebuild(block, this.getCount());
@@ -66,6 +84,13 @@ public final class RecordBufferPage extends RecordBufferPageBase
     public static int calcBlockSize(RecordFactory factory, int maxRec)
     { return RecordBufferPageBase.calcBlockSize(factory, maxRec, FIELD_LENGTH); }
 
+    /**
+     * Number of records a compressed page can hold in memory, as a multiple of
+     * the number of uncompressed records that fit in a block. The limit on the
+     * encoded size is {@link #isFull}.
+     */
+    public static final int CompressedCapacityFactor = 4;
+
     /** The construction methods */
     public static RecordBufferPage createBlank(Block block,RecordFactory factory) {
         int count = 0;
@@ -79,9 +104,141 @@ public final class RecordBufferPage extends RecordBufferPageBase
         return new RecordBufferPage(block, factory, count, linkId);
     }
 
+    /** Create an empty, prefix compressed, page */
+    public static RecordBufferPage createBlankCompressed(Block block, RecordFactory factory) {
+        RecordBuffer rb = compressedRecordBuffer(block, factory);
+        return new RecordBufferPage(block, factory, rb, NO_ID);
+    }
+
+    /** Decode a prefix compressed page */
+    public static RecordBufferPage formatCompressed(Block block, RecordFactory factory) {
+        ByteBuffer bb = block.getByteBuffer();
+        int count = bb.getInt(COUNT);
+        int linkId = bb.getInt(LINK);
+        RecordBuffer rb = compressedRecordBuffer(block, factory);
+        PrefixCompression.decode(bb, HEADER_LENGTH, count, rb);
+        return new RecordBufferPage(block, factory, rb, linkId);
+    }
+
+    /**
+     * A prefix compressed page using records already decoded by {@link #decodeCompressed}.
+     * The records are shared, and must not be changed, until {@link #unshare} is called.
+     */
+    public static RecordBufferPage formatCompressed(Block block, RecordFactory factory, RecordBuffer decoded) {
+        int linkId = block.getByteBuffer().getInt(LINK);
+        RecordBufferPage rbp = new RecordBufferPage(block, factory, decoded, linkId);
+        rbp.shared = true;
+        return rbp;
+    }
+
+    /** Decode the records of a prefix compressed block into a RecordBuffer of exactly the size needed. */
+    public static RecordBuffer decodeCompressed(Block block, RecordFactory factory) {
+        ByteBuffer bb = block.getByteBuffer();
+        int count = bb.getInt(COUNT);
+        RecordBuffer rb = new RecordBuffer(factory, count);
+        PrefixCompression.decode(bb, HEADER_LENGTH, count, rb);
+        return rb;
+    }
+
+    private static RecordBuffer compressedRecordBuffer(Block block, RecordFactory factory) {
+        return new RecordBuffer(factory, compressedCapacity(block, factory));
+    }
+
+    private static int compressedCapacity(Block block, RecordFactory factory) {
+        if ( factory.recordLength() > PrefixCompression.MaxRecordLength )
+            throw new RecordException("Record too long for compression: "+factory.recordLength());
+        int blkSize = block.getByteBuffer().capacity();
+        // Room for at least one record beyond the space kept in reserve (see isFull).
+        if ( blkSize - HEADER_LENGTH < 3 * PrefixCompression.maxRecordLength(factory.recordLength()) )
+            throw new RecordException("Block too small for compressed records: "+blkSize);
+        return CompressedCapacityFactor * calcRecordSize(factory, blkSize);
+    }
+
     private RecordBufferPage(Block block, RecordFactory factory, int count, int linkId) {
         super(block, FIELD_LENGTH, factory, count);
         this.link = linkId;
+        this.compressed = false;
+        this.capacity = getRecordBuffer().maxSize();
+    }
+
+    private RecordBufferPage(Block block, RecordFactory factory, RecordBuffer recBuff, int linkId) {
+        super(block, FIELD_LENGTH, factory, recBuff);
+        this.link = linkId;
+        this.compressed = true;
+        this.capacity = compressedCapacity(block, factory);
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return capacity;
+    }
+
+    /**
+     * Make the records private to this page, with room for the page to grow.
+     * This must be called before the records of a page that may be shared
+     * ({@link #formatCompressed(Block, RecordFactory, RecordBuffer)}) are changed.
+     */
+    public void unshare() {
+        if ( ! shared )
+            return;
+        RecordBuffer rb = new RecordBuffer(getRecordFactory(), capacity);
+        recBuff.copy(0, rb, 0, recBuff.size());
+        rb.clear(rb.size(), capacity - rb.size());
+        recBuff = rb;
+        shared = false;
+    }
+
+    /** Write the records of a compressed page into the block. */
+    public void encode() {
+        if ( ! compressed )
+            return;
+        ByteBuffer bb = getBackingBlock().getByteBuffer();
+        PrefixCompression.encode(recBuff, bb, HEADER_LENGTH);
+    }
+
+    /**
+     * Whether the page can not take another record. For a compressed page,
+     * this allows for an insert or a replacement of a record changing the
+     * encoding of the record after it.
+     */
+    public boolean isFull() {
+        if ( recBuff.size() >= capacity )
+            return true;
+        if ( ! compressed )
+            return false;
+        return PrefixCompression.encodedLength(recBuff) > compressedCapacity();
+    }
+
+    /**
+     * The encoded length of the records at which a compressed page becomes
+     * {@link #isFull full}.
+     */
+    public int compressedCapacity() {
+        int reserve = 2 * PrefixCompression.maxRecordLength(recBuff.slotLen());
+        return dataSpace() - reserve;
+    }
+
+    /**
+     * Whether the page is at, or below, the minimum fill (half full). Two
+     * minimum size pages can be merged; a page that is not minimum size can
+     * give one record to a minimum size page.
+     */
+    public boolean isMinSize() {
+        // If of max length 5 (i.e. odd), min size is 2. Integer division works.
+        if ( recBuff.size() > capacity / 2 )
+            return false;
+        if ( ! compressed )
+            return true;
+        return PrefixCompression.encodedLength(recBuff) <= dataSpace() / 2;
+    }
+
+    // Bytes in the block for records.
+    private int dataSpace() {
+        return getBackingBlock().getByteBuffer().capacity() - HEADER_LENGTH;
     }
 
     @Override
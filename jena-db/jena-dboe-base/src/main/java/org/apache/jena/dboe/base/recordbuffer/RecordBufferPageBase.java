@@ -70,6 +70,14 @@ public abstract class RecordBufferPageBase extends PageBase // implements Page
         rebuild(block, count);
     }
 
+    /** Page where the records are held in {@code recBuff}, not directly in the block. */
+    protected RecordBufferPageBase(Block block, int offset, RecordFactory factory, RecordBuffer recBuff) {
+        super(block);
+        this.headerLength = FIELD_LENGTH + offset;
+        this.factory = factory;
+        this.recBuff = recBuff;
+    }
+
     protected void rebuild(Block block, int count) {
         ByteBuffer bb = block.getByteBuffer();
         bb.clear();
@@ -82,11 +90,15 @@ public abstract class RecordBufferPageBase extends PageBase // implements Page
         return recBuff;
     }
 
+    public final RecordFactory getRecordFactory() {
+        return factory;
+    }
+
     public final int getCount() {
         return recBuff.size();
     }
 
-    public final int getMaxSize() {
+    public int getMaxSize() {
         return recBuff.maxSize();
     }
 
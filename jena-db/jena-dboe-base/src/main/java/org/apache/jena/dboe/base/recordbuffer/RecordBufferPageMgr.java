@@ -22,9 +22,12 @@ import static org.apache.jena.dboe.base.recordbuffer.RecordBufferPage.*;
 
 import java.nio.ByteBuffer;
 
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
 import org.apache.jena.dboe.base.block.Block;
 import org.apache.jena.dboe.base.block.BlockMgr;
 import org.apache.jena.dboe.base.block.BlockType;
+import org.apache.jena.dboe.base.buffer.RecordBuffer;
 import org.apache.jena.dboe.base.page.BlockConverter;
 import org.apache.jena.dboe.base.page.PageBlockMgr;
 import org.apache.jena.dboe.base.record.RecordException;
@@ -39,36 +42,109 @@ public class RecordBufferPageMgr extends PageBlockMgr<RecordBufferPage>
 {
     private final RecordFactory factory;
 
+    private final boolean compressed;
+
     public RecordBufferPageMgr(RecordFactory factory, BlockMgr blockMgr) {
-        super(new Block2RecordBufferPage(factory), blockMgr);
+        this(factory, blockMgr, false);
+    }
+
+    /** Manager for pages, which are prefix compressed on disk if {@code compressed} is true. */
+    public RecordBufferPageMgr(RecordFactory factory, BlockMgr blockMgr, boolean compressed) {
+        this(new Block2RecordBufferPage(factory, compressed), factory, blockMgr, compressed);
+    }
+
+    private RecordBufferPageMgr(Block2RecordBufferPage converter, RecordFactory factory, BlockMgr blockMgr, boolean compressed) {
+        super(converter, blockMgr);
+        this.converter = converter;
         this.factory = factory;
+        this.compressed = compressed;
     }
 
+    private final Block2RecordBufferPage converter;
+
     public RecordFactory getRecordFactory() { return factory; }
 
+    public boolean isCompressed()           { return compressed; }
+
     public RecordBufferPage create() {
         return super.create(BlockType.RECORD_BLOCK);
     }
 
+    @Override
+    public RecordBufferPage getWrite(int id) {
+        RecordBufferPage page = super.getWrite(id);
+        page.unshare();
+        return page;
+    }
+
+    @Override
+    public RecordBufferPage getWrite(int id, int referencingId) {
+        RecordBufferPage page = super.getWrite(id, referencingId);
+        page.unshare();
+        return page;
+    }
+
+    @Override
+    public void resetAlloc(long boundary) {
+        super.resetAlloc(boundary);
+        converter.clearCache();
+    }
+
+    /**
+     * Converter between blocks and record buffer pages.
+     * <p>
+     * For prefix compressed pages, the decoded records of recently read blocks
+     * are cached by block id and shared by the pages for the block until a page is
+     * changed ({@link RecordBufferPage#unshare}). An entry is dropped when its
+     * block is written or created. Blocks with ids that may be used again, after
+     * an abort, must be dropped with {@link #clearCache}.
+     */
     public static class Block2RecordBufferPage implements BlockConverter<RecordBufferPage> {
+        private static final int DecodedCacheSize = 100;
         private RecordFactory factory;
+        private boolean compressed;
+        private final Cache<Long, RecordBuffer> decoded;
 
         public Block2RecordBufferPage(RecordFactory factory) {
+            this(factory, false);
+        }
+
+        public Block2RecordBufferPage(RecordFactory factory, boolean compressed) {
             this.factory = factory;
+            this.compressed = compressed;
+            this.decoded = compressed ? CacheFactory.createCache(DecodedCacheSize) : null;
+        }
+
+        /** Drop all cached decoded records. */
+        public void clearCache() {
+            if ( decoded != null )
+                decoded.clear();
         }
 
         @Override
         public RecordBufferPage createFromBlock(Block block, BlockType blkType) {
             if ( blkType != BlockType.RECORD_BLOCK )
                 throw new RecordException("Not RECORD_BLOCK: " + blkType);
+            if ( decoded != null )
+                decoded.remove(block.getId());
             // Initially empty
-            RecordBufferPage rb = RecordBufferPage.createBlank(block, factory);
+            RecordBufferPage rb = compressed
+                ? RecordBufferPage.createBlankCompressed(block, factory)
+                : RecordBufferPage.createBlank(block, factory);
             return rb;
         }
 
         @Override
         public RecordBufferPage fromBlock(Block block) {
             synchronized (block) {
+                if ( compressed ) {
+                    RecordBuffer rb = decoded.getIfPresent(block.getId());
+                    if ( rb == null || rb.size() != block.getByteBuffer().getInt(COUNT) ) {
+                        rb = RecordBufferPage.decodeCompressed(block, factory);
+                        decoded.put(block.getId(), rb);
+                    }
+                    return RecordBufferPage.formatCompressed(block, factory, rb);
+                }
                 RecordBufferPage rb = RecordBufferPage.format(block, factory);
                 // int count = block.getByteBuffer().getInt(COUNT);
                 // int linkId = block.getByteBuffer().getInt(LINK);
@@ -82,6 +158,9 @@ public class RecordBufferPageMgr extends PageBlockMgr<RecordBufferPage>
         public Block toBlock(RecordBufferPage rbp) {
             int count = rbp.getRecordBuffer().size();
             ByteBuffer bb = rbp.getBackingBlock().getByteBuffer();
+            if ( decoded != null )
+                decoded.remove(rbp.getBackingBlock().getId());
+            rbp.encode();
             bb.putInt(COUNT, rbp.getCount());
             bb.putInt(LINK, rbp.getLink());
             return rbp.getBackingBlock();
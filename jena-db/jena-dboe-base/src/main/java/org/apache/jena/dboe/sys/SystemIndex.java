@@ -80,6 +80,28 @@ public class SystemIndex
 
     public static boolean Checking = false;       // This isn't used enough!
 
+    // ---- B+Tree range scan read-ahead
+
+    /**
+     * Set the number of leaf blocks a B+Tree range scan asks to be loaded ahead
+     * of the scan. Zero, the default, disables read-ahead.
+     */
+    public static void setReadAheadBlocks(int numBlocks)
+    { ReadAheadBlocks = Math.max(0, numBlocks); }
+
+    /** Number of leaf blocks a B+Tree range scan asks to be loaded ahead of the scan. */
+    public static int getReadAheadBlocks()
+    { return ReadAheadBlocks; }
+
+    private static int ReadAheadBlocks = 0;
+
+    /**
+     * Number of consecutive leaf blocks a range scan reads before starting
+     * read-ahead. Short scans, the common case for point lookups, do not trigger
+     * read-ahead.
+     */
+    public static final int ReadAheadTrigger = 2;
+
     // ---- File mode
 
     private static FileMode fileMode = null;
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.base.buffer;
+
+import java.nio.ByteBuffer;
+
+import org.apache.jena.dboe.base.record.RecordFactory;
+import org.apache.jena.dboe.test.RecordLib;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPrefixCompression extends Assert
+{
+    static RecordFactory recordFactory = new RecordFactory(RecordLib.TestRecordLength, 0);
+
+    @Test public void prefix01() {
+        RecordBuffer rb = make(1, 2, 3, 1000, 1001, 70000);
+        roundTrip(rb);
+    }
+
+    @Test public void prefix02() {
+        RecordBuffer rb = make();
+        assertEquals(0, PrefixCompression.encodedLength(rb));
+        roundTrip(rb);
+    }
+
+    @Test public void prefix03() {
+        // 4 byte records: 1 + 4, then 1 + 1 for each record differing in the last byte only.
+        RecordBuffer rb = make(10, 11, 12);
+        assertEquals(5 + 2 + 2, PrefixCompression.encodedLength(rb));
+        assertEquals(5, PrefixCompression.encodedLength(rb, 0));
+        assertEquals(2, PrefixCompression.encodedLength(rb, 1));
+    }
+
+    @Test public void prefix04() {
+        // Removing records does not make the encoding longer.
+        RecordBuffer rb = make(1, 256, 257, 65536, 65537, 65793);
+        for ( int i = rb.size()-1 ; i >= 0 ; i-- ) {
+            int len1 = PrefixCompression.encodedLength(rb);
+            RecordBuffer rb2 = rb.duplicate();
+            rb2.remove(i);
+            int len2 = PrefixCompression.encodedLength(rb2);
+            assertTrue(len2 <= len1);
+            roundTrip(rb2);
+        }
+    }
+
+    @Test(expected=BufferException.class)
+    public void prefix05() {
+        RecordBuffer rb = make(1, 2, 3);
+        ByteBuffer bb = ByteBuffer.allocate(PrefixCompression.encodedLength(rb)-1);
+        PrefixCompression.encode(rb, bb, 0);
+    }
+
+    private static void roundTrip(RecordBuffer rb) {
+        int len = PrefixCompression.encodedLength(rb);
+        ByteBuffer bb = ByteBuffer.allocate(len+10);
+        int x = PrefixCompression.encode(rb, bb, 10);
+        assertEquals(len, x);
+        RecordBuffer rb2 = new RecordBuffer(recordFactory, rb.maxSize());
+        PrefixCompression.decode(bb, 10, rb.size(), rb2);
+        assertEquals(rb.size(), rb2.size());
+        for ( int i = 0 ; i < rb.size() ; i++ )
+            assertEquals(rb.get(i), rb2.get(i));
+    }
+
+    private static RecordBuffer make(int... vals) {
+        RecordBuffer rb = new RecordBuffer(recordFactory, 10);
+        for ( int v : vals )
+            rb.add(RecordLib.intToRecord(v));
+        return rb;
+    }
+}
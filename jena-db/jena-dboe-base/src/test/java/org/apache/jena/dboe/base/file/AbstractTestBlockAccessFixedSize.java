@@ -92,4 +92,14 @@ public abstract class AbstractTestBlockAccessFixedSize extends Assert
         // Should not work. b2 not written.
         Block b2a = file.read(b2.getId());
     }
+
+    @Test public void fileaccess_06() {
+        Block b1 = data(file, blkSize);
+        file.write(b1);
+        // A hint only: no effect on contents, and unknown ids are ignored.
+        file.prefetch(b1.getId());
+        file.prefetch(b1.getId()+100);
+        Block b9 = file.read(b1.getId());
+        assertTrue(sameValue(b1, b9));
+    }
 }
@@ -37,6 +37,7 @@ import org.junit.runners.Suite;
     , TestBinaryDataFileWriteBufferedMem.class
     , TestBinaryDataRAFInitial.class
     , TestBinaryDataRAF.class
+    , TestBinaryDataRAFMapped.class
     , TestBinaryDataFileWriteBufferedFile.class
 
     , TestProcessFileLock.class
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.base.file;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.apache.jena.atlas.lib.FileOps;
+import org.apache.jena.atlas.lib.StrUtils;
+import org.junit.Test;
+
+public class TestBinaryDataRAFMapped extends AbstractTestBinaryDataFile {
+    public static String FILE = TS_File.FILE;
+
+    @Override
+    protected BinaryDataFile createBinaryDataFile() {
+        FileOps.delete(FILE);
+        return new BinaryDataFileRandomAccess(FILE, true);
+    }
+
+    private static String string(ByteBuffer bb) {
+        byte[] b = new byte[bb.remaining()];
+        bb.get(b);
+        return StrUtils.fromUTF8bytes(b);
+    }
+
+    @Test public void readView_01() {
+        BinaryDataFile file = createBinaryDataFile();
+        file.open();
+        try {
+            file.write(data);
+            file.write(data);
+            long len = file.length();
+            ByteBuffer bb = file.readView(0, len);
+            assertNotNull(bb);
+            assertEquals(stringData+stringData, string(bb));
+            bb = file.readView(data.length, len);
+            assertEquals(stringData, string(bb));
+            // Limit
+            bb = file.readView(0, data.length);
+            assertEquals(stringData, string(bb));
+            assertNull(file.readView(len, len));
+        } finally { file.close(); }
+    }
+
+    // The view grows with the file.
+    @Test public void readView_02() {
+        BinaryDataFile file = createBinaryDataFile();
+        file.open();
+        try {
+            file.write(data);
+            ByteBuffer bb = file.readView(0, Long.MAX_VALUE);
+            assertEquals(stringData, string(bb));
+            long x = file.write(data);
+            bb = file.readView(x, Long.MAX_VALUE);
+            assertEquals(stringData, string(bb));
+            // Not beyond the end of the file.
+            file.truncate(x);
+            assertNull(file.readView(x, Long.MAX_VALUE));
+            bb = file.readView(0, Long.MAX_VALUE);
+            assertEquals(stringData, string(bb));
+        } finally { file.close(); }
+    }
+
+    @Test public void readView_03() {
+        BinaryDataFile file = new BinaryDataFileRandomAccess(FILE);
+        file.open();
+        try {
+            file.write(data);
+            assertNull(file.readView(0, file.length()));
+        } finally { file.close(); }
+    }
+}
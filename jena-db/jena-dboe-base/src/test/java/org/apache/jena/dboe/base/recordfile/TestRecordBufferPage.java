@@ -27,6 +27,7 @@ import org.apache.jena.dboe.base.record.RecordFactory;
 import org.apache.jena.dboe.base.recordbuffer.RecordBufferPage;
 import org.apache.jena.dboe.base.recordbuffer.RecordBufferPageMgr;
 import org.apache.jena.dboe.sys.SystemIndex;
+import org.apache.jena.dboe.test.RecordLib;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -84,6 +85,34 @@ public class TestRecordBufferPage extends Assert
         blkMgr.endRead();
     }
 
+    @Test public void recBufferPageCompressed01() {
+        // Consecutive integers share leading bytes.
+        RecordFactory intFactory = RecordLib.recordFactory;
+        int rawRecords = 8;
+        BlockMgr blkMgr = BlockMgrFactory.createMem("RecordBuffer", RecordBufferPage.calcBlockSize(intFactory, rawRecords));
+        blkMgr.beginUpdate();
+        RecordBufferPageMgr rpm = new RecordBufferPageMgr(intFactory, blkMgr, true);
+        int x = -99;
+        int count = 0; {
+            RecordBufferPage page1 = rpm.create();
+            assertTrue(page1.isCompressed());
+            while ( ! page1.isFull() )
+                page1.getRecordBuffer().add(RecordLib.intToRecord(1000+count++));
+            assertTrue(count > rawRecords);
+            x = page1.getId();
+            rpm.put(page1);
+        }
+        blkMgr.endUpdate();
+        blkMgr.beginRead(); {
+            RecordBufferPage page2 = rpm.getRead(x);
+            assertEquals(count, page2.getCount());
+            for ( int i = 0 ; i < count ; i++ )
+                assertEquals(RecordLib.intToRecord(1000+i), page2.getRecordBuffer().get(i));
+            rpm.release(page2);
+        }
+        blkMgr.endRead();
+    }
+
     private static void fill(RecordBuffer rb, int ... nums) {
         for ( int num : nums ) {
             Record rec = record( num );
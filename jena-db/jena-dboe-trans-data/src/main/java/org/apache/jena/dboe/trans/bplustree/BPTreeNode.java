@@ -23,9 +23,8 @@ import static org.apache.jena.dboe.base.record.Record.keyLT;
 import static org.apache.jena.dboe.base.record.Record.keyNE;
 import static org.apache.jena.dboe.trans.bplustree.BPT.*;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 import org.apache.jena.atlas.io.IndentedLineBuffer;
 import org.apache.jena.atlas.io.IndentedWriter;
@@ -287,14 +286,68 @@ public final class BPTreeNode extends BPTreePage
         // Pages from pointer slots x1 to x2 (inc because while we exclude maxRec,
         // keys are only a max of the subtree they mark out.
 
-        // XXX Just grab them now - later, keep indexes and fetch on next().
+        // Record the page ids now; fetch pages on next().
         // XXX Epoch tracking
-
-        List<BPTreePage> x = new ArrayList<>(x2-x1+1);
+        int[] ids = new int[x2-x1+1];
         for ( int i = x1; i <= x2 ; i++ )
-            x.add(get(i));
+            ids[i-x1] = ptrs.get(i);
+        return new PageIterator(this, ids);
+    }
+
+    /**
+     * Iterator over sub-pages, fetching each page when needed. Callers bracket
+     * {@code next()} with {@link BPlusTree#startReadBlkMgr()}/{@link BPlusTree#finishReadBlkMgr()}.
+     * <p>
+     * The page ids are taken when the iterator is created; each page is read when
+     * the iterator reaches it. In a read transaction this makes no difference. In a
+     * write transaction, changes made to the tree by the same transaction while the
+     * iterator is open may be seen in pages not yet reached. Changing the tree while
+     * iterating over it is not supported.
+     * <p>
+     * When the sub-pages are records blocks and the scan has moved through
+     * {@link SystemIndex#ReadAheadTrigger} of them, the following blocks are
+     * passed to {@link BlockMgr#prefetch} so they can be loaded ahead of the scan.
+     */
+    private static class PageIterator implements Iterator<BPTreePage> {
+        private final BPTreeNode node;
+        private final int[] ids;
+        private int idx = 0;
+        // Index of the first page not yet prefetched.
+        private int prefetchIdx = 0;
+
+        PageIterator(BPTreeNode node, int[] ids) {
+            this.node = node;
+            this.ids = ids;
+        }
 
-        return x.iterator();
+        @Override
+        public boolean hasNext() {
+            return idx < ids.length;
+        }
+
+        @Override
+        public BPTreePage next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException();
+            int subId = ids[idx++];
+            if ( node.isLeaf )
+                readAhead();
+            return node.getPageBlockMgr().getRead(subId, node.getId());
+        }
+
+        private void readAhead() {
+            int readAhead = SystemIndex.getReadAheadBlocks();
+            if ( readAhead <= 0 || idx < SystemIndex.ReadAheadTrigger )
+                return;
+            int limit = Math.min(idx + readAhead, ids.length);
+            int start = Math.max(prefetchIdx, idx);
+            if ( start >= limit )
+                return;
+            BlockMgr blockMgr = node.bpTree.getRecordsMgr().getBlockMgr();
+            for ( int i = start ; i < limit ; i++ )
+                blockMgr.prefetch(ids[i]);
+            prefetchIdx = limit;
+        }
     }
 
 //    // OUT OF DATE WITH MVCC
@@ -971,7 +1024,9 @@ public final class BPTreeNode extends BPTreePage
                 // (it's already there, with its value).
                 // Size is N+N and max could be odd so N+N and N+N+1 are
                 // possible.
-                if ( left.getCount() + 1 != left.getMaxSize() && left.getCount() != left.getMaxSize() )
+                // Compressed data blocks are merged by space used, not count.
+                if ( ! params.isLeafCompression() &&
+                     left.getCount() + 1 != left.getMaxSize() && left.getCount() != left.getMaxSize() )
                     BPT.error("Inconsistent data node size: %d/%d", left.getCount(), left.getMaxSize());
             } else if ( !left.isFull() ) {
                 // If not two data blocks, the left side should now be full
@@ -39,6 +39,7 @@ class BPTreeRangeIterator implements Iterator<Record> {
 
     // Convert path to a stack of iterators
     private final Deque<Iterator<BPTreePage>> stack = new ArrayDeque<>();
+    final private BPlusTree bpTree;
     final private Record minRecord;
     final private Record maxRecord;
     private Iterator<Record> current;
@@ -46,6 +47,7 @@ class BPTreeRangeIterator implements Iterator<Record> {
     private boolean finished = false;
 
     BPTreeRangeIterator(BPTreeNode node, Record minRec, Record maxRec ) {
+        this.bpTree = node.bpTree;
         this.minRecord = minRec;
         this.maxRecord = maxRec;
         BPTreeRecords r = loadStack(node);
@@ -81,7 +83,10 @@ class BPTreeRangeIterator implements Iterator<Record> {
 
         if ( iter == null || ! iter.hasNext() )
             return null;
+        // Pages are fetched as the iterator moves.
+        bpTree.startReadBlkMgr();
         BPTreePage p = iter.next();
+        bpTree.finishReadBlkMgr();
         BPTreeRecords r = null;
         if (p instanceof BPTreeNode) {
             r = loadStack((BPTreeNode)p);
@@ -45,6 +45,7 @@ class BPTreeRangeIteratorMapper<X> implements Iterator<X> {
 
     // Convert path to a stack of iterators
     final private Deque<Iterator<BPTreePage>> stack = new ArrayDeque<>();
+    final private BPlusTree bpTree;
     final private Record minRecord;
     final private Record maxRecord;
     final private RecordMapper<X> mapper;
@@ -54,6 +55,7 @@ class BPTreeRangeIteratorMapper<X> implements Iterator<X> {
     private boolean finished = false;
 
     BPTreeRangeIteratorMapper(BPTreeNode node, Record minRec, Record maxRec, int keyLength, RecordMapper<X> mapper) {
+        this.bpTree = node.bpTree;
         this.minRecord = minRec;
         this.maxRecord = maxRec;
         this.mapper = mapper;
@@ -92,7 +94,10 @@ class BPTreeRangeIteratorMapper<X> implements Iterator<X> {
 
         if ( iter == null || ! iter.hasNext() )
             return null;
+        // Pages are fetched as the iterator moves.
+        bpTree.startReadBlkMgr();
         BPTreePage p = iter.next();
+        bpTree.finishReadBlkMgr();
         BPTreeRecords r = null;
         if (p instanceof BPTreeNode) {
             r = loadStack((BPTreeNode)p);
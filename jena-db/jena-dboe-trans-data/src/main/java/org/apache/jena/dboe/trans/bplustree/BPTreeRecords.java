@@ -92,7 +92,7 @@ public final class BPTreeRecords extends BPTreePage {
 
     @Override
     public boolean isFull() {
-        return (rBuff.size() >= rBuff.maxSize());
+        return rBuffPage.isFull();
     }
 
     @Override
@@ -103,8 +103,7 @@ public final class BPTreeRecords extends BPTreePage {
     @Override
     public boolean isMinSize() {
         // 50% packing minimum.
-        // If of max length 5 (i.e. odd), min size is 2. Integer division works.
-        return (rBuff.size() <= rBuff.maxSize() / 2);
+        return rBuffPage.isMinSize();
     }
 
     @Override
@@ -120,8 +119,15 @@ public final class BPTreeRecords extends BPTreePage {
         bprRecordsMgr.write(this);
     }
 
+    /** Make the records private to this page before changing them (see {@link RecordBufferPage#unshare}). */
+    void unshare() {
+        rBuffPage.unshare();
+        rBuff = rBuffPage.getRecordBuffer();
+    }
+
     @Override
     final boolean promote() {
+        unshare();
         if ( bprRecordsMgr.isWritable(getId()) )
             return false;
         // reset() will be called if necessary.
@@ -159,7 +165,7 @@ public final class BPTreeRecords extends BPTreePage {
         Record r2 = null;
         if ( i < 0 ) {
             i = decodeIndex(i);
-            if ( rBuff.size() >= rBuff.maxSize() )
+            if ( isFull() )
                 throw new StorageException("RecordBlock.put overflow");
             promotePage(path, this);
             rBuff.add(i, record);
@@ -325,7 +331,7 @@ public final class BPTreeRecords extends BPTreePage {
 
     @Override
     public final int getMaxSize() {
-        return rBuff.maxSize();
+        return rBuffPage.getMaxSize();
     }
 
     @Override
@@ -352,7 +358,7 @@ public final class BPTreeRecords extends BPTreePage {
     public final void checkNode() {
         if ( !CheckingNode )
             return;
-        if ( rBuff.size() < 0 || rBuff.size() > rBuff.maxSize() )
+        if ( rBuff.size() < 0 || rBuff.size() > getMaxSize() )
             error("Misized: %s", this);
 
         for ( int i = 1; i < getCount() ; i++ ) {
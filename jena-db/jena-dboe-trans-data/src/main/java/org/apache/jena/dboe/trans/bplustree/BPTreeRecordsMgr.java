@@ -35,11 +35,13 @@ final public class BPTreeRecordsMgr extends PageBlockMgr<BPTreeRecords>
 
     private final RecordBufferPageMgr rBuffPageMgr;
     private final BPlusTree bpTree;
+    private final Block2BPTreeRecords converter;
 
     BPTreeRecordsMgr(BPlusTree bpTree, RecordFactory recordFactory, RecordBufferPageMgr rBuffPageMgr) {
         super(null , rBuffPageMgr.getBlockMgr());
         this.bpTree = bpTree;
-        super.setConverter(new Block2BPTreeRecords(this, recordFactory));
+        this.converter = new Block2BPTreeRecords(this, recordFactory, rBuffPageMgr.isCompressed());
+        super.setConverter(converter);
         // bpt is uninitialized at this point.
         // so record rBuffPageMgr
         this.rBuffPageMgr = rBuffPageMgr;
@@ -50,9 +52,9 @@ final public class BPTreeRecordsMgr extends PageBlockMgr<BPTreeRecords>
         private Block2RecordBufferPage recordBufferConverter;
         private BPTreeRecordsMgr       recordsMgr;
 
-        Block2BPTreeRecords(BPTreeRecordsMgr mgr, RecordFactory recordFactory) {
+        Block2BPTreeRecords(BPTreeRecordsMgr mgr, RecordFactory recordFactory, boolean compressed) {
             this.recordsMgr = mgr;
-            this.recordBufferConverter = new RecordBufferPageMgr.Block2RecordBufferPage(recordFactory);
+            this.recordBufferConverter = new RecordBufferPageMgr.Block2RecordBufferPage(recordFactory, compressed);
         }
 
         @Override
@@ -81,6 +83,27 @@ final public class BPTreeRecordsMgr extends PageBlockMgr<BPTreeRecords>
 //        return bRec;
     }
 
+    @Override
+    public BPTreeRecords getWrite(int id) {
+        BPTreeRecords page = super.getWrite(id);
+        page.unshare();
+        return page;
+    }
+
+    @Override
+    public BPTreeRecords getWrite(int id, int referencingId) {
+        BPTreeRecords page = super.getWrite(id, referencingId);
+        page.unshare();
+        return page;
+    }
+
+    @Override
+    public void resetAlloc(long boundary) {
+        super.resetAlloc(boundary);
+        // Block ids beyond the boundary will be used again.
+        converter.recordBufferConverter.clearCache();
+    }
+
     public RecordBufferPageMgr getRecordBufferPageMgr() { return rBuffPageMgr; }
     public BPlusTree getBPTree()                        { return bpTree; }
 
@@ -90,6 +90,11 @@ public class BPlusTreeFactory {
 
     /** Create a B+Tree using defaults */
     public static BPlusTree createBPTree(ComponentId cid, FileSet fileset, RecordFactory factory) {
+        return createBPTree(cid, fileset, factory, false);
+    }
+
+    /** Create a B+Tree using defaults, with or without prefix compressed records blocks */
+    public static BPlusTree createBPTree(ComponentId cid, FileSet fileset, RecordFactory factory, boolean leafCompression) {
         int readCacheSize = SystemIndex.BlockReadCacheSize;
         int writeCacheSize = SystemIndex.BlockWriteCacheSize;
         int blockSize = SystemIndex.BlockSize;
@@ -99,7 +104,7 @@ public class BPlusTreeFactory {
             blockSize = SystemIndex.BlockSizeTest;
         }
 
-        return createBPTreeByBlockSize(cid, fileset, blockSize, readCacheSize, writeCacheSize, factory);
+        return createBPTree(cid, fileset, -1, blockSize, readCacheSize, writeCacheSize, factory, leafCompression);
     }
 
     /** Create a B+Tree by BlockSize */
@@ -129,6 +134,13 @@ public class BPlusTreeFactory {
     public static BPlusTree createBPTree(ComponentId cid, FileSet fileset, int order, int blockSize,
                                          int readCacheSize, int writeCacheSize,
                                          RecordFactory factory) {
+        return createBPTree(cid, fileset, order, blockSize, readCacheSize, writeCacheSize, factory, false);
+    }
+
+    /** Knowing all the parameters, create a B+Tree */
+    public static BPlusTree createBPTree(ComponentId cid, FileSet fileset, int order, int blockSize,
+                                         int readCacheSize, int writeCacheSize,
+                                         RecordFactory factory, boolean leafCompression) {
         // ---- Checking
         if (blockSize < 0 && order < 0) throw new IllegalArgumentException("Neither blocksize nor order specified");
         if (blockSize >= 0 && order < 0) order = BPlusTreeParams.calcOrder(blockSize, factory.recordLength());
@@ -144,7 +156,7 @@ public class BPlusTreeFactory {
             blockSize = BPlusTreeParams.calcBlockSize(order, factory);
         }
 
-        BPlusTreeParams params = new BPlusTreeParams(order, factory);
+        BPlusTreeParams params = new BPlusTreeParams(order, factory, leafCompression);
         BufferChannel bptState = FileFactory.createBufferChannel(fileset, Names.extBptState);
         BlockMgr blkMgrNodes = BlockMgrFactory.create(fileset, Names.extBptTree, blockSize, readCacheSize, writeCacheSize);
         BlockMgr blkMgrRecords = BlockMgrFactory.create(fileset, Names.extBptRecords, blockSize, readCacheSize, writeCacheSize);
@@ -174,7 +186,7 @@ public class BPlusTreeFactory {
 
         BPTreeNodeMgr nodeManager = new BPTreeNodeMgr(bpt, blkMgrNodes);
 
-        RecordBufferPageMgr recordPageMgr = new RecordBufferPageMgr(params.getRecordFactory(), blkMgrRecords);
+        RecordBufferPageMgr recordPageMgr = new RecordBufferPageMgr(params.getRecordFactory(), blkMgrRecords, params.isLeafCompression());
         BPTreeRecordsMgr recordsMgr = new BPTreeRecordsMgr(bpt, params.getRecordFactory(), recordPageMgr);
 
         createIfAbsent(isReset, stateMgr, nodeManager, recordsMgr);
@@ -204,9 +216,14 @@ public class BPlusTreeFactory {
 
     /** (Testing mainly) Make an in-memory B+Tree, with copy-in, copy-out block managers */
     public static BPlusTree makeMem(String name, int order, int minDataRecords, int keyLength, int valueLength) {
+        return makeMem(name, order, minDataRecords, keyLength, valueLength, false);
+    }
+
+    /** (Testing mainly) Make an in-memory B+Tree, with copy-in, copy-out block managers */
+    public static BPlusTree makeMem(String name, int order, int minDataRecords, int keyLength, int valueLength, boolean leafCompression) {
         if ( name == null )
             name = "Mem";
-        BPlusTreeParams params = new BPlusTreeParams(order, keyLength, valueLength);
+        BPlusTreeParams params = new BPlusTreeParams(order, new RecordFactory(keyLength, valueLength), leafCompression);
 
         int blkSize;
         if ( minDataRecords > 0 ) {
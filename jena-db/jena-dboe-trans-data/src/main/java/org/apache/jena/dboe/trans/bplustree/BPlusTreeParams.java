@@ -36,6 +36,7 @@ final public class BPlusTreeParams
     public static final String ParamKeyLength      = NS+".keyLength";
     public static final String ParamValueLength    = NS+".valueLength";
     public static final String ParamBlockSize      = NS+".blockSize";
+    public static final String ParamLeafCompression = NS+".leafCompression";
 
     /* The gap is extra space in a node - some books have node size as 2*N
      * (often for the classic insertion algorithm where it's easier to implement
@@ -60,6 +61,9 @@ final public class BPlusTreeParams
     /** Factory for key-only records */
     final RecordFactory keyFactory;
 
+    /** Whether records blocks (leaves) are prefix compressed on disk */
+    final boolean leafCompression;
+
     // ---- Derived constants.
 
     /** Maximum number of keys per non-leaf block */
@@ -90,13 +94,14 @@ final public class BPlusTreeParams
 
     @Override
     public String toString() {
-        return String.format("Order=%d : Records [key=%d, value=%d] : records=[%d,%d] : pointers=[%d,%d] : split=%d",
+        return String.format("Order=%d : Records [key=%d, value=%d] : records=[%d,%d] : pointers=[%d,%d] : split=%d%s",
                              order,
                              keyFactory.keyLength() ,
                              recordFactory.valueLength() ,
                              MinRec, MaxRec,
                              MinPtr, MaxPtr,
-                             SplitIndex
+                             SplitIndex,
+                             leafCompression ? " : compressed leaves" : ""
                              );
     }
 
@@ -105,7 +110,8 @@ final public class BPlusTreeParams
             int pOrder = mf.getPropertyAsInteger(ParamOrder);
             int pKeyLen = mf.getPropertyAsInteger(ParamKeyLength);
             int pRecLen = mf.getPropertyAsInteger(ParamValueLength);
-            return new BPlusTreeParams(pOrder, pKeyLen, pRecLen);
+            boolean pCompression = mf.propertyEquals(ParamLeafCompression, "true");
+            return new BPlusTreeParams(pOrder, new RecordFactory(pKeyLen, pRecLen), pCompression);
         } catch (NumberFormatException ex) {
             Log.error(BPlusTreeParams.class, "Badly formed metadata for B+Tree");
             throw new DBOpEnvException("Failed to read metadata");
@@ -116,6 +122,8 @@ final public class BPlusTreeParams
         mf.setProperty(ParamOrder, order);
         mf.setProperty(ParamKeyLength, recordFactory.keyLength());
         mf.setProperty(ParamValueLength, recordFactory.valueLength());
+        if ( leafCompression )
+            mf.setProperty(ParamLeafCompression, "true");
         mf.flush();
     }
 
@@ -124,6 +132,14 @@ final public class BPlusTreeParams
     }
 
     public BPlusTreeParams(int order, RecordFactory factory) {
+        this(order, factory, false);
+    }
+
+    /**
+     * B+Tree parameters. If {@code leafCompression} is true, records blocks are
+     * prefix compressed on disk; this is fixed when the B+Tree is created.
+     */
+    public BPlusTreeParams(int order, RecordFactory factory, boolean leafCompression) {
         // BTrees of order one aren't strictly BTrees
         // Order 1 => Min size = 0 and max size = 2*N-1 = 1.
         // If there is a gap, then the code may be defensive enough
@@ -136,6 +152,7 @@ final public class BPlusTreeParams
         this.order = order;
         recordFactory = factory;
         keyFactory = factory.keyFactory();
+        this.leafCompression = leafCompression;
 
         // Derived constants.
         MaxRec  = 2*order-1 + Gap;
@@ -153,6 +170,10 @@ final public class BPlusTreeParams
         return order;
     }
 
+    public boolean isLeafCompression() {
+        return leafCompression;
+    }
+
     public int getPtrLength() {
         return SizeOfPointer;
     }
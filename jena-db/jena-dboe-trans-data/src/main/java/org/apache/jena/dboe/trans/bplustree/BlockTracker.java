@@ -154,6 +154,12 @@ public class BlockTracker implements BlockMgr {
         return blockMgr.getRead(id);
     }
 
+    @Override
+    public void prefetch(long id) {
+        // Not a block reference - no tracking.
+        blockMgr.prefetch(id);
+    }
+
     @Override
     public Block getWrite(long id) {
         synchronized (this) {
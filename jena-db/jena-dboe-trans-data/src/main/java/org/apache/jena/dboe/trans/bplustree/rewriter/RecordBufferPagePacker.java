@@ -21,6 +21,7 @@ package org.apache.jena.dboe.trans.bplustree.rewriter;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import org.apache.jena.dboe.base.buffer.PrefixCompression;
 import org.apache.jena.dboe.base.buffer.RecordBuffer;
 import org.apache.jena.dboe.base.record.Record;
 import org.apache.jena.dboe.base.recordbuffer.RecordBufferPage;
@@ -63,9 +64,20 @@ class RecordBufferPagePacker implements Iterator<RecordBufferPage> {
             recordBufferPage = rbMgr.create();
 
             RecordBuffer rb = recordBufferPage.getRecordBuffer();
-            while (!rb.isFull() && records.hasNext()) {
-                Record r = records.next();
-                rb.add(r);
+            if ( recordBufferPage.isCompressed() ) {
+                // Track the encoded length as records are added.
+                int capacity = recordBufferPage.compressedCapacity();
+                int length = 0;
+                while (!rb.isFull() && length <= capacity && records.hasNext()) {
+                    Record r = records.next();
+                    rb.add(r);
+                    length += PrefixCompression.encodedLength(rb, rb.size()-1);
+                }
+            } else {
+                while (!rb.isFull() && records.hasNext()) {
+                    Record r = records.next();
+                    rb.add(r);
+                }
             }
             if ( !records.hasNext() )
                 records = null;
@@ -197,6 +197,17 @@ public class TransBinaryDataFile extends TransactionalComponentLifecycle<TransBi
         return binFile.read(posn, b, start, length);
     }
 
+    /** A view of the committed part of the file, as seen by this transaction. */
+    @Override
+    public ByteBuffer readView(long posn, long limit) {
+        checkTxn();
+        if ( isReadTxn() )
+            checkRead(posn);
+        // Committed bytes do not change.
+        long x = Math.min(limit, getDataState().length);
+        return binFile.readView(posn, x);
+    }
+
     private void checkRead(long posn) {
         if ( posn > getDataState().length )
             IO.exception("Out of bounds: (limit "+getDataState().length+") "+posn);
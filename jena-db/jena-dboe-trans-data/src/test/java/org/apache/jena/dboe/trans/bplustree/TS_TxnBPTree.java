@@ -29,7 +29,9 @@ import org.junit.runners.Suite;
     TestBPTreeRecordsNonTxn.class,
     TestBPlusTreeIndexNonTxn.class,
     TestBPlusTreeNonTxn.class,
+    TestBPlusTreeCompressedNonTxn.class,
     TestBPTreeModes.class,
+    TestBPTreeReadAhead.class,
 
     // Transactional tests
     TestBPlusTreeTxn.class,
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.trans.bplustree;
+
+import static org.apache.jena.dboe.index.test.IndexTestLib.add;
+import static org.apache.jena.dboe.test.RecordLib.intToRecord;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.jena.dboe.base.block.BlockMgr;
+import org.apache.jena.dboe.base.block.BlockMgrFactory;
+import org.apache.jena.dboe.base.block.BlockMgrWrapper;
+import org.apache.jena.dboe.base.file.BufferChannelMem;
+import org.apache.jena.dboe.base.record.Record;
+import org.apache.jena.dboe.base.recordbuffer.RecordBufferPage;
+import org.apache.jena.dboe.sys.SystemIndex;
+import org.apache.jena.dboe.test.RecordLib;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Read-ahead of records blocks during range scans */
+public class TestBPTreeReadAhead {
+
+    /** Record prefetch requests */
+    static class BlockMgrPrefetchCounter extends BlockMgrWrapper {
+        final List<Long> prefetched = new ArrayList<>();
+        BlockMgrPrefetchCounter(BlockMgr blockMgr) { super(blockMgr); }
+        @Override
+        public void prefetch(long id) {
+            prefetched.add(id);
+            super.prefetch(id);
+        }
+    }
+
+    private int readAhead;
+    private BlockMgrPrefetchCounter counter;
+
+    @Before public void before() { readAhead = SystemIndex.getReadAheadBlocks(); }
+    @After  public void after()  { SystemIndex.setReadAheadBlocks(readAhead); }
+
+    private BPlusTree make(int N) {
+        BPlusTreeParams params = new BPlusTreeParams(3, RecordLib.TestRecordLength, 0);
+        int blkSize = RecordBufferPage.calcBlockSize(params.getRecordFactory(), 4);
+        BlockMgr mgr1 = BlockMgrFactory.createMem("ReadAhead(nodes)", params.getCalcBlockSize());
+        counter = new BlockMgrPrefetchCounter(BlockMgrFactory.createMem("ReadAhead(records)", blkSize));
+        BPlusTree bpt = BPlusTreeFactory.createNonTxn(params, BufferChannelMem.create("ReadAhead(root)"), mgr1, counter);
+        int[] keys = new int[N];
+        for ( int i = 0 ; i < N ; i++ )
+            keys[i] = i;
+        add(bpt, keys);
+        return bpt;
+    }
+
+    private static List<Record> scan(Iterator<Record> iter) {
+        List<Record> x = new ArrayList<>();
+        iter.forEachRemaining(x::add);
+        return x;
+    }
+
+    @Test public void readahead_01() {
+        SystemIndex.setReadAheadBlocks(4);
+        int N = 200;
+        BPlusTree bpt = make(N);
+        List<Record> x = scan(bpt.iterator());
+        assertEquals(intToRecord(range(0, N)), x);
+        assertTrue(counter.prefetched.size() > 0);
+        // Each block is asked for at most once by a scan.
+        assertEquals(counter.prefetched.size(), counter.prefetched.stream().distinct().count());
+    }
+
+    @Test public void readahead_02() {
+        SystemIndex.setReadAheadBlocks(0);
+        int N = 200;
+        BPlusTree bpt = make(N);
+        List<Record> x = scan(bpt.iterator());
+        assertEquals(intToRecord(range(0, N)), x);
+        assertEquals(0, counter.prefetched.size());
+    }
+
+    @Test public void readahead_03() {
+        // Short scan - one block - no read-ahead.
+        SystemIndex.setReadAheadBlocks(4);
+        BPlusTree bpt = make(200);
+        Record r1 = RecordLib.intToRecord(100);
+        Record r2 = RecordLib.intToRecord(101);
+        List<Record> x = scan(bpt.iterator(r1, r2));
+        assertEquals(1, x.size());
+        assertEquals(0, counter.prefetched.size());
+    }
+
+    @Test public void readahead_04() {
+        SystemIndex.setReadAheadBlocks(4);
+        BPlusTree bpt = make(500);
+        Record r1 = RecordLib.intToRecord(50);
+        Record r2 = RecordLib.intToRecord(450);
+        List<Record> x = scan(bpt.iterator(r1, r2));
+        assertEquals(intToRecord(range(50, 450)), x);
+    }
+
+    private static int[] range(int start, int finish) {
+        int[] x = new int[finish-start];
+        for ( int i = start ; i < finish ; i++ )
+            x[i-start] = i;
+        return x;
+    }
+}
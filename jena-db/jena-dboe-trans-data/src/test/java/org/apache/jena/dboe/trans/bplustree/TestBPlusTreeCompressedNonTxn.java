@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.trans.bplustree;
+
+import static org.apache.jena.dboe.index.test.IndexTestLib.add;
+import static org.apache.jena.dboe.index.test.IndexTestLib.testInsert;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.dboe.base.record.Record;
+import org.apache.jena.dboe.index.test.AbstractTestRangeIndex;
+import org.apache.jena.dboe.sys.SystemIndex;
+import org.apache.jena.dboe.test.RecordLib;
+import org.apache.jena.dboe.transaction.Transactional;
+import org.apache.jena.dboe.transaction.TransactionalFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.system.Txn;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Run the range index tests for a tree with prefix compressed records blocks */
+public class TestBPlusTreeCompressedNonTxn extends AbstractTestRangeIndex {
+
+    static boolean originalNullOut;
+    @BeforeClass
+    static public void beforeClass() {
+        BPT.CheckingNode = true;
+        originalNullOut = SystemIndex.getNullOut();
+        SystemIndex.setNullOut(true);
+    }
+
+    @AfterClass
+    static public void afterClass() {
+        SystemIndex.setNullOut(originalNullOut);
+    }
+
+    @Override
+    protected BPlusTree makeRangeIndex(int order, int minRecords) {
+        BPlusTree bpt = BPlusTreeFactory.makeMem(null, order, minRecords, RecordLib.TestRecordLength, 0, true);
+        bpt.nonTransactional();
+        return bpt;
+    }
+
+    // Dense keys compress well: more records per block than uncompressed.
+    @Test public void compressed_01() {
+        int N = 2000;
+        int[] keys = new int[N];
+        for ( int i = 0 ; i < N ; i++ )
+            keys[i] = i;
+        BPlusTree bpt1 = BPlusTreeFactory.makeMem(null, 4, 8, RecordLib.TestRecordLength, 0, false);
+        bpt1.nonTransactional();
+        BPlusTree bpt2 = makeRangeIndex(4, 8);
+        add(bpt1, keys);
+        testInsert(bpt2, keys);
+        long blocks1 = bpt1.getRecordsMgr().getBlockMgr().allocLimit();
+        long blocks2 = bpt2.getRecordsMgr().getBlockMgr().allocLimit();
+        assertTrue("Compressed: "+blocks2+" Uncompressed: "+blocks1, blocks2 < blocks1);
+        Iterator<Record> iter1 = bpt1.iterator();
+        Iterator<Record> iter2 = bpt2.iterator();
+        assertEquals(Iter.toList(iter1), Iter.toList(iter2));
+    }
+
+    // Reading a block again uses the records already decoded, which take only the space needed.
+    @Test public void compressed_02() {
+        BPlusTree bpt = makeRangeIndex(4, 8);
+        for ( int i = 0 ; i < 200 ; i++ )
+            add(bpt, i);
+        BPTreeRecordsMgr mgr = bpt.getRecordsMgr();
+        BPTreeRecords page1 = mgr.getRead(0);
+        BPTreeRecords page2 = mgr.getRead(0);
+        assertSame(page1.getRecordBuffer(), page2.getRecordBuffer());
+        assertEquals(page1.getCount(), page1.getRecordBuffer().maxSize());
+        assertTrue(page1.getMaxSize() > page1.getCount());
+        mgr.release(page1);
+        mgr.release(page2);
+    }
+
+    // Lookups between changes see the changes.
+    @Test public void compressed_03() {
+        BPlusTree bpt = makeRangeIndex(4, 8);
+        for ( int i = 0 ; i < 500 ; i++ ) {
+            Record r = RecordLib.intToRecord(i);
+            assertNull(bpt.find(r));
+            bpt.insert(r);
+            assertNotNull(bpt.find(r));
+            if ( i % 3 == 0 ) {
+                Record r2 = RecordLib.intToRecord(i/2);
+                bpt.delete(r2);
+                assertNull(bpt.find(r2));
+            }
+        }
+        bpt.check();
+    }
+
+    // Blocks of an aborted transaction are used again.
+    @Test public void compressed_04() {
+        BPlusTree bpt = BPlusTreeFactory.makeMem(null, 4, 8, RecordLib.TestRecordLength, 0, true);
+        Transactional thing = TransactionalFactory.createTransactional(Location.mem(), bpt);
+        List<Record> expected = new ArrayList<>();
+        Txn.executeWrite(thing, ()->{
+            for ( int i = 0 ; i < 100 ; i++ )
+                add(bpt, 2*i);
+        });
+        for ( int i = 0 ; i < 100 ; i++ )
+            expected.add(RecordLib.intToRecord(2*i));
+
+        thing.begin(ReadWrite.WRITE);
+        for ( int i = 0 ; i < 300 ; i++ )
+            add(bpt, 1000+i);
+        // Read the new blocks.
+        assertEquals(400, Iter.count(bpt.iterator()));
+        thing.abort();
+        thing.end();
+
+        Txn.executeWrite(thing, ()->{
+            for ( int i = 0 ; i < 100 ; i++ )
+                add(bpt, 2*i+1);
+            assertEquals(200, Iter.count(bpt.iterator()));
+        });
+        for ( int i = 0 ; i < 100 ; i++ )
+            expected.add(RecordLib.intToRecord(2*i+1));
+        expected.sort(Record::compareByKey);
+        Txn.executeRead(thing, ()->assertEquals(expected, Iter.toList(bpt.iterator())));
+    }
+}
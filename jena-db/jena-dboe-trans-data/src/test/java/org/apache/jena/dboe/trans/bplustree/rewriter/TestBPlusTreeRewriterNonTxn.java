@@ -66,11 +66,20 @@ public class TestBPlusTreeRewriterNonTxn extends Assert
 
     @Test public void bpt_rewrite_99()  { runTest(5, 1000); }
 
+    @Test public void bpt_rewrite_compressed_01()  { runTestCompressed(5, 100); }
+    @Test public void bpt_rewrite_compressed_02()  { runTestCompressed(5, 1000); }
+
     static void runTest(int order, int N)
     { runOneTest(order, N , recordFactory, false); }
 
+    static void runTestCompressed(int order, int N)
+    { runOneTest(new BPlusTreeParams(order, recordFactory, true), N, recordFactory, false); }
+
     public static void runOneTest(int order, int N, RecordFactory recordFactory, boolean debug) {
-        BPlusTreeParams bptParams = new BPlusTreeParams(order, recordFactory);
+        runOneTest(new BPlusTreeParams(order, recordFactory), N, recordFactory, debug);
+    }
+
+    private static void runOneTest(BPlusTreeParams bptParams, int N, RecordFactory recordFactory, boolean debug) {
         BPlusTreeRewriter.debug = debug;
 
         // ---- Test data
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.transaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.system.Txn;
+
+/**
+ * Group commit: update actions from concurrent callers are run together in one write
+ * transaction, so the cost of a commit (the journal force and the file syncs) is paid
+ * once per group, not once per action.
+ * <p>
+ * There is at most one write transaction at a time. The caller that finds no group
+ * running becomes the leader; it takes the waiting actions, up to the maximum group
+ * size, and runs them in a write transaction on its thread. Actions that arrive
+ * during that commit form the next group. Optionally, the leader waits a short time
+ * for a group to fill.
+ * <p>
+ * {@link #execute} returns after the transaction containing the action has committed,
+ * so durability is the same as a write transaction for each action. If an action
+ * throws a {@link RuntimeException}, the group transaction is aborted, the failing
+ * action reports the exception and the other actions of the group are run again in a
+ * new write transaction. The failing action is not run again. If there is an
+ * {@link Error}, no action is run again and every action of the group reports it.
+ * Actions must only make changes to the transactional data; they must not manage
+ * transactions themselves.
+ * <p>
+ * TDB2 uses it for update requests executed outside a transaction when the context
+ * setting {@code tdb2:groupCommit} is set.
+ */
+public class GroupCommit {
+
+    private static class Request {
+        final Runnable action;
+        boolean done = false;
+        boolean interrupted = false;
+        Throwable exception = null;
+        Request(Runnable action) { this.action = action; }
+    }
+
+    private final org.apache.jena.sparql.core.Transactional transactional;
+    private final int maxGroupSize;
+    private final long maxDelayMillis;
+
+    private final Object lock = new Object();
+    private final Deque<Request> queue = new ArrayDeque<>();
+    private boolean leaderActive = false;
+
+    /**
+     * Group commit, without waiting for a group to fill.
+     * Groups form from the actions that arrive while the previous group commits.
+     */
+    public GroupCommit(org.apache.jena.sparql.core.Transactional transactional, int maxGroupSize) {
+        this(transactional, maxGroupSize, 0);
+    }
+
+    /**
+     * Group commit.
+     * @param transactional  The data
+     * @param maxGroupSize   Maximum number of actions in one transaction.
+     * @param maxDelayMillis Time the leader waits for a group to reach {@code maxGroupSize}.
+     */
+    public GroupCommit(org.apache.jena.sparql.core.Transactional transactional, int maxGroupSize, long maxDelayMillis) {
+        Objects.requireNonNull(transactional);
+        if ( maxGroupSize < 1 )
+            throw new IllegalArgumentException("Group size must be positive: "+maxGroupSize);
+        if ( maxDelayMillis < 0 )
+            throw new IllegalArgumentException("Delay must not be negative: "+maxDelayMillis);
+        this.transactional = transactional;
+        this.maxGroupSize = maxGroupSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Run the action in a write transaction, possibly shared with other actions.
+     * Returns when the transaction has committed.
+     * If called inside a transaction, the action is run immediately in that transaction.
+     */
+    public void execute(Runnable action) {
+        Objects.requireNonNull(action);
+        if ( transactional.isInTransaction() ) {
+            action.run();
+            return;
+        }
+        Request request = new Request(action);
+        List<Request> group;
+        synchronized(lock) {
+            queue.add(request);
+            // Wake a leader waiting for the group to fill.
+            lock.notifyAll();
+            group = awaitTurn(request);
+        }
+        while ( group != null ) {
+            try {
+                runGroup(group);
+            } finally {
+                synchronized(lock) {
+                    group.forEach(r->r.done = true);
+                    leaderActive = false;
+                    lock.notifyAll();
+                }
+            }
+            synchronized(lock) {
+                group = awaitTurn(request);
+            }
+        }
+        if ( request.interrupted )
+            Thread.currentThread().interrupt();
+        Throwable th = request.exception;
+        if ( th == null )
+            return;
+        if ( th instanceof RuntimeException )
+            throw (RuntimeException)th;
+        if ( th instanceof Error )
+            throw (Error)th;
+        throw new RuntimeException(th);
+    }
+
+    /**
+     * Called holding the lock.
+     * Wait until the request has been done (return null) or this thread becomes the
+     * leader (return the group to run).
+     */
+    private List<Request> awaitTurn(Request request) {
+        while ( ! request.done ) {
+            if ( ! leaderActive ) {
+                leaderActive = true;
+                return takeGroup(request);
+            }
+            await(request, 0);
+        }
+        return null;
+    }
+
+    /** Called holding the lock. */
+    private List<Request> takeGroup(Request request) {
+        if ( maxDelayMillis > 0 ) {
+            long finish = System.currentTimeMillis() + maxDelayMillis;
+            for ( ;; ) {
+                long remaining = finish - System.currentTimeMillis();
+                if ( queue.size() >= maxGroupSize || remaining <= 0 )
+                    break;
+                await(request, remaining);
+            }
+        }
+        List<Request> group = new ArrayList<>(Math.min(queue.size(), maxGroupSize));
+        while ( group.size() < maxGroupSize && ! queue.isEmpty() )
+            group.add(queue.poll());
+        return group;
+    }
+
+    // The request is queued and will be run; an interrupt can not cancel it.
+    // The interrupt is passed on when execute returns.
+    private void await(Request request, long millis) {
+        try { lock.wait(millis); }
+        catch (InterruptedException ex) { request.interrupted = true; }
+    }
+
+    /** Not holding the lock. */
+    private void runGroup(List<Request> group) {
+        List<Request> remaining = new ArrayList<>(group);
+        while ( ! remaining.isEmpty() ) {
+            // The action that threw an exception, if any.
+            Request[] failed = { null };
+            try {
+                Txn.executeWrite(transactional, ()->{
+                    for ( Request r : remaining ) {
+                        try {
+                            r.action.run();
+                        } catch (RuntimeException ex) {
+                            failed[0] = r;
+                            throw ex;
+                        }
+                    }
+                });
+                return;
+            } catch (RuntimeException ex) {
+                if ( failed[0] == null ) {
+                    // Not an action: the transaction itself failed.
+                    remaining.forEach(r->r.exception = ex);
+                    return;
+                }
+                // The group aborted. Run the others again, without the failing action.
+                failed[0].exception = ex;
+                remaining.remove(failed[0]);
+            } catch (Error err) {
+                // Nothing is run again.
+                remaining.forEach(r->r.exception = err);
+                throw err;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.transaction;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.system.Txn;
+import org.junit.Test;
+
+public class TestGroupCommit extends AbstractTestTxn {
+
+    @Test public void group_commit_01() {
+        GroupCommit gc = new GroupCommit(unit, 10);
+        gc.execute(()->counter1.inc());
+        gc.execute(()->counter1.inc());
+        assertEquals(2, counter1.value());
+        assertEquals(2, txnMgr.countBeginWrite());
+        checkClear();
+    }
+
+    // Concurrent callers share write transactions.
+    @Test public void group_commit_02() throws Exception {
+        int N = 50;
+        GroupCommit gc = new GroupCommit(unit, N, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(N);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0 ; i < N ; i++ )
+                futures.add(executor.submit(()->gc.execute(()->counter1.inc())));
+            for ( Future<?> f : futures )
+                f.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(N, counter1.value());
+        assertTrue(txnMgr.countBeginWrite() < N);
+        checkClear();
+    }
+
+    // A failing action does not affect the others in its group.
+    @Test public void group_commit_03() throws Exception {
+        GroupCommit gc = new GroupCommit(unit, 3, 5000);
+        AtomicInteger failures = new AtomicInteger(0);
+        AtomicInteger failingCalls = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> f1 = executor.submit(()->gc.execute(()->counter1.inc()));
+            Future<?> f2 = executor.submit(()->{
+                try {
+                    gc.execute(()->{
+                        failingCalls.incrementAndGet();
+                        counter1.inc();
+                        throw new IllegalStateException();
+                    });
+                } catch (IllegalStateException ex) { failures.incrementAndGet(); }
+            });
+            Future<?> f3 = executor.submit(()->gc.execute(()->counter1.inc()));
+            f1.get();
+            f2.get();
+            f3.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, failures.get());
+        // The failing action is not run again.
+        assertEquals(1, failingCalls.get());
+        assertEquals(2, counter1.value());
+        checkClear();
+    }
+
+    // Inside a transaction: run in that transaction.
+    @Test public void group_commit_04() {
+        GroupCommit gc = new GroupCommit(unit, 10);
+        Txn.executeWrite(unit, ()->{
+            gc.execute(()->counter1.inc());
+            assertEquals(1, counter1.get());
+        });
+        assertEquals(1, counter1.value());
+        assertEquals(1, txnMgr.countBeginWrite());
+    }
+
+    // An error is passed on and the action is not run again.
+    @Test public void group_commit_05() {
+        GroupCommit gc = new GroupCommit(unit, 10);
+        AtomicInteger calls = new AtomicInteger(0);
+        try {
+            gc.execute(()->{
+                calls.incrementAndGet();
+                counter1.inc();
+                throw new InternalError();
+            });
+            fail("No error");
+        } catch (InternalError err) {}
+        assertEquals(1, calls.get());
+        assertEquals(0, counter1.value());
+        gc.execute(()->counter1.inc());
+        assertEquals(1, counter1.value());
+        checkClear();
+    }
+}
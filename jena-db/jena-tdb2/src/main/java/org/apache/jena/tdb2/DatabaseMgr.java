@@ -80,6 +80,22 @@ public class DatabaseMgr {
         DatabaseOps.compact(dsg, shouldDeleteOld);
     }
 
+    /**
+     * Compact a dataset, which must be a switchable TDB database, while allowing
+     * writers to continue during the copy. Other transactions are excluded only
+     * while the last changes are applied and the dataset switches to the compacted
+     * database.
+     * <p>
+     * Deletes old database after successful compaction if `shouldDeleteOld` is `true`.
+     *
+     * @param container
+     * @param shouldDeleteOld
+     */
+    public static void compactOnline(DatasetGraph container, boolean shouldDeleteOld) {
+        DatasetGraphSwitchable dsg = requireSwitchable(container);
+        DatabaseOps.compactOnline(dsg, shouldDeleteOld);
+    }
+
     /**
      * Create a backup for a switchable TDB database. This is the normal dataset type for
      * on-disk TDB2 databases.
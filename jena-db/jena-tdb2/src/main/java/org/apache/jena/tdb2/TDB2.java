@@ -30,6 +30,7 @@ import org.apache.jena.sparql.util.MappingRegistry;
 import org.apache.jena.sparql.util.Symbol;
 import org.apache.jena.sys.JenaSystem;
 import org.apache.jena.tdb2.assembler.VocabTDB2;
+import org.apache.jena.tdb2.modify.UpdateEngineGroupCommit;
 import org.apache.jena.tdb2.modify.UpdateEngineTDB;
 import org.apache.jena.tdb2.solver.QueryEngineTDB;
 import org.apache.jena.tdb2.solver.StageGeneratorDirectTDB;
@@ -136,6 +137,7 @@ public class TDB2 {
             VocabTDB2.init();
             QueryEngineTDB.register();
             UpdateEngineTDB.register();
+            UpdateEngineGroupCommit.register();
             MappingRegistry.addPrefixMapping(TDB2.tdbSymbolPrefix, TDB2.tdbParamNS);
 
             wireIntoExecution();
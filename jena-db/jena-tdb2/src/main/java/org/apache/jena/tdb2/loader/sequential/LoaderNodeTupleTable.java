@@ -72,6 +72,7 @@ public class LoaderNodeTupleTable implements Closeable, Sync
     }
 
     protected void loadSecondaryIndexes() {
+        nodeTupleTable.getTupleTable().flush();
         if ( count > 0 ) {
             if ( dropAndRebuildIndexes )
                 // Now do secondary indexes.
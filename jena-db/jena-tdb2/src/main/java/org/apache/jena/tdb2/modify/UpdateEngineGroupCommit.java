@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.modify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.dboe.transaction.GroupCommit;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.modify.*;
+import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.sparql.modify.request.UpdateModify;
+import org.apache.jena.sparql.modify.request.UpdateVisitor;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.tdb2.store.DatasetGraphSwitchable;
+import org.apache.jena.tdb2.sys.SystemTDB;
+import org.apache.jena.update.Update;
+import org.apache.jena.update.UpdateRequest;
+
+/**
+ * Update engine for an update request executed outside a transaction on a TDB2 database,
+ * when the context setting {@link SystemTDB#symGroupCommit} is set.
+ * <p>
+ * The request is collected, then, when the request finishes, run by the
+ * {@link GroupCommit} of the database in a write transaction that may be shared with
+ * concurrent update requests. The results of DELETE WHERE and DELETE/INSERT operations
+ * are filled in when the transaction has committed.
+ */
+public class UpdateEngineGroupCommit extends UpdateEngineMain
+{
+    private final GroupCommit groupCommit;
+    private final UpdateRequest accRequests = new UpdateRequest();
+    private final List<UpdateResult> results = new ArrayList<>();
+    private final UpdateSink updateSink;
+
+    public UpdateEngineGroupCommit(DatasetGraphSwitchable dsg, Binding inputBinding, Context context, GroupCommit groupCommit)
+    {
+        super(dsg, inputBinding, context);
+        this.groupCommit = groupCommit;
+        this.updateSink = new GroupSink(accRequests);
+    }
+
+    @Override
+    public UpdateSink getUpdateSink() { return updateSink; }
+
+    private class GroupSink extends UpdateRequestSink implements UpdateSinkWithReturn {
+        GroupSink(UpdateRequest updateRequest) { super(updateRequest); }
+
+        @Override
+        public UpdateResult sendWithReturn(Update update) {
+            send(update);
+            return results.get(results.size()-1);
+        }
+
+        @Override
+        public void send(Update update) {
+            super.send(update);
+            // Placeholder for operations that report results.
+            boolean hasResult = ( update instanceof UpdateDeleteWhere || update instanceof UpdateModify );
+            results.add(hasResult ? new UpdateResult(new ArrayList<>(), new ArrayList<>()) : null);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            groupCommit.execute(UpdateEngineGroupCommit.this::execute);
+        }
+    }
+
+    // Called in the group transaction. This is called again if the group is retried.
+    private void execute() {
+        UpdateVisitor worker = prepareWorker();
+        List<Update> updates = accRequests.getOperations();
+        for ( int i = 0 ; i < updates.size() ; i++ ) {
+            UpdateResult result = updates.get(i).visit(worker);
+            UpdateResult placeholder = results.get(i);
+            if ( result == null || placeholder == null )
+                continue;
+            placeholder.deletedTuples.clear();
+            placeholder.updatedTuples.clear();
+            if ( result.deletedTuples != null )
+                placeholder.deletedTuples.addAll(result.deletedTuples);
+            if ( result.updatedTuples != null )
+                placeholder.updatedTuples.addAll(result.updatedTuples);
+        }
+    }
+
+    private static int groupSize(Context context) {
+        return context == null ? 0 : context.getInt(SystemTDB.symGroupCommit, 0);
+    }
+
+    // ---- Factory
+    public static UpdateEngineFactory getFactory() {
+        return new UpdateEngineFactory()
+        {
+            @Override
+            public boolean accept(DatasetGraph dataset, Context context) {
+                return dataset instanceof DatasetGraphSwitchable
+                    && groupSize(context) > 1
+                    && ! dataset.isInTransaction();
+            }
+
+            @Override
+            public UpdateEngine create(DatasetGraph dataset, Binding inputBinding, Context context) {
+                DatasetGraphSwitchable dsg = (DatasetGraphSwitchable)dataset;
+                return new UpdateEngineGroupCommit(dsg, inputBinding, context, dsg.groupCommit(groupSize(context)));
+            }
+        };
+    }
+
+    public static void register() { UpdateEngineRegistry.get().add(getFactory()); }
+}
@@ -50,6 +50,7 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
     /*package*/ final Item<Integer>            Node2NodeIdCacheSize;
     /*package*/ final Item<Integer>            NodeId2NodeCacheSize;
     /*package*/ final Item<Integer>            NodeMissCacheSize;
+    /*package*/ final Item<Long>               NodeId2NodeCacheOffHeapSize;
 
     /* These are items affect database layout and
      * only can be applied when a database is created.
@@ -58,6 +59,8 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
      * you'll need to use the index tools.
      */
 
+    /*package*/ final Item<Boolean>            leafCompression;
+
     /*package*/ final Item<String>             nodeTableBaseName;
 
     /*package*/ final Item<String>             primaryIndexTriples;
@@ -85,8 +88,9 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
     /*package*/ StoreParams(Item<FileMode> fileMode, Item<Integer> blockSize,
                             Item<Integer> blockReadCacheSize, Item<Integer> blockWriteCacheSize,
                             Item<Integer> node2NodeIdCacheSize, Item<Integer> nodeId2NodeCacheSize,
-                            Item<Integer> nodeMissCacheSize,
+                            Item<Integer> nodeMissCacheSize, Item<Long> nodeId2NodeCacheOffHeapSize,
 
+                            Item<Boolean> leafCompression,
                             Item<String> nodeTableBaseName,
                             Item<String> primaryIndexTriples, Item<String[]> tripleIndexes,
                             Item<String> primaryIndexQuads, Item<String[]> quadIndexes,
@@ -100,7 +104,9 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
         this.Node2NodeIdCacheSize   = node2NodeIdCacheSize;
         this.NodeId2NodeCacheSize   = nodeId2NodeCacheSize;
         this.NodeMissCacheSize      = nodeMissCacheSize;
+        this.NodeId2NodeCacheOffHeapSize = nodeId2NodeCacheOffHeapSize;
 
+        this.leafCompression        = leafCompression;
         this.nodeTableBaseName      = nodeTableBaseName;
 
         this.primaryIndexTriples    = primaryIndexTriples;
@@ -198,6 +204,25 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
         return NodeMissCacheSize.isSet;
     }
 
+    @Override
+    public Long getNodeId2NodeCacheOffHeapSize() {
+        return NodeId2NodeCacheOffHeapSize.value;
+    }
+
+    @Override
+    public boolean isSetNodeId2NodeCacheOffHeapSize() {
+        return NodeId2NodeCacheOffHeapSize.isSet;
+    }
+
+    /** Whether the records blocks of the indexes are prefix compressed. */
+    public boolean isLeafCompression() {
+        return leafCompression.value;
+    }
+
+    public boolean isSetLeafCompression() {
+        return leafCompression.isSet;
+    }
+
     public String getNodeTableBaseName() {
         return nodeTableBaseName.value;
     }
@@ -250,7 +275,9 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
         fmt(buff, "Node2NodeIdCacheSize", getNode2NodeIdCacheSize(), Node2NodeIdCacheSize.isSet);
         fmt(buff, "NodeId2NodeCacheSize", getNodeId2NodeCacheSize(), NodeId2NodeCacheSize.isSet);
         fmt(buff, "NodeMissCacheSize", getNodeMissCacheSize(), NodeMissCacheSize.isSet);
+        fmt(buff, "NodeId2NodeCacheOffHeapSize", getNodeId2NodeCacheOffHeapSize(), NodeId2NodeCacheOffHeapSize.isSet);
 
+        fmt(buff, "leafCompression", Boolean.toString(isLeafCompression()), leafCompression.isSet);
         fmt(buff, "nodeTableBaseName", getNodeTableBaseName(), nodeTableBaseName.isSet);
         fmt(buff, "primaryIndexTriples", getPrimaryIndexTriples(), primaryIndexTriples.isSet);
         fmt(buff, "tripleIndexes", getTripleIndexes(), tripleIndexes.isSet);
@@ -278,7 +305,7 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
         buff.append(String.format("%-20s   %s%s\n", name, dftStr, value));
     }
 
-    private void fmt(StringBuilder buff, String name, int value, boolean isSet) {
+    private void fmt(StringBuilder buff, String name, long value, boolean isSet) {
         String dftStr = "";
         if ( ! isSet )
             dftStr = "dft:";
@@ -307,6 +334,10 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
             return false;
         if ( !sameValues(params1.NodeMissCacheSize, params2.NodeMissCacheSize) )
             return false;
+        if ( !sameValues(params1.NodeId2NodeCacheOffHeapSize, params2.NodeId2NodeCacheOffHeapSize) )
+            return false;
+        if ( !sameValues(params1.leafCompression, params2.leafCompression) )
+            return false;
         if ( !sameValues(params1.nodeTableBaseName, params2.nodeTableBaseName) )
             return false;
         if ( !sameValues(params1.primaryIndexTriples, params2.primaryIndexTriples) )
@@ -337,10 +368,12 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
         result = prime * result + ((Node2NodeIdCacheSize == null) ? 0 : Node2NodeIdCacheSize.hashCode());
         result = prime * result + ((NodeId2NodeCacheSize == null) ? 0 : NodeId2NodeCacheSize.hashCode());
         result = prime * result + ((NodeMissCacheSize == null) ? 0 : NodeMissCacheSize.hashCode());
+        result = prime * result + ((NodeId2NodeCacheOffHeapSize == null) ? 0 : NodeId2NodeCacheOffHeapSize.hashCode());
         result = prime * result + ((blockReadCacheSize == null) ? 0 : blockReadCacheSize.hashCode());
         result = prime * result + ((blockSize == null) ? 0 : blockSize.hashCode());
         result = prime * result + ((blockWriteCacheSize == null) ? 0 : blockWriteCacheSize.hashCode());
         result = prime * result + ((fileMode == null) ? 0 : fileMode.hashCode());
+        result = prime * result + ((leafCompression == null) ? 0 : leafCompression.hashCode());
         result = prime * result + ((nodeTableBaseName == null) ? 0 : nodeTableBaseName.hashCode());
         result = prime * result + ((prefixTableBaseName == null) ? 0 : prefixTableBaseName.hashCode());
         result = prime * result + ((prefixIndexes == null) ? 0 : prefixIndexes.hashCode());
@@ -376,6 +409,11 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
                 return false;
         } else if ( !NodeMissCacheSize.equals(other.NodeMissCacheSize) )
             return false;
+        if ( NodeId2NodeCacheOffHeapSize == null ) {
+            if ( other.NodeId2NodeCacheOffHeapSize != null )
+                return false;
+        } else if ( !NodeId2NodeCacheOffHeapSize.equals(other.NodeId2NodeCacheOffHeapSize) )
+            return false;
         if ( blockReadCacheSize == null ) {
             if ( other.blockReadCacheSize != null )
                 return false;
@@ -396,6 +434,11 @@ public class StoreParams implements IndexParams, StoreParamsDynamic
                 return false;
         } else if ( !fileMode.equals(other.fileMode) )
             return false;
+        if ( leafCompression == null ) {
+            if ( other.leafCompression != null )
+                return false;
+        } else if ( !leafCompression.equals(other.leafCompression) )
+            return false;
         if ( nodeTableBaseName == null ) {
             if ( other.nodeTableBaseName != null )
                 return false;
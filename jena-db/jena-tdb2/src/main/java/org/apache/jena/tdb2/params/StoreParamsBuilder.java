@@ -74,10 +74,14 @@ public class StoreParamsBuilder {
 
     private Item<Integer>            NodeMissCacheSize     = new Item<>(StoreParamsConst.NodeMissCacheSize, false);
 
+    private Item<Long>               NodeId2NodeCacheOffHeapSize = new Item<>(StoreParamsConst.NodeId2NodeCacheOffHeapSize, false);
+
     /** Database layout - ignored after a database is created */
 
     private Item<Integer>            blockSize             = new Item<>(StoreParamsConst.blockSize, false);
 
+    private Item<Boolean>            leafCompression       = new Item<>(StoreParamsConst.leafCompression, false);
+
     private Item<String>             nodeTableBaseName     = new Item<>(StoreParamsConst.nodeTableBaseName, false);
 
     private Item<String>             primaryIndexTriples   = new Item<>(StoreParamsConst.primaryIndexTriples, false);
@@ -130,6 +134,9 @@ public class StoreParamsBuilder {
         if ( additionalParams.isSetNodeMissCacheSize() )
             b.nodeMissCacheSize(additionalParams.getNodeMissCacheSize());
 
+        if ( additionalParams.isSetNodeId2NodeCacheOffHeapSize() )
+            b.nodeId2NodeCacheOffHeapSize(additionalParams.getNodeId2NodeCacheOffHeapSize());
+
         return b.build();
     }
 
@@ -145,7 +152,9 @@ public class StoreParamsBuilder {
         this.Node2NodeIdCacheSize   = other.Node2NodeIdCacheSize;
         this.NodeId2NodeCacheSize   = other.NodeId2NodeCacheSize;
         this.NodeMissCacheSize      = other.NodeMissCacheSize;
+        this.NodeId2NodeCacheOffHeapSize = other.NodeId2NodeCacheOffHeapSize;
 
+        this.leafCompression        = other.leafCompression;
         this.nodeTableBaseName      = other.nodeTableBaseName;
 
         this.primaryIndexTriples    = other.primaryIndexTriples;
@@ -162,7 +171,8 @@ public class StoreParamsBuilder {
     public StoreParams build() {
         return new StoreParams(
                  fileMode, blockSize, blockReadCacheSize, blockWriteCacheSize,
-                 Node2NodeIdCacheSize, NodeId2NodeCacheSize, NodeMissCacheSize,
+                 Node2NodeIdCacheSize, NodeId2NodeCacheSize, NodeMissCacheSize, NodeId2NodeCacheOffHeapSize,
+                 leafCompression,
                  nodeTableBaseName,
                  primaryIndexTriples, tripleIndexes,
                  primaryIndexQuads, quadIndexes,
@@ -233,6 +243,26 @@ public class StoreParamsBuilder {
        return this;
    }
 
+    public long getNodeId2NodeCacheOffHeapSize() {
+        return NodeId2NodeCacheOffHeapSize.value;
+    }
+
+   /** Size in bytes of the off-heap NodeId{@literal ->}Node cache; zero or less means "not used". */
+   public StoreParamsBuilder nodeId2NodeCacheOffHeapSize(long nodeId2NodeCacheOffHeapSize) {
+       NodeId2NodeCacheOffHeapSize = new Item<>(nodeId2NodeCacheOffHeapSize, true);
+       return this;
+   }
+
+   public boolean isLeafCompression() {
+       return leafCompression.value;
+   }
+
+   /** Prefix-compress the records blocks of the indexes. Only applies when a database is created. */
+   public StoreParamsBuilder leafCompression(boolean leafCompression) {
+       this.leafCompression = new Item<>(leafCompression, true);
+       return this;
+   }
+
    public String getNodeTableBaseName() {
        return nodeTableBaseName.value;
    }
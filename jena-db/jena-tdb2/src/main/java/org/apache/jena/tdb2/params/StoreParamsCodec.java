@@ -93,6 +93,11 @@ public class StoreParamsCodec {
         encode(builder, key(fNode2NodeIdCacheSize),     params.getNode2NodeIdCacheSize());
         encode(builder, key(fNodeId2NodeCacheSize),     params.getNodeId2NodeCacheSize());
         encode(builder, key(fNodeMissCacheSize),        params.getNodeMissCacheSize());
+        // Later additions: written only when set, so that existing files are unchanged.
+        if ( params.isSetNodeId2NodeCacheOffHeapSize() )
+            encode(builder, key(fNodeId2NodeCacheOffHeapSize), params.getNodeId2NodeCacheOffHeapSize());
+        if ( params.isSetLeafCompression() )
+            encode(builder, key(fLeafCompression),      params.isLeafCompression());
         encode(builder, key(fNodeTableBaseName),        params.getNodeTableBaseName());
         encode(builder, key(fPrimaryIndexTriples),      params.getPrimaryIndexTriples());
         encode(builder, key(fTripleIndexes),            params.getTripleIndexes());
@@ -133,7 +138,9 @@ public class StoreParamsCodec {
                 case fNode2NodeIdCacheSize:    builder.node2NodeIdCacheSize(getInt(json, key));            break ;
                 case fNodeId2NodeCacheSize:    builder.nodeId2NodeCacheSize(getInt(json, key));            break ;
                 case fNodeMissCacheSize:       builder.nodeMissCacheSize(getInt(json, key));               break ;
+                case fNodeId2NodeCacheOffHeapSize: builder.nodeId2NodeCacheOffHeapSize(getLong(json, key)); break ;
 
+                case fLeafCompression:         builder.leafCompression(getBoolean(json, key));             break ;
                 case fNodeTableBaseName:       builder.nodeTableBaseName(getString(json, key));            break ;
                 case fPrimaryIndexTriples:     builder.primaryIndexTriples(getString(json, key));          break ;
                 case fTripleIndexes:           builder.tripleIndexes(getStringArray(json, key));           break ;
@@ -167,6 +174,20 @@ public class StoreParamsCodec {
         return x;
     }
 
+    private static Long getLong(JsonObject json, String key) {
+        if ( ! json.hasKey(key) )
+            throw new TDBException("StoreParamsCodec.getLong: no such key: "+key);
+        Long x = json.get(key).getAsNumber().value().longValue();
+        return x;
+    }
+
+    private static Boolean getBoolean(JsonObject json, String key) {
+        if ( ! json.hasKey(key) )
+            throw new TDBException("StoreParamsCodec.getBoolean: no such key: "+key);
+        Boolean x = json.get(key).getAsBoolean().value();
+        return x;
+    }
+
     private static String[] getStringArray(JsonObject json, String key) {
         if ( ! json.hasKey(key) )
             throw new TDBException("StoreParamsCodec.getStringArray: no such key: "+key);
@@ -185,6 +206,10 @@ public class StoreParamsCodec {
             builder.key(name).value(x);
             return;
         }
+        if ( value instanceof Boolean ) {
+            builder.key(name).value(((Boolean)value).booleanValue());
+            return;
+        }
         if ( value instanceof String ) {
             builder.key(name).value(value.toString());
             return;
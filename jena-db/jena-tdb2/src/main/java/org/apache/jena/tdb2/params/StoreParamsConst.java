@@ -47,10 +47,16 @@ public class StoreParamsConst {
     public static final String   fNodeMissCacheSize    = "node_miss_cache_size";
     public static final int      NodeMissCacheSize     = SystemTDB.NodeMissCacheSize;
 
+    public static final String   fNodeId2NodeCacheOffHeapSize = "nodeid2node_cache_offheap_size";
+    public static final long     NodeId2NodeCacheOffHeapSize  = SystemTDB.NodeId2NodeCacheOffHeapSize;
+
     /** Database layout - ignored after a database is created */
     public static final String   fBlockSize            = "block_size";
     public static final int      blockSize             = SystemTDB.BlockSize;
 
+    public static final String   fLeafCompression      = "leaf_compression";
+    public static final boolean  leafCompression       = false;
+
     public static final String   fNodeTableBaseName    = "nodetable";
     public static final String   nodeTableBaseName     = Names.nodeTableBaseName;
 
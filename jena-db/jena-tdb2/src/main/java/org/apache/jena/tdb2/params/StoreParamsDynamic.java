@@ -50,5 +50,13 @@ public interface StoreParamsDynamic {
     /** Node cache for recording known misses */
     public Integer getNodeMissCacheSize();
     public boolean isSetNodeMissCacheSize();
+
+    /**
+     * Size, in bytes, of the off-heap NodeId{@literal ->}Node cache.
+     * When positive, this cache is used in place of the on-heap
+     * NodeId{@literal ->}Node cache.
+     */
+    public Long getNodeId2NodeCacheOffHeapSize();
+    public boolean isSetNodeId2NodeCacheOffHeapSize();
 }
 
@@ -36,17 +36,29 @@ public class BindingTDB extends BindingBase
 {
     private final NodeTable nodeTable;
     private final BindingNodeId idBinding;
+    // NodeIds already decoded, shared by a batch of bindings. May be null.
+    private final Map<NodeId, Node> decoded;
 
     private static final boolean caching = false;
     // Whether the cache is worthwhile is unclear - the NodeTable keeps a cache.
     private final Map<Var,Node> cache = ( caching ? new HashMap<>() : null );
 
     public BindingTDB(BindingNodeId idBinding, NodeTable nodeTable)
+    {
+        this(idBinding, nodeTable, null);
+    }
+
+    /**
+     * Binding with some or all of the NodeId{@literal ->}Node mapping already done.
+     * {@code decoded} is consulted before going to the {@link NodeTable}.
+     */
+    public BindingTDB(BindingNodeId idBinding, NodeTable nodeTable, Map<NodeId, Node> decoded)
     {
         // BindingNodeId contains the bindings actually used  copied down when created.
         super(idBinding.getParentBinding());
         this.idBinding = idBinding;
         this.nodeTable = nodeTable;
+        this.decoded = decoded;
     }
 
     @Override
@@ -123,7 +135,10 @@ public class BindingTDB extends BindingBase
                 return null;
             if ( NodeId.isDoesNotExist(id) )
                 return null;
-            n = nodeTable.getNodeForNodeId(id);
+            if ( decoded != null )
+                n = decoded.get(id);
+            if ( n == null )
+                n = nodeTable.getNodeForNodeId(id);
             if ( n == null )
                 // But there was to put it in the BindingNodeId.
                 throw new TDBException("No node in NodeTable for NodeId "+id);
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.*;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+
+/**
+ * Convert {@link BindingNodeId BindingNodeIds} to {@link Binding Bindings}, a
+ * block at a time.
+ * <p>
+ * For each block, the NodeIds of all the bindings are collected and passed to
+ * {@link NodeTable#bulkNodeIdToNode} in one call, which lets the node table read
+ * cache misses in file order. The bindings produced are {@link BindingTDB}
+ * with the decoded nodes already available.
+ */
+class IteratorNodeDecodeBatch implements Iterator<Binding> {
+
+    private final Iterator<BindingNodeId> input;
+    private final NodeTable nodeTable;
+    private final int batchSize;
+    private final Deque<Binding> pending;
+
+    IteratorNodeDecodeBatch(Iterator<BindingNodeId> input, NodeTable nodeTable, int batchSize) {
+        if ( batchSize <= 0 )
+            throw new IllegalArgumentException("Batch size must be positive: "+batchSize);
+        this.input = input;
+        this.nodeTable = nodeTable;
+        this.batchSize = batchSize;
+        this.pending = new ArrayDeque<>(batchSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ( ! pending.isEmpty() )
+            return true;
+        if ( ! input.hasNext() )
+            return false;
+        fill();
+        return ! pending.isEmpty();
+    }
+
+    @Override
+    public Binding next() {
+        if ( ! hasNext() )
+            throw new NoSuchElementException();
+        return pending.removeFirst();
+    }
+
+    private void fill() {
+        List<BindingNodeId> block = new ArrayList<>(batchSize);
+        Set<NodeId> ids = new LinkedHashSet<>();
+        while ( block.size() < batchSize && input.hasNext() ) {
+            BindingNodeId bnid = input.next();
+            block.add(bnid);
+            for ( Var v : bnid ) {
+                NodeId id = bnid.get(v);
+                if ( id != null && ! NodeId.isDoesNotExist(id) && ! NodeId.isAny(id) )
+                    ids.add(id);
+            }
+        }
+        List<NodeId> idList = new ArrayList<>(ids);
+        List<Node> nodes = nodeTable.bulkNodeIdToNode(idList);
+        Map<NodeId, Node> decoded = new HashMap<>(2*idList.size());
+        for ( int i = 0 ; i < idList.size() ; i++ ) {
+            Node n = nodes.get(i);
+            if ( n != null )
+                decoded.put(idList.get(i), n);
+        }
+        for ( BindingNodeId bnid : block )
+            pending.addLast(new BindingTDB(bnid, nodeTable, decoded));
+    }
+}
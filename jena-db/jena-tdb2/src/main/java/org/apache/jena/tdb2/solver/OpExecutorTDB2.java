@@ -18,12 +18,15 @@
 
 package org.apache.jena.tdb2.solver;
 
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.atlas.logging.Log;
+import org.apache.jena.dboe.transaction.txn.Transaction;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
+import org.apache.jena.query.TxnType;
 import org.apache.jena.sparql.ARQInternalErrorException;
 import org.apache.jena.sparql.algebra.Op;
 import org.apache.jena.sparql.algebra.op.*;
@@ -354,6 +357,44 @@ public class OpExecutorTDB2 extends OpExecutor
             return SolverLibTDB.testForGraphName(ds, dsNames.getGraphNode(), input, filter, execCxt);
     }
 
+    /** Pool threads can read in a transaction of their own when this thread is in a READ transaction. */
+    @Override
+    protected boolean readInParallel() {
+        return readTransaction() != null;
+    }
+
+    /**
+     * Run the work on the pool thread in a READ transaction on the same version of
+     * the database as this thread's transaction. If the version is not the same, do
+     * not run the work; it is then done on this thread.
+     */
+    @Override
+    protected Consumer<Runnable> poolThreadRunner() {
+        Transaction txn = readTransaction();
+        if ( txn == null )
+            return super.poolThreadRunner();
+        DatasetGraphTDB dsg = ((GraphTDB)execCxt.getActiveGraph()).getDSG();
+        long version = txn.getDataVersion();
+        return work->{
+            dsg.begin(TxnType.READ);
+            try {
+                if ( dsg.getTxnSystem().getThreadTransaction().getDataVersion() == version )
+                    work.run();
+            } finally { dsg.end(); }
+        };
+    }
+
+    /** The transaction of this thread, if it is a READ transaction on a TDB2 database, else null. */
+    private Transaction readTransaction() {
+        if ( ! isForTDB )
+            return null;
+        DatasetGraphTDB dsg = ((GraphTDB)execCxt.getActiveGraph()).getDSG();
+        Transaction txn = dsg.getTxnSystem().getThreadTransaction();
+        if ( txn == null || txn.getTxnType() != TxnType.READ )
+            return null;
+        return txn;
+    }
+
     // ---- OpExecute factories and plain executor.
 
     private static OpExecutorFactory plainFactory = new OpExecutorPlainFactoryTDB();
@@ -43,6 +43,7 @@ import org.apache.jena.tdb2.store.GraphTDB;
 import org.apache.jena.tdb2.store.NodeId;
 import org.apache.jena.tdb2.store.nodetable.NodeTable;
 import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
+import org.apache.jena.tdb2.sys.SystemTDB;
 
 /**
  * Entry to the basic pattern solver for TDB2.
@@ -102,14 +103,24 @@ public class PatternMatchTDB2 {
         Iterator<BindingNodeId> chain = Iter.map(input, SolverLibTDB.convFromBinding(nodeTable));
         List<Abortable> killList = new ArrayList<>();
 
-        for ( Triple triple : triples ) {
-            Tuple<Node> patternTuple = null;
-            if ( graphNode == null )
-                // 3-tuples
-                patternTuple = TupleFactory.create3(triple.getSubject(), triple.getPredicate(), triple.getObject());
-            else
-                // 4-tuples.
-                patternTuple = TupleFactory.create4(graphNode, triple.getSubject(), triple.getPredicate(), triple.getObject());
+        boolean mergeJoin = !anyGraph && execCxt.getContext().isTrue(SystemTDB.symMergeJoin);
+
+        for ( int i = 0 ; i < triples.size() ; i++ ) {
+            Triple triple = triples.get(i);
+            if ( mergeJoin ) {
+                // Patterns that share a variable, and can be read in order of that variable, are merged.
+                StageMergeJoin.Run run = mergeJoinRun(triples, i);
+                if ( run != null ) {
+                    List<Tuple<Node>> patternTuples = new ArrayList<>(run.length);
+                    for ( int j = i ; j < i+run.length ; j++ )
+                        patternTuples.add(patternTuple(graphNode, triples.get(j)));
+                    chain = StageMergeJoin.access(nodeTupleTable, chain, patternTuples, run.var, filter, execCxt);
+                    chain = makeAbortable(chain, killList);
+                    i += run.length-1;
+                    continue;
+                }
+            }
+            Tuple<Node> patternTuple = patternTuple(graphNode, triple);
             // Plain RDF, no RDF-star
             // chain = solve(nodeTupleTable, tuple, anyGraph, chain, filter, execCxt)
             // ;
@@ -119,13 +130,35 @@ public class PatternMatchTDB2 {
             chain = makeAbortable(chain, killList);
         }
 
-        Iterator<Binding> iterBinding = SolverLibTDB.convertToNodes(chain, nodeTable);
+        int batchSize = execCxt.getContext().getInt(SystemTDB.symNodeDecodeBatchSize, 0);
+        Iterator<Binding> iterBinding = SolverLibTDB.convertToNodes(chain, nodeTable, batchSize);
 
         // "input" will be closed by QueryIterAbortable but is otherwise unused.
         // "killList" will be aborted on timeout.
         return new QueryIterAbortable(iterBinding, killList, input, execCxt);
     }
 
+    private static Tuple<Node> patternTuple(Node graphNode, Triple triple) {
+        if ( graphNode == null )
+            // 3-tuples
+            return TupleFactory.create3(triple.getSubject(), triple.getPredicate(), triple.getObject());
+        // 4-tuples.
+        return TupleFactory.create4(graphNode, triple.getSubject(), triple.getPredicate(), triple.getObject());
+    }
+
+    /** A run of patterns, starting at {@code start}, for merge join, or null. RDF-star triple terms are excluded. */
+    private static StageMergeJoin.Run mergeJoinRun(List<Triple> triples, int start) {
+        StageMergeJoin.Run run = StageMergeJoin.findRun(triples, start);
+        if ( run == null )
+            return null;
+        for ( int j = start ; j < start+run.length ; j++ ) {
+            Triple t = triples.get(j);
+            if ( t.getSubject().isNodeTriple() || t.getPredicate().isNodeTriple() || t.getObject().isNodeTriple() )
+                return null;
+        }
+        return run;
+    }
+
     private static Iterator<BindingNodeId> matchQuadPattern(Iterator<BindingNodeId> chain, Node graphNode, Triple tPattern,
                                                             NodeTupleTable nodeTupleTable, Tuple<Node> patternTuple, boolean anyGraph,
                                                             Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
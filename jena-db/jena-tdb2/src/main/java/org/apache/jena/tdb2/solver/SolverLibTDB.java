@@ -60,6 +60,16 @@ public class SolverLibTDB
     static Iterator<Binding> convertToNodes(Iterator<BindingNodeId> iterBindingIds, NodeTable nodeTable)
     { return Iter.map(iterBindingIds, bindingNodeIds -> convToBinding(bindingNodeIds, nodeTable)); }
 
+    /** Convert from Iterator<BindingNodeId> to Iterator<Binding>, decoding the NodeIds
+     * for a block of {@code batchSize} bindings at a time.
+     * @see IteratorNodeDecodeBatch
+     */
+    static Iterator<Binding> convertToNodes(Iterator<BindingNodeId> iterBindingIds, NodeTable nodeTable, int batchSize) {
+        if ( batchSize <= 1 )
+            return convertToNodes(iterBindingIds, nodeTable);
+        return new IteratorNodeDecodeBatch(iterBindingIds, nodeTable, batchSize);
+    }
+
     static Binding convToBinding(BindingNodeId bindingNodeIds, NodeTable nodeTable) {
         if ( true )
             return new BindingTDB(bindingNodeIds, nodeTable);
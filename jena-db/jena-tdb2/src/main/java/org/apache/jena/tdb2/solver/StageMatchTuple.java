@@ -20,6 +20,7 @@ package org.apache.jena.tdb2.solver;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -62,37 +63,73 @@ class StageMatchTuple {
             System.out.println(x);
             iterMatches = x.iterator();
         }
+        return new MatchIterator(iterMatches, input, vars, filter, anyGraph);
+    }
 
-        // ** Allow a triple or quad filter here.
-        if ( filter != null )
-            iterMatches = Iter.filter(iterMatches, filter);
-
-        // If we want to reduce to RDF semantics over quads,
-        // we need to reduce the quads to unique triples.
-        // We do that by having the graph slot as "any", then running
-        // through a distinct-ifier.
-        // Assumes quads are GSPO in the matching tuple - zaps the first slot.
-        if ( anyGraph ) {
-            iterMatches = Iter.map(iterMatches, quadsToAnyTriples);
-            // Guaranteed
-            // iterMatches = Iter.distinct(iterMatches);
-
-            // This depends on the way indexes are chosen and
-            // the indexing pattern. It assumes that the index
-            // chosen ends in G so same triples are adjacent
-            // in a union query.
-            //
-            // If any slot is defined, then the index will be X??G.
-            // If no slot is defined, then the index will be ???G.
-            // But the TupleTable
-            // See TupleTable.scanAllIndex that ensures the latter.
-            // No G part way through.
-            iterMatches = Iter.distinctAdjacent(iterMatches);
+    /**
+     * Matches for one input binding: filter the tuples, reduce quads to triples for
+     * "any graph", and bind the variables, in one loop rather than a chain of
+     * iterator wrappers per stage.
+     * <p>
+     * If we want to reduce to RDF semantics over quads, we need to reduce the quads
+     * to unique triples. We do that by having the graph slot as "any", then removing
+     * adjacent duplicates. This depends on the way indexes are chosen and the indexing
+     * pattern. It assumes that the index chosen ends in G so same triples are adjacent
+     * in a union query. If any slot is defined, then the index will be X??G. If no slot
+     * is defined, then the index will be ???G. See TupleTable.scanAllIndex that ensures
+     * the latter.
+     */
+    private static class MatchIterator implements Iterator<BindingNodeId> {
+        private final Iterator<Tuple<NodeId>> iterMatches;
+        private final BindingNodeId input;
+        private final Var[] vars;
+        private final Predicate<Tuple<NodeId>> filter;
+        private final boolean anyGraph;
+        private Tuple<NodeId> previous = null;
+        private BindingNodeId slot = null;
+
+        MatchIterator(Iterator<Tuple<NodeId>> iterMatches, BindingNodeId input, Var[] vars,
+                      Predicate<Tuple<NodeId>> filter, boolean anyGraph) {
+            this.iterMatches = iterMatches;
+            this.input = input;
+            this.vars = vars;
+            this.filter = filter;
+            this.anyGraph = anyGraph;
         }
 
+        @Override
+        public boolean hasNext() {
+            if ( slot != null )
+                return true;
+            while ( iterMatches.hasNext() ) {
+                Tuple<NodeId> tuple = iterMatches.next();
+                // ** Allow a triple or quad filter here.
+                if ( filter != null && !filter.test(tuple) )
+                    continue;
+                if ( anyGraph ) {
+                    // Assumes quads are GSPO in the matching tuple - zaps the first slot.
+                    tuple = quadsToAnyTriples.apply(tuple);
+                    if ( tuple.equals(previous) )
+                        continue;
+                    previous = tuple;
+                }
+                BindingNodeId b = tupleToBinding(input, tuple, vars);
+                if ( b != null ) {
+                    slot = b;
+                    return true;
+                }
+            }
+            return false;
+        }
 
-        Function<Tuple<NodeId>, BindingNodeId> binder = tuple -> tupleToBinding(input, tuple, vars);
-        return Iter.iter(iterMatches).map(binder).removeNulls();
+        @Override
+        public BindingNodeId next() {
+            if ( !hasNext() )
+                throw new NoSuchElementException();
+            BindingNodeId b = slot;
+            slot = null;
+            return b;
+        }
     }
 
     private static BindingNodeId tupleToBinding(BindingNodeId input, Tuple<NodeId> tuple, Var[] var) {
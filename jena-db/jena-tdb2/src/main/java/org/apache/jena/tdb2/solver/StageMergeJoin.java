@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.iterator.PeekIterator;
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.atlas.lib.tuple.TupleFactory;
+import org.apache.jena.atlas.lib.tuple.TupleMap;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
+import org.apache.jena.tdb2.store.tupletable.TupleIndex;
+
+/**
+ * Merge join of several tuple patterns that share a variable.
+ * <p>
+ * If, for each pattern, there is an index where the fixed slots of the pattern
+ * come first followed by the slot of the join variable, then a range scan of that
+ * index returns matches in join variable order. The scans are merged, instead of
+ * probing the index once per match of the previous pattern. A scan that is behind
+ * the others skips ahead with a new index lookup ({@link TupleIndex#findFrom}).
+ * <p>
+ * The decision is made for each input binding. If the join variable is already
+ * bound, or a pattern has no suitable index, or no fixed slot before the join slot,
+ * the patterns are evaluated by {@link StageMatchTuple} as usual.
+ */
+class StageMergeJoin {
+
+    /**
+     * Find the longest run of triple patterns, starting at {@code start}, that all
+     * mention one variable exactly once. Return the variable and the run length, or
+     * null if there isn't a run of at least two patterns.
+     */
+    static Run findRun(List<Triple> triples, int start) {
+        Triple t0 = triples.get(start);
+        Var bestVar = null;
+        int bestLen = 1;
+        for ( Node n : new Node[] {t0.getSubject(), t0.getPredicate(), t0.getObject()} ) {
+            if ( ! Var.isVar(n) || occurrences(t0, n) != 1 )
+                continue;
+            int len = 1;
+            while ( start+len < triples.size() && occurrences(triples.get(start+len), n) == 1 )
+                len++;
+            if ( len > bestLen ) {
+                bestLen = len;
+                bestVar = Var.alloc(n);
+            }
+        }
+        return ( bestVar == null ) ? null : new Run(bestVar, bestLen);
+    }
+
+    static class Run {
+        final Var var;
+        final int length;
+        Run(Var var, int length) { this.var = var; this.length = length; }
+    }
+
+    private static int occurrences(Triple triple, Node n) {
+        int x = 0;
+        if ( n.equals(triple.getSubject()) ) x++;
+        if ( n.equals(triple.getPredicate()) ) x++;
+        if ( n.equals(triple.getObject()) ) x++;
+        return x;
+    }
+
+    /* Entry point */
+    static Iterator<BindingNodeId> access(NodeTupleTable nodeTupleTable, Iterator<BindingNodeId> input,
+                                          List<Tuple<Node>> patterns, Var joinVar,
+                                          Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
+        return Iter.flatMap(input, bnid -> access(nodeTupleTable, bnid, patterns, joinVar, filter, execCxt));
+    }
+
+    private static Iterator<BindingNodeId> access(NodeTupleTable nodeTupleTable, BindingNodeId input,
+                                                  List<Tuple<Node>> patterns, Var joinVar,
+                                                  Predicate<Tuple<NodeId>> filter, ExecutionContext execCxt) {
+        int N = patterns.size();
+        NodeTable nodeTable = nodeTupleTable.getNodeTable();
+        List<Scan> scans = new ArrayList<>(N);
+        int[] joinSlots = new int[N];
+        Var[][] vars = new Var[N][];
+
+        if ( input.containsKey(joinVar) )
+            return fallback(nodeTupleTable, input, patterns, filter, execCxt);
+
+        for ( int k = 0 ; k < N ; k++ ) {
+            Tuple<Node> pattern = patterns.get(k);
+            NodeId[] ids = new NodeId[pattern.len()];
+            vars[k] = new Var[pattern.len()];
+            joinSlots[k] = -1;
+            for ( int i = 0 ; i < pattern.len() ; i++ ) {
+                Node n = pattern.get(i);
+                if ( Var.isVar(n) ) {
+                    Var v = Var.alloc(n);
+                    ids[i] = input.get(v);
+                    if ( ids[i] == null ) {
+                        vars[k][i] = v;
+                        if ( v.equals(joinVar) )
+                            joinSlots[k] = i;
+                    }
+                } else {
+                    ids[i] = nodeTable.getNodeIdForNode(n);
+                    if ( NodeId.isDoesNotExist(ids[i]) )
+                        return Iter.nullIterator();
+                }
+                if ( NodeId.isDoesNotExist(ids[i]) )
+                    return Iter.nullIterator();
+            }
+            Tuple<NodeId> patternIds = TupleFactory.create(ids);
+            TupleIndex index = chooseIndex(nodeTupleTable.getTupleTable().getIndexes(), patternIds, joinSlots[k]);
+            if ( index == null )
+                return fallback(nodeTupleTable, input, patterns, filter, execCxt);
+            scans.add(new Scan(index, patternIds, joinSlots[k], filter));
+        }
+        return new MergeIterator(input, scans, vars);
+    }
+
+    private static Iterator<BindingNodeId> fallback(NodeTupleTable nodeTupleTable, BindingNodeId input,
+                                                    List<Tuple<Node>> patterns, Predicate<Tuple<NodeId>> filter,
+                                                    ExecutionContext execCxt) {
+        Iterator<BindingNodeId> chain = Iter.singleton(input);
+        for ( Tuple<Node> pattern : patterns )
+            chain = StageMatchTuple.access(nodeTupleTable, chain, pattern, filter, false, execCxt);
+        return chain;
+    }
+
+    /**
+     * Find an index that has all the fixed slots of the pattern as its leading
+     * slots, followed by the join slot. There must be at least one fixed slot,
+     * else the scan is of the whole index.
+     */
+    /*package*/ static TupleIndex chooseIndex(TupleIndex[] indexes, Tuple<NodeId> pattern, int joinSlot) {
+        if ( joinSlot < 0 )
+            return null;
+        int fixed = 0;
+        for ( int i = 0 ; i < pattern.len() ; i++ ) {
+            if ( ! NodeId.isAny(pattern.get(i)) )
+                fixed++;
+        }
+        if ( fixed == 0 )
+            return null;
+        for ( TupleIndex index : indexes ) {
+            if ( index == null )
+                continue;
+            TupleMap tmap = index.getMapping();
+            // Index slot "fixed" must be the join slot, and all before it fixed.
+            if ( tmap.getSlotIdx(fixed) != joinSlot )
+                continue;
+            if ( index.weight(pattern) == fixed )
+                return index;
+        }
+        return null;
+    }
+
+    // Number of entries a scan steps over before it skips ahead with an index lookup.
+    private static final int SeekDistance = 8;
+
+    /** A range scan of an index, in join slot order, that can skip ahead. */
+    private static class Scan {
+        private final TupleIndex index;
+        private final Tuple<NodeId> pattern;
+        private final int joinSlot;
+        private final Predicate<Tuple<NodeId>> filter;
+        private Iterator<Tuple<NodeId>> base;
+        private PeekIterator<Tuple<NodeId>> iter;
+
+        Scan(TupleIndex index, Tuple<NodeId> pattern, int joinSlot, Predicate<Tuple<NodeId>> filter) {
+            this.index = index;
+            this.pattern = pattern;
+            this.joinSlot = joinSlot;
+            this.filter = filter;
+            setIterator(index.find(pattern));
+        }
+
+        private void setIterator(Iterator<Tuple<NodeId>> iterator) {
+            if ( base != null )
+                Iter.close(base);
+            base = iterator;
+            iter = PeekIterator.create(filter == null ? base : Iter.filter(base, filter));
+        }
+
+        // Move to the first entry with join key at least "key".
+        void advanceTo(NodeId key) {
+            for ( int i = 0 ; iter.hasNext() && NodeIdFactory.compareByBytes(key(), key) < 0 ; i++ ) {
+                if ( i == SeekDistance ) {
+                    Iterator<Tuple<NodeId>> x = index.findFrom(pattern, joinSlot, key);
+                    if ( x != null ) {
+                        setIterator(x);
+                        continue;
+                    }
+                }
+                iter.next();
+            }
+        }
+
+        NodeId key() {
+            return iter.peek().get(joinSlot);
+        }
+    }
+
+    /** N-way merge of the scans, on the join slot of each. */
+    private static class MergeIterator implements Iterator<BindingNodeId> {
+        private final BindingNodeId input;
+        private final List<Scan> scans;
+        private final Var[][] vars;
+        private final Deque<BindingNodeId> pending = new ArrayDeque<>();
+        private boolean finished = false;
+
+        MergeIterator(BindingNodeId input, List<Scan> scans, Var[][] vars) {
+            this.input = input;
+            this.scans = scans;
+            this.vars = vars;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ( pending.isEmpty() && ! finished )
+                step();
+            return ! pending.isEmpty();
+        }
+
+        @Override
+        public BindingNodeId next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException();
+            return pending.removeFirst();
+        }
+
+        // Advance to the next key present in all scans and generate the
+        // solutions for that key.
+        private void step() {
+            NodeId max = null;
+            for ( Scan scan : scans ) {
+                if ( ! scan.iter.hasNext() ) {
+                    finish();
+                    return;
+                }
+                NodeId x = scan.key();
+                if ( max == null || NodeIdFactory.compareByBytes(x, max) > 0 )
+                    max = x;
+            }
+            boolean allEqual = true;
+            for ( Scan scan : scans ) {
+                scan.advanceTo(max);
+                if ( ! scan.iter.hasNext() ) {
+                    finish();
+                    return;
+                }
+                if ( ! scan.key().equals(max) )
+                    allEqual = false;
+            }
+            if ( ! allEqual )
+                return;
+            List<List<Tuple<NodeId>>> groups = new ArrayList<>(scans.size());
+            for ( Scan scan : scans ) {
+                List<Tuple<NodeId>> group = new ArrayList<>();
+                while ( scan.iter.hasNext() && scan.key().equals(max) )
+                    group.add(scan.iter.next());
+                groups.add(group);
+            }
+            product(groups, 0, input);
+        }
+
+        private void finish() {
+            finished = true;
+            scans.forEach(scan->Iter.close(scan.base));
+        }
+
+        private void product(List<List<Tuple<NodeId>>> groups, int k, BindingNodeId binding) {
+            if ( k == groups.size() ) {
+                pending.addLast(binding);
+                return;
+            }
+            for ( Tuple<NodeId> tuple : groups.get(k) ) {
+                BindingNodeId b = bind(binding, tuple, vars[k]);
+                if ( b != null )
+                    product(groups, k+1, b);
+            }
+        }
+
+        private static BindingNodeId bind(BindingNodeId input, Tuple<NodeId> tuple, Var[] vars) {
+            BindingNodeId output = new BindingNodeId(input);
+            for ( int i = 0 ; i < vars.length ; i++ ) {
+                Var v = vars[i];
+                if ( v == null )
+                    continue;
+                NodeId id = tuple.get(i);
+                if ( output.containsKey(v) ) {
+                    if ( ! output.get(v).equals(id) )
+                        return null;
+                    continue;
+                }
+                output.put(v, id);
+            }
+            return output;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver.stats;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Count distinct items: exactly for a few items, then estimated with a HyperLogLog
+ * sketch of fixed size (standard error about 3%).
+ */
+class DistinctCounter {
+    private static final int ExactLimit = 100;
+    private static final int P = 10;
+    private static final int M = 1 << P;
+
+    private Set<Object> exact = new HashSet<>();
+    private byte[] registers = null;
+
+    void add(Object item) {
+        if ( exact != null ) {
+            exact.add(item);
+            if ( exact.size() <= ExactLimit )
+                return;
+            registers = new byte[M];
+            exact.forEach(this::addSketch);
+            exact = null;
+            return;
+        }
+        addSketch(item);
+    }
+
+    private void addSketch(Object item) {
+        long h = mix(item.hashCode());
+        int idx = (int)(h >>> (64 - P));
+        long w = h << P;
+        int rank = ( w == 0 ) ? 64 - P + 1 : Long.numberOfLeadingZeros(w) + 1;
+        if ( rank > registers[idx] )
+            registers[idx] = (byte)rank;
+    }
+
+    long count() {
+        if ( exact != null )
+            return exact.size();
+        double sum = 0;
+        int zeros = 0;
+        for ( byte r : registers ) {
+            sum += 1.0 / (1L << r);
+            if ( r == 0 )
+                zeros++;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / M);
+        double estimate = alpha * M * M / sum;
+        if ( estimate <= 2.5 * M && zeros > 0 )
+            // Small range correction.
+            estimate = M * Math.log((double)M / zeros);
+        return Math.round(estimate);
+    }
+
+    // Spread the 32 bit hash code over 64 bits (SplitMix64 finalizer).
+    private static long mix(int hash) {
+        long z = hash * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver.stats;
+
+import java.util.*;
+
+/**
+ * The most frequent items of a stream, by the "space saving" algorithm: a fixed number
+ * of counters; an item not being counted replaces the one with the lowest count.
+ * Counts of frequent items are exact or slight overestimates.
+ */
+class FrequentItems<T> {
+    private final int capacity;
+    private final Map<T, Long> counters;
+
+    FrequentItems(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(2*capacity);
+    }
+
+    void add(T item) {
+        Long x = counters.get(item);
+        if ( x != null ) {
+            counters.put(item, x+1);
+            return;
+        }
+        if ( counters.size() < capacity ) {
+            counters.put(item, 1L);
+            return;
+        }
+        T minItem = null;
+        long min = Long.MAX_VALUE;
+        for ( Map.Entry<T, Long> e : counters.entrySet() ) {
+            if ( e.getValue() < min ) {
+                min = e.getValue();
+                minItem = e.getKey();
+            }
+        }
+        counters.remove(minItem);
+        counters.put(item, min+1);
+    }
+
+    /** The top k items, most frequent first. */
+    List<Map.Entry<T, Long>> top(int k) {
+        List<Map.Entry<T, Long>> entries = new ArrayList<>(counters.entrySet());
+        entries.sort(Map.Entry.<T, Long>comparingByValue().reversed());
+        return entries.subList(0, Math.min(k, entries.size()));
+    }
+}
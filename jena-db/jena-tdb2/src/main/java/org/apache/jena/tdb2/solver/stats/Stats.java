@@ -25,7 +25,9 @@ import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -47,28 +49,18 @@ public class Stats
 
     /** Write statistics */
     static public void write(String filename, StatsResults stats)
-    {
-        write(filename, stats.getPredicates(), stats.getTypes(), stats.getCount());
-    }
-
-    /** Write statistics */
-    static public void write(OutputStream output, StatsResults stats)
-    {
-        write(output, stats.getPredicates(), stats.getTypes(), stats.getCount());
-    }
-
-    static private void write(String filename, Map<Node, Integer> predicateStats, Map<Node, Integer> typeStats, long statsTotal)
     {
         // Write out the stats
         try (OutputStream statsOut = new BufferedOutputStream(new FileOutputStream(filename))) {
-            write(statsOut, predicateStats, typeStats, statsTotal);
+            write(statsOut, stats);
         } catch (IOException ex)
         { Log.warn(Stats.class, "Problem when writing stats file", ex); }
     }
 
-    static private void write(OutputStream output, Map<Node, Integer> predicateStats, Map<Node, Integer> typeStats, long statsTotal)
+    /** Write statistics */
+    static public void write(OutputStream output, StatsResults stats)
     {
-        Item item = format(predicateStats, typeStats, statsTotal);
+        Item item = format(stats);
         ItemWriter.write(output, item);
     }
 
@@ -88,13 +80,12 @@ public class Stats
         return stats;
     }
 
-    public static Item format(StatsResults stats)
+    public static Item format(StatsResults results)
     {
-        return format(stats.getPredicates(), stats.getTypes(), stats.getCount());
-    }
+        Map<Node, Integer> predicates = results.getPredicates();
+        Map<Node, Integer> types = results.getTypes();
+        long count = results.getCount();
 
-    private static Item format(Map<Node, Integer> predicates, Map<Node, Integer> types, long count)
-    {
         Item stats = Item.createList();
         ItemList statsList = stats.getList();
         statsList.add("stats");
@@ -118,6 +109,7 @@ public class Stats
             // Skip these - they just clog things up!
             if ( node.getURI().startsWith("http://www.w3.org/1999/02/22-rdf-syntax-ns#_") )
                 continue;
+            addPredicatePatterns(statsList, results, node, entry.getValue());
             addPair(statsList, node, NodeFactoryExtra.intToNode(entry.getValue()));
         }
 
@@ -127,6 +119,49 @@ public class Stats
         return stats;
     }
 
+    /**
+     * Patterns for a predicate from its distinct subjects and objects, and its
+     * frequent objects: the number of matches expected when the subject, or the
+     * object, is known. These go before the predicate entry, which adds fixed guesses
+     * for the same patterns, because the first matching pattern is used.
+     */
+    private static void addPredicatePatterns(ItemList statsList, StatsResults results, Node predicate, long count)
+    {
+        Long distinctSubjects = results.getDistinctSubjects().get(predicate);
+        Long distinctObjects = results.getDistinctObjects().get(predicate);
+        Map<Node, Long> frequent = results.getFrequentObjects().get(predicate);
+
+        if ( frequent != null && distinctObjects != null )
+        {
+            // Only objects well above the average are worth recording.
+            double average = (double)count / Math.max(1, distinctObjects);
+            List<Entry<Node, Long>> entries = new ArrayList<>(frequent.entrySet());
+            entries.sort(Entry.<Node, Long>comparingByValue().reversed());
+            for ( Entry<Node, Long> entry : entries )
+            {
+                Node object = entry.getKey();
+                if ( object.isBlank() || entry.getValue() < 2*average )
+                    continue;
+                addPattern(statsList, Item.createSymbol("VAR"), Item.createNode(predicate), Item.createNode(object), entry.getValue());
+            }
+        }
+        if ( distinctSubjects != null )
+            addPattern(statsList, Item.createSymbol("TERM"), Item.createNode(predicate), Item.createSymbol("ANY"),
+                       (double)count / Math.max(1, distinctSubjects));
+        if ( distinctObjects != null )
+            addPattern(statsList, Item.createSymbol("ANY"), Item.createNode(predicate), Item.createSymbol("TERM"),
+                       (double)count / Math.max(1, distinctObjects));
+    }
+
+    private static void addPattern(ItemList statsList, Item s, Item p, Item o, double weight)
+    {
+        ItemList triple = new ItemList();
+        triple.add(s);
+        triple.add(p);
+        triple.add(o);
+        addPair(statsList, Item.createList(triple), Item.createNode(NodeFactoryExtra.doubleToNode(weight)));
+    }
+
     private static void addTypeTriple(ItemList statsList, Node type, Node intCount)
     {
         ItemList triple = new ItemList();
@@ -20,17 +20,33 @@ package org.apache.jena.tdb2.solver.stats;
 
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.jena.graph.Node;
 
 /** Statistics collector, general purpose */
 abstract class StatsCollectorBase<T> {
+    /** Number of frequent objects recorded for each predicate. */
+    static final int TopObjects = 10;
+
     private long            count      = 0;
     private Map<T, Integer> predicates = new HashMap<>(10000);
     private Map<T, Integer> types      = new HashMap<>(10000);
+    private Map<T, PredicateStats<T>> predicateStats = new HashMap<>(10000);
     private T               typeTrigger;
 
+    // Per predicate: distinct subjects and objects, frequent objects.
+    private static class PredicateStats<T> {
+        final DistinctCounter subjects = new DistinctCounter();
+        final DistinctCounter objects = new DistinctCounter();
+        // Not for rdf:type - the type counts are exact.
+        final FrequentItems<T> frequentObjects;
+        PredicateStats(boolean frequentObjects) {
+            this.frequentObjects = frequentObjects ? new FrequentItems<>(4*TopObjects) : null;
+        }
+    }
+
     protected StatsCollectorBase(T typeTrigger) {
         this.typeTrigger = typeTrigger;
     }
@@ -38,13 +54,36 @@ abstract class StatsCollectorBase<T> {
     public void record(T g, T s, T p, T o) {
         count++;
         predicates.put(p, predicates.getOrDefault(p, 0) + 1);
-        if ( typeTrigger != null && typeTrigger.equals(p) )
+        boolean isType = typeTrigger != null && typeTrigger.equals(p);
+        if ( isType )
             types.put(o, types.getOrDefault(o, 0) + 1);
+        PredicateStats<T> pStats = predicateStats.computeIfAbsent(p, x->new PredicateStats<>(!isType));
+        pStats.subjects.add(s);
+        pStats.objects.add(o);
+        if ( pStats.frequentObjects != null )
+            pStats.frequentObjects.add(o);
     }
 
     protected abstract Map<Node, Integer> convert(Map<T, Integer> map);
 
+    protected abstract Node convert(T item);
+
     public StatsResults results() {
-        return new StatsResults(convert(predicates), convert(types), count);
+        Map<Node, Long> distinctSubjects = new HashMap<>();
+        Map<Node, Long> distinctObjects = new HashMap<>();
+        Map<Node, Map<Node, Long>> frequentObjects = new HashMap<>();
+        predicateStats.forEach((p, pStats)->{
+            Node pn = convert(p);
+            distinctSubjects.put(pn, pStats.subjects.count());
+            distinctObjects.put(pn, pStats.objects.count());
+            if ( pStats.frequentObjects != null ) {
+                List<Map.Entry<T, Long>> top = pStats.frequentObjects.top(TopObjects);
+                Map<Node, Long> x = new HashMap<>();
+                top.forEach(e->x.put(convert(e.getKey()), e.getValue()));
+                frequentObjects.put(pn, x);
+            }
+        });
+        return new StatsResults(convert(predicates), convert(types), count,
+                                distinctSubjects, distinctObjects, frequentObjects);
     }
 }
@@ -18,6 +18,7 @@
 
 package org.apache.jena.tdb2.solver.stats;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.jena.graph.Node;
@@ -28,12 +29,25 @@ public class StatsResults
     private final Map<Node, Integer> predicates;
     private final Map<Node, Integer> types;
     private final long count;
+    private final Map<Node, Long> distinctSubjects;
+    private final Map<Node, Long> distinctObjects;
+    private final Map<Node, Map<Node, Long>> frequentObjects;
 
     StatsResults(Map<Node, Integer> predicates, Map<Node, Integer> types, long count)
+    {
+        this(predicates, types, count, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    StatsResults(Map<Node, Integer> predicates, Map<Node, Integer> types, long count,
+                 Map<Node, Long> distinctSubjects, Map<Node, Long> distinctObjects,
+                 Map<Node, Map<Node, Long>> frequentObjects)
     {
         this.count = count;
         this.predicates = predicates;
         this.types = types;
+        this.distinctSubjects = distinctSubjects;
+        this.distinctObjects = distinctObjects;
+        this.frequentObjects = frequentObjects;
     }
 
     public Map<Node, Integer> getPredicates()
@@ -50,4 +64,22 @@ public class StatsResults
     {
         return count;
     }
+
+    /** Predicate to (estimated) number of distinct subjects */
+    public Map<Node, Long> getDistinctSubjects()
+    {
+        return distinctSubjects;
+    }
+
+    /** Predicate to (estimated) number of distinct objects */
+    public Map<Node, Long> getDistinctObjects()
+    {
+        return distinctObjects;
+    }
+
+    /** Predicate to its most frequent objects and their counts, except for rdf:type */
+    public Map<Node, Map<Node, Long>> getFrequentObjects()
+    {
+        return frequentObjects;
+    }
 }
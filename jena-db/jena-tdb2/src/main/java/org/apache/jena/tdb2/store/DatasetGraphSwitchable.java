@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.apache.jena.atlas.lib.Cache;
 import org.apache.jena.atlas.lib.CacheFactory;
 import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.dboe.transaction.GroupCommit;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.riot.system.PrefixMap;
@@ -87,6 +88,18 @@ public class DatasetGraphSwitchable extends DatasetGraphWrapper
     }
 
 
+    private GroupCommit groupCommit = null;
+
+    /**
+     * The {@link GroupCommit} for update requests on this dataset.
+     * It is created on first use, with the maximum group size given.
+     */
+    public synchronized GroupCommit groupCommit(int maxGroupSize) {
+        if ( groupCommit == null )
+            groupCommit = new GroupCommit(this, maxGroupSize);
+        return groupCommit;
+    }
+
     /** Don't do anything on close.
      *  This would not be safe across switches.
      */
@@ -180,6 +180,15 @@ public class NodeIdFactory
         Bytes.setLong(v2+1, b, idx);
     }
 
+    /**
+     * Compare two NodeIds by their on-disk form. This is the order
+     * of NodeIds in a slot of an index after any leading fixed slots.
+     */
+    public static int compareByBytes(NodeId nodeId1, NodeId nodeId2) {
+        // Records compare as unsigned bytes; the long is written big-endian.
+        return Long.compareUnsigned(encode(nodeId1), encode(nodeId2));
+    }
+
     // (int,long) versions : check before use
 //    /** Relative {@code ByteBuffer} {@code get} */
 //    public static NodeId get(ByteBuffer b)   {
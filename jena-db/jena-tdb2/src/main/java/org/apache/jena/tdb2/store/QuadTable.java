@@ -28,6 +28,7 @@ import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.tdb2.lib.TupleLib;
 import org.apache.jena.tdb2.store.nodetable.NodeTable;
 import org.apache.jena.tdb2.store.tupletable.TupleIndex;
+import org.apache.jena.tdb2.store.tupletable.TupleTable;
 
 /**
  * Quad table - a collection of TupleIndexes for 4-tuples together with a node
@@ -39,6 +40,10 @@ public class QuadTable extends TableBase {
         super(4, indexes, nodeTable);
     }
 
+    public QuadTable(TupleTable tupleTable, NodeTable nodeTable) {
+        super(tupleTable, nodeTable);
+    }
+
     /** Add a quad - return true if it was added, false if it already existed */
     public void add(Quad quad) {
         add(quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject());
@@ -22,7 +22,6 @@ import java.util.Iterator;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
-import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.dboe.storage.StorageRDF;
 import org.apache.jena.dboe.transaction.txn.Transaction;
 import org.apache.jena.dboe.transaction.txn.TransactionalSystem;
@@ -44,6 +43,18 @@ public class StorageTDB implements StorageRDF {
     // Normally, "false". "QuadAction.NO_*" are not used.
     private final boolean               checkForChange = false;
     private boolean                     closed         = false;
+    // Normally null. Set while changes need to be recorded, e.g. online compaction.
+    private volatile Monitor            monitor        = null;
+
+    /**
+     * Receiver of the changes made through a {@code StorageTDB}.
+     * The graph node is null for a triple in the default graph.
+     * Calls are made inside the write transaction, before the change is applied.
+     */
+    public interface Monitor {
+        public void add(Node g, Node s, Node p, Node o);
+        public void delete(Node g, Node s, Node p, Node o);
+    }
 
     public StorageTDB(TransactionalSystem txnSystem, TripleTable tripleTable, QuadTable quadTable) {
         this.txnSystem = txnSystem;
@@ -61,11 +72,28 @@ public class StorageTDB implements StorageRDF {
         return tripleTable;
     }
 
+    /** Set the {@link Monitor}, or null to remove it. */
+    public void setMonitor(Monitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public Monitor getMonitor() {
+        return monitor;
+    }
+
     private void checkActive() {}
 
-    private final void notifyAdd(Node g, Node s, Node p, Node o) { }
+    private final void notifyAdd(Node g, Node s, Node p, Node o) {
+        Monitor m = monitor;
+        if ( m != null )
+            m.add(g, s, p, o);
+    }
 
-    private final void notifyDelete(Node g, Node s, Node p, Node o) { }
+    private final void notifyDelete(Node g, Node s, Node p, Node o) {
+        Monitor m = monitor;
+        if ( m != null )
+            m.delete(g, s, p, o);
+    }
 
     @Override
     public void add(Node s, Node p, Node o) {
@@ -103,6 +131,12 @@ public class StorageTDB implements StorageRDF {
     public void removeAll(Node s, Node p, Node o) {
         checkActive();
         ensureWriteTxn();
+        if ( monitor != null ) {
+            // Delete by Node so that each deletion is notified.
+            removeWorker(() -> tripleTable.find(s, p, o),
+                         t  -> delete(t.getSubject(), t.getPredicate(), t.getObject()));
+            return;
+        }
         removeWorker(() -> tripleTable.getNodeTupleTable().findAsNodeIds(s,p,o),
                      x  -> tripleTable.getNodeTupleTable().getTupleTable().delete(x) );
     }
@@ -111,6 +145,11 @@ public class StorageTDB implements StorageRDF {
     public void removeAll(Node g, Node s, Node p, Node o) {
         checkActive();
         ensureWriteTxn();
+        if ( monitor != null ) {
+            removeWorker(() -> quadTable.find(g, s, p, o),
+                         q  -> delete(q.getGraph(), q.getSubject(), q.getPredicate(), q.getObject()));
+            return;
+        }
         removeWorker(() -> quadTable.getNodeTupleTable().findAsNodeIds(g,s,p,o),
                      x  -> quadTable.getNodeTupleTable().getTupleTable().delete(x) );
     }
@@ -118,13 +157,13 @@ public class StorageTDB implements StorageRDF {
     private static final int DeleteBufferSize = 1000;
 
     /** General purpose "remove by pattern" code */
-    private void removeWorker(Supplier<Iterator<Tuple<NodeId>>> finder, Consumer<Tuple<NodeId>> deleter) {
+    private <X> void removeWorker(Supplier<Iterator<X>> finder, Consumer<X> deleter) {
         // Allocate buffer once.
         // Not Java11 @SuppressWarnings("unchecked")
         //Tuple<NodeId>[] buffer = (Tuple<NodeId>[])new Object[DeleteBufferSize];
         Object[] buffer = new Object[DeleteBufferSize];
         while (true) {
-            Iterator<Tuple<NodeId>> iter = finder.get();
+            Iterator<X> iter = finder.get();
             // Get a slice
             int idx = 0;
             for (; idx < DeleteBufferSize; idx++ ) {
@@ -135,7 +174,7 @@ public class StorageTDB implements StorageRDF {
             // Delete them.
             for ( int i = 0; i < idx; i++ ) {
                 @SuppressWarnings("unchecked")
-                Tuple<NodeId> x = (Tuple<NodeId>)buffer[i];
+                X x = (X)buffer[i];
                 deleter.accept(x);
                 buffer[i] = null;
             }
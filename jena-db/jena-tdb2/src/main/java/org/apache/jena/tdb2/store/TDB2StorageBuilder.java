@@ -56,6 +56,8 @@ import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
 import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTableConcrete;
 import org.apache.jena.tdb2.store.tupletable.TupleIndex;
 import org.apache.jena.tdb2.store.tupletable.TupleIndexRecord;
+import org.apache.jena.tdb2.store.tupletable.TupleTable;
+import org.apache.jena.tdb2.store.tupletable.TupleTableBuffered;
 import org.apache.jena.tdb2.sys.ComponentIdMgr;
 import org.apache.jena.tdb2.sys.DatabaseConnection;
 import org.apache.jena.tdb2.sys.DatabaseOps;
@@ -230,7 +232,7 @@ public class TDB2StorageBuilder {
 
         if ( tripleIndexes.length != indexes.length )
             error(log, "Wrong number of triple table tuples indexes: "+tripleIndexes.length);
-        TripleTable tripleTable = new TripleTable(tripleIndexes, nodeTable);
+        TripleTable tripleTable = new TripleTable(makeTupleTable(3, tripleIndexes), nodeTable);
         return tripleTable;
     }
 
@@ -247,7 +249,7 @@ public class TDB2StorageBuilder {
 
         if ( tripleIndexes.length != indexes.length )
             error(log, "Wrong number of triple table tuples indexes: "+tripleIndexes.length);
-        QuadTable tripleTable = new QuadTable(tripleIndexes, nodeTable);
+        QuadTable tripleTable = new QuadTable(makeTupleTable(4, tripleIndexes), nodeTable);
         return tripleTable;
     }
 
@@ -272,6 +274,15 @@ public class TDB2StorageBuilder {
 
     // ---- Build structures
 
+    private TupleTable makeTupleTable(int tupleLen, TupleIndex[] indexes) {
+        int batchSize = SystemTDB.getIndexUpdateBatchSize();
+        if ( batchSize <= 0 )
+            return new TupleTable(tupleLen, indexes);
+        TupleTableBuffered tupleTable = new TupleTableBuffered(tupleLen, indexes, batchSize);
+        listeners.add(tupleTable);
+        return tupleTable;
+    }
+
     private TupleIndex[] makeTupleIndexes(String primary, String[] indexNames) {
         int indexRecordLen = primary.length()*SystemTDB.SizeOfNodeId;
         TupleIndex indexes[] = new TupleIndex[indexNames.length];
@@ -294,7 +305,7 @@ public class TDB2StorageBuilder {
     private RangeIndex makeRangeIndex(RecordFactory recordFactory, String name) {
         ComponentId cid = componentIdMgr.getComponentId(name);
         FileSet fs = new FileSet(location, name);
-        BPlusTree bpt = BPlusTreeFactory.createBPTree(cid, fs, recordFactory);
+        BPlusTree bpt = BPlusTreeFactory.createBPTree(cid, fs, recordFactory, params.isLeafCompression());
         components.add(bpt);
         return bpt;
     }
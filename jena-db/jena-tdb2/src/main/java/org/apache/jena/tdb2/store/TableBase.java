@@ -24,6 +24,7 @@ import org.apache.jena.tdb2.store.nodetable.NodeTable;
 import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
 import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTableConcrete;
 import org.apache.jena.tdb2.store.tupletable.TupleIndex;
+import org.apache.jena.tdb2.store.tupletable.TupleTable;
 
 public class TableBase implements Sync, Closeable
 {
@@ -33,6 +34,10 @@ public class TableBase implements Sync, Closeable
         table = new NodeTupleTableConcrete(N, indexes, nodeTable);
     }
 
+    protected TableBase(TupleTable tupleTable, NodeTable nodeTable) {
+        table = new NodeTupleTableConcrete(tupleTable, nodeTable);
+    }
+
     public NodeTupleTable getNodeTupleTable()   { return table; }
 
     @Override
@@ -27,6 +27,7 @@ import org.apache.jena.graph.Triple;
 import org.apache.jena.tdb2.lib.TupleLib;
 import org.apache.jena.tdb2.store.nodetable.NodeTable;
 import org.apache.jena.tdb2.store.tupletable.TupleIndex;
+import org.apache.jena.tdb2.store.tupletable.TupleTable;
 
 /**
  * TripleTable - a collection of TupleIndexes for 3-tuples together with a node
@@ -39,6 +40,10 @@ public class TripleTable extends TableBase {
         super(3, indexes, nodeTable);
     }
 
+    public TripleTable(TupleTable tupleTable, NodeTable nodeTable) {
+        super(tupleTable, nodeTable);
+    }
+
     /** Add triple */
     public void add(Triple triple) {
         add(triple.getSubject(), triple.getPredicate(), triple.getObject());
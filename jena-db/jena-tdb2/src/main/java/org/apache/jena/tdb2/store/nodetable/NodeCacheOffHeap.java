@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.nodetable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.graph.Node;
+import org.apache.jena.riot.thrift.TRDF;
+import org.apache.jena.riot.thrift.ThriftConvert;
+import org.apache.jena.riot.thrift.wire.RDF_Term;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TProtocol;
+
+/**
+ * A NodeId{@literal ->}Node cache that keeps the nodes, in their RDF Thrift
+ * encoding, outside the Java heap. Nodes are decoded on each cache hit.
+ * <p>
+ * Only {@link NodeId#isPtr() pointer} NodeIds are cached; other NodeIds are
+ * inline values and never reach the node table cache.
+ *
+ * @see OffHeapLongBytesTable
+ */
+public class NodeCacheOffHeap implements Cache<NodeId, Node> {
+
+    private final OffHeapLongBytesTable table;
+
+    // Decoding is done on the reading thread; each thread reuses its transport and protocol.
+    private static class Decoder {
+        final TReadViewTransport transport = new TReadViewTransport();
+        final TProtocol protocol = TRDF.protocol(transport);
+    }
+
+    private static final ThreadLocal<Decoder> decoders = ThreadLocal.withInitial(Decoder::new);
+
+    public NodeCacheOffHeap(long sizeInBytes) {
+        this.table = new OffHeapLongBytesTable(sizeInBytes);
+    }
+
+    @Override
+    public boolean containsKey(NodeId key) {
+        if ( ! key.isPtr() )
+            return false;
+        return table.contains(key.getPtrLocation());
+    }
+
+    @Override
+    public Node getIfPresent(NodeId key) {
+        if ( ! key.isPtr() )
+            return null;
+        byte[] bytes = table.get(key.getPtrLocation());
+        if ( bytes == null )
+            return null;
+        return decode(bytes);
+    }
+
+    @Override
+    public Node getOrFill(NodeId key, Callable<Node> callable) {
+        synchronized(this) {
+            Node value = getIfPresent(key);
+            if ( value != null )
+                return value;
+            try { value = callable.call(); }
+            catch (RuntimeException ex) { throw ex; }
+            catch (Exception ex) { throw new TDBException("Exception filling cache", ex); }
+            if ( value != null )
+                put(key, value);
+            return value;
+        }
+    }
+
+    @Override
+    public void put(NodeId key, Node node) {
+        if ( ! key.isPtr() || node == null )
+            return;
+        table.put(key.getPtrLocation(), encode(node));
+    }
+
+    @Override
+    public void remove(NodeId key) {
+        if ( ! key.isPtr() )
+            return;
+        table.remove(key.getPtrLocation());
+    }
+
+    @Override
+    public Iterator<NodeId> keys() {
+        return Iter.map(table.keys().iterator(), NodeIdFactory::createPtr);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        table.clear();
+    }
+
+    @Override
+    public long size() {
+        return table.size();
+    }
+
+    /** Release the off-heap memory. The cache is then empty and ignores changes. */
+    public void close() {
+        table.close();
+    }
+
+    /**
+     * Entries are dropped a generation at a time, without decoding, so there are no
+     * drop notifications. The handler is ignored.
+     */
+    @Override
+    public void setDropHandler(BiConsumer<NodeId, Node> dropHandler) {}
+
+    private static byte[] encode(Node node) {
+        RDF_Term term = ThriftConvert.convert(node, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        TProtocol protocol = TRDF.protocol(out);
+        try {
+            term.write(protocol);
+            TRDF.flush(protocol);
+        } catch (TException ex) {
+            throw new TDBException("NodeCacheOffHeap/encode", ex);
+        }
+        return out.toByteArray();
+    }
+
+    private static Node decode(byte[] bytes) {
+        Decoder decoder = decoders.get();
+        decoder.transport.setView(ByteBuffer.wrap(bytes));
+        decoder.protocol.reset();
+        RDF_Term term = new RDF_Term();
+        try {
+            term.read(decoder.protocol);
+        } catch (TException ex) {
+            throw new TDBException("NodeCacheOffHeap/decode", ex);
+        } finally {
+            decoder.transport.setView(null);
+        }
+        return ThriftConvert.convert(term);
+    }
+}
@@ -64,6 +64,8 @@ public class NodeTableCache implements NodeTable, TransactionListener {
 
     private ThreadBufferingCache<Node, NodeId> node2id_Cache = null;
     private ThreadBufferingCache<NodeId, Node> id2node_Cache = null;
+    // The off-heap cache under id2node_Cache, if used. Closed with this node table.
+    private NodeCacheOffHeap id2node_OffHeap = null;
 
     // A small cache of "known unknowns" to speed up searching for impossible things.
     private Cache<Node, Object> notPresent    = null;
@@ -74,22 +76,27 @@ public class NodeTableCache implements NodeTable, TransactionListener {
     public static NodeTable create(NodeTable nodeTable, StoreParams params) {
         int nodeToIdCacheSize = params.getNode2NodeIdCacheSize();
         int idToNodeCacheSize = params.getNodeId2NodeCacheSize();
-        if ( nodeToIdCacheSize <= 0 && idToNodeCacheSize <= 0 )
+        long idToNodeOffHeapBytes = params.getNodeId2NodeCacheOffHeapSize();
+        if ( nodeToIdCacheSize <= 0 && idToNodeCacheSize <= 0 && idToNodeOffHeapBytes <= 0 )
             return nodeTable;
-        return create(nodeTable, nodeToIdCacheSize, idToNodeCacheSize, params.getNodeMissCacheSize());
+        return create(nodeTable, nodeToIdCacheSize, idToNodeCacheSize, idToNodeOffHeapBytes, params.getNodeMissCacheSize());
     }
 
-    private static NodeTable create(NodeTable nodeTable, int nodeToIdCacheSize, int idToNodeCacheSize, int nodeMissesCacheSize) {
-        if ( nodeToIdCacheSize <= 0 && idToNodeCacheSize <= 0 )
+    private static NodeTable create(NodeTable nodeTable, int nodeToIdCacheSize, int idToNodeCacheSize, long idToNodeOffHeapBytes, int nodeMissesCacheSize) {
+        if ( nodeToIdCacheSize <= 0 && idToNodeCacheSize <= 0 && idToNodeOffHeapBytes <= 0 )
             return nodeTable;
-        return new NodeTableCache(nodeTable, nodeToIdCacheSize, idToNodeCacheSize, nodeMissesCacheSize);
+        return new NodeTableCache(nodeTable, nodeToIdCacheSize, idToNodeCacheSize, idToNodeOffHeapBytes, nodeMissesCacheSize);
     }
 
-    private NodeTableCache(NodeTable baseTable, int nodeToIdCacheSize, int idToNodeCacheSize, int nodeMissesCacheSize) {
+    private NodeTableCache(NodeTable baseTable, int nodeToIdCacheSize, int idToNodeCacheSize, long idToNodeOffHeapBytes, int nodeMissesCacheSize) {
         this.baseTable = baseTable;
         if ( nodeToIdCacheSize > 0 )
             node2id_Cache = createCache("nodeToId", nodeToIdCacheSize, 1000);
-        if ( idToNodeCacheSize > 0 )
+        // The off-heap cache, if configured, replaces the on-heap NodeId->Node cache.
+        if ( idToNodeOffHeapBytes > 0 ) {
+            id2node_OffHeap = new NodeCacheOffHeap(idToNodeOffHeapBytes);
+            id2node_Cache = new ThreadBufferingCache<>("idToNode", id2node_OffHeap, 1000);
+        } else if ( idToNodeCacheSize > 0 )
             id2node_Cache = createCache("idToNode", idToNodeCacheSize, 1000);
         if ( nodeMissesCacheSize > 0 )
             notPresent = CacheFactory.createCache(nodeMissesCacheSize);
@@ -180,7 +187,33 @@ public class NodeTableCache implements NodeTable, TransactionListener {
 
     @Override
     public List<Node> bulkNodeIdToNode(List<NodeId> nodeIds) {
-        return NodeTableOps.bulkNodeIdToNodeImpl(this, nodeIds);
+        List<Node> nodes = new ArrayList<>(nodeIds.size());
+        List<Integer> missIdx = null;
+        for ( int i = 0; i < nodeIds.size() ; i++ ) {
+            NodeId id = nodeIds.get(i);
+            Node n = ( NodeId.isDoesNotExist(id) || NodeId.isAny(id) ) ? null : cacheLookup(id);
+            if ( n == null && ! NodeId.isDoesNotExist(id) && ! NodeId.isAny(id) ) {
+                if ( missIdx == null )
+                    missIdx = new ArrayList<>();
+                missIdx.add(i);
+            }
+            nodes.add(n);
+        }
+        if ( missIdx == null )
+            return nodes;
+        // Go to the base table once for all the misses.
+        List<NodeId> misses = new ArrayList<>(missIdx.size());
+        for ( int i : missIdx )
+            misses.add(nodeIds.get(i));
+        synchronized (lock) {
+            List<Node> x = baseTable.bulkNodeIdToNode(misses);
+            for ( int j = 0; j < misses.size() ; j++ ) {
+                Node n = x.get(j);
+                cacheUpdate(n, misses.get(j));
+                nodes.set(missIdx.get(j), n);
+            }
+        }
+        return nodes;
     }
 
     // ---- The worker functions
@@ -385,8 +418,11 @@ public class NodeTableCache implements NodeTable, TransactionListener {
             // Already closed
             return;
         baseTable.close();
+        if ( id2node_OffHeap != null )
+            id2node_OffHeap.close();
         node2id_Cache = null;
         id2node_Cache = null;
+        id2node_OffHeap = null;
         notPresent = null;
         baseTable = null;
         writingThread = null;
@@ -18,6 +18,9 @@
 
 package org.apache.jena.tdb2.store.nodetable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.jena.graph.Node;
 import org.apache.jena.tdb2.store.NodeId;
 
@@ -65,6 +68,29 @@ public class NodeTableInline extends NodeTableWrapper
         return super.getNodeForNodeId(id);
     }
 
+    @Override
+    public List<Node> bulkNodeIdToNode(List<NodeId> nodeIds)
+    {
+        // Decode inline NodeIds here; pass the rest down as one batch.
+        List<Node> nodes = new ArrayList<>(nodeIds.size());
+        List<NodeId> stored = new ArrayList<>();
+        for ( NodeId id : nodeIds ) {
+            Node n = NodeId.extract(id);
+            if ( n == null )
+                stored.add(id);
+            nodes.add(n);
+        }
+        if ( stored.isEmpty() )
+            return nodes;
+        List<Node> storedNodes = super.bulkNodeIdToNode(stored);
+        int j = 0;
+        for ( int i = 0 ; i < nodes.size() ; i++ ) {
+            if ( nodes.get(i) == null )
+                nodes.set(i, storedNodes.get(j++));
+        }
+        return nodes;
+    }
+
     @Override
     public String toString() { return "Inline("+nodeTable.toString()+")"; }
 }
@@ -18,6 +18,7 @@
 
 package org.apache.jena.tdb2.store.nodetable;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
@@ -77,9 +78,40 @@ public abstract class NodeTableNative implements NodeTable
         return NodeTableOps.bulkNodeToNodeIdImpl(this, nodes, withAllocation);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The nodes are read from storage in file order, so a large batch
+     * becomes one forward pass over the node file, not random reads.
+     */
     @Override
     public List<Node> bulkNodeIdToNode(List<NodeId> nodeIds) {
-        return NodeTableOps.bulkNodeIdToNodeImpl(this, nodeIds);
+        int N = nodeIds.size();
+        Integer[] order = new Integer[N];
+        for ( int i = 0 ; i < N ; i++ )
+            order[i] = i;
+        Arrays.sort(order, (i1, i2) -> Long.compare(location(nodeIds.get(i1)), location(nodeIds.get(i2))));
+        Node[] nodes = new Node[N];
+        synchronized (this) {
+            NodeId prevId = null;
+            Node prevNode = null;
+            for ( int idx : order ) {
+                NodeId id = nodeIds.get(idx);
+                if ( NodeId.isDoesNotExist(id) || NodeId.isAny(id) )
+                    continue;
+                // Duplicates are adjacent after sorting.
+                if ( ! id.equals(prevId) ) {
+                    prevNode = readNodeFromTable(id);
+                    prevId = id;
+                }
+                nodes[idx] = prevNode;
+            }
+        }
+        return Arrays.asList(nodes);
+    }
+
+    private static long location(NodeId id) {
+        return ( id != null && id.isPtr() ) ? id.getPtrLocation() : -1;
     }
 
     // ---- The worker functions
@@ -18,6 +18,8 @@
 
 package org.apache.jena.tdb2.store.nodetable;
 
+import java.nio.ByteBuffer;
+
 import org.apache.jena.atlas.logging.Log;
 import org.apache.jena.dboe.base.file.BinaryDataFile;
 import org.apache.jena.dboe.index.Index;
@@ -32,6 +34,7 @@ import org.apache.jena.tdb2.store.NodeId;
 import org.apache.jena.tdb2.store.NodeIdFactory;
 import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.transport.TTransportException;
 
 /** NodeTable using Thrift for the I/O and storage. */
 
@@ -40,6 +43,9 @@ public class NodeTableTRDF extends NodeTableNative {
     private final BinaryDataFile diskFile;
     private final TReadAppendFileTransport transport;
     private final TProtocol protocol;
+    // Reading committed nodes directly from a view of the file, when available.
+    private final TReadViewTransport viewTransport;
+    private final TProtocol viewProtocol;
 
     public NodeTableTRDF(Index nodeToId, BinaryDataFile objectFile) {
         super(nodeToId);
@@ -49,6 +55,8 @@ public class NodeTableTRDF extends NodeTableNative {
             if ( ! transport.isOpen() )
                 transport.open();
             this.protocol = TRDF.protocol(transport);
+            viewTransport = new TReadViewTransport();
+            this.viewProtocol = TRDF.protocol(viewTransport);
         }
         catch (Exception ex) {
             throw new TDBException("NodeTableTRDF", ex);
@@ -77,9 +85,12 @@ public class NodeTableTRDF extends NodeTableNative {
         try {
             // Paired : [*]
             long x = id.getPtrLocation();
-            transport.readPosition(x);
-            RDF_Term term = new RDF_Term();
-            term.read(protocol);
+            RDF_Term term = readTermFromView(x);
+            if ( term == null ) {
+                transport.readPosition(x);
+                term = new RDF_Term();
+                term.read(protocol);
+            }
             Node n = ThriftConvert.convert(term);
             return n;
         }
@@ -92,6 +103,30 @@ public class NodeTableTRDF extends NodeTableNative {
         }
     }
 
+    /**
+     * Decode a term from a view of the node file. Return null if there is no view or the
+     * record goes beyond the end of the view, for example, a node written by the current
+     * transaction.
+     */
+    private RDF_Term readTermFromView(long x) throws TException {
+        ByteBuffer view = diskFile.readView(x, Long.MAX_VALUE);
+        if ( view == null )
+            return null;
+        viewTransport.setView(view);
+        viewProtocol.reset();
+        try {
+            RDF_Term term = new RDF_Term();
+            term.read(viewProtocol);
+            return term;
+        } catch (TTransportException ex) {
+            if ( ex.getType() == TTransportException.END_OF_FILE )
+                return null;
+            throw ex;
+        } finally {
+            viewTransport.setView(null);
+        }
+    }
+
     @Override
     protected void syncSub() {
         try { transport.flush(); }
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.nodetable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.atlas.logging.FmtLog;
+import org.apache.jena.tdb2.TDBException;
+
+/**
+ * A bounded map from non-negative {@code long} keys to byte arrays, held outside
+ * the Java heap in direct {@link ByteBuffer ByteBuffers}.
+ * <p>
+ * The space is split into two generations, each an open-addressing (linear
+ * probing) slot table and an append-only data area. New entries go into the
+ * current generation. When it is full, the older generation is cleared and
+ * becomes the current one. A hit in the older generation copies the entry
+ * forward, so frequently used entries survive; this approximates LRU without
+ * any per-entry Java objects.
+ * <p>
+ * Each generation has at most {@value #MAX_SLOTS} slots and at most
+ * {@code Integer.MAX_VALUE} bytes of data, so sizes above about 4G bytes are
+ * not all used; a warning is logged when the size is reduced.
+ * <p>
+ * Keys must be {@code >= 0}. Operations are synchronized.
+ * {@link #close} releases the memory; after that, the table is empty and
+ * ignores changes.
+ */
+public class OffHeapLongBytesTable {
+    // Slot layout: [stored key: long][data offset: int][data length: int]
+    private static final int SLOT_SIZE    = 16;
+    // Stored key is key+1 so that zeroed memory means "empty".
+    private static final long EMPTY       = 0;
+    private static final long DELETED     = -1;
+    // Fraction of a generation given to slots; the rest is data.
+    private static final int  SLOT_SHARE  = 3;
+    // Maximum load factor of the slot table, as a percentage.
+    private static final int  MAX_LOAD    = 70;
+    // Maximum number of slots in a generation.
+    private static final int  MAX_SLOTS   = 1 << 26;
+
+    private Generation current;
+    private Generation previous;
+    private boolean closed = false;
+
+    /**
+     * Create a table using, in total, approximately {@code sizeInBytes} of
+     * off-heap memory.
+     */
+    public OffHeapLongBytesTable(long sizeInBytes) {
+        if ( sizeInBytes < 2 * 1024 )
+            throw new TDBException("OffHeapLongBytesTable: size too small: "+sizeInBytes);
+        long genBytes = sizeInBytes / 2;
+        long slotBytes = genBytes / SLOT_SHARE;
+        int slots = Integer.highestOneBit((int)Math.min(slotBytes / SLOT_SIZE, MAX_SLOTS));
+        long dataBytes = Math.min(genBytes - (long)slots * SLOT_SIZE, Integer.MAX_VALUE);
+        if ( slotBytes / SLOT_SIZE > MAX_SLOTS || genBytes - (long)slots * SLOT_SIZE > Integer.MAX_VALUE )
+            FmtLog.warn(OffHeapLongBytesTable.class,
+                        "Off-heap cache size %,d bytes: limited to 2 x (%,d slots + %,d bytes of data)",
+                        sizeInBytes, slots, dataBytes);
+        this.current = new Generation(slots, (int)dataBytes);
+        this.previous = new Generation(slots, (int)dataBytes);
+    }
+
+    /** Get the bytes for the key, or return null. */
+    public synchronized byte[] get(long key) {
+        checkKey(key);
+        if ( closed )
+            return null;
+        byte[] b = current.get(key);
+        if ( b != null )
+            return b;
+        b = previous.get(key);
+        if ( b != null ) {
+            // Move forward so it survives the next generation switch.
+            previous.remove(key);
+            putCurrent(key, b);
+        }
+        return b;
+    }
+
+    public synchronized boolean contains(long key) {
+        checkKey(key);
+        if ( closed )
+            return false;
+        return current.find(key) >= 0 || previous.find(key) >= 0;
+    }
+
+    /**
+     * Insert or replace an entry.
+     * Values larger than a fraction of the data area are not stored.
+     */
+    public synchronized void put(long key, byte[] value) {
+        checkKey(key);
+        if ( closed )
+            return;
+        if ( value.length > current.data.capacity() / 16 )
+            return;
+        previous.remove(key);
+        putCurrent(key, value);
+    }
+
+    public synchronized void remove(long key) {
+        checkKey(key);
+        if ( closed )
+            return;
+        current.remove(key);
+        previous.remove(key);
+    }
+
+    public synchronized void clear() {
+        if ( closed )
+            return;
+        current.clear();
+        previous.clear();
+    }
+
+    /** Release the off-heap memory. */
+    public synchronized void close() {
+        if ( closed )
+            return;
+        closed = true;
+        current.free();
+        previous.free();
+        current = null;
+        previous = null;
+    }
+
+    /** Number of live entries. */
+    public synchronized long size() {
+        if ( closed )
+            return 0;
+        return current.count + previous.count;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Snapshot of the keys. */
+    public synchronized List<Long> keys() {
+        List<Long> x = new ArrayList<>((int)size());
+        if ( closed )
+            return x;
+        current.keys(x);
+        previous.keys(x);
+        return x;
+    }
+
+    private void putCurrent(long key, byte[] value) {
+        if ( ! current.put(key, value) ) {
+            // Full - switch generations.
+            Generation g = previous;
+            g.clear();
+            previous = current;
+            current = g;
+            previous.remove(key);
+            current.put(key, value);
+        }
+    }
+
+    private static void checkKey(long key) {
+        if ( key < 0 )
+            throw new IllegalArgumentException("Negative key: "+key);
+    }
+
+    // Direct buffers are otherwise freed only when garbage collected.
+    // sun.misc.Unsafe.invokeCleaner (Java9+) frees one now, if it is available.
+    private static final Object unsafe;
+    private static final Method invokeCleaner;
+    static {
+        Object u = null;
+        Method m = null;
+        try {
+            Class<?> cls = Class.forName("sun.misc.Unsafe");
+            Field f = cls.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            u = f.get(null);
+            m = cls.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            u = null;
+            m = null;
+        }
+        unsafe = u;
+        invokeCleaner = m;
+    }
+
+    private static void freeDirect(ByteBuffer bb) {
+        if ( invokeCleaner == null )
+            return;
+        try {
+            invokeCleaner.invoke(unsafe, bb);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            // Left to the garbage collector.
+        }
+    }
+
+    // Murmur3 fmix64
+    private static long hash(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static final class Generation {
+        private final ByteBuffer slots;
+        private final ByteBuffer data;
+        private final int mask;
+        private final int maxUsed;
+        private int used = 0;       // Slots not EMPTY (includes DELETED)
+        private int count = 0;      // Live entries
+
+        Generation(int numSlots, int dataBytes) {
+            this.slots = ByteBuffer.allocateDirect(numSlots * SLOT_SIZE);
+            this.data = ByteBuffer.allocateDirect(dataBytes);
+            this.mask = numSlots - 1;
+            this.maxUsed = (int)((long)numSlots * MAX_LOAD / 100);
+        }
+
+        /** Slot index for the key, or -1 */
+        int find(long key) {
+            long stored = key + 1;
+            int idx = (int)hash(key) & mask;
+            for ( ;; ) {
+                long k = slots.getLong(idx * SLOT_SIZE);
+                if ( k == EMPTY )
+                    return -1;
+                if ( k == stored )
+                    return idx;
+                idx = (idx + 1) & mask;
+            }
+        }
+
+        byte[] get(long key) {
+            int idx = find(key);
+            if ( idx < 0 )
+                return null;
+            int offset = slots.getInt(idx * SLOT_SIZE + 8);
+            int length = slots.getInt(idx * SLOT_SIZE + 12);
+            byte[] b = new byte[length];
+            ByteBuffer bb = data.duplicate();
+            bb.position(offset);
+            bb.get(b);
+            return b;
+        }
+
+        /** Return false if there is no space. */
+        boolean put(long key, byte[] value) {
+            int idx = find(key);
+            if ( idx < 0 ) {
+                if ( used >= maxUsed )
+                    return false;
+            }
+            if ( data.remaining() < value.length )
+                return false;
+            int offset = data.position();
+            data.put(value);
+            if ( idx < 0 ) {
+                // New entry - first free slot in the probe sequence.
+                idx = (int)hash(key) & mask;
+                for ( ;; ) {
+                    long k = slots.getLong(idx * SLOT_SIZE);
+                    if ( k == EMPTY ) {
+                        used++;
+                        break;
+                    }
+                    if ( k == DELETED )
+                        break;
+                    idx = (idx + 1) & mask;
+                }
+                count++;
+            }
+            int base = idx * SLOT_SIZE;
+            slots.putLong(base, key + 1);
+            slots.putInt(base + 8, offset);
+            slots.putInt(base + 12, value.length);
+            return true;
+        }
+
+        void remove(long key) {
+            int idx = find(key);
+            if ( idx < 0 )
+                return;
+            slots.putLong(idx * SLOT_SIZE, DELETED);
+            count--;
+        }
+
+        void keys(List<Long> acc) {
+            int n = mask + 1;
+            for ( int i = 0 ; i < n ; i++ ) {
+                long k = slots.getLong(i * SLOT_SIZE);
+                if ( k != EMPTY && k != DELETED )
+                    acc.add(k - 1);
+            }
+        }
+
+        void free() {
+            freeDirect(slots);
+            freeDirect(data);
+        }
+
+        void clear() {
+            int n = slots.capacity();
+            for ( int i = 0 ; i < n ; i += 8 )
+                slots.putLong(i, 0L);
+            data.clear();
+            used = 0;
+            count = 0;
+        }
+    }
+}
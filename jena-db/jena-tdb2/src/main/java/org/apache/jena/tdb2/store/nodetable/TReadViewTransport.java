@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.nodetable;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.thrift.TConfiguration;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+/** A read-only transport over a {@link ByteBuffer}, such as a view of a memory mapped file.
+ *  <p>
+ *  The transport is reused: {@link #setView} sets the bytes for the next read.
+ *  Reading past the end of the view is {@link TTransportException#END_OF_FILE}.
+ *  <p>
+ *  Not thread-safe.
+ */
+public class TReadViewTransport extends TTransport {
+    private ByteBuffer view = null;
+
+    public TReadViewTransport() { }
+
+    public void setView(ByteBuffer view) {
+        this.view = view;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void open() { }
+
+    @Override
+    public void close() {
+        view = null;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws TTransportException {
+        if ( view == null || view.remaining() < len )
+            throw new TTransportException(TTransportException.END_OF_FILE);
+        view.get(buf, off, len);
+        return len;
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+        throw new UnsupportedOperationException("TReadViewTransport.write");
+    }
+
+    @Override
+    public TConfiguration getConfiguration() {
+        throw new NotImplementedException("TReadViewTransport.getConfiguration");
+    }
+
+    @Override
+    public void updateKnownMessageSize(long size) throws TTransportException {
+    }
+
+    @Override
+    public void checkReadBytesAvailable(long numBytes) throws TTransportException {
+    }
+}
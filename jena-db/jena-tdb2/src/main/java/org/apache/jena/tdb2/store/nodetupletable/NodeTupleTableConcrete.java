@@ -58,6 +58,12 @@ public class NodeTupleTableConcrete implements NodeTupleTable
         this.nodeTable = nodeTable;
     }
 
+    public NodeTupleTableConcrete(TupleTable tupleTable, NodeTable nodeTable)
+    {
+        this.tupleTable = tupleTable;
+        this.nodeTable = nodeTable;
+    }
+
     private void startWrite()   { }
 
     private void finishWrite()  { }
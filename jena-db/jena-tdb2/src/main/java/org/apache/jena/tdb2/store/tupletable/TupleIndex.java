@@ -55,6 +55,16 @@ public interface TupleIndex extends Sync, Closeable
      */
     public Iterator<Tuple<NodeId>> find(Tuple<NodeId> pattern);
 
+    /**
+     * Find the matching tuples, in index order, from the tuples with {@code start} in slot
+     * {@code slot}, so a scan can skip ahead. The slots set in the pattern must be the
+     * leading slots of the index, followed by {@code slot}. Slots are in natural order.
+     * Return null if this is not possible.
+     */
+    public default Iterator<Tuple<NodeId>> findFrom(Tuple<NodeId> pattern, int slot, NodeId start) {
+        return null;
+    }
+
     /** return an iterator of everything */
     public Iterator<Tuple<NodeId>> all();
 
@@ -243,6 +243,30 @@ public class TupleIndexRecord extends TupleIndexBase
         return tuples;
     }
 
+    @Override
+    public Iterator<Tuple<NodeId>> findFrom(Tuple<NodeId> patternNaturalOrder, int slot, NodeId start) {
+        Tuple<NodeId> pattern = tupleMap.map(patternNaturalOrder);
+        int startIdx = tupleMap.putSlotIdx(slot);
+        for ( int i = 0; i < pattern.len() ; i++ ) {
+            // Leading slots set, the others not.
+            if ( NodeId.isAny(pattern.get(i)) == ( i < startIdx ) )
+                return null;
+        }
+        Record minRec = factory.createKeyOnly();
+        for ( int i = 0; i < startIdx ; i++ )
+            NodeIdFactory.set(pattern.get(i), minRec.getKey(), i*SizeOfNodeId);
+        NodeIdFactory.set(start, minRec.getKey(), startIdx*SizeOfNodeId);
+        Record maxRec = null;
+        if ( startIdx > 0 ) {
+            // The leading NodeIds, +1.
+            maxRec = factory.createKeyOnly();
+            for ( int i = 0; i < startIdx ; i++ )
+                NodeIdFactory.set(pattern.get(i), maxRec.getKey(), i*SizeOfNodeId);
+            NodeIdFactory.setNext(pattern.get(startIdx-1), maxRec.getKey(), (startIdx-1)*SizeOfNodeId);
+        }
+        return index.iterator(minRec, maxRec, recordMapper);
+    }
+
     @Override
     public Iterator<Tuple<NodeId>> all()
     {
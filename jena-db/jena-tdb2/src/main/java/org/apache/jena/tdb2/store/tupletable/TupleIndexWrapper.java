@@ -61,6 +61,11 @@ public class TupleIndexWrapper implements TupleIndex
         return index.find(pattern);
     }
 
+    @Override
+    public Iterator<Tuple<NodeId>> findFrom(Tuple<NodeId> pattern, int slot, NodeId start) {
+        return index.findFrom(pattern, slot, start);
+    }
+
     @Override
     public Iterator<Tuple<NodeId>> all() {
         return index.all();
@@ -165,6 +165,9 @@ public class TupleTable implements Sync, Closeable
         return index.find(pattern);
     }
 
+    /** Apply any buffered updates to the indexes. */
+    public void flush() { }
+
     @Override
     final public void close() {
         for ( TupleIndex idx : indexes ) {
@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.tupletable;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.atlas.lib.tuple.TupleMap;
+import org.apache.jena.dboe.index.RangeIndex;
+import org.apache.jena.dboe.sys.SysDB;
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionListener;
+import org.apache.jena.dboe.transaction.txn.TransactionalComponentLifecycle;
+import org.apache.jena.dboe.transaction.txn.TransactionalComponentLifecycle.ComponentState;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+
+/**
+ * A {@link TupleTable} that buffers the changes made by the write transaction and
+ * applies them to the indexes together: when the buffer reaches the batch size, before
+ * any access to the indexes by the writer, and at the start of commit.
+ * <p>
+ * Each index is updated with the buffered tuples sorted into index order, so each
+ * B+Tree leaf block is touched once. When there are enough of them, the indexes are
+ * updated in parallel, each on its own thread with the transaction state of its B+Tree.
+ * <p>
+ * Changes are held as runs of adds or deletes. Within a run the order does not matter;
+ * runs are applied in the order they were made.
+ */
+public class TupleTableBuffered extends TupleTable implements TransactionListener
+{
+    /** Below this number of buffered tuples, indexes are updated on the writer thread. */
+    public static final int ParallelThreshold = 1000;
+
+    private static class Run {
+        final boolean isAdd;
+        final List<Tuple<NodeId>> tuples = new ArrayList<>();
+        Run(boolean isAdd) { this.isAdd = isAdd; }
+    }
+
+    private final int batchSize;
+    private List<Run> runs = new ArrayList<>();
+    private int count = 0;
+    private volatile Thread writingThread = null;
+
+    public TupleTableBuffered(int tupleLen, TupleIndex[] indexes, int batchSize) {
+        super(tupleLen, indexes);
+        if ( batchSize < 1 )
+            throw new IllegalArgumentException("Batch size must be positive: "+batchSize);
+        this.batchSize = batchSize;
+    }
+
+    // Only the writer uses the buffer. Readers see the committed indexes.
+    private boolean isWriter() {
+        return writingThread == Thread.currentThread();
+    }
+
+    private void buffer(boolean isAdd, Tuple<NodeId> t) {
+        Run run = runs.isEmpty() ? null : runs.get(runs.size()-1);
+        if ( run == null || run.isAdd != isAdd ) {
+            run = new Run(isAdd);
+            runs.add(run);
+        }
+        run.tuples.add(t);
+        if ( ++count >= batchSize )
+            flush();
+    }
+
+    @Override
+    public void add(Tuple<NodeId> t) {
+        if ( ! isWriter() ) {
+            super.add(t);
+            return;
+        }
+        if ( getTupleLen() != t.len() )
+            throw new TDBException(format("Mismatch: inserting tuple of length %d into a table of tuples of length %d", t.len(), getTupleLen()));
+        buffer(true, t);
+    }
+
+    @Override
+    public void addAll(List<Tuple<NodeId>> t) {
+        flushIfWriter();
+        super.addAll(t);
+    }
+
+    @Override
+    public void delete(Tuple<NodeId> t) {
+        if ( ! isWriter() ) {
+            super.delete(t);
+            return;
+        }
+        if ( getTupleLen() != t.len() )
+            throw new TDBException(format("Mismatch: deleting tuple of length %d from a table of tuples of length %d", t.len(), getTupleLen()));
+        buffer(false, t);
+    }
+
+    @Override
+    public void deleteAll(List<Tuple<NodeId>> t) {
+        flushIfWriter();
+        super.deleteAll(t);
+    }
+
+    @Override
+    public Iterator<Tuple<NodeId>> find(Tuple<NodeId> pattern) {
+        flushIfWriter();
+        return super.find(pattern);
+    }
+
+    @Override
+    public void sync() {
+        flushIfWriter();
+        super.sync();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        flushIfWriter();
+        return super.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        flushIfWriter();
+        super.clear();
+    }
+
+    @Override
+    public long size() {
+        flushIfWriter();
+        return super.size();
+    }
+
+    @Override
+    public TupleIndex getIndex(int i) {
+        flushIfWriter();
+        return super.getIndex(i);
+    }
+
+    @Override
+    public TupleIndex[] getIndexes() {
+        flushIfWriter();
+        return super.getIndexes();
+    }
+
+    @Override
+    public void setTupleIndex(int i, TupleIndex index) {
+        flushIfWriter();
+        super.setTupleIndex(i, index);
+    }
+
+    private void flushIfWriter() {
+        if ( isWriter() )
+            flush();
+    }
+
+    @Override
+    public void flush() {
+        if ( runs.isEmpty() )
+            return;
+        List<Run> x = runs;
+        int n = count;
+        runs = new ArrayList<>();
+        count = 0;
+        apply(x, n);
+    }
+
+    private void drop() {
+        runs = new ArrayList<>();
+        count = 0;
+    }
+
+    private void apply(List<Run> x, int n) {
+        List<TupleIndex> indexes = new ArrayList<>();
+        for ( TupleIndex idx : super.getIndexes() ) {
+            if ( idx != null )
+                indexes.add(idx);
+        }
+        List<Runnable> tasks = new ArrayList<>(indexes.size());
+        if ( n >= ParallelThreshold && indexes.size() > 1 ) {
+            for ( TupleIndex idx : indexes ) {
+                TransactionalComponentLifecycle<?> component = component(idx);
+                if ( component == null ) {
+                    // Not a transactional B+Tree. Do it all on this thread.
+                    tasks.clear();
+                    break;
+                }
+                tasks.add(new IndexTask<>(component, idx, x));
+            }
+        }
+        if ( tasks.isEmpty() ) {
+            indexes.forEach(idx->apply(idx, x));
+            return;
+        }
+        // One index on this thread, the rest on the pool.
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size()-1);
+        for ( int i = 1 ; i < tasks.size() ; i++ )
+            futures.add(CompletableFuture.runAsync(tasks.get(i), SysDB.executor));
+        RuntimeException ex = null;
+        try {
+            apply(indexes.get(0), x);
+        } catch (RuntimeException ex0) { ex = ex0; }
+        for ( CompletableFuture<Void> f : futures ) {
+            try { f.join(); }
+            catch (CompletionException ex1) {
+                if ( ex == null )
+                    ex = ( ex1.getCause() instanceof RuntimeException ) ? (RuntimeException)ex1.getCause() : ex1;
+            }
+        }
+        if ( ex != null )
+            throw ex;
+    }
+
+    private static void apply(TupleIndex index, List<Run> x) {
+        for ( Run run : x ) {
+            List<Tuple<NodeId>> tuples = sorted(index.getMapping(), run.tuples);
+            if ( run.isAdd )
+                index.addAll(tuples);
+            else
+                index.deleteAll(tuples);
+        }
+    }
+
+    /** A copy of the tuples, sorted into the order of the index with the mapping. */
+    private static List<Tuple<NodeId>> sorted(TupleMap tupleMap, List<Tuple<NodeId>> tuples) {
+        List<Tuple<NodeId>> x = new ArrayList<>(tuples);
+        x.sort((t1, t2)->{
+            for ( int i = 0 ; i < t1.len() ; i++ ) {
+                int j = tupleMap.getSlotIdx(i);
+                int c = NodeIdFactory.compareByBytes(t1.get(j), t2.get(j));
+                if ( c != 0 )
+                    return c;
+            }
+            return 0;
+        });
+        return x;
+    }
+
+    /** The transactional B+Tree of an index, or null. */
+    private static TransactionalComponentLifecycle<?> component(TupleIndex index) {
+        TupleIndex base = index.baseTupleIndex();
+        if ( ! ( base instanceof TupleIndexRecord ) )
+            return null;
+        RangeIndex rIdx = ((TupleIndexRecord)base).getRangeIndex();
+        if ( rIdx instanceof TransactionalComponentLifecycle )
+            return (TransactionalComponentLifecycle<?>)rIdx;
+        return null;
+    }
+
+    /**
+     * Update one index on another thread with the transaction state of its B+Tree.
+     * The state is captured on the writer thread, when the task is created, and held in
+     * a final field so that it is safely published to the thread that runs the task.
+     * Changes made to it by that thread are seen by the writer after it joins the
+     * task's future.
+     */
+    private static class IndexTask<X> implements Runnable {
+        private final TransactionalComponentLifecycle<X> component;
+        private final ComponentState<X> state;
+        private final TupleIndex index;
+        private final List<Run> runs;
+
+        IndexTask(TransactionalComponentLifecycle<X> component, TupleIndex index, List<Run> runs) {
+            this.component = component;
+            this.state = component.getComponentState();
+            this.index = index;
+            this.runs = runs;
+        }
+
+        @Override
+        public void run() {
+            ComponentState<X> previous = component.getComponentState();
+            component.setComponentState(state);
+            try { apply(index, runs); }
+            finally { component.setComponentState(previous); }
+        }
+    }
+
+    // -- TransactionListener
+
+    @Override
+    public void notifyTxnStart(Transaction transaction) {
+        if ( transaction.isWriteTxn() )
+            updateStart();
+    }
+
+    @Override
+    public void notifyPromoteFinish(Transaction transaction) {
+        if ( transaction.isWriteTxn() )
+            updateStart();
+    }
+
+    @Override
+    public void notifyPrepareStart(Transaction transaction) {
+        if ( transaction.isWriteTxn() )
+            flush();
+    }
+
+    @Override
+    public void notifyCommitFinish(Transaction transaction) {
+        if ( transaction.isWriteTxn() )
+            updateFinish();
+    }
+
+    @Override
+    public void notifyAbortStart(Transaction transaction) {
+        if ( transaction.isWriteTxn() )
+            updateFinish();
+    }
+    // -- TransactionListener
+
+    private void updateStart() {
+        drop();
+        writingThread = Thread.currentThread();
+    }
+
+    private void updateFinish() {
+        writingThread = null;
+        drop();
+    }
+}
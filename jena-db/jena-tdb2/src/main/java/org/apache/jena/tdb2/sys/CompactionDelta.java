@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.sys;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.dboe.storage.StorageRDF;
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.dboe.transaction.txn.TransactionListener;
+import org.apache.jena.graph.Node;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.StorageTDB;
+
+/**
+ * The changes committed to a database while it is being compacted online.
+ * <p>
+ * Changes are held for the active write transaction and are added to the delta when
+ * the transaction commits. Changes of an aborted transaction are dropped.
+ * <p>
+ * Replaying a change is idempotent (it sets the presence or absence of a triple or
+ * quad) so replaying changes that are already in the copied data is safe, provided
+ * changes are replayed in commit order.
+ * <p>
+ * Changes are held in memory. If more than the maximum number of changes are
+ * recorded and not yet applied, recording stops and the next {@link #applyTo} fails.
+ */
+class CompactionDelta implements StorageTDB.Monitor, TransactionListener {
+
+    private static class Change {
+        final boolean isAdd;
+        final Node g, s, p, o;
+        Change(boolean isAdd, Node g, Node s, Node p, Node o) {
+            this.isAdd = isAdd;
+            this.g = g;
+            this.s = s;
+            this.p = p;
+            this.o = o;
+        }
+    }
+
+    /** Default maximum number of changes held. */
+    static final int DefaultMaxSize = 1000*1000;
+
+    private final int maxSize;
+    // TDB2 has at most one active writer.
+    private List<Change> pending   = new ArrayList<>();
+    private List<Change> committed = new ArrayList<>();
+    private boolean overflow = false;
+
+    CompactionDelta() {
+        this(DefaultMaxSize);
+    }
+
+    CompactionDelta(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public synchronized void add(Node g, Node s, Node p, Node o) {
+        record(new Change(true, g, s, p, o));
+    }
+
+    @Override
+    public synchronized void delete(Node g, Node s, Node p, Node o) {
+        record(new Change(false, g, s, p, o));
+    }
+
+    // The writer is not affected by an overflow: changes are no longer recorded.
+    private void record(Change change) {
+        if ( overflow )
+            return;
+        pending.add(change);
+        if ( pending.size() + committed.size() > maxSize ) {
+            overflow = true;
+            pending = new ArrayList<>();
+            committed = new ArrayList<>();
+        }
+    }
+
+    @Override
+    public synchronized void notifyCommitFinish(Transaction transaction) {
+        if ( overflow || ! transaction.isWriteTxn() || pending.isEmpty() )
+            return;
+        committed.addAll(pending);
+        pending = new ArrayList<>();
+    }
+
+    @Override
+    public synchronized void notifyAbortFinish(Transaction transaction) {
+        if ( transaction.isWriteTxn() )
+            pending.clear();
+    }
+
+    /** Number of committed changes not yet applied. */
+    synchronized int size() {
+        return committed.size();
+    }
+
+    /** Whether too many changes were recorded. */
+    synchronized boolean overflow() {
+        return overflow;
+    }
+
+    private synchronized List<Change> take() {
+        if ( overflow )
+            throw new TDBException("Compact: more than "+maxSize+" changes during online compaction");
+        List<Change> x = committed;
+        committed = new ArrayList<>();
+        return x;
+    }
+
+    /**
+     * Apply the committed changes, so far, to a database, in one write transaction.
+     * Returns the number of changes applied.
+     * @throws TDBException if too many changes were recorded.
+     */
+    int applyTo(DatasetGraphTDB dsg) {
+        List<Change> changes = take();
+        if ( changes.isEmpty() )
+            return 0;
+        StorageRDF storage = dsg.getData();
+        Txn.executeWrite(dsg, ()->{
+            for ( Change c : changes ) {
+                if ( c.g == null ) {
+                    if ( c.isAdd )
+                        storage.add(c.s, c.p, c.o);
+                    else
+                        storage.delete(c.s, c.p, c.o);
+                } else {
+                    if ( c.isAdd )
+                        storage.add(c.g, c.s, c.p, c.o);
+                    else
+                        storage.delete(c.g, c.s, c.p, c.o);
+                }
+            }
+        });
+        return changes.size();
+    }
+}
@@ -31,18 +31,25 @@ import org.apache.jena.atlas.lib.DateTimeUtils;
 import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.atlas.logging.Log;
 import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.dboe.storage.StorageRDF;
 import org.apache.jena.dboe.sys.IO_DB;
 import org.apache.jena.dboe.sys.Names;
 import org.apache.jena.dboe.transaction.txn.TransactionCoordinator;
 import org.apache.jena.dboe.transaction.txn.TransactionalSystem;
+import org.apache.jena.graph.Node;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.system.Txn;
+import org.apache.jena.system.progress.MonitorOutputs;
 import org.apache.jena.tdb2.TDBException;
+import org.apache.jena.tdb2.loader.DataLoader;
+import org.apache.jena.tdb2.loader.LoaderFactory;
 import org.apache.jena.tdb2.params.StoreParams;
 import org.apache.jena.tdb2.store.DatasetGraphSwitchable;
 import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.StorageTDB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -178,7 +185,38 @@ public class DatabaseOps {
         compact(container, false);
     }
 
+    /**
+     * Compact the database by copying the current state into a new generation
+     * directory and switching to it. Writers are blocked while the copy is made.
+     * <p>
+     * Peak disk use is up to twice the size of the database until the old generation
+     * is deleted ({@code shouldDeleteOld}).
+     */
     public static void compact(DatasetGraphSwitchable container, boolean shouldDeleteOld) {
+        compact(container, shouldDeleteOld, false);
+    }
+
+    /**
+     * Compact the database, allowing writers to continue while the data is copied.
+     * <p>
+     * The state of the database at the start is bulk loaded into the new
+     * generation, building one index at a time. Changes committed meanwhile are
+     * recorded and then applied to the new generation in catch-up rounds. Only the
+     * final round, and the switch to the new generation, exclude other transactions.
+     * <p>
+     * Changes must be made through the dataset; bulk loaders must not be used on the
+     * database during an online compaction.
+     * <p>
+     * This is not in-place compaction: as for {@link #compact(DatasetGraphSwitchable, boolean)},
+     * a complete new generation is written alongside the current one, so peak disk
+     * use is up to twice the size of the database, plus the recorded changes, until
+     * the old generation is deleted.
+     */
+    public static void compactOnline(DatasetGraphSwitchable container, boolean shouldDeleteOld) {
+        compact(container, shouldDeleteOld, true);
+    }
+
+    private static void compact(DatasetGraphSwitchable container, boolean shouldDeleteOld, boolean online) {
         checkSupportsAdmin(container);
         synchronized(compactionLock) {
             Path base = container.getContainerPath();
@@ -207,7 +245,10 @@ public class DatabaseOps {
             Location loc2 = IO_DB.asLocation(db2);
             LOG.debug(String.format("Compact %s -> %s\n", db1.getFileName(), db2.getFileName()));
 
-            compact(container, loc1, loc2);
+            if ( online )
+                compactOnline(container, loc1, loc2);
+            else
+                compact(container, loc1, loc2);
 
             if ( shouldDeleteOld ) {
                 Path loc1Path = IO_DB.asPath(loc1);
@@ -230,24 +271,8 @@ public class DatabaseOps {
 
     /** Copy the latest version from one location to another. */
     private static void compact(DatasetGraphSwitchable container, Location loc1, Location loc2) {
-        if ( loc1.isMem() || loc2.isMem() )
-            throw new TDBException("Compact involves a memory location: "+loc1+" : "+loc2);
-
-        copyFiles(loc1, loc2);
-        StoreConnection srcConn = StoreConnection.connectExisting(loc1);
-
-        if ( srcConn == null )
-            throw new TDBException("No database at location : "+loc1);
-        if ( ! ( container.get() instanceof DatasetGraphTDB ) )
-            throw new TDBException("Not a TDB2 database in DatasetGraphSwitchable");
-
-        DatasetGraphTDB dsgCurrent = (DatasetGraphTDB)container.get();
-        if ( ! dsgCurrent.getLocation().equals(loc1) )
-            throw new TDBException("Inconsistent locations for base : "+dsgCurrent.getLocation()+" , "+dsgCurrent.getLocation());
-
-        DatasetGraphTDB dsgBase = srcConn.getDatasetGraphTDB();
-        if ( dsgBase != dsgCurrent )
-            throw new TDBException("Inconsistent datasets : "+dsgCurrent.getLocation()+" , "+dsgBase.getLocation());
+        DatasetGraphTDB dsgBase = compactSource(container, loc1, loc2);
+        DatasetGraphTDB dsgCurrent = dsgBase;
 
         TransactionalSystem txnSystem = dsgBase.getTxnSystem();
         TransactionCoordinator txnMgr = dsgBase.getTxnSystem().getTxnMgr();
@@ -266,12 +291,15 @@ public class DatabaseOps {
         txnMgr.startExclusiveMode();
 
         // No transactions on either database.
-        // Switch.
-        if ( ! container.change(dsgCurrent, dsgCompact) ) {
-            Log.warn(DatabaseOps.class, "Inconistent: old datasetgraph not as expected");
-            container.set(dsgCompact);
+        try {
+            // Switch.
+            if ( ! container.change(dsgCurrent, dsgCompact) ) {
+                Log.warn(DatabaseOps.class, "Inconistent: old datasetgraph not as expected");
+                container.set(dsgCompact);
+            }
+        } finally {
+            txnMgr2.finishExclusiveMode();
         }
-        txnMgr2.finishExclusiveMode();
         // New database running.
 
         // Clean-up.
@@ -280,6 +308,116 @@ public class DatabaseOps {
         StoreConnection.release(dsgBase.getLocation());
     }
 
+    // Online compaction: catch-up rounds are repeated while the delta is larger than this.
+    private static final int CatchUpThreshold = 1000;
+    private static final int CatchUpRounds    = 10;
+
+    /** Copy the latest version from one location to another, while writers continue. */
+    private static void compactOnline(DatasetGraphSwitchable container, Location loc1, Location loc2) {
+        DatasetGraphTDB dsgBase = compactSource(container, loc1, loc2);
+        TransactionCoordinator txnMgr = dsgBase.getTxnSystem().getTxnMgr();
+        StorageTDB storage = (StorageTDB)dsgBase.getData();
+
+        // Start recording when there are no active transactions so that the
+        // delta holds whole transactions.
+        CompactionDelta delta = new CompactionDelta();
+        txnMgr.modifyConfig(()->{
+            txnMgr.addListener(delta);
+            storage.setMonitor(delta);
+        });
+
+        DatasetGraphTDB dsgCompact = StoreConnection.connectCreate(loc2).getDatasetGraphTDB();
+        boolean exclusive = false;
+        try {
+            // Bulk copy of the database as it is now.
+            Txn.executeRead(dsgBase, ()->copyBulk(dsgBase, dsgCompact));
+
+            // Catch up while writers continue.
+            for ( int i = 0 ; i < CatchUpRounds ; i++ ) {
+                int n = delta.applyTo(dsgCompact);
+                LOG.debug(String.format("Compact: catch-up round %d: %d changes", i+1, n));
+                if ( n < CatchUpThreshold )
+                    break;
+            }
+
+            // Final round. No transactions on the current database and none will start.
+            txnMgr.startExclusiveMode();
+            exclusive = true;
+            delta.applyTo(dsgCompact);
+            Txn.executeRead(dsgBase, ()->
+                Txn.executeWrite(dsgCompact, ()->CopyDSG.copyPrefixes(dsgBase, dsgCompact)));
+
+            TransactionCoordinator txnMgr2 = dsgCompact.getTxnSystem().getTxnMgr();
+            txnMgr2.startExclusiveMode();
+            try {
+                // Switch.
+                if ( ! container.change(dsgBase, dsgCompact) ) {
+                    Log.warn(DatabaseOps.class, "Inconistent: old datasetgraph not as expected");
+                    container.set(dsgCompact);
+                }
+            } finally {
+                txnMgr2.finishExclusiveMode();
+            }
+            // New database running.
+        } catch (RuntimeException ex) {
+            // Stop recording and leave the current database in use.
+            stopRecording(txnMgr, storage, delta);
+            if ( exclusive )
+                txnMgr.finishExclusiveMode();
+            StoreConnection.internalExpel(loc2, true);
+            throw ex;
+        }
+        stopRecording(txnMgr, storage, delta);
+        // Clean-up : as for offline compaction, the old database is not released to writers.
+        StoreConnection.release(dsgBase.getLocation());
+    }
+
+    private static void stopRecording(TransactionCoordinator txnMgr, StorageTDB storage, CompactionDelta delta) {
+        storage.setMonitor(null);
+        txnMgr.modifyConfig(()->txnMgr.removeListener(delta));
+    }
+
+    /** Copy the data, in a read transaction on {@code dsgSrc}, using the sequential bulk loader. */
+    private static void copyBulk(DatasetGraphTDB dsgSrc, DatasetGraphTDB dsgDst) {
+        DataLoader loader = LoaderFactory.sequentialLoader(dsgDst, MonitorOutputs.nullOutput());
+        StreamRDF dest = loader.stream();
+        StorageRDF storage = dsgSrc.getData();
+        loader.startBulk();
+        try {
+            dest.start();
+            storage.find(Node.ANY, Node.ANY, Node.ANY).forEachRemaining(dest::triple);
+            storage.find(Node.ANY, Node.ANY, Node.ANY, Node.ANY).forEachRemaining(dest::quad);
+            dest.finish();
+            loader.finishBulk();
+        } catch (RuntimeException ex) {
+            loader.finishException(ex);
+            throw ex;
+        }
+    }
+
+    /** Checks and setup for compaction; return the current database */
+    private static DatasetGraphTDB compactSource(DatasetGraphSwitchable container, Location loc1, Location loc2) {
+        if ( loc1.isMem() || loc2.isMem() )
+            throw new TDBException("Compact involves a memory location: "+loc1+" : "+loc2);
+
+        copyFiles(loc1, loc2);
+        StoreConnection srcConn = StoreConnection.connectExisting(loc1);
+
+        if ( srcConn == null )
+            throw new TDBException("No database at location : "+loc1);
+        if ( ! ( container.get() instanceof DatasetGraphTDB ) )
+            throw new TDBException("Not a TDB2 database in DatasetGraphSwitchable");
+
+        DatasetGraphTDB dsgCurrent = (DatasetGraphTDB)container.get();
+        if ( ! dsgCurrent.getLocation().equals(loc1) )
+            throw new TDBException("Inconsistent locations for base : "+dsgCurrent.getLocation()+" , "+dsgCurrent.getLocation());
+
+        DatasetGraphTDB dsgBase = srcConn.getDatasetGraphTDB();
+        if ( dsgBase != dsgCurrent )
+            throw new TDBException("Inconsistent datasets : "+dsgCurrent.getLocation()+" , "+dsgBase.getLocation());
+        return dsgBase;
+    }
+
     /** Copy certain configuration files from {@code loc1} to {@code loc2}. */
     private static void copyFiles(Location loc1, Location loc2) {
         FileFilter copyFiles  = (pathname)->{
@@ -119,6 +119,30 @@ public class SystemTDB
     /** Experimental : triple and quad filtering at scan level */
     public static final Symbol symTupleFilter       = allocSymbol("tupleFilter");
 
+    /**
+     * Experimental : number of solutions of a basic graph pattern to collect before
+     * turning NodeIds into Nodes with one call to the node table.
+     * Unset, or less than 2, means "one at a time, on demand".
+     */
+    public static final Symbol symNodeDecodeBatchSize = allocSymbol("nodeDecodeBatchSize");
+
+    /**
+     * Experimental : evaluate consecutive triple patterns of a basic graph pattern that
+     * share a variable (e.g. a subject "star") by merging index scans that are in order
+     * of that variable, rather than by repeated index lookups.
+     */
+    public static final Symbol symMergeJoin         = allocSymbol("mergeJoin");
+
+    /**
+     * Group commit : update requests executed outside a transaction on a database
+     * share a write transaction, and its commit, with concurrent update requests.
+     * The value is the maximum number of update requests in one transaction.
+     * Unset, or less than 2, means no group commit.
+     *
+     * @see org.apache.jena.dboe.transaction.GroupCommit
+     */
+    public static final Symbol symGroupCommit       = allocSymbol("groupCommit");
+
     private static final String PropertyFileKey1    = tdbPropertyRoot+".settings";
     private static final String PropertyFileKey2    = tdbSymbolPrefix+":settings";
 
@@ -155,6 +179,11 @@ public class SystemTDB
      */
     public static final int NodeId2NodeCacheSize    = intValue("NodeId2NodeCacheSize", ( is64bitSystem ? 1000*1000 : 20*1000 ) );
 
+    /** Size, in bytes, of the off-heap NodeId to Node cache.
+     *  Zero means the on-heap cache (see {@link #NodeId2NodeCacheSize}) is used.
+     */
+    public static final long NodeId2NodeCacheOffHeapSize = intValue("NodeId2NodeCacheOffHeapSize", 0);
+
     /** Size of Node lookup miss cache. */
     public static final int NodeMissCacheSize       = 1000;
 
@@ -177,6 +206,23 @@ public class SystemTDB
         return defaultReorderTransform;
     }
 
+    /** Number of changes buffered by a write transaction before the triple and quad
+     *  indexes are updated. Zero, the default, means indexes are updated on each change.
+     */
+    private static int indexUpdateBatchSize = intValue("IndexUpdateBatchSize", 0);
+
+    /** Set the number of changes buffered by a write transaction before the triple and
+     *  quad indexes are updated. This applies to databases opened after the call.
+     *  Zero turns buffering off.
+     */
+    public static void setIndexUpdateBatchSize(int batchSize) {
+        indexUpdateBatchSize = batchSize;
+    }
+
+    public static int getIndexUpdateBatchSize() {
+        return indexUpdateBatchSize;
+    }
+
     /** Unsupported (for non-standard setups)
      * @see #enableInlineLiterals
      */
@@ -78,6 +78,29 @@ public class TestStoreParams {
         assertEqualsStoreParams(paramsExpected,paramsActual);
     }
 
+    @Test public void store_params_12a() {
+        StoreParams params = StoreParams.builder().nodeId2NodeCacheOffHeapSize(5_000_000_000L).build();
+        StoreParams params2 = roundTrip(params);
+        assertEqualsStoreParams(params,params2);
+        assertEquals(5_000_000_000L, params2.getNodeId2NodeCacheOffHeapSize().longValue());
+    }
+
+    @Test public void store_params_12b() {
+        StoreParams params = StoreParams.builder().leafCompression(true).build();
+        StoreParams params2 = roundTrip(params);
+        assertEqualsStoreParams(params,params2);
+        assertTrue(params2.isLeafCompression());
+    }
+
+    // Not set: not written.
+    @Test public void store_params_12c() {
+        JsonObject obj = StoreParamsCodec.encodeToJson(StoreParams.getDftStoreParams());
+        assertFalse(obj.hasKey("tdb.nodeid2node_cache_offheap_size"));
+        assertFalse(obj.hasKey("tdb.leaf_compression"));
+        obj = StoreParamsCodec.encodeToJson(StoreParams.builder().leafCompression(false).build());
+        assertTrue(obj.hasKey("tdb.leaf_compression"));
+    }
+
     @Test public void store_params_13() {
         String xs = "{ \"tdb.triple_indexes\" : [ \"POS\" , \"PSO\"] } ";
         JsonObject x = JSON.parse(xs);
@@ -27,11 +27,15 @@ import static org.junit.Assert.assertTrue;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.json.JSON;
 import org.apache.jena.atlas.json.JsonObject;
 import org.apache.jena.atlas.lib.FileOps;
 import org.apache.jena.dboe.base.file.Location;
 import org.apache.jena.dboe.sys.Names;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
 import org.apache.jena.tdb2.ConfigTest;
 import org.apache.jena.tdb2.params.StoreParams;
 import org.apache.jena.tdb2.params.StoreParamsCodec;
@@ -156,6 +160,25 @@ public class TestStoreParamsCreate {
         assertEquals(pApp.getBlockSize(), pDB.getBlockSize());
     }
 
+    // Layout setting, recorded at creation and used when reconnecting.
+    @Test public void params_reconnect_04() {
+        StoreParams pCompressed = StoreParams.builder(pApp).leafCompression(true).build();
+        StoreConnection.connectCreate(loc, pCompressed);
+        DatasetGraph dsg1 = StoreConnection.connectExisting(loc).getDatasetGraph();
+        Txn.executeWrite(dsg1, ()->{
+            for ( int i = 0 ; i < 500 ; i++ )
+                dsg1.add(SSE.parseQuad("(_ :s :p "+i+")"));
+        });
+        expel();
+        // Reconnect
+        StoreConnection.connectCreate(loc, null);
+        StoreParams pDB = StoreConnection.connectExisting(loc).getDatasetGraphTDB().getStoreParams();
+        assertTrue(pDB.isLeafCompression());
+        DatasetGraph dsg2 = StoreConnection.connectExisting(loc).getDatasetGraph();
+        long count = Txn.calculateRead(dsg2, ()->Iter.count(dsg2.find()));
+        assertEquals(500, count);
+    }
+
 
 //    // Custom then modified.
 //    @Test public void params_reconnect_03() {
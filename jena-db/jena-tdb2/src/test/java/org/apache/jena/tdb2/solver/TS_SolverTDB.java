@@ -25,6 +25,9 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses( {
     TestSolverTDB.class
     , TestStats.class
+    , TestNodeDecodeBatch.class
+    , TestMergeJoin.class
+    , TestParallelTDB2.class
 })
 
 public class TS_SolverTDB
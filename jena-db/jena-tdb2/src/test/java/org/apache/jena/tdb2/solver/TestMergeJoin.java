@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import org.apache.jena.query.*;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.junit.TL;
+import org.apache.jena.tdb2.sys.SystemTDB;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Merge join of BGP patterns gives the same results as nested loop index probing. */
+public class TestMergeJoin {
+    static Dataset dataset = null;
+
+    static String data = String.join("\n"
+        , "PREFIX : <http://example/>"
+        , ":s1 :p 1 ; :q 'a' ; :r :x ; a :T ."
+        , ":s2 :p 2 ; :q 'b', 'c' ; a :T ."
+        , ":s3 :p 3 ; :r :x, :y ; a :T, :U ."
+        , ":s4 :q 'd' ; :r :s1 ."
+        , ":s5 :p 5 ; :q 'e' ; :r :s5 ; a :U ."
+        , ":x :label 'X' . :y :label 'Y' ."
+        , "GRAPH :g { :s1 :p 1 ; :q 'a' . :s2 :p 2 . :s3 :q 'c' }"
+        );
+
+    static final String PREFIX = "PREFIX : <http://example/> ";
+
+    @BeforeClass
+    static public void beforeClass() {
+        dataset = TL.createTestDatasetMem();
+        Txn.executeWrite(dataset, ()->{
+            RDFDataMgr.read(dataset, new StringReader(data), null, Lang.TRIG);
+            // Sparse matches, for scans that skip ahead.
+            StringBuilder sb = new StringBuilder(PREFIX);
+            for ( int i = 0 ; i < 100 ; i++ ) {
+                sb.append(String.format(":m%03d :m %d .\n", i, i));
+                if ( i % 20 == 7 )
+                    sb.append(String.format(":m%03d :n %d .\n", i, i));
+            }
+            RDFDataMgr.read(dataset, new StringReader(sb.toString()), null, Lang.TTL);
+        });
+    }
+
+    @AfterClass
+    static public void afterClass() {
+        TL.expel(dataset);
+    }
+
+    // Subject star, constant predicates.
+    @Test public void mergeJoin_01() { test("SELECT * { ?s :p ?v ; :q ?w }", 4); }
+
+    // Three-way star.
+    @Test public void mergeJoin_02() { test("SELECT * { ?s :p ?v ; :q ?w ; :r ?z }", 2); }
+
+    // Constant object (POS index).
+    @Test public void mergeJoin_03() { test("SELECT * { ?s a :T ; :r ?z }", 3); }
+
+    // Join variable bound in the input.
+    @Test public void mergeJoin_04() { test("SELECT * { VALUES ?s { :s1 :s2 :zzz } ?s :p ?v ; :q ?w }", 3); }
+
+    // Object-subject join, variable repeated.
+    @Test public void mergeJoin_05() { test("SELECT * { ?s :r ?s . ?s :q ?w }", 1); }
+
+    // Named graph.
+    @Test public void mergeJoin_06() { test("SELECT * { GRAPH :g { ?s :p ?v ; :q ?w } }", 1); }
+
+    // Graph variable.
+    @Test public void mergeJoin_07() { test("SELECT * { GRAPH ?g { ?s :p ?v ; :q ?w } }", 1); }
+
+    // No match.
+    @Test public void mergeJoin_08() { test("SELECT * { ?s :p ?v ; :notHere ?w }", 0); }
+
+    // Join then follow on pattern.
+    @Test public void mergeJoin_09() { test("SELECT * { ?s a :T ; :r ?z . ?z :label ?L }", 3); }
+
+    // Two constant objects - merge of two POS scans with the default indexes.
+    @Test public void mergeJoin_10() { test("SELECT * { ?s a :T ; a :U }", 1); }
+
+    // No fixed slot in one pattern: not merged.
+    @Test public void mergeJoin_11() { test("SELECT * { ?s a :U ; ?p ?o }", 9); }
+
+    // Sparse matches.
+    @Test public void mergeJoin_12() { test("SELECT * { ?s :m ?v ; :n ?w }", 5); }
+
+    @Test public void mergeJoin_13() { test("SELECT * { ?s :n ?w ; :m ?v }", 5); }
+
+    private static void test(String queryString, int expectedRows) {
+        Txn.executeRead(dataset, ()->{
+            ResultSetRewindable rs1 = exec(PREFIX+queryString, false);
+            ResultSetRewindable rs2 = exec(PREFIX+queryString, true);
+            assertEquals(expectedRows, rs1.size());
+            assertEquals(rs1.size(), rs2.size());
+            assertTrue(ResultSetCompare.equalsByTerm(rs1, rs2));
+        });
+    }
+
+    private static ResultSetRewindable exec(String queryString, boolean mergeJoin) {
+        try ( QueryExecution qExec = QueryExecution.create().query(queryString).dataset(dataset)
+                                                   .set(SystemTDB.symMergeJoin, mergeJoin).build() ) {
+            return qExec.execSelect().rewindable();
+        }
+    }
+}
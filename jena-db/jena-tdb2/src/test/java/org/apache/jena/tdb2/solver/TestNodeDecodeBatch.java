@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.query.*;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.ConfigTest;
+import org.apache.jena.tdb2.junit.TL;
+import org.apache.jena.tdb2.sys.SystemTDB;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Batched NodeId to Node decoding gives the same results as one-at-a-time. */
+public class TestNodeDecodeBatch {
+    static Dataset dataset = null;
+
+    @BeforeClass
+    static public void beforeClass() {
+        dataset = TL.createTestDatasetMem();
+        String graphData = ConfigTest.getTestingDataRoot() + "/Data/solver-data.ttl";
+        Txn.executeWrite(dataset, ()->RDFDataMgr.read(dataset, graphData));
+    }
+
+    @AfterClass
+    static public void afterClass() {
+        TL.expel(dataset);
+    }
+
+    @Test public void decodeBatch_01() { test("SELECT * { ?s ?p ?o }", 2); }
+
+    @Test public void decodeBatch_02() { test("SELECT * { ?s ?p ?o }", 1000); }
+
+    @Test public void decodeBatch_03() { test("PREFIX : <http://example/> SELECT ?s ?y { ?s :p ?z . ?z :q ?y }", 3); }
+
+    @Test public void decodeBatch_04() { test("PREFIX : <http://example/> SELECT * { VALUES ?s { :s :zzz } ?s ?p ?o }", 2); }
+
+    private static void test(String queryString, int batchSize) {
+        Txn.executeRead(dataset, ()->{
+            ResultSetRewindable rs1 = exec(queryString, 0);
+            ResultSetRewindable rs2 = exec(queryString, batchSize);
+            assertEquals(rs1.size(), rs2.size());
+            assertTrue(ResultSetCompare.equalsByTerm(rs1, rs2));
+        });
+    }
+
+    private static ResultSetRewindable exec(String queryString, int batchSize) {
+        try ( QueryExecution qExec = QueryExecution.create().query(queryString).dataset(dataset)
+                                                   .set(SystemTDB.symNodeDecodeBatchSize, batchSize).build() ) {
+            return qExec.execSelect().rewindable();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.*;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.sys.TDBInternal;
+import org.apache.jena.tdb2.junit.TL;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Parts of a query evaluated on other threads, each in a read transaction of its own. */
+public class TestParallelTDB2 {
+    static Dataset dataset = null;
+    static final String PREFIX = "PREFIX : <http://example/> ";
+
+    @BeforeClass
+    static public void beforeClass() {
+        dataset = TL.createTestDatasetMem();
+        StringBuilder sb = new StringBuilder(PREFIX);
+        for ( int i = 0 ; i < 500 ; i++ ) {
+            sb.append(String.format(":s%03d :p %d .\n", i, i));
+            if ( i % 3 == 0 )
+                sb.append(String.format(":s%03d :q %d .\n", i, i));
+        }
+        Txn.executeWrite(dataset, ()->RDFDataMgr.read(dataset, new StringReader(sb.toString()), null, Lang.TTL));
+    }
+
+    @AfterClass
+    static public void afterClass() {
+        TL.expel(dataset);
+    }
+
+    private static List<QuerySolution> exec(String qs, boolean parallel) {
+        try ( QueryExecution qExec = QueryExecutionFactory.create(PREFIX+qs, dataset) ) {
+            qExec.getContext().set(ARQ.parallelExecution, parallel);
+            return ResultSetFormatter.toList(qExec.execSelect());
+        }
+    }
+
+    private static void test(String qs, int expected) {
+        Txn.executeRead(dataset, ()->{
+            List<QuerySolution> x1 = exec(qs, false);
+            List<QuerySolution> x2 = exec(qs, true);
+            assertEquals(expected, x1.size());
+            assertEquals(x1.size(), x2.size());
+            // Same order.
+            for ( int i = 0 ; i < x1.size() ; i++ ) {
+                QuerySolution s1 = x1.get(i);
+                QuerySolution s2 = x2.get(i);
+                s1.varNames().forEachRemaining(v->assertEquals(s1.get(v), s2.get(v)));
+                s2.varNames().forEachRemaining(v->assertTrue(s1.contains(v)));
+            }
+        });
+    }
+
+    @Test public void parallel_union_1() {
+        test("SELECT * { { ?s :p ?v } UNION { ?s :q ?v } }", 500+167);
+    }
+
+    @Test public void parallel_union_2() {
+        test("SELECT * { ?s :q ?w { ?s :p ?v } UNION { ?s :q ?v FILTER(?v < 30) } }", 167+10);
+    }
+
+    @Test public void parallel_join_1() {
+        test("SELECT * { { ?s :p ?v } { SELECT ?s { ?s :q ?w } } }", 167);
+    }
+
+    private static ExecutionContext execCxt(DatasetGraphTDB dsg) {
+        Context cxt = ARQ.getContext().copy();
+        cxt.set(ARQ.parallelExecution, true);
+        return new ExecutionContext(cxt, dsg.getDefaultGraph(), dsg, QC.getFactory(cxt));
+    }
+
+    private static boolean runOnThread(Consumer<Runnable> runner, DatasetGraphTDB dsg) throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean(false);
+        Thread thread = new Thread(()->runner.accept(()->{
+            assertTrue(dsg.isInTransaction());
+            assertEquals(667, Iter.count(dsg.find(Node.ANY, Node.ANY, Node.ANY, Node.ANY)));
+            ran.set(true);
+        }));
+        thread.start();
+        thread.join();
+        return ran.get();
+    }
+
+    // The work runs in a read transaction on the other thread.
+    @Test public void parallel_runner_1() throws Exception {
+        DatasetGraphTDB dsg = TDBInternal.getDatasetGraphTDB(dataset.asDatasetGraph());
+        dataset.begin(TxnType.READ);
+        try {
+            OpExecutorTDB2 opExec = new OpExecutorTDB2(execCxt(dsg));
+            assertTrue(opExec.readInParallel());
+            assertTrue(runOnThread(opExec.poolThreadRunner(), dsg));
+        } finally { dataset.end(); }
+    }
+
+    // A commit since this transaction started: the work is not run on the other thread.
+    @Test public void parallel_runner_2() throws Exception {
+        DatasetGraphTDB dsg = TDBInternal.getDatasetGraphTDB(dataset.asDatasetGraph());
+        Quad quad = SSE.parseQuad("(_ :x :y :z)");
+        dataset.begin(TxnType.READ);
+        try {
+            OpExecutorTDB2 opExec = new OpExecutorTDB2(execCxt(dsg));
+            Consumer<Runnable> runner = opExec.poolThreadRunner();
+            Thread writer = new Thread(()->Txn.executeWrite(dataset, ()->dataset.asDatasetGraph().add(quad)));
+            writer.start();
+            writer.join();
+            assertFalse(runOnThread(runner, dsg));
+        } finally {
+            dataset.end();
+            Txn.executeWrite(dataset, ()->dataset.asDatasetGraph().delete(quad));
+        }
+    }
+
+    // Not in a READ transaction: the other thread can not see the same data.
+    @Test public void parallel_runner_3() {
+        DatasetGraphTDB dsg = TDBInternal.getDatasetGraphTDB(dataset.asDatasetGraph());
+        Txn.executeWrite(dataset, ()->{
+            OpExecutorTDB2 opExec = new OpExecutorTDB2(execCxt(dsg));
+            assertFalse(opExec.readInParallel());
+        });
+    }
+}
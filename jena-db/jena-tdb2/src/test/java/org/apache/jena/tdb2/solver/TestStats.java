@@ -19,15 +19,26 @@
 package org.apache.jena.tdb2.solver;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Iterator;
+import java.util.Map;
 
 import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.system.Txn;
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.engine.optimizer.StatsMatcher;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderWeighted;
+import org.apache.jena.sparql.sse.Item;
 import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
 import org.apache.jena.tdb2.junit.TL;
+import org.apache.jena.tdb2.solver.stats.Stats;
+import org.apache.jena.tdb2.solver.stats.StatsCollector;
 import org.apache.jena.tdb2.solver.stats.StatsCollectorNodeId;
 import org.apache.jena.tdb2.solver.stats.StatsResults;
 import org.apache.jena.tdb2.store.DatasetGraphTDB;
@@ -116,4 +127,64 @@ public class TestStats {
         assertEquals(1, r.getPredicates().keySet().size());
     }
 
+    private static Node p = NodeFactory.createURI("http://example/p");
+    private static Node status = NodeFactory.createURI("http://example/status");
+    private static Node id = NodeFactory.createURI("http://example/id");
+
+    private static Node s(int i) { return NodeFactory.createURI("http://example/s"+i); }
+
+    @Test
+    public void stats_distinct_01() {
+        StatsCollector stats = new StatsCollector();
+        for ( int i = 0 ; i < 50 ; i++ )
+            stats.record(null, s(i), p, NodeFactoryExtra.intToNode(i % 5));
+        StatsResults r = stats.results();
+        assertEquals(50L, r.getDistinctSubjects().get(p).longValue());
+        assertEquals(5L, r.getDistinctObjects().get(p).longValue());
+    }
+
+    @Test
+    public void stats_distinct_02() {
+        StatsCollector stats = new StatsCollector();
+        int N = 20000;
+        for ( int i = 0 ; i < N ; i++ )
+            stats.record(null, s(i), p, NodeFactoryExtra.intToNode(i % 7));
+        StatsResults r = stats.results();
+        long x = r.getDistinctSubjects().get(p);
+        assertTrue("Estimate: "+x, Math.abs(x - N) < N/20);
+        assertEquals(7L, r.getDistinctObjects().get(p).longValue());
+    }
+
+    // Skewed data: most subjects have the same status.
+    private static StatsResults skewed() {
+        StatsCollector stats = new StatsCollector();
+        Node active = NodeFactory.createLiteral("active");
+        for ( int i = 0 ; i < 1000 ; i++ ) {
+            Node status1 = ( i % 100 == 0 ) ? NodeFactory.createLiteral("status"+i) : active;
+            stats.record(null, s(i), status, status1);
+            stats.record(null, s(i), id, NodeFactoryExtra.intToNode(i));
+        }
+        return stats.results();
+    }
+
+    @Test
+    public void stats_frequent_01() {
+        StatsResults r = skewed();
+        Map<Node, Long> frequent = r.getFrequentObjects().get(status);
+        assertEquals(990L, frequent.get(NodeFactory.createLiteral("active")).longValue());
+    }
+
+    @Test
+    public void stats_reorder_01() {
+        Item item = Stats.format(skewed());
+        ReorderTransformation reorder = new ReorderWeighted(new StatsMatcher(item));
+        BasicPattern bgp = SSE.parseBGP("(bgp (?x <http://example/status> 'active') (?x <http://example/id> 7))");
+        BasicPattern bgp2 = reorder.reorder(bgp);
+        assertEquals(id, bgp2.get(0).getPredicate());
+        // With the subject known, about one match (the distinct count is an estimate).
+        StatsMatcher matcher = new StatsMatcher(item);
+        assertEquals(1.0, matcher.match(SSE.parseTriple("(<http://example/s1> <http://example/id> ?v)")), 0.1);
+        assertEquals(990.0, matcher.match(SSE.parseTriple("(?x <http://example/status> 'active')")), 0.01);
+    }
+
 }
@@ -19,6 +19,13 @@
 package org.apache.jena.tdb2.store;
 
 import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.jena.atlas.lib.StrUtils;
 import org.apache.jena.dboe.base.file.Location;
 import org.apache.jena.system.Txn;
@@ -30,6 +37,7 @@ import org.apache.jena.rdf.model.Model;
 import org.apache.jena.sparql.sse.SSE;
 import org.apache.jena.tdb2.TDB2;
 import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.tdb2.sys.SystemTDB;
 import org.apache.jena.update.*;
 import org.junit.Test;
 
@@ -202,6 +210,27 @@ public class Test_SPARQL_TDB
         });
     }
 
+    // Update requests outside a transaction, with group commit.
+    @Test public void sparql_update_group_commit() throws Exception
+    {
+        int N = 20;
+        Dataset ds = create();
+        ds.getContext().set(SystemTDB.symGroupCommit, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(N);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0 ; i < N ; i++ ) {
+                String us = "INSERT DATA { <http://example/s> <http://example/p> "+i+" }";
+                futures.add(executor.submit(()->update(ds, us)));
+            }
+            for ( Future<?> f : futures )
+                f.get();
+        } finally {
+            executor.shutdown();
+        }
+        Txn.executeRead(ds, ()->assertEquals(N, count(ds)));
+    }
+
     private int count(Dataset dataset)
     { return count(dataset, "SELECT * { ?s ?p ?o }"); }
 
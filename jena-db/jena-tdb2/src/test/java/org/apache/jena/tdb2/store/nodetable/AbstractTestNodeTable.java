@@ -22,6 +22,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.util.NodeFactoryExtra;
 import org.apache.jena.tdb2.store.NodeId;
@@ -64,4 +68,22 @@ public abstract class AbstractTestNodeTable
     @Test public void nodetable_05()    { testNode("'x'@en"); }
     @Test public void nodetable_06()    { testNode("'x'^^<http://example/dt>"); }
     @Test public void nodetable_07()    { testNode("'نواف'"); }
+
+    @Test public void nodetable_bulk_01() {
+        NodeTable nt = createEmptyNodeTable();
+        List<Node> nodes = new ArrayList<>();
+        List<NodeId> nodeIds = new ArrayList<>();
+        for ( String str : new String[] {"<http://example/x>", "1", "_:b", "'x'@en", "<http://example/y>"} ) {
+            Node n = NodeFactoryExtra.parseNode(str);
+            nodes.add(n);
+            nodeIds.add(nt.getAllocateNodeId(n));
+        }
+        // Reverse order, with a repeat.
+        Collections.reverse(nodes);
+        Collections.reverse(nodeIds);
+        nodes.add(nodes.get(0));
+        nodeIds.add(nodeIds.get(0));
+        List<Node> nodes2 = nt.bulkNodeIdToNode(nodeIds);
+        assertEquals(nodes, nodes2);
+    }
 }
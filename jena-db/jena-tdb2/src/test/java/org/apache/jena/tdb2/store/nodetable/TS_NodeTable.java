@@ -27,6 +27,9 @@ import org.junit.runners.Suite;
     , TestNodeTableStoredBase.class
     , TestNodeTableStored.class
     , TestNodeTable.class
+    , TestNodeTableOffHeap.class
+    , TestOffHeapLongBytesTable.class
+    , TestNodeTableReadView.class
 })
 public class TS_NodeTable
 {
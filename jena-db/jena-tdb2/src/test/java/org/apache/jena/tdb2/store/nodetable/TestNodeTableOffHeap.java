@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb2.store.nodetable;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.apache.jena.tdb2.junit.BuildTestLib;
+import org.apache.jena.tdb2.params.StoreParams;
+import org.apache.jena.tdb2.params.StoreParamsBuilder;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+import org.junit.Test;
+
+public class TestNodeTableOffHeap extends AbstractTestNodeTable
+{
+    @Override
+    protected NodeTable createEmptyNodeTable()
+    {
+        StoreParams params =
+            StoreParamsBuilder.create()
+                .nodeId2NodeCacheOffHeapSize(64*1024)
+                .node2NodeIdCacheSize(10)
+                .nodeMissCacheSize(10).build();
+        return BuildTestLib.makeNodeTable(Location.mem(), "test", params);
+    }
+
+    private static List<Node> nodes = List.of(
+        NodeFactoryExtra.parseNode("<http://example/x>"),
+        NodeFactoryExtra.parseNode("\"abc\""),
+        NodeFactoryExtra.parseNode("\"abc\"@en"),
+        NodeFactoryExtra.parseNode("\"1.5\"^^<http://www.w3.org/2001/XMLSchema#decimal>"),
+        NodeFactoryExtra.parseNode("_:b0"));
+
+    private static NodeCacheOffHeap cache() {
+        NodeCacheOffHeap cache = new NodeCacheOffHeap(64*1024);
+        for ( int i = 0 ; i < nodes.size() ; i++ )
+            cache.put(NodeIdFactory.createPtr(8*i), nodes.get(i));
+        return cache;
+    }
+
+    private static void check(NodeCacheOffHeap cache) {
+        for ( int i = 0 ; i < nodes.size() ; i++ ) {
+            NodeId nid = NodeIdFactory.createPtr(8*i);
+            assertEquals(nodes.get(i), cache.getIfPresent(nid));
+        }
+    }
+
+    @Test public void offHeapCache_1() {
+        NodeCacheOffHeap cache = cache();
+        // No drop notifications: ignored.
+        cache.setDropHandler((k,v)->{});
+        check(cache);
+        check(cache);
+    }
+
+    // Decoding on several threads.
+    @Test public void offHeapCache_2() throws Exception {
+        NodeCacheOffHeap cache = cache();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0 ; i < 4 ; i++ )
+                futures.add(executor.submit(()->{
+                    for ( int j = 0 ; j < 1000 ; j++ )
+                        check(cache);
+                }));
+            for ( Future<?> f : futures )
+                f.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
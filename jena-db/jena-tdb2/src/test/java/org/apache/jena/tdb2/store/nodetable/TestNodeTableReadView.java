@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.nodetable;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.ConfigTest;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.junit.TL;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.sys.TDBInternal;
+import org.junit.Test;
+
+/** Reading nodes from the node file, committed and uncommitted. */
+public class TestNodeTableReadView
+{
+    private static Node node(int i) {
+        if ( i % 10 == 0 )
+            // Long literal.
+            return NodeFactory.createLiteral("x"+i+"y".repeat(5000));
+        return NodeFactory.createURI("http://example/node"+i);
+    }
+
+    private static NodeTable nodeTable(DatasetGraph dsg) {
+        DatasetGraphTDB dsgtdb = TDBInternal.getDatasetGraphTDB(dsg);
+        // No caches: read from the file.
+        return dsgtdb.getTripleTable().getNodeTupleTable().getNodeTable().baseNodeTable();
+    }
+
+    @Test public void nodeTable_readView_01() {
+        Location location = Location.create(ConfigTest.getCleanDir());
+        int N = 200;
+        List<NodeId> ids = new ArrayList<>();
+        DatasetGraph dsg1 = DatabaseMgr.connectDatasetGraph(location);
+        Txn.executeWrite(dsg1, ()->{
+            NodeTable nt = nodeTable(dsg1);
+            for ( int i = 0 ; i < N ; i++ )
+                ids.add(nt.getAllocateNodeId(node(i)));
+        });
+        TL.expel(dsg1);
+
+        // Reopen.
+        DatasetGraph dsg2 = DatabaseMgr.connectDatasetGraph(location);
+        Txn.executeRead(dsg2, ()->{
+            NodeTable nt = nodeTable(dsg2);
+            for ( int i = N-1 ; i >= 0 ; i-- )
+                assertEquals(node(i), nt.getNodeForNodeId(ids.get(i)));
+        });
+        // Committed and new nodes in a write transaction.
+        Txn.executeWrite(dsg2, ()->{
+            NodeTable nt = nodeTable(dsg2);
+            NodeId id = nt.getAllocateNodeId(node(N));
+            assertEquals(node(N), nt.getNodeForNodeId(id));
+            assertEquals(node(0), nt.getNodeForNodeId(ids.get(0)));
+        });
+        TL.expel(dsg2);
+    }
+}
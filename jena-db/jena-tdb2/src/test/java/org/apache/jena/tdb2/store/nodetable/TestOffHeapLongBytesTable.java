@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.nodetable;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+import org.junit.Test;
+
+public class TestOffHeapLongBytesTable
+{
+    private static byte[] bytes(String str) { return str.getBytes(StandardCharsets.UTF_8); }
+
+    @Test public void offheap_table_01() {
+        OffHeapLongBytesTable table = new OffHeapLongBytesTable(16*1024);
+        assertTrue(table.isEmpty());
+        assertNull(table.get(0));
+        table.put(0, bytes("zero"));
+        table.put(1, bytes("one"));
+        assertEquals(2, table.size());
+        assertArrayEquals(bytes("zero"), table.get(0));
+        assertArrayEquals(bytes("one"), table.get(1));
+        assertFalse(table.contains(2));
+    }
+
+    @Test public void offheap_table_02() {
+        OffHeapLongBytesTable table = new OffHeapLongBytesTable(16*1024);
+        table.put(10, bytes("ten"));
+        table.put(10, bytes("TEN"));
+        assertEquals(1, table.size());
+        assertArrayEquals(bytes("TEN"), table.get(10));
+        table.remove(10);
+        assertNull(table.get(10));
+        assertTrue(table.isEmpty());
+    }
+
+    // Fill well beyond capacity: bounded size, recent entries retained.
+    @Test public void offheap_table_03() {
+        OffHeapLongBytesTable table = new OffHeapLongBytesTable(16*1024);
+        int N = 10_000;
+        for ( int i = 0 ; i < N ; i++ ) {
+            table.put(i, bytes("value-"+i));
+            // Keep key 0 in use.
+            assertArrayEquals(bytes("value-0"), table.get(0));
+        }
+        assertTrue(table.size() < N);
+        assertArrayEquals(bytes("value-"+(N-1)), table.get(N-1));
+        assertArrayEquals(bytes("value-0"), table.get(0));
+        // get() may move entries between generations; contains() does not.
+        for ( long k : table.keys() )
+            assertTrue(table.contains(k));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void offheap_table_04() {
+        OffHeapLongBytesTable table = new OffHeapLongBytesTable(16*1024);
+        table.put(-1, bytes("minus one"));
+    }
+
+    // After close, empty and changes are ignored.
+    @Test public void offheap_table_05() {
+        OffHeapLongBytesTable table = new OffHeapLongBytesTable(16*1024);
+        table.put(1, bytes("one"));
+        table.close();
+        assertNull(table.get(1));
+        assertFalse(table.contains(1));
+        table.put(2, bytes("two"));
+        assertTrue(table.isEmpty());
+        assertTrue(table.keys().isEmpty());
+        table.close();
+    }
+
+    @Test public void offheap_node_cache_01() {
+        NodeCacheOffHeap cache = new NodeCacheOffHeap(16*1024);
+        Node n1 = NodeFactoryExtra.parseNode("<http://example/s>");
+        Node n2 = NodeFactoryExtra.parseNode("'abc'@en");
+        Node n3 = NodeFactoryExtra.parseNode("_:b");
+        NodeId id1 = NodeIdFactory.createPtr(0);
+        NodeId id2 = NodeIdFactory.createPtr(100);
+        NodeId id3 = NodeIdFactory.createPtr(200);
+        cache.put(id1, n1);
+        cache.put(id2, n2);
+        cache.put(id3, n3);
+        assertEquals(n1, cache.getIfPresent(id1));
+        assertEquals(n2, cache.getIfPresent(id2));
+        assertEquals(n3, cache.getIfPresent(id3));
+        assertNull(cache.getIfPresent(NodeIdFactory.createPtr(300)));
+        assertEquals(3, cache.size());
+    }
+}
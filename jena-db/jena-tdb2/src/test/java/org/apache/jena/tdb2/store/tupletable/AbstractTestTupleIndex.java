@@ -260,5 +260,27 @@ public abstract class AbstractTestTupleIndex
         assertFalse(iter.hasNext());
    }
 
+    @Test public void TupleIndexRecordFindFrom_1()
+    {
+        TupleIndex index = create("POS");
+        add(index, n1, n2, n3);
+        add(index, n4, n2, n5);
+        add(index, n5, n2, n6);
+        add(index, n4, n3, n6);
 
+        Tuple<NodeId> tuple2 = tuple(null, n2, null);
+        Iterator<Tuple<NodeId>> iter = index.findFrom(tuple2, 2, n5);
+        assertEquals(tuple(n4, n2, n5), iter.next());
+        assertEquals(tuple(n5, n2, n6), iter.next());
+        assertFalse(iter.hasNext());
+    }
+
+    @Test public void TupleIndexRecordFindFrom_2()
+    {
+        TupleIndex index = create("POS");
+        add(index, n1, n2, n3);
+        // The pattern does not match the leading slots of the index.
+        Iterator<Tuple<NodeId>> iter = index.findFrom(tuple(n1, null, null), 2, n3);
+        assertNull(iter);
+    }
 }
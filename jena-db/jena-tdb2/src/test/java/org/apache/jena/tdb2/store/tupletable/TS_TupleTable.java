@@ -25,7 +25,8 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses( {
     TestTupleIndexRecord.class,
     TestTupleIndexRecordDirect.class,
-    TestTupleTable.class
+    TestTupleTable.class,
+    TestTupleTableBuffered.class
 } )
 
 public class TS_TupleTable
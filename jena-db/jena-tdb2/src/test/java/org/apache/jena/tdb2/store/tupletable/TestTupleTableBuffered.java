@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store.tupletable;
+
+import static org.junit.Assert.*;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.sys.SystemTDB;
+import org.apache.jena.tdb2.sys.TDBInternal;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestTupleTableBuffered
+{
+    private static int batchSize;
+
+    @BeforeClass public static void beforeClass() {
+        batchSize = SystemTDB.getIndexUpdateBatchSize();
+        SystemTDB.setIndexUpdateBatchSize(10*1000);
+    }
+
+    @AfterClass public static void afterClass() {
+        SystemTDB.setIndexUpdateBatchSize(batchSize);
+    }
+
+    private static Node g = NodeFactory.createURI("http://example/g");
+    private static Node p = NodeFactory.createURI("http://example/p");
+
+    private static Node s(int i) { return NodeFactory.createURI("http://example/s"+i); }
+    private static Node o(int i) { return NodeFactory.createLiteral("o"+i); }
+
+    private static void checkIndexes(TupleTable table, long expected) {
+        for ( TupleIndex idx : table.getIndexes() )
+            assertEquals(idx.getName(), expected, idx.size());
+    }
+
+    private static TupleTable tripleTable(DatasetGraph dsg) {
+        DatasetGraphTDB dsgtdb = TDBInternal.getDatasetGraphTDB(dsg);
+        return dsgtdb.getTripleTable().getNodeTupleTable().getTupleTable();
+    }
+
+    private static TupleTable quadTable(DatasetGraph dsg) {
+        DatasetGraphTDB dsgtdb = TDBInternal.getDatasetGraphTDB(dsg);
+        return dsgtdb.getQuadTable().getNodeTupleTable().getTupleTable();
+    }
+
+    @Test public void buffered_00() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        assertTrue(tripleTable(dsg) instanceof TupleTableBuffered);
+        assertTrue(quadTable(dsg) instanceof TupleTableBuffered);
+    }
+
+    // Enough to update the indexes in parallel.
+    @Test public void buffered_01() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        int N = 5000;
+        Txn.executeWrite(dsg, ()->{
+            for ( int i = 0 ; i < N ; i++ ) {
+                dsg.add(Quad.defaultGraphIRI, s(i), p, o(i));
+                dsg.add(g, s(i), p, o(i));
+            }
+        });
+        Txn.executeRead(dsg, ()->{
+            checkIndexes(tripleTable(dsg), N);
+            checkIndexes(quadTable(dsg), N);
+            assertEquals(1, Iter.count(dsg.getDefaultGraph().find(null, null, o(7))));
+            assertTrue(dsg.getGraph(g).contains(s(7), p, o(7)));
+        });
+    }
+
+    // The writer sees its own changes.
+    @Test public void buffered_02() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(Quad.defaultGraphIRI, s(1), p, o(1));
+            assertTrue(dsg.getDefaultGraph().contains(null, null, o(1)));
+            dsg.delete(Quad.defaultGraphIRI, s(1), p, o(1));
+            assertFalse(dsg.getDefaultGraph().contains(s(1), null, null));
+            dsg.add(Quad.defaultGraphIRI, s(2), p, o(2));
+        });
+        Txn.executeRead(dsg, ()->{
+            checkIndexes(tripleTable(dsg), 1);
+            assertTrue(dsg.getDefaultGraph().contains(null, p, o(2)));
+        });
+    }
+
+    // Add then delete in the same batch.
+    @Test public void buffered_03() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        int N = 2000;
+        Txn.executeWrite(dsg, ()->{
+            for ( int i = 0 ; i < N ; i++ )
+                dsg.add(g, s(i), p, o(i));
+            for ( int i = 0 ; i < N ; i += 2 )
+                dsg.delete(g, s(i), p, o(i));
+            for ( int i = 0 ; i < 10 ; i++ )
+                dsg.add(g, s(i), p, o(i));
+        });
+        Txn.executeRead(dsg, ()->{
+            checkIndexes(quadTable(dsg), N/2+5);
+            assertTrue(dsg.contains(g, s(0), p, o(0)));
+            assertFalse(dsg.contains(g, s(10), p, o(10)));
+        });
+    }
+
+    // Abort drops the buffered changes.
+    @Test public void buffered_04() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        dsg.begin(ReadWrite.WRITE);
+        dsg.add(Quad.defaultGraphIRI, s(1), p, o(1));
+        dsg.abort();
+        dsg.end();
+        Txn.executeWrite(dsg, ()->dsg.add(Quad.defaultGraphIRI, s(2), p, o(2)));
+        Txn.executeRead(dsg, ()->{
+            checkIndexes(tripleTable(dsg), 1);
+            assertFalse(dsg.getDefaultGraph().contains(s(1), null, null));
+        });
+    }
+}
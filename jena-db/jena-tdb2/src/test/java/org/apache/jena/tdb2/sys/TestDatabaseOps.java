@@ -24,10 +24,13 @@ import static org.junit.Assume.assumeFalse;
 import org.apache.commons.io.FileUtils;
 import org.apache.jena.atlas.lib.FileOps;
 import org.apache.jena.base.Sys;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
 import org.apache.jena.dboe.base.file.Location;
 import org.apache.jena.dboe.sys.IO_DB;
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.query.TxnType;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
@@ -38,6 +41,7 @@ import org.apache.jena.tdb2.DatabaseMgr;
 import org.apache.jena.tdb2.TDBException;
 import org.apache.jena.tdb2.store.DatasetGraphSwitchable;
 import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.StorageTDB;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -48,6 +52,7 @@ public class TestDatabaseOps
 
     static Quad quad1 = SSE.parseQuad("(_ <s> <p> 1)");
     static Quad quad2 = SSE.parseQuad("(_ _:a <p> 2)");
+    static Quad quad3 = SSE.parseQuad("(<g> <s> <p> 3)");
     static Triple triple1 = quad1.asTriple();
     static Triple triple2 = quad2.asTriple();
     static Triple triple3 = SSE.parseTriple("(<s> <q> 3)");
@@ -254,6 +259,96 @@ public class TestDatabaseOps
         Txn.executeRead(dsg2, ()->assertTrue(dsg2.contains(quad2)) );
     }
 
+    @Test public void compact_online_1() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        DatasetGraphSwitchable dsgs = (DatasetGraphSwitchable)dsg;
+        DatasetGraph dsg1 = dsgs.get();
+        Location loc1 = ((DatasetGraphTDB)dsg1).getLocation();
+
+        Txn.executeWrite(dsg, ()-> {
+            dsg.add(quad2);
+            dsg.add(quad1);
+            dsg.add(quad3);
+            dsg.prefixes().add("ex", "http://example/");
+        });
+        DatabaseMgr.compactOnline(dsg, false);
+
+        assertFalse(StoreConnection.isSetup(loc1));
+        // No longer recording changes to the old database.
+        assertNull(((StorageTDB)((DatasetGraphTDB)dsg1).getData()).getMonitor());
+        DatasetGraph dsg2 = dsgs.get();
+        assertNotEquals(loc1, ((DatasetGraphTDB)dsg2).getLocation());
+
+        Txn.executeRead(dsg, ()-> {
+            assertTrue(dsg.contains(quad1));
+            assertTrue(dsg.contains(quad2));
+            assertTrue(dsg.contains(quad3));
+            assertEquals(2, dsg.getDefaultGraph().size());
+            assertEquals("http://example/", dsg.prefixes().get("ex"));
+        });
+        // The compacted database is in use.
+        Txn.executeWrite(dsg, ()->dsg.delete(quad1));
+        Txn.executeRead(dsg2, ()->assertFalse(dsg2.contains(quad1)));
+    }
+
+    // Changes recorded during an online compaction.
+    @Test public void compact_online_delta() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        DatasetGraphTDB dsgtdb = (DatasetGraphTDB)((DatasetGraphSwitchable)dsg).get();
+        CompactionDelta delta = new CompactionDelta();
+        dsgtdb.getTxnSystem().getTxnMgr().modifyConfig(()->dsgtdb.getTxnSystem().getTxnMgr().addListener(delta));
+        ((StorageTDB)dsgtdb.getData()).setMonitor(delta);
+
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(quad1);
+            dsg.add(quad2);
+            dsg.add(quad3);
+        });
+        // Aborted.
+        dsg.begin(TxnType.WRITE);
+        dsg.delete(quad1);
+        dsg.abort();
+        dsg.end();
+        assertEquals(3, delta.size());
+        Txn.executeWrite(dsg, ()->dsg.deleteAny(null, null, null, NodeFactory.createLiteral("2", XSDDatatype.XSDinteger)));
+        assertEquals(4, delta.size());
+
+        DatasetGraphTDB dsg2 = TDBInternal.getDatasetGraphTDB(DatabaseMgr.createDatasetGraph());
+        assertEquals(4, delta.applyTo(dsg2));
+        assertEquals(0, delta.size());
+        Txn.executeRead(dsg2, ()->{
+            assertTrue(dsg2.contains(quad1));
+            assertFalse(dsg2.contains(quad2));
+            assertTrue(dsg2.contains(quad3));
+        });
+    }
+
+    // Too many changes recorded during an online compaction.
+    @Test public void compact_online_delta_limit() {
+        DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
+        DatasetGraphTDB dsgtdb = (DatasetGraphTDB)((DatasetGraphSwitchable)dsg).get();
+        CompactionDelta delta = new CompactionDelta(2);
+        dsgtdb.getTxnSystem().getTxnMgr().modifyConfig(()->dsgtdb.getTxnSystem().getTxnMgr().addListener(delta));
+        ((StorageTDB)dsgtdb.getData()).setMonitor(delta);
+
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(quad1);
+            dsg.add(quad2);
+        });
+        assertFalse(delta.overflow());
+        Txn.executeWrite(dsg, ()->dsg.add(quad3));
+        assertTrue(delta.overflow());
+        assertEquals(0, delta.size());
+        // The writer was not affected.
+        Txn.executeRead(dsg, ()->assertTrue(dsg.contains(quad3)));
+
+        DatasetGraphTDB dsg2 = TDBInternal.getDatasetGraphTDB(DatabaseMgr.createDatasetGraph());
+        try {
+            delta.applyTo(dsg2);
+            fail("Expected TDBException");
+        } catch (TDBException ex) {}
+    }
+
     @Test public void backup_1() {
         DatasetGraph dsg = DatabaseMgr.connectDatasetGraph(dir);
         Txn.executeWrite(dsg, ()-> {
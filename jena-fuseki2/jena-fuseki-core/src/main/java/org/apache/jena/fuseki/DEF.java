@@ -79,6 +79,7 @@ public class DEF
                                                                           contentTypeResultsXML,
                                                                           contentTypeXML,
                                                                           contentTypeResultsThrift,
+                                                                          contentTypeResultsColumnar,
                                                                           contentTypeTextPlain
                                                                           );
 
@@ -90,6 +91,7 @@ public class DEF
                                                                            contentTypeTextTSV,
                                                                            contentTypeResultsXML,
                                                                            contentTypeXML,
+                                                                           contentTypeResultsColumnar,
                                                                            contentTypeTextPlain
                                                                            );
 }
@@ -63,6 +63,7 @@ public class ResponseResultSet
     private static final String contentOutputCSV           = "csv";
     private static final String contentOutputTSV           = "tsv";
     private static final String contentOutputThrift        = "thrift";
+    private static final String contentOutputColumnar      = "columnar";
 
     public static Map<String,String> shortNamesResultSet = new HashMap<>();
     static {
@@ -74,6 +75,7 @@ public class ResponseResultSet
         ResponseOps.put(shortNamesResultSet, contentOutputCSV,    contentTypeTextCSV);
         ResponseOps.put(shortNamesResultSet, contentOutputTSV,    contentTypeTextTSV);
         ResponseOps.put(shortNamesResultSet, contentOutputThrift, contentTypeResultsThrift);
+        ResponseOps.put(shortNamesResultSet, contentOutputColumnar, contentTypeResultsColumnar);
     }
 
     interface OutputContent { void output(OutputStream out) throws IOException; }
@@ -143,6 +145,8 @@ public class ResponseResultSet
         // Thrift is special because
         // (1) charset is meaningless
         // (2) there is no boolean result form.
+        //
+        // Columnar is binary: charset is meaningless.
 
         if ( Objects.equals(serializationType, contentTypeTextPlain) ) {
             textOutput(action, contentType, resultSet, qPrologue, booleanResult);
@@ -172,6 +176,8 @@ public class ResponseResultSet
                 ServletOps.errorBadRequest("Can't write a boolean result in thrift");
             charset = null;
         }
+        if (Objects.equals(serializationType, WebContent.contentTypeResultsColumnar) )
+            charset = null;
 
         // Finally, the general case
         generalOutput(action, lang, contentType, charset, cxt, jsonCallback, resultSet, booleanResult);
@@ -26,7 +26,6 @@ import org.apache.jena.sparql.algebra.OpLib;
 import org.apache.jena.sparql.core.DatasetDescription ;
 import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.core.DynamicDatasets ;
-import org.apache.jena.sparql.core.Substitute ;
 import org.apache.jena.sparql.engine.Plan ;
 import org.apache.jena.sparql.engine.QueryEngineFactory ;
 import org.apache.jena.sparql.engine.QueryEngineRegistry ;
@@ -73,7 +72,6 @@ public class QueryEngineTDB extends QueryEngineMain
     @Override
     protected Op modifyOp(Op op)
     {
-        op = Substitute.substitute(op, getStartBinding()) ;
         // Optimize (high-level)
         op = super.modifyOp(op) ;
 